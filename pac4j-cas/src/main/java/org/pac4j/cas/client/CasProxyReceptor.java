@@ -1,13 +1,12 @@
 package org.pac4j.cas.client;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ScheduledFuture;
 
-import org.jasig.cas.client.proxy.CleanUpTimerTask;
 import org.jasig.cas.client.proxy.ProxyGrantingTicketStorage;
-import org.jasig.cas.client.proxy.ProxyGrantingTicketStorageImpl;
 import org.jasig.cas.client.util.CommonUtils;
 import org.pac4j.cas.profile.CasProfile;
+import org.pac4j.cas.proxy.ExpiringProxyGrantingTicketStorage;
+import org.pac4j.cas.proxy.ProxyGrantingTicketCleaner;
 import org.pac4j.core.client.IndirectClientV2;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.credentials.TokenCredentials;
@@ -21,9 +20,11 @@ import org.slf4j.LoggerFactory;
  * <p>This class is the CAS proxy receptor.</p>
  * <p>The url of the proxy receptor must be defined through the {@link #setCallbackUrl(String)} method, it's the <code>proxyReceptorUrl</code>
  * concept of the Jasig CAS client.</p>
- * <p>The proxy granting tickets and associations are stored by default in a {@link ProxyGrantingTicketStorageImpl} class, which can be
- * overriden by using the {@link #setProxyGrantingTicketStorage(ProxyGrantingTicketStorage)} method.</p>
- * <p>By default, the tickets and associations are cleaned every minute. The <code>millisBetweenCleanUps</code> property can be defined through
+ * <p>The proxy granting tickets and associations are stored by default in a {@link ExpiringProxyGrantingTicketStorage} class, which can be
+ * overriden by using the {@link #setProxyGrantingTicketStorage(ProxyGrantingTicketStorage)} method (use a
+ * {@link org.pac4j.cas.proxy.DistributedProxyGrantingTicketStorage} to share the tickets between several nodes).</p>
+ * <p>By default, the tickets and associations are cleaned every minute by the {@link ProxyGrantingTicketCleaner}, whose single thread is shared
+ * by all the proxy receptors. The <code>millisBetweenCleanUps</code> property can be defined through
  * the {@link #setMillisBetweenCleanUps(int)} method (0 means no cleanup, greater than 0 means a cleanup every
  * <code>millisBetweenCleanUps</code> milli-seconds).</p>
  * 
@@ -34,7 +35,7 @@ public final class CasProxyReceptor extends IndirectClientV2<TokenCredentials, C
     
     private static final Logger logger = LoggerFactory.getLogger(CasProxyReceptor.class);
     
-    private ProxyGrantingTicketStorage proxyGrantingTicketStorage = new ProxyGrantingTicketStorageImpl();
+    private ProxyGrantingTicketStorage proxyGrantingTicketStorage = new ExpiringProxyGrantingTicketStorage();
     
     public static final String PARAM_PROXY_GRANTING_TICKET_IOU = "pgtIou";
     
@@ -42,25 +43,20 @@ public final class CasProxyReceptor extends IndirectClientV2<TokenCredentials, C
     
     private int millisBetweenCleanUps = 60000;
     
-    private Timer timer;
-    
-    private TimerTask timerTask;
+    private ScheduledFuture<?> cleanUpTask;
 
     @Override
     protected void internalInit(final WebContext context) {
         super.internalInit(context);
 
         CommonHelper.assertNotNull("proxyGrantingTicketStorage", this.proxyGrantingTicketStorage);
-        // timer to clean proxyGrantingTicketStorage
+        // shared scheduler to clean proxyGrantingTicketStorage
+        if (this.cleanUpTask != null) {
+            this.cleanUpTask.cancel(false);
+            this.cleanUpTask = null;
+        }
         if (this.millisBetweenCleanUps > 0) {
-            if (this.timer == null) {
-                this.timer = new Timer(true);
-            }
-            
-            if (this.timerTask == null) {
-                this.timerTask = new CleanUpTimerTask(this.proxyGrantingTicketStorage);
-            }
-            this.timer.schedule(this.timerTask, this.millisBetweenCleanUps, this.millisBetweenCleanUps);
+            this.cleanUpTask = ProxyGrantingTicketCleaner.schedule(this.proxyGrantingTicketStorage, this.millisBetweenCleanUps);
         }
 
         setRedirectActionBuilder(ctx -> { throw new TechnicalException("Not supported by the CAS proxy receptor"); });
@@ -5,6 +5,8 @@ import org.pac4j.cas.client.CasProxyReceptor;
 import org.pac4j.cas.logout.CasLogoutHandler;
 import org.pac4j.cas.logout.CasSingleSignOutHandler;
 import org.pac4j.cas.logout.NoLogoutHandler;
+import org.pac4j.cas.validation.CachingTicketValidator;
+import org.pac4j.cas.validation.StreamingCasTicketValidator;
 import org.pac4j.core.context.HttpConstants;
 import org.pac4j.core.context.J2EContext;
 import org.pac4j.core.context.WebContext;
@@ -13,6 +15,8 @@ import org.pac4j.core.http.CallbackUrlResolver;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.core.util.InitializableWebObject;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * CAS configuration.
  *
@@ -57,6 +61,12 @@ public class CasConfiguration extends InitializableWebObject {
 
     private CallbackUrlResolver callbackUrlResolver;
 
+    private boolean streamingValidation = false;
+
+    private long proxyTicketCacheTimeout = 0L;
+
+    private long proxyTicketCacheSize = 10000L;
+
     public CasConfiguration() { }
 
     public CasConfiguration(final String loginUrl) {
@@ -85,6 +95,8 @@ public class CasConfiguration extends InitializableWebObject {
 
         if (this.protocol == CasProtocol.CAS10) {
             initializeCas10Protocol();
+        } else if (this.streamingValidation && this.protocol != CasProtocol.SAML) {
+            initializeStreamingValidation(context);
         } else if (this.protocol == CasProtocol.CAS20) {
             initializeCas20Protocol(context);
         } else if (this.protocol == CasProtocol.CAS20_PROXY) {
@@ -96,6 +108,11 @@ public class CasConfiguration extends InitializableWebObject {
         } else if (this.protocol == CasProtocol.SAML) {
             initializeSAMLProtocol();
         }
+
+        if (this.proxyTicketCacheTimeout > 0 && !(this.ticketValidator instanceof CachingTicketValidator)) {
+            this.ticketValidator = new CachingTicketValidator(this.ticketValidator, this.proxyTicketCacheSize,
+                    this.proxyTicketCacheTimeout, TimeUnit.MILLISECONDS);
+        }
     }
 
     protected void initializeClientConfiguration(final WebContext context) {
@@ -123,6 +140,19 @@ public class CasConfiguration extends InitializableWebObject {
         }
     }
 
+    protected void initializeStreamingValidation(final WebContext context) {
+        final StreamingCasTicketValidator streamingTicketValidator = new StreamingCasTicketValidator(this.prefixUrl, this.protocol);
+        streamingTicketValidator.setEncoding(this.encoding);
+        streamingTicketValidator.setAcceptAnyProxy(this.acceptAnyProxy);
+        streamingTicketValidator.setAllowedProxyChains(this.allowedProxyChains);
+        if (this.proxyReceptor != null) {
+            streamingTicketValidator.setProxyCallbackUrl(this.proxyReceptor.computeFinalCallbackUrl(context));
+            streamingTicketValidator.setProxyGrantingTicketStorage(this.proxyReceptor
+                    .getProxyGrantingTicketStorage());
+        }
+        setTicketValidator(streamingTicketValidator);
+    }
+
     protected void initializeSAMLProtocol() {
         final Saml11TicketValidator saml11TicketValidator = new Saml11TicketValidator(this.prefixUrl);
         saml11TicketValidator.setTolerance(getTimeTolerance());
@@ -292,11 +322,36 @@ public class CasConfiguration extends InitializableWebObject {
         }
     }
 
+    public boolean isStreamingValidation() {
+        return streamingValidation;
+    }
+
+    public void setStreamingValidation(final boolean streamingValidation) {
+        this.streamingValidation = streamingValidation;
+    }
+
+    public long getProxyTicketCacheTimeout() {
+        return proxyTicketCacheTimeout;
+    }
+
+    public void setProxyTicketCacheTimeout(final long proxyTicketCacheTimeout) {
+        this.proxyTicketCacheTimeout = proxyTicketCacheTimeout;
+    }
+
+    public long getProxyTicketCacheSize() {
+        return proxyTicketCacheSize;
+    }
+
+    public void setProxyTicketCacheSize(final long proxyTicketCacheSize) {
+        this.proxyTicketCacheSize = proxyTicketCacheSize;
+    }
+
     @Override
     public String toString() {
         return CommonHelper.toString(this.getClass(), "loginUrl", this.loginUrl, "prefixUrl", this.prefixUrl,
                 "protocol", this.protocol, "renew", this.renew, "gateway", this.gateway, "encoding", this.encoding,
                 "logoutHandler", this.logoutHandler, "acceptAnyProxy", this.acceptAnyProxy, "allowedProxyChains", this.allowedProxyChains,
-                "proxyReceptor", this.proxyReceptor, "timeTolerance", this.timeTolerance);
+                "proxyReceptor", this.proxyReceptor, "timeTolerance", this.timeTolerance,
+                "streamingValidation", this.streamingValidation, "proxyTicketCacheTimeout", this.proxyTicketCacheTimeout);
     }
 }
@@ -10,12 +10,13 @@ import org.pac4j.core.credentials.extractor.CredentialsExtractor;
 import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.CompressionHelper;
 import org.pac4j.core.util.InitializableWebObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.xml.bind.DatatypeConverter;
-import java.util.zip.Inflater;
+import java.nio.charset.StandardCharsets;
 
 /**
  * CAS ticket extractor or logout request handler.
@@ -25,14 +26,14 @@ import java.util.zip.Inflater;
  */
 public class TicketAndLogoutRequestExtractor extends InitializableWebObject implements CredentialsExtractor<TokenCredentials> {
 
-    private final static int DECOMPRESSION_FACTOR = 10;
-
     private final static Logger logger = LoggerFactory.getLogger(TicketAndLogoutRequestExtractor.class);
 
     private CasConfiguration configuration;
 
     private String clientName;
 
+    private int maxLogoutMessageSize = CompressionHelper.DEFAULT_MAX_OUTPUT_SIZE;
+
     public TicketAndLogoutRequestExtractor() {}
 
     public TicketAndLogoutRequestExtractor(final CasConfiguration configuration, final String clientName) {
@@ -73,10 +74,7 @@ public class TicketAndLogoutRequestExtractor extends InitializableWebObject impl
             throw HttpAction.ok(message, context);
 
         } else if (isFrontLogoutRequest(context)) {
-            final String logoutMessage = uncompressLogoutMessage(context.getRequestParameter(CasConfiguration.LOGOUT_REQUEST_PARAMETER));
-            logger.trace("Logout request:\n{}", logoutMessage);
-
-            final String ticket = CommonHelper.substringBetween(logoutMessage, CasConfiguration.SESSION_INDEX_TAG + ">", "</");
+            final String ticket = extractTicketFromCompressedLogoutMessage(context.getRequestParameter(CasConfiguration.LOGOUT_REQUEST_PARAMETER));
             if (CommonUtils.isNotBlank(ticket)) {
                 configuration.getLogoutHandler().destroySessionFront(context, ticket);
             }
@@ -108,27 +106,21 @@ public class TicketAndLogoutRequestExtractor extends InitializableWebObject impl
                 && CommonHelper.isNotBlank(context.getRequestParameter(CasConfiguration.LOGOUT_REQUEST_PARAMETER));
     }
 
-    private String uncompressLogoutMessage(final String originalMessage) {
+    private String extractTicketFromCompressedLogoutMessage(final String originalMessage) {
         final byte[] binaryMessage = DatatypeConverter.parseBase64Binary(originalMessage);
 
-        Inflater decompresser = null;
         try {
-            // decompress the bytes
-            decompresser = new Inflater();
-            decompresser.setInput(binaryMessage);
-            final byte[] result = new byte[binaryMessage.length * DECOMPRESSION_FACTOR];
-
-            final int resultLength = decompresser.inflate(result);
-
-            // decode the bytes into a String
-            return new String(result, 0, resultLength, "UTF-8");
-        } catch (final Exception e) {
-            logger.error("Unable to decompress logout message", e);
-            throw new TechnicalException(e);
-        } finally {
-            if (decompresser != null) {
-                decompresser.end();
+            if (logger.isTraceEnabled()) {
+                final String logoutMessage = CompressionHelper.inflate(binaryMessage, false, maxLogoutMessageSize, StandardCharsets.UTF_8);
+                logger.trace("Logout request:\n{}", logoutMessage);
+                return CommonHelper.substringBetween(logoutMessage, CasConfiguration.SESSION_INDEX_TAG + ">", "</");
             }
+            // only inflate the message until the session index is found
+            return CompressionHelper.inflateAndFind(binaryMessage, false, maxLogoutMessageSize, CasConfiguration.SESSION_INDEX_TAG + ">",
+                    '<', StandardCharsets.UTF_8);
+        } catch (final TechnicalException e) {
+            logger.error("Unable to decompress logout message", e);
+            throw e;
         }
     }
 
@@ -167,8 +159,17 @@ public class TicketAndLogoutRequestExtractor extends InitializableWebObject impl
         this.clientName = clientName;
     }
 
+    public int getMaxLogoutMessageSize() {
+        return maxLogoutMessageSize;
+    }
+
+    public void setMaxLogoutMessageSize(final int maxLogoutMessageSize) {
+        this.maxLogoutMessageSize = maxLogoutMessageSize;
+    }
+
     @Override
     public String toString() {
-        return CommonHelper.toString(this.getClass(), "configuration", configuration, "clientName", clientName);
+        return CommonHelper.toString(this.getClass(), "configuration", configuration, "clientName", clientName,
+                "maxLogoutMessageSize", maxLogoutMessageSize);
     }
 }
@@ -0,0 +1,84 @@
+package org.pac4j.cas.logout;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In memory, concurrent and bounded {@link SessionIdMappingStorage}: the associations expire after a timeout
+ * and the oldest ones are evicted when the maximum size is reached ({@link BoundedSessionMappingStorage#DEFAULT_MAX_SIZE} by default).
+ * Each eviction is logged and counted (see {@link #getNbEvictions()}): a back channel logout cannot destroy the session
+ * of an evicted association.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class BoundedSessionIdMappingStorage implements SessionIdMappingStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedSessionIdMappingStorage.class);
+
+    private final Cache<String, String> sessionIdsByTicket;
+
+    private final Cache<String, String> ticketsBySessionId;
+
+    private final LongAdder nbEvictions = new LongAdder();
+
+    public BoundedSessionIdMappingStorage() {
+        this(BoundedSessionMappingStorage.DEFAULT_MAX_SIZE, BoundedSessionMappingStorage.DEFAULT_TIMEOUT,
+                BoundedSessionMappingStorage.DEFAULT_TIME_UNIT);
+    }
+
+    public BoundedSessionIdMappingStorage(final long maxSize, final long timeout, final TimeUnit timeUnit) {
+        CommonHelper.assertTrue(maxSize > 0, "maxSize must be > 0");
+        CommonHelper.assertTrue(timeout > 0, "timeout must be > 0");
+        CommonHelper.assertNotNull("timeUnit", timeUnit);
+
+        this.sessionIdsByTicket = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(timeout, timeUnit)
+                .<String, String>removalListener(notification -> {
+                    if (notification.getCause() == RemovalCause.SIZE) {
+                        nbEvictions.increment();
+                        logger.warn("Maximum size reached: session mapping evicted for ticket [{}], the back channel logout will not "
+                                + "destroy the session [{}]", notification.getKey(), notification.getValue());
+                    }
+                }).build();
+        this.ticketsBySessionId = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(timeout, timeUnit).build();
+    }
+
+    @Override
+    public void add(final String ticket, final String sessionId) {
+        this.ticketsBySessionId.put(sessionId, ticket);
+        this.sessionIdsByTicket.put(ticket, sessionId);
+    }
+
+    @Override
+    public String removeByTicket(final String ticket) {
+        final String sessionId = this.sessionIdsByTicket.asMap().remove(ticket);
+        if (sessionId != null) {
+            this.ticketsBySessionId.asMap().remove(sessionId, ticket);
+        }
+        return sessionId;
+    }
+
+    @Override
+    public void removeBySessionId(final String sessionId) {
+        final String ticket = this.ticketsBySessionId.asMap().remove(sessionId);
+        if (ticket != null) {
+            this.sessionIdsByTicket.invalidate(ticket);
+        }
+    }
+
+    /**
+     * Return the number of associations evicted because the maximum size was reached.
+     *
+     * @return the number of evictions
+     */
+    public long getNbEvictions() {
+        return this.nbEvictions.sum();
+    }
+}
@@ -0,0 +1,106 @@
+package org.pac4j.cas.logout;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import org.jasig.cas.client.session.SessionMappingStorage;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpSession;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Concurrent and bounded {@link SessionMappingStorage}: the associations between the service tickets and the web sessions
+ * expire after a timeout and the oldest ones are evicted when the maximum size is reached.</p>
+ *
+ * <p>Unlike the {@link org.jasig.cas.client.session.HashMapBackedSessionMappingStorage}, no synchronization is required and
+ * the memory used is bounded even if the {@link org.jasig.cas.client.session.SingleSignOutHttpSessionListener} is not declared.</p>
+ *
+ * <p>By default, up to {@link #DEFAULT_MAX_SIZE} associations are kept (200 000 concurrent sessions plus a margin, as the eviction
+ * may start slightly before the maximum size is reached). A back channel logout cannot destroy a session whose association
+ * has been evicted: each eviction is logged and counted (see {@link #getNbEvictions()}), the maximum size must be raised
+ * if it happens for live sessions.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class BoundedSessionMappingStorage implements SessionMappingStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedSessionMappingStorage.class);
+
+    public final static long DEFAULT_MAX_SIZE = 250000;
+
+    public final static long DEFAULT_TIMEOUT = 8;
+
+    public final static TimeUnit DEFAULT_TIME_UNIT = TimeUnit.HOURS;
+
+    private final Cache<String, HttpSession> sessionsByTicket;
+
+    private final Cache<String, String> ticketsBySessionId;
+
+    private final LongAdder nbEvictions = new LongAdder();
+
+    public BoundedSessionMappingStorage() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TIMEOUT, DEFAULT_TIME_UNIT);
+    }
+
+    public BoundedSessionMappingStorage(final long maxSize, final long timeout, final TimeUnit timeUnit) {
+        CommonHelper.assertTrue(maxSize > 0, "maxSize must be > 0");
+        CommonHelper.assertTrue(timeout > 0, "timeout must be > 0");
+        CommonHelper.assertNotNull("timeUnit", timeUnit);
+
+        this.sessionsByTicket = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(timeout, timeUnit)
+                .<String, HttpSession>removalListener(notification -> {
+                    if (notification.getCause() == RemovalCause.SIZE) {
+                        nbEvictions.increment();
+                        logger.warn("Maximum size reached: session mapping evicted for ticket [{}], the back channel logout will not "
+                                + "destroy this session", notification.getKey());
+                    }
+                }).build();
+        this.ticketsBySessionId = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(timeout, timeUnit).build();
+    }
+
+    @Override
+    public HttpSession removeSessionByMappingId(final String mappingId) {
+        final HttpSession session = this.sessionsByTicket.asMap().remove(mappingId);
+        if (session != null) {
+            this.ticketsBySessionId.asMap().remove(session.getId(), mappingId);
+        }
+        return session;
+    }
+
+    @Override
+    public void removeBySessionById(final String sessionId) {
+        final String ticket = this.ticketsBySessionId.asMap().remove(sessionId);
+        if (ticket != null) {
+            this.sessionsByTicket.invalidate(ticket);
+        }
+    }
+
+    @Override
+    public void addSessionById(final String mappingId, final HttpSession session) {
+        this.ticketsBySessionId.put(session.getId(), mappingId);
+        this.sessionsByTicket.put(mappingId, session);
+    }
+
+    /**
+     * Return the approximate number of associations currently stored.
+     *
+     * @return the number of associations
+     */
+    public long size() {
+        return this.sessionsByTicket.size();
+    }
+
+    /**
+     * Return the number of associations evicted because the maximum size was reached.
+     *
+     * @return the number of evictions
+     */
+    public long getNbEvictions() {
+        return this.nbEvictions.sum();
+    }
+}
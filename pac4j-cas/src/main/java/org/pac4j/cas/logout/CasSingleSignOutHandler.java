@@ -2,7 +2,6 @@ package org.pac4j.cas.logout;
 
 import javax.servlet.http.HttpSession;
 
-import org.jasig.cas.client.session.HashMapBackedSessionMappingStorage;
 import org.jasig.cas.client.session.SessionMappingStorage;
 import org.jasig.cas.client.session.SingleSignOutHandler;
 import org.pac4j.cas.client.CasClient;
@@ -15,7 +14,10 @@ import org.slf4j.LoggerFactory;
  *
  * <p>It is automatically defined for the {@link J2EContext} by the {@link org.pac4j.cas.config.CasConfiguration} when no {@link CasLogoutHandler} is defined.</p>
  *
- * <p>As web sessions are saved in a specific storage, the {@link org.jasig.cas.client.session.SingleSignOutHttpSessionListener} must also be declared to clean this storage when sessions are destroyed (to avoid an out of memory).</p>
+ * <p>Web sessions are saved by default in a {@link BoundedSessionMappingStorage}, whose entries expire and whose size is limited.
+ * As this storage holds the web sessions, it only works if the back channel logout requests are received by the node which has created the session:
+ * in a clustered environment, use the {@link DistributedCasLogoutHandler} with a storage and a session store shared between
+ * all the nodes (to be provided) instead.</p>
  *
  * <p>To use this logout handler, the <code>renewSession</code> option must be disabled on the "callback filter".</p>
  *
@@ -26,7 +28,7 @@ public class CasSingleSignOutHandler implements CasLogoutHandler<J2EContext> {
 
     protected static final Logger logger = LoggerFactory.getLogger(CasSingleSignOutHandler.class);
 
-    private SessionMappingStorage sessionMappingStorage = new HashMapBackedSessionMappingStorage();
+    private SessionMappingStorage sessionMappingStorage = new BoundedSessionMappingStorage();
 
     private boolean eagerlyCreateSessions = true;
 
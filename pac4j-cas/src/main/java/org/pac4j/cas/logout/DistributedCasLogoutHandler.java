@@ -0,0 +1,98 @@
+package org.pac4j.cas.logout;
+
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>This logout handler saves the associations between the service tickets and the web session identifiers
+ * in a {@link SessionIdMappingStorage} and destroys the web sessions through the {@link SessionStore}.</p>
+ *
+ * <p>With the {@link org.pac4j.core.context.session.J2ESessionStore}, the {@link org.pac4j.core.context.session.J2ESessionRegistry}
+ * must be declared as a listener of the web application: the back channel logout request then destroys the web session
+ * if it is held by the node receiving the request.</p>
+ *
+ * <p>In a clustered environment, a back channel logout request received by any node destroys the web session only if both
+ * the {@link SessionIdMappingStorage} and the {@link SessionStore} are shared between all the nodes. No such implementations are
+ * provided: the default storage is the in-memory {@link BoundedSessionIdMappingStorage}.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class DistributedCasLogoutHandler<C extends WebContext> implements CasLogoutHandler<C> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedCasLogoutHandler.class);
+
+    private SessionIdMappingStorage sessionIdMappingStorage = new BoundedSessionIdMappingStorage();
+
+    private SessionStore<C> sessionStore;
+
+    public DistributedCasLogoutHandler() {}
+
+    public DistributedCasLogoutHandler(final SessionStore<C> sessionStore) {
+        this.sessionStore = sessionStore;
+    }
+
+    public DistributedCasLogoutHandler(final SessionIdMappingStorage sessionIdMappingStorage, final SessionStore<C> sessionStore) {
+        this.sessionIdMappingStorage = sessionIdMappingStorage;
+        this.sessionStore = sessionStore;
+    }
+
+    @Override
+    public void recordSession(final C context, final String ticket) {
+        assertConfigured();
+
+        final String sessionId = sessionStore.getOrCreateSessionId(context);
+        sessionIdMappingStorage.removeBySessionId(sessionId);
+        sessionIdMappingStorage.add(ticket, sessionId);
+        logger.debug("Session [{}] recorded for ticket [{}]", sessionId, ticket);
+    }
+
+    @Override
+    public void destroySessionBack(final C context, final String ticket) {
+        assertConfigured();
+
+        final String sessionId = sessionIdMappingStorage.removeByTicket(ticket);
+        if (sessionId == null) {
+            logger.debug("No session found for ticket [{}]", ticket);
+            return;
+        }
+
+        logger.debug("Invalidating session [{}] for ticket [{}]", sessionId, ticket);
+        try {
+            if (!sessionStore.invalidateSession(context, sessionId)) {
+                logger.warn("Session [{}] cannot be invalidated by the session store: {}", sessionId, sessionStore);
+            }
+        } catch (final IllegalStateException e) {
+            logger.debug("Error invalidating session", e);
+        }
+    }
+
+    private void assertConfigured() {
+        CommonHelper.assertNotNull("sessionIdMappingStorage", sessionIdMappingStorage);
+        CommonHelper.assertNotNull("sessionStore", sessionStore);
+    }
+
+    public SessionIdMappingStorage getSessionIdMappingStorage() {
+        return sessionIdMappingStorage;
+    }
+
+    public void setSessionIdMappingStorage(final SessionIdMappingStorage sessionIdMappingStorage) {
+        this.sessionIdMappingStorage = sessionIdMappingStorage;
+    }
+
+    public SessionStore<C> getSessionStore() {
+        return sessionStore;
+    }
+
+    public void setSessionStore(final SessionStore<C> sessionStore) {
+        this.sessionStore = sessionStore;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "sessionIdMappingStorage", sessionIdMappingStorage, "sessionStore", sessionStore);
+    }
+}
@@ -0,0 +1,37 @@
+package org.pac4j.cas.logout;
+
+/**
+ * Storage of the associations between the service tickets and the web session identifiers.
+ * Unlike the {@link org.jasig.cas.client.session.SessionMappingStorage}, it does not hold the web sessions themselves,
+ * so it can be shared between several nodes (in a distributed cache for example).
+ * Only an in-memory implementation is provided ({@link BoundedSessionIdMappingStorage}): a shared storage must be implemented
+ * on top of the distributed cache in use.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public interface SessionIdMappingStorage {
+
+    /**
+     * Associate a service ticket with a web session identifier.
+     *
+     * @param ticket the service ticket
+     * @param sessionId the web session identifier
+     */
+    void add(String ticket, String sessionId);
+
+    /**
+     * Remove the association for the given service ticket.
+     *
+     * @param ticket the service ticket
+     * @return the web session identifier associated with the ticket (or <code>null</code> if none)
+     */
+    String removeByTicket(String ticket);
+
+    /**
+     * Remove the association for the given web session identifier.
+     *
+     * @param sessionId the web session identifier
+     */
+    void removeBySessionId(String sessionId);
+}
@@ -0,0 +1,59 @@
+package org.pac4j.cas.proxy;
+
+import org.jasig.cas.client.proxy.ProxyGrantingTicketStorage;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * {@link ProxyGrantingTicketStorage} which saves the proxy granting tickets locally and in a {@link ProxyGrantingTicketBackend}
+ * shared between all the nodes: the ticket is read locally if it was received by the current node, in the backend otherwise.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class DistributedProxyGrantingTicketStorage implements ProxyGrantingTicketStorage {
+
+    private final ProxyGrantingTicketBackend backend;
+
+    private final ExpiringProxyGrantingTicketStorage localStorage;
+
+    public DistributedProxyGrantingTicketStorage(final ProxyGrantingTicketBackend backend) {
+        this(backend, ExpiringProxyGrantingTicketStorage.DEFAULT_TIMEOUT);
+    }
+
+    public DistributedProxyGrantingTicketStorage(final ProxyGrantingTicketBackend backend, final long timeout) {
+        CommonHelper.assertNotNull("backend", backend);
+        this.backend = backend;
+        this.localStorage = new ExpiringProxyGrantingTicketStorage(timeout);
+    }
+
+    @Override
+    public void save(final String proxyGrantingTicketIou, final String proxyGrantingTicket) {
+        this.localStorage.save(proxyGrantingTicketIou, proxyGrantingTicket);
+        this.backend.put(proxyGrantingTicketIou, proxyGrantingTicket, this.localStorage.getTimeout());
+    }
+
+    @Override
+    public String retrieve(final String proxyGrantingTicketIou) {
+        if (CommonHelper.isBlank(proxyGrantingTicketIou)) {
+            return null;
+        }
+        final String localProxyGrantingTicket = this.localStorage.retrieve(proxyGrantingTicketIou);
+        final String sharedProxyGrantingTicket = this.backend.remove(proxyGrantingTicketIou);
+        return localProxyGrantingTicket != null ? localProxyGrantingTicket : sharedProxyGrantingTicket;
+    }
+
+    @Override
+    public void cleanUp() {
+        // the backend is responsible for expiring its own entries
+        this.localStorage.cleanUp();
+    }
+
+    public ProxyGrantingTicketBackend getBackend() {
+        return backend;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "backend", backend, "localStorage", localStorage);
+    }
+}
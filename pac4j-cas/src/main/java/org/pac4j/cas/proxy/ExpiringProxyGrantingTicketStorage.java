@@ -0,0 +1,147 @@
+package org.pac4j.cas.proxy;
+
+import org.jasig.cas.client.proxy.ProxyGrantingTicketStorage;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>In memory {@link ProxyGrantingTicketStorage} whose expiration is organized by time buckets.</p>
+ *
+ * <p>Each proxy granting ticket IOU is indexed in the bucket of its creation time (buckets last {@link #getBucketDuration()} milli-seconds):
+ * the {@link #cleanUp()} operation only drops the expired buckets, instead of checking every stored ticket like
+ * the {@link org.jasig.cas.client.proxy.ProxyGrantingTicketStorageImpl}.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class ExpiringProxyGrantingTicketStorage implements ProxyGrantingTicketStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiringProxyGrantingTicketStorage.class);
+
+    public static final long DEFAULT_TIMEOUT = 60000L;
+
+    public static final long DEFAULT_BUCKET_DURATION = 5000L;
+
+    private final ConcurrentMap<String, Entry> tickets = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+
+    private final long timeout;
+
+    private final long bucketDuration;
+
+    private final LongSupplier clock;
+
+    private static final class Entry {
+
+        private final String proxyGrantingTicket;
+
+        private final long creationTime;
+
+        private Entry(final String proxyGrantingTicket, final long creationTime) {
+            this.proxyGrantingTicket = proxyGrantingTicket;
+            this.creationTime = creationTime;
+        }
+    }
+
+    public ExpiringProxyGrantingTicketStorage() {
+        this(DEFAULT_TIMEOUT, DEFAULT_BUCKET_DURATION);
+    }
+
+    public ExpiringProxyGrantingTicketStorage(final long timeout) {
+        this(timeout, Math.max(1L, Math.min(timeout, DEFAULT_BUCKET_DURATION)));
+    }
+
+    public ExpiringProxyGrantingTicketStorage(final long timeout, final long bucketDuration) {
+        this(timeout, bucketDuration, System::currentTimeMillis);
+    }
+
+    /**
+     * Build the storage.
+     *
+     * @param timeout the timeout of the tickets (in milli-seconds)
+     * @param bucketDuration the duration of the buckets (in milli-seconds)
+     * @param clock the clock giving the current time (in milli-seconds)
+     */
+    public ExpiringProxyGrantingTicketStorage(final long timeout, final long bucketDuration, final LongSupplier clock) {
+        CommonHelper.assertTrue(timeout > 0, "timeout must be > 0");
+        CommonHelper.assertTrue(bucketDuration > 0, "bucketDuration must be > 0");
+        CommonHelper.assertNotNull("clock", clock);
+        this.timeout = timeout;
+        this.bucketDuration = bucketDuration;
+        this.clock = clock;
+    }
+
+    @Override
+    public void save(final String proxyGrantingTicketIou, final String proxyGrantingTicket) {
+        final long now = this.clock.getAsLong();
+        this.tickets.put(proxyGrantingTicketIou, new Entry(proxyGrantingTicket, now));
+        this.buckets.computeIfAbsent(now / this.bucketDuration, k -> ConcurrentHashMap.newKeySet()).add(proxyGrantingTicketIou);
+        logger.debug("Saved proxyGrantingTicketIou: {}", proxyGrantingTicketIou);
+    }
+
+    @Override
+    public String retrieve(final String proxyGrantingTicketIou) {
+        if (CommonHelper.isBlank(proxyGrantingTicketIou)) {
+            return null;
+        }
+        final Entry entry = this.tickets.remove(proxyGrantingTicketIou);
+        if (entry == null) {
+            logger.info("No proxy granting ticket found for: {}", proxyGrantingTicketIou);
+            return null;
+        }
+        if (this.clock.getAsLong() - entry.creationTime > this.timeout) {
+            logger.info("Expired proxy granting ticket for: {}", proxyGrantingTicketIou);
+            return null;
+        }
+        return entry.proxyGrantingTicket;
+    }
+
+    @Override
+    public void cleanUp() {
+        // the buckets strictly before this one only contain expired tickets
+        final long expirationTime = this.clock.getAsLong() - this.timeout;
+        final long firstValidBucket = expirationTime / this.bucketDuration;
+        final Iterator<Map.Entry<Long, Set<String>>> iterator = this.buckets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Long, Set<String>> bucket = iterator.next();
+            if (bucket.getKey() < firstValidBucket) {
+                iterator.remove();
+                for (final String proxyGrantingTicketIou : bucket.getValue()) {
+                    // the same IOU may have been saved again later
+                    this.tickets.computeIfPresent(proxyGrantingTicketIou, (k, e) -> e.creationTime < expirationTime ? null : e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the number of stored proxy granting tickets.
+     *
+     * @return the number of tickets
+     */
+    public int size() {
+        return this.tickets.size();
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public long getBucketDuration() {
+        return bucketDuration;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "timeout", timeout, "bucketDuration", bucketDuration);
+    }
+}
@@ -0,0 +1,28 @@
+package org.pac4j.cas.proxy;
+
+/**
+ * Storage shared between several nodes (distributed cache, database...) for the proxy granting tickets,
+ * so that a proxy granting ticket received by the proxy receptor of a node can be read on another node.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public interface ProxyGrantingTicketBackend {
+
+    /**
+     * Save a proxy granting ticket for a limited time.
+     *
+     * @param proxyGrantingTicketIou the proxy granting ticket IOU
+     * @param proxyGrantingTicket the proxy granting ticket
+     * @param timeToLive the time to live (in milli-seconds)
+     */
+    void put(String proxyGrantingTicketIou, String proxyGrantingTicket, long timeToLive);
+
+    /**
+     * Remove and return the proxy granting ticket for the given IOU.
+     *
+     * @param proxyGrantingTicketIou the proxy granting ticket IOU
+     * @return the proxy granting ticket (or <code>null</code> if none or expired)
+     */
+    String remove(String proxyGrantingTicketIou);
+}
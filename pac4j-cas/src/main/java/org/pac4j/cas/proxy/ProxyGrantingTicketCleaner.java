@@ -0,0 +1,52 @@
+package org.pac4j.cas.proxy;
+
+import org.jasig.cas.client.proxy.ProxyGrantingTicketStorage;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cleans the {@link ProxyGrantingTicketStorage} of all the proxy receptors with a single scheduler thread shared by the whole JVM
+ * (instead of one timer thread per proxy receptor).
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class ProxyGrantingTicketCleaner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxyGrantingTicketCleaner.class);
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "pac4j-cas-pgt-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ProxyGrantingTicketCleaner() {}
+
+    /**
+     * Schedule the periodic clean up of a storage.
+     *
+     * @param storage the storage to clean
+     * @param millisBetweenCleanUps the time between two clean ups (in milli-seconds)
+     * @return the scheduled task, to cancel when the storage is not used anymore
+     */
+    public static ScheduledFuture<?> schedule(final ProxyGrantingTicketStorage storage, final long millisBetweenCleanUps) {
+        CommonHelper.assertNotNull("storage", storage);
+        CommonHelper.assertTrue(millisBetweenCleanUps > 0, "millisBetweenCleanUps must be > 0");
+
+        return SCHEDULER.scheduleWithFixedDelay(() -> {
+            try {
+                storage.cleanUp();
+            } catch (final RuntimeException e) {
+                // the task must never fail, otherwise it would not be executed again
+                logger.error("Cannot clean up the proxy granting tickets of: {}", storage, e);
+            }
+        }, millisBetweenCleanUps, millisBetweenCleanUps, TimeUnit.MILLISECONDS);
+    }
+}
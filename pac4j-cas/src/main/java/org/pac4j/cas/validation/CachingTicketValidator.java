@@ -0,0 +1,91 @@
+package org.pac4j.cas.validation;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.jasig.cas.client.validation.Assertion;
+import org.jasig.cas.client.validation.TicketValidationException;
+import org.jasig.cas.client.validation.TicketValidator;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Ticket validator which caches for a short time the successful validations of the proxy tickets performed by a delegate validator.</p>
+ *
+ * <p>A proxy ticket can be validated only once by the CAS server: when the same proxy ticket is presented several times
+ * to the application during a short period (fan-out of a request to several services hosted in the same JVM),
+ * it is validated only once and the assertion is reused. Concurrent validations of the same ticket wait for the first one.</p>
+ *
+ * <p>Only the tickets starting with the {@link #getTicketPrefix()} (<code>PT-</code> by default) are cached, failed validations are never cached.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class CachingTicketValidator implements TicketValidator {
+
+    private final static Logger logger = LoggerFactory.getLogger(CachingTicketValidator.class);
+
+    public final static String PROXY_TICKET_PREFIX = "PT-";
+
+    private final TicketValidator delegate;
+
+    private final Cache<String, Assertion> cache;
+
+    private String ticketPrefix = PROXY_TICKET_PREFIX;
+
+    public CachingTicketValidator(final TicketValidator delegate, final long cacheSize, final long timeout, final TimeUnit timeUnit) {
+        CommonHelper.assertNotNull("delegate", delegate);
+        CommonHelper.assertTrue(cacheSize > 0, "cacheSize must be > 0");
+        CommonHelper.assertTrue(timeout > 0, "timeout must be > 0");
+        CommonHelper.assertNotNull("timeUnit", timeUnit);
+
+        this.delegate = delegate;
+        this.cache = CacheBuilder.newBuilder().maximumSize(cacheSize).expireAfterWrite(timeout, timeUnit).build();
+    }
+
+    @Override
+    public Assertion validate(final String ticket, final String service) throws TicketValidationException {
+        if (ticket == null || !ticket.startsWith(this.ticketPrefix)) {
+            return this.delegate.validate(ticket, service);
+        }
+
+        try {
+            return this.cache.get(ticket + "|" + service, () -> {
+                logger.debug("Delegating validation of ticket: {}", ticket);
+                return this.delegate.validate(ticket, service);
+            });
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof TicketValidationException) {
+                throw (TicketValidationException) e.getCause();
+            }
+            throw new TechnicalException(e.getCause());
+        } catch (final UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public TicketValidator getDelegate() {
+        return delegate;
+    }
+
+    public String getTicketPrefix() {
+        return ticketPrefix;
+    }
+
+    public void setTicketPrefix(final String ticketPrefix) {
+        this.ticketPrefix = ticketPrefix;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "delegate", delegate, "ticketPrefix", ticketPrefix);
+    }
+}
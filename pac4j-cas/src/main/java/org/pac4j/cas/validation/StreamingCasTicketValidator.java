@@ -0,0 +1,354 @@
+package org.pac4j.cas.validation;
+
+import org.jasig.cas.client.authentication.AttributePrincipal;
+import org.jasig.cas.client.authentication.AttributePrincipalImpl;
+import org.jasig.cas.client.proxy.Cas20ProxyRetriever;
+import org.jasig.cas.client.proxy.ProxyGrantingTicketStorage;
+import org.jasig.cas.client.ssl.HttpURLConnectionFactory;
+import org.jasig.cas.client.ssl.HttpsURLConnectionFactory;
+import org.jasig.cas.client.validation.Assertion;
+import org.jasig.cas.client.validation.AssertionImpl;
+import org.jasig.cas.client.validation.InvalidProxyChainTicketValidationException;
+import org.jasig.cas.client.validation.ProxyList;
+import org.jasig.cas.client.validation.TicketValidationException;
+import org.jasig.cas.client.validation.TicketValidator;
+import org.pac4j.cas.config.CasProtocol;
+import org.pac4j.cas.util.HttpUtils;
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Ticket validator for the CAS 2.0 and 3.0 protocols (service and proxy tickets), alternative to the validators of the Apereo CAS client.</p>
+ *
+ * <p>The XML response is parsed with StAX directly from the HTTP response stream instead of being read character by character
+ * into a string and then loaded into a DOM tree.</p>
+ *
+ * <p>The HTTP connection is not explicitly disconnected: the response is fully consumed and its stream closed, so that the underlying
+ * socket is returned to the keep-alive pool of the JVM and reused for the next validations against the same CAS server
+ * (see the <code>http.keepAlive</code> and <code>http.maxConnections</code> system properties).</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class StreamingCasTicketValidator implements TicketValidator {
+
+    private final static Logger logger = LoggerFactory.getLogger(StreamingCasTicketValidator.class);
+
+    private final static XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    private final static String CAS_NAMESPACE = "http://www.yale.edu/tp/cas";
+
+    private final static int DRAIN_BUFFER_SIZE = 512;
+
+    private final String casServerUrlPrefix;
+
+    private final CasProtocol protocol;
+
+    private String encoding = HttpConstants.UTF8_ENCODING;
+
+    private boolean renew = false;
+
+    private String proxyCallbackUrl;
+
+    private ProxyGrantingTicketStorage proxyGrantingTicketStorage;
+
+    private boolean acceptAnyProxy = false;
+
+    private boolean allowEmptyProxyChain = true;
+
+    private ProxyList allowedProxyChains = new ProxyList();
+
+    private HttpURLConnectionFactory urlConnectionFactory = new HttpsURLConnectionFactory();
+
+    public StreamingCasTicketValidator(final String casServerUrlPrefix, final CasProtocol protocol) {
+        CommonHelper.assertNotBlank("casServerUrlPrefix", casServerUrlPrefix);
+        CommonHelper.assertTrue(protocol == CasProtocol.CAS20 || protocol == CasProtocol.CAS20_PROXY
+                || protocol == CasProtocol.CAS30 || protocol == CasProtocol.CAS30_PROXY, "protocol must be a CAS 2.0 or 3.0 protocol");
+        this.casServerUrlPrefix = casServerUrlPrefix.endsWith("/") ? casServerUrlPrefix : casServerUrlPrefix + "/";
+        this.protocol = protocol;
+    }
+
+    @Override
+    public Assertion validate(final String ticket, final String service) throws TicketValidationException {
+        final String validationUrl = constructValidationUrl(ticket, service);
+        logger.debug("Validation url: {}", validationUrl);
+
+        HttpURLConnection connection = null;
+        InputStream in = null;
+        try {
+            connection = this.urlConnectionFactory.buildHttpURLConnection(new URL(validationUrl).openConnection());
+            final int responseCode = connection.getResponseCode();
+            if (responseCode != HttpConstants.OK) {
+                in = connection.getErrorStream();
+                throw new TicketValidationException("Unable to validate ticket: " + HttpUtils.buildHttpErrorMessage(connection));
+            }
+            in = connection.getInputStream();
+            return parseResponseFromServer(in);
+        } catch (final IOException e) {
+            // the connection may be in an undefined state: do not reuse it
+            HttpUtils.closeConnection(connection);
+            throw new TechnicalException(e);
+        } finally {
+            drainAndClose(in);
+        }
+    }
+
+    /**
+     * Parse the XML response of the CAS server.
+     *
+     * @param in the response stream
+     * @return the assertion for a successful validation
+     * @throws TicketValidationException if the validation has failed
+     */
+    protected Assertion parseResponseFromServer(final InputStream in) throws TicketValidationException {
+        String user = null;
+        String proxyGrantingTicketIou = null;
+        String failureCode = null;
+        String failureMessage = null;
+        boolean failure = false;
+        final Map<String, Object> attributes = new HashMap<>();
+        final List<String> proxies = new ArrayList<>();
+
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(in, this.encoding);
+            boolean inAttributes = false;
+            while (reader.hasNext()) {
+                final int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT && CAS_NAMESPACE.equals(reader.getNamespaceURI())) {
+                    final String name = reader.getLocalName();
+                    if (inAttributes) {
+                        addAttribute(attributes, name, reader.getElementText().trim());
+                    } else if ("attributes".equals(name)) {
+                        inAttributes = true;
+                    } else if ("user".equals(name)) {
+                        user = reader.getElementText().trim();
+                    } else if ("proxyGrantingTicket".equals(name)) {
+                        proxyGrantingTicketIou = reader.getElementText().trim();
+                    } else if ("proxy".equals(name)) {
+                        proxies.add(reader.getElementText().trim());
+                    } else if ("authenticationFailure".equals(name)) {
+                        failure = true;
+                        failureCode = reader.getAttributeValue(null, "code");
+                        failureMessage = reader.getElementText().trim();
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && inAttributes && "attributes".equals(reader.getLocalName())) {
+                    inAttributes = false;
+                }
+            }
+        } catch (final XMLStreamException e) {
+            throw new TicketValidationException("Unable to parse the CAS server response", e);
+        } finally {
+            closeReader(reader);
+        }
+
+        if (failure) {
+            throw new TicketValidationException("(" + failureCode + ") " + failureMessage);
+        }
+        if (CommonHelper.isBlank(user)) {
+            throw new TicketValidationException("No principal was found in the response from the CAS server.");
+        }
+
+        checkProxyChain(proxies);
+
+        final AttributePrincipal principal;
+        final String proxyGrantingTicket = retrieveProxyGrantingTicket(proxyGrantingTicketIou);
+        if (proxyGrantingTicket != null) {
+            principal = new AttributePrincipalImpl(user, attributes, proxyGrantingTicket,
+                    new Cas20ProxyRetriever(this.casServerUrlPrefix, this.encoding, this.urlConnectionFactory));
+        } else {
+            principal = new AttributePrincipalImpl(user, attributes);
+        }
+        return new AssertionImpl(principal);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addAttribute(final Map<String, Object> attributes, final String name, final String value) {
+        final Object previous = attributes.get(name);
+        if (previous == null) {
+            attributes.put(name, value);
+        } else if (previous instanceof List) {
+            ((List<Object>) previous).add(value);
+        } else {
+            final List<Object> values = new ArrayList<>();
+            values.add(previous);
+            values.add(value);
+            attributes.put(name, values);
+        }
+    }
+
+    private String retrieveProxyGrantingTicket(final String proxyGrantingTicketIou) {
+        if (CommonHelper.isBlank(proxyGrantingTicketIou) || this.proxyGrantingTicketStorage == null) {
+            return null;
+        }
+        return this.proxyGrantingTicketStorage.retrieve(proxyGrantingTicketIou);
+    }
+
+    private void checkProxyChain(final List<String> proxies) throws InvalidProxyChainTicketValidationException {
+        if (this.protocol != CasProtocol.CAS20_PROXY && this.protocol != CasProtocol.CAS30_PROXY) {
+            return;
+        }
+        if (proxies.isEmpty()) {
+            if (this.allowEmptyProxyChain) {
+                return;
+            }
+            throw new InvalidProxyChainTicketValidationException("Empty proxy chain");
+        }
+        if (this.acceptAnyProxy) {
+            return;
+        }
+        final String[] proxiedList = proxies.toArray(new String[proxies.size()]);
+        if (!this.allowedProxyChains.contains(proxiedList)) {
+            throw new InvalidProxyChainTicketValidationException("Invalid proxy chain: " + proxies);
+        }
+    }
+
+    protected String constructValidationUrl(final String ticket, final String service) {
+        final StringBuilder buffer = new StringBuilder(this.casServerUrlPrefix);
+        if (this.protocol == CasProtocol.CAS30 || this.protocol == CasProtocol.CAS30_PROXY) {
+            buffer.append("p3/");
+        }
+        if (this.protocol == CasProtocol.CAS20_PROXY || this.protocol == CasProtocol.CAS30_PROXY) {
+            buffer.append("proxyValidate");
+        } else {
+            buffer.append("serviceValidate");
+        }
+        buffer.append("?ticket=").append(CommonHelper.urlEncode(ticket));
+        buffer.append("&service=").append(CommonHelper.urlEncode(service));
+        if (this.renew) {
+            buffer.append("&renew=true");
+        }
+        if (this.proxyCallbackUrl != null) {
+            buffer.append("&pgtUrl=").append(CommonHelper.urlEncode(this.proxyCallbackUrl));
+        }
+        return buffer.toString();
+    }
+
+    private static void drainAndClose(final InputStream in) {
+        if (in != null) {
+            try {
+                // consume the remaining bytes so the connection can be reused
+                final byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+                int read = 0;
+                while (read >= 0) {
+                    read = in.read(buffer);
+                }
+                in.close();
+            } catch (final IOException e) {
+                logger.debug("Cannot close the response stream", e);
+            }
+        }
+    }
+
+    private static void closeReader(final XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (final XMLStreamException e) {
+                logger.debug("Cannot close the XML reader", e);
+            }
+        }
+    }
+
+    public String getCasServerUrlPrefix() {
+        return casServerUrlPrefix;
+    }
+
+    public CasProtocol getProtocol() {
+        return protocol;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(final String encoding) {
+        this.encoding = encoding;
+    }
+
+    public boolean isRenew() {
+        return renew;
+    }
+
+    public void setRenew(final boolean renew) {
+        this.renew = renew;
+    }
+
+    public String getProxyCallbackUrl() {
+        return proxyCallbackUrl;
+    }
+
+    public void setProxyCallbackUrl(final String proxyCallbackUrl) {
+        this.proxyCallbackUrl = proxyCallbackUrl;
+    }
+
+    public ProxyGrantingTicketStorage getProxyGrantingTicketStorage() {
+        return proxyGrantingTicketStorage;
+    }
+
+    public void setProxyGrantingTicketStorage(final ProxyGrantingTicketStorage proxyGrantingTicketStorage) {
+        this.proxyGrantingTicketStorage = proxyGrantingTicketStorage;
+    }
+
+    public boolean isAcceptAnyProxy() {
+        return acceptAnyProxy;
+    }
+
+    public void setAcceptAnyProxy(final boolean acceptAnyProxy) {
+        this.acceptAnyProxy = acceptAnyProxy;
+    }
+
+    public boolean isAllowEmptyProxyChain() {
+        return allowEmptyProxyChain;
+    }
+
+    public void setAllowEmptyProxyChain(final boolean allowEmptyProxyChain) {
+        this.allowEmptyProxyChain = allowEmptyProxyChain;
+    }
+
+    public ProxyList getAllowedProxyChains() {
+        return allowedProxyChains;
+    }
+
+    public void setAllowedProxyChains(final ProxyList allowedProxyChains) {
+        this.allowedProxyChains = allowedProxyChains;
+    }
+
+    public HttpURLConnectionFactory getUrlConnectionFactory() {
+        return urlConnectionFactory;
+    }
+
+    public void setUrlConnectionFactory(final HttpURLConnectionFactory urlConnectionFactory) {
+        this.urlConnectionFactory = urlConnectionFactory;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "casServerUrlPrefix", casServerUrlPrefix, "protocol", protocol,
+                "encoding", encoding, "renew", renew, "proxyCallbackUrl", proxyCallbackUrl, "acceptAnyProxy", acceptAnyProxy,
+                "allowedProxyChains", allowedProxyChains);
+    }
+}
@@ -0,0 +1,63 @@
+package org.pac4j.cas.logout;
+
+import org.junit.Test;
+import org.pac4j.core.util.TestsConstants;
+
+import javax.servlet.http.HttpSession;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link BoundedSessionMappingStorage}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class BoundedSessionMappingStorageTests implements TestsConstants {
+
+    private static HttpSession mockSession(final String id) {
+        final HttpSession session = mock(HttpSession.class);
+        when(session.getId()).thenReturn(id);
+        return session;
+    }
+
+    @Test
+    public void testAddAndRemoveByTicket() {
+        final BoundedSessionMappingStorage storage = new BoundedSessionMappingStorage();
+        final HttpSession session = mockSession(ID);
+        storage.addSessionById(TICKET, session);
+        assertEquals(session, storage.removeSessionByMappingId(TICKET));
+        assertNull(storage.removeSessionByMappingId(TICKET));
+        assertEquals(0, storage.size());
+    }
+
+    @Test
+    public void testRemoveBySessionId() {
+        final BoundedSessionMappingStorage storage = new BoundedSessionMappingStorage();
+        storage.addSessionById(TICKET, mockSession(ID));
+        storage.removeBySessionById(ID);
+        assertNull(storage.removeSessionByMappingId(TICKET));
+    }
+
+    @Test
+    public void testMaxSize() {
+        final BoundedSessionMappingStorage storage = new BoundedSessionMappingStorage(2, 1, TimeUnit.HOURS);
+        for (int i = 0; i < 10; i++) {
+            storage.addSessionById(TICKET + i, mockSession(ID + i));
+        }
+        assertTrue(storage.size() <= 2);
+        assertTrue(storage.getNbEvictions() >= 8);
+        assertNotNull(storage.removeSessionByMappingId(TICKET + 9));
+    }
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        final BoundedSessionMappingStorage storage = new BoundedSessionMappingStorage(10, 50, TimeUnit.MILLISECONDS);
+        storage.addSessionById(TICKET, mockSession(ID));
+        Thread.sleep(100);
+        assertNull(storage.removeSessionByMappingId(TICKET));
+    }
+}
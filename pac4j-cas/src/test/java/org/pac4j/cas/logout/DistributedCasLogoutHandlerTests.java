@@ -0,0 +1,119 @@
+package org.pac4j.cas.logout;
+
+import org.junit.Test;
+import org.pac4j.core.context.J2EContext;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.context.session.J2ESessionRegistry;
+import org.pac4j.core.context.session.J2ESessionStore;
+import org.pac4j.core.context.session.MockSessionStore;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.core.util.TestsHelper;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link DistributedCasLogoutHandler}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class DistributedCasLogoutHandlerTests implements TestsConstants {
+
+    private final static class SharedSessionStore extends MockSessionStore {
+
+        private final String sessionId;
+
+        private final List<String> invalidatedSessionIds = new ArrayList<>();
+
+        private SharedSessionStore(final String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        public String getOrCreateSessionId(final WebContext context) {
+            return sessionId;
+        }
+
+        @Override
+        public boolean invalidateSession(final WebContext context, final String sessionId) {
+            return invalidatedSessionIds.add(sessionId);
+        }
+    }
+
+    @Test
+    public void testMissingSessionStore() {
+        final DistributedCasLogoutHandler<MockWebContext> handler = new DistributedCasLogoutHandler<>();
+        TestsHelper.expectException(() -> handler.recordSession(MockWebContext.create(), TICKET), TechnicalException.class,
+                "sessionStore cannot be null");
+    }
+
+    @Test
+    public void testBackLogoutOnAnotherNode() {
+        final SessionIdMappingStorage sharedStorage = new BoundedSessionIdMappingStorage();
+
+        final SharedSessionStore node1Store = new SharedSessionStore(ID);
+        final DistributedCasLogoutHandler<MockWebContext> node1 = new DistributedCasLogoutHandler<>(sharedStorage, node1Store);
+        node1.recordSession(MockWebContext.create(), TICKET);
+
+        final SharedSessionStore node2Store = new SharedSessionStore(VALUE);
+        final DistributedCasLogoutHandler<MockWebContext> node2 = new DistributedCasLogoutHandler<>(sharedStorage, node2Store);
+        node2.destroySessionBack(MockWebContext.create(), TICKET);
+
+        assertEquals(1, node2Store.invalidatedSessionIds.size());
+        assertEquals(ID, node2Store.invalidatedSessionIds.get(0));
+        assertNull(sharedStorage.removeByTicket(TICKET));
+    }
+
+    @Test
+    public void testUnknownTicket() {
+        final SharedSessionStore store = new SharedSessionStore(ID);
+        final DistributedCasLogoutHandler<MockWebContext> handler = new DistributedCasLogoutHandler<>(store);
+        handler.destroySessionFront(MockWebContext.create(), TICKET);
+        assertTrue(store.invalidatedSessionIds.isEmpty());
+    }
+
+    @Test
+    public void testNewTicketReplacesOldOne() {
+        final SharedSessionStore store = new SharedSessionStore(ID);
+        final DistributedCasLogoutHandler<MockWebContext> handler = new DistributedCasLogoutHandler<>(store);
+        handler.recordSession(MockWebContext.create(), TICKET);
+        handler.recordSession(MockWebContext.create(), TICKET + VALUE);
+        handler.destroySessionBack(MockWebContext.create(), TICKET);
+        assertTrue(store.invalidatedSessionIds.isEmpty());
+        handler.destroySessionBack(MockWebContext.create(), TICKET + VALUE);
+        assertEquals(1, store.invalidatedSessionIds.size());
+    }
+
+    @Test
+    public void testBackLogoutOfAnotherJ2ESession() {
+        final HttpSession userSession = mock(HttpSession.class);
+        when(userSession.getId()).thenReturn(ID);
+        final J2ESessionRegistry registry = new J2ESessionRegistry();
+        registry.sessionCreated(new HttpSessionEvent(userSession));
+        final HttpServletRequest userRequest = mock(HttpServletRequest.class);
+        when(userRequest.getSession()).thenReturn(userSession);
+        when(userRequest.getSession(anyBoolean())).thenReturn(userSession);
+
+        final DistributedCasLogoutHandler<J2EContext> handler = new DistributedCasLogoutHandler<>(new J2ESessionStore());
+        handler.recordSession(new J2EContext(userRequest, mock(HttpServletResponse.class)), TICKET);
+
+        // the back channel logout request has no session
+        final HttpServletRequest logoutRequest = mock(HttpServletRequest.class);
+        handler.destroySessionBack(new J2EContext(logoutRequest, mock(HttpServletResponse.class)), TICKET);
+        verify(userSession).invalidate();
+        verify(logoutRequest, never()).getSession();
+        verify(logoutRequest, never()).getSession(true);
+
+        registry.sessionDestroyed(new HttpSessionEvent(userSession));
+    }
+}
@@ -0,0 +1,74 @@
+package org.pac4j.cas.proxy;
+
+import org.junit.Test;
+import org.pac4j.core.util.TestsConstants;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link ExpiringProxyGrantingTicketStorage} and {@link DistributedProxyGrantingTicketStorage}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class ExpiringProxyGrantingTicketStorageTests implements TestsConstants {
+
+    private final static class MapBackend implements ProxyGrantingTicketBackend {
+
+        private final Map<String, String> tickets = new HashMap<>();
+
+        @Override
+        public void put(final String proxyGrantingTicketIou, final String proxyGrantingTicket, final long timeToLive) {
+            tickets.put(proxyGrantingTicketIou, proxyGrantingTicket);
+        }
+
+        @Override
+        public String remove(final String proxyGrantingTicketIou) {
+            return tickets.remove(proxyGrantingTicketIou);
+        }
+    }
+
+    @Test
+    public void testSaveRetrieve() {
+        final ExpiringProxyGrantingTicketStorage storage = new ExpiringProxyGrantingTicketStorage();
+        storage.save(KEY, VALUE);
+        assertEquals(VALUE, storage.retrieve(KEY));
+        assertNull(storage.retrieve(KEY));
+        assertNull(storage.retrieve(null));
+    }
+
+    @Test
+    public void testExpiredNotRetrieved() {
+        final AtomicLong clock = new AtomicLong(1000);
+        final ExpiringProxyGrantingTicketStorage storage = new ExpiringProxyGrantingTicketStorage(20, 10, clock::get);
+        storage.save(KEY, VALUE);
+        clock.addAndGet(50);
+        assertNull(storage.retrieve(KEY));
+    }
+
+    @Test
+    public void testCleanUp() {
+        final AtomicLong clock = new AtomicLong(1000);
+        final ExpiringProxyGrantingTicketStorage storage = new ExpiringProxyGrantingTicketStorage(20, 10, clock::get);
+        storage.save(KEY, VALUE);
+        clock.addAndGet(50);
+        storage.save(NAME, VALUE);
+        storage.cleanUp();
+        assertEquals(1, storage.size());
+        assertEquals(VALUE, storage.retrieve(NAME));
+    }
+
+    @Test
+    public void testDistributed() {
+        final MapBackend backend = new MapBackend();
+        final DistributedProxyGrantingTicketStorage node1 = new DistributedProxyGrantingTicketStorage(backend);
+        final DistributedProxyGrantingTicketStorage node2 = new DistributedProxyGrantingTicketStorage(backend);
+        node1.save(KEY, VALUE);
+        assertEquals(VALUE, node2.retrieve(KEY));
+        assertTrue(backend.tickets.isEmpty());
+    }
+}
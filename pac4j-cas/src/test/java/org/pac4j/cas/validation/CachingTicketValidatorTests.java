@@ -0,0 +1,65 @@
+package org.pac4j.cas.validation;
+
+import org.jasig.cas.client.validation.AssertionImpl;
+import org.jasig.cas.client.validation.TicketValidationException;
+import org.jasig.cas.client.validation.TicketValidator;
+import org.junit.Test;
+import org.pac4j.core.util.TestsConstants;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link CachingTicketValidator}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class CachingTicketValidatorTests implements TestsConstants {
+
+    private final static String PROXY_TICKET = "PT-1-454s54f44ez4x54cx54vds6f46-cas000";
+
+    private final AtomicInteger nbValidations = new AtomicInteger();
+
+    private final TicketValidator delegate = (ticket, service) -> {
+        nbValidations.incrementAndGet();
+        if (ticket.contains(FAKE_VALUE)) {
+            throw new TicketValidationException(FAKE_VALUE);
+        }
+        return new AssertionImpl(GOOD_USERNAME);
+    };
+
+    @Test
+    public void testProxyTicketValidatedOnce() throws TicketValidationException {
+        final CachingTicketValidator validator = new CachingTicketValidator(delegate, 10, 1, TimeUnit.MINUTES);
+        assertEquals(GOOD_USERNAME, validator.validate(PROXY_TICKET, CALLBACK_URL).getPrincipal().getName());
+        assertEquals(GOOD_USERNAME, validator.validate(PROXY_TICKET, CALLBACK_URL).getPrincipal().getName());
+        assertEquals(1, nbValidations.get());
+        validator.validate(PROXY_TICKET, VALUE);
+        assertEquals(2, nbValidations.get());
+    }
+
+    @Test
+    public void testServiceTicketNotCached() throws TicketValidationException {
+        final CachingTicketValidator validator = new CachingTicketValidator(delegate, 10, 1, TimeUnit.MINUTES);
+        validator.validate(TICKET, CALLBACK_URL);
+        validator.validate(TICKET, CALLBACK_URL);
+        assertEquals(2, nbValidations.get());
+    }
+
+    @Test
+    public void testFailureNotCached() {
+        final CachingTicketValidator validator = new CachingTicketValidator(delegate, 10, 1, TimeUnit.MINUTES);
+        for (int i = 0; i < 2; i++) {
+            try {
+                validator.validate(PROXY_TICKET + FAKE_VALUE, CALLBACK_URL);
+                fail("should fail");
+            } catch (final TicketValidationException e) {
+                assertEquals(FAKE_VALUE, e.getMessage());
+            }
+        }
+        assertEquals(2, nbValidations.get());
+    }
+}
@@ -0,0 +1,83 @@
+package org.pac4j.cas.validation;
+
+import org.jasig.cas.client.validation.Assertion;
+import org.jasig.cas.client.validation.InvalidProxyChainTicketValidationException;
+import org.jasig.cas.client.validation.TicketValidationException;
+import org.junit.Test;
+import org.pac4j.cas.config.CasProtocol;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.core.util.TestsHelper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link StreamingCasTicketValidator}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class StreamingCasTicketValidatorTests implements TestsConstants {
+
+    private final static String PREFIX_URL = "http://castest/cas";
+
+    private final static String SUCCESS = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+            + "<cas:authenticationSuccess><cas:user>" + GOOD_USERNAME + "</cas:user>"
+            + "<cas:attributes><cas:" + FIRSTNAME + ">" + FIRSTNAME_VALUE + "</cas:" + FIRSTNAME + ">"
+            + "<cas:" + ROLE + ">a</cas:" + ROLE + "><cas:" + ROLE + ">b</cas:" + ROLE + "></cas:attributes>"
+            + "<cas:proxies><cas:proxy>" + CALLBACK_URL + "</cas:proxy></cas:proxies>"
+            + "</cas:authenticationSuccess></cas:serviceResponse>";
+
+    private final static String FAILURE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+            + "<cas:authenticationFailure code=\"INVALID_TICKET\">Ticket " + TICKET + " not recognized</cas:authenticationFailure>"
+            + "</cas:serviceResponse>";
+
+    private static Assertion parse(final StreamingCasTicketValidator validator, final String response) throws TicketValidationException {
+        return validator.parseResponseFromServer(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testValidationUrls() {
+        assertEquals(PREFIX_URL + "/serviceValidate?ticket=" + TICKET + "&service=" + VALUE,
+                new StreamingCasTicketValidator(PREFIX_URL, CasProtocol.CAS20).constructValidationUrl(TICKET, VALUE));
+        assertEquals(PREFIX_URL + "/p3/proxyValidate?ticket=" + TICKET + "&service=" + VALUE,
+                new StreamingCasTicketValidator(PREFIX_URL + "/", CasProtocol.CAS30_PROXY).constructValidationUrl(TICKET, VALUE));
+    }
+
+    @Test
+    public void testUnsupportedProtocol() {
+        TestsHelper.expectException(() -> new StreamingCasTicketValidator(PREFIX_URL, CasProtocol.SAML),
+                TechnicalException.class, "protocol must be a CAS 2.0 or 3.0 protocol");
+    }
+
+    @Test
+    public void testSuccess() throws TicketValidationException {
+        final Assertion assertion = parse(new StreamingCasTicketValidator(PREFIX_URL, CasProtocol.CAS30), SUCCESS);
+        assertEquals(GOOD_USERNAME, assertion.getPrincipal().getName());
+        assertEquals(FIRSTNAME_VALUE, assertion.getPrincipal().getAttributes().get(FIRSTNAME));
+        assertEquals(Arrays.asList("a", "b"), assertion.getPrincipal().getAttributes().get(ROLE));
+    }
+
+    @Test
+    public void testFailure() {
+        TestsHelper.expectException(() -> parse(new StreamingCasTicketValidator(PREFIX_URL, CasProtocol.CAS30), FAILURE),
+                TicketValidationException.class, "(INVALID_TICKET) Ticket " + TICKET + " not recognized");
+    }
+
+    @Test
+    public void testInvalidProxyChain() {
+        TestsHelper.expectException(() -> parse(new StreamingCasTicketValidator(PREFIX_URL, CasProtocol.CAS20_PROXY), SUCCESS),
+                InvalidProxyChainTicketValidationException.class, "Invalid proxy chain: [" + CALLBACK_URL + "]");
+    }
+
+    @Test
+    public void testAcceptAnyProxy() throws TicketValidationException {
+        final StreamingCasTicketValidator validator = new StreamingCasTicketValidator(PREFIX_URL, CasProtocol.CAS20_PROXY);
+        validator.setAcceptAnyProxy(true);
+        assertEquals(GOOD_USERNAME, parse(validator, SUCCESS).getPrincipal().getName());
+    }
+}
@@ -0,0 +1,104 @@
+package org.pac4j.core.authorization;
+
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of elements (roles or permissions) encoded as bits, using the identifiers of an {@link ElementRegistry}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class ElementBits {
+
+    private final long[] words;
+
+    private final int version;
+
+    ElementBits(final long[] words, final int version) {
+        this.words = words;
+        this.version = version;
+    }
+
+    static long[] set(final long[] words, final int id) {
+        final int index = id >>> 6;
+        final long[] result = index < words.length ? words : Arrays.copyOf(words, Math.max(index + 1, words.length * 2));
+        result[index] |= 1L << id;
+        return result;
+    }
+
+    /**
+     * Whether at least one element is in both sets.
+     *
+     * @param other the other set
+     * @return whether the sets intersect
+     */
+    public boolean intersects(final ElementBits other) {
+        final int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether all the elements of the other set are in this set.
+     *
+     * @param other the other set
+     * @return whether this set contains all the elements of the other set
+     */
+    public boolean containsAll(final ElementBits other) {
+        for (int i = 0; i < other.words.length; i++) {
+            final long word = i < words.length ? words[i] : 0L;
+            if ((other.words[i] & ~word) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the element with this identifier is in the set.
+     *
+     * @param id the identifier of the element
+     * @return whether the element is in the set
+     */
+    public boolean contains(final int id) {
+        final int index = id >>> 6;
+        return id >= 0 && index < words.length && (words[index] & 1L << id) != 0;
+    }
+
+    public boolean isEmpty() {
+        for (final long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (final long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    /**
+     * The size of the registry when this set was built.
+     *
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "cardinality", cardinality(), "version", version);
+    }
+}
@@ -0,0 +1,142 @@
+package org.pac4j.core.authorization;
+
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interning registry of the elements (roles or permissions) required by the authorizers: each registered element is given a dense
+ * integer identifier, so that sets of elements are encoded as {@link ElementBits} and checked with bitmask operations.
+ *
+ * Only the elements required by the authorizers are registered (at most {@link #getMaxSize()}), the other elements of the profiles
+ * are ignored when building their bits: they can never match. The registry never shrinks and its size is the version of the bits:
+ * bits built with a previous version must be built again.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class ElementRegistry {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    public static final ElementRegistry ROLES = new ElementRegistry("roles", DEFAULT_MAX_SIZE);
+
+    public static final ElementRegistry PERMISSIONS = new ElementRegistry("permissions", DEFAULT_MAX_SIZE);
+
+    private static final long[] NO_WORDS = new long[0];
+
+    private final String name;
+
+    private final int maxSize;
+
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private volatile int size;
+
+    public ElementRegistry(final String name, final int maxSize) {
+        CommonHelper.assertNotBlank("name", name);
+        CommonHelper.assertTrue(maxSize > 0, "maxSize must be > 0");
+        this.name = name;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Register an element.
+     *
+     * @param element the element
+     * @return its identifier or -1 if the registry is full
+     */
+    public int register(final String element) {
+        CommonHelper.assertNotNull("element", element);
+        final Integer id = ids.get(element);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            final Integer existing = ids.get(element);
+            if (existing != null) {
+                return existing;
+            }
+            if (size >= maxSize) {
+                return -1;
+            }
+            final int newId = size;
+            ids.put(element, newId);
+            size = newId + 1;
+            return newId;
+        }
+    }
+
+    /**
+     * Return the identifier of an element.
+     *
+     * @param element the element
+     * @return its identifier or -1 if it is not registered
+     */
+    public int getId(final String element) {
+        final Integer id = element != null ? ids.get(element) : null;
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Register the elements required by an authorizer and build their bits.
+     *
+     * @param elements the required elements
+     * @return the bits or <code>null</code> if the registry is full
+     */
+    public ElementBits compile(final Collection<String> elements) {
+        long[] words = NO_WORDS;
+        for (final String element : elements) {
+            final int id = register(element);
+            if (id < 0) {
+                return null;
+            }
+            words = ElementBits.set(words, id);
+        }
+        return new ElementBits(words, size);
+    }
+
+    /**
+     * Build the bits of the elements of a profile, ignoring the elements which are not registered.
+     *
+     * @param elements the elements of the profile
+     * @return the bits
+     */
+    public ElementBits bitsOf(final Collection<String> elements) {
+        // read the version first: an element registered meanwhile makes the bits stale
+        final int version = size;
+        long[] words = NO_WORDS;
+        for (final String element : elements) {
+            final Integer id = ids.get(element);
+            if (id != null) {
+                words = ElementBits.set(words, id);
+            }
+        }
+        return new ElementBits(words, version);
+    }
+
+    /**
+     * Whether the bits have been built with the current version of the registry.
+     *
+     * @param bits the bits
+     * @return whether the bits are current
+     */
+    public boolean isCurrent(final ElementBits bits) {
+        return bits != null && bits.getVersion() == size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "name", name, "size", size, "maxSize", maxSize);
+    }
+}
@@ -5,12 +5,14 @@ import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.profile.CommonProfile;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
- * An authorizer to require elements.
+ * An authorizer to require elements. The elements are kept as an unmodifiable copy: they must be replaced
+ * (with {@link #setElements(Set)} or {@link #addElement(Object)}), not modified in place.
  *
  * @author Jerome Leleu
  * @since 1.8.1
@@ -40,12 +42,12 @@ public abstract class AbstractRequireElementAuthorizer<E extends Object, U exten
     }
 
     public void setElements(final Set<E> elements) {
-        this.elements = elements;
+        this.elements = elements != null ? Collections.unmodifiableSet(new HashSet<>(elements)) : null;
     }
 
     public void setElements(final List<E> elements) {
         if (elements != null) {
-            this.elements = new HashSet<>(elements);
+            this.elements = Collections.unmodifiableSet(new HashSet<>(elements));
         }
     }
 
@@ -54,4 +56,15 @@ public abstract class AbstractRequireElementAuthorizer<E extends Object, U exten
             setElements(Arrays.asList(elements));
         }
     }
+
+    /**
+     * Add an element to the required ones (by replacing them).
+     *
+     * @param element the element to add
+     */
+    public void addElement(final E element) {
+        final Set<E> newElements = this.elements != null ? new HashSet<>(this.elements) : new HashSet<>();
+        newElements.add(element);
+        this.elements = Collections.unmodifiableSet(newElements);
+    }
 }
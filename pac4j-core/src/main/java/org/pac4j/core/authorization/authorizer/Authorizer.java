@@ -23,4 +23,15 @@ public interface Authorizer<U extends CommonProfile> {
      * @throws HttpAction whether an additional HTTP action is required
      */
     boolean isAuthorized(WebContext context, List<U> profiles) throws HttpAction;
+
+    /**
+     * Whether the decision only depends on the user profiles (and not on the web context): such a decision can be cached with the
+     * profile until it changes.
+     *
+     * @return whether the decision is context-independent
+     * @since 1.9.3
+     */
+    default boolean isContextIndependent() {
+        return false;
+    }
 }
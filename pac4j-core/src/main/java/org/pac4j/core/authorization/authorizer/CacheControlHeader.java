@@ -14,21 +14,29 @@ import java.util.List;
  */
 public class CacheControlHeader implements Authorizer<CommonProfile> {
 
+    static final HeaderPolicy HEADERS = HeaderPolicy.of("Cache-Control", "no-cache, no-store, max-age=0, must-revalidate",
+            "Pragma", "no-cache", "Expires", "0");
+
+    private static final String[] STATIC_EXTENSIONS = { ".css", ".js", ".png", ".jpg", ".ico", ".jpeg", ".bmp", ".gif" };
+
     @Override
     public boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles) throws HttpAction {
-        final String url = context.getFullRequestURL().toLowerCase();
-        if (!url.endsWith(".css")
-                && !url.endsWith(".js")
-                && !url.endsWith(".png")
-                && !url.endsWith(".jpg")
-                && !url.endsWith(".ico")
-                && !url.endsWith(".jpeg")
-                && !url.endsWith(".bmp")
-                && !url.endsWith(".gif")) {
-            context.setResponseHeader("Cache-Control", "no-cache, no-store, max-age=0, must-revalidate");
-            context.setResponseHeader("Pragma", "no-cache");
-            context.setResponseHeader("Expires", "0");
+        if (!isStaticResource(context)) {
+            HEADERS.apply(context);
         }
         return true;
     }
+
+    /* whether the URL ends with a static resource extension (case-insensitive, without allocation) */
+    static boolean isStaticResource(final WebContext context) {
+        final String url = context.getFullRequestURL();
+        final int length = url.length();
+        for (final String extension : STATIC_EXTENSIONS) {
+            final int extensionLength = extension.length();
+            if (length >= extensionLength && url.regionMatches(true, length - extensionLength, extension, 0, extensionLength)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -29,6 +29,11 @@ public class CheckProfileTypeAuthorizer<U extends CommonProfile> extends Abstrac
         setElements(types);
     }
 
+    @Override
+    public boolean isContextIndependent() {
+        return true;
+    }
+
     @Override
     protected boolean check(final WebContext context, final U profile, final Class<U> element) throws HttpAction {
         return profile.getClass().isAssignableFrom(element);
@@ -0,0 +1,75 @@
+package org.pac4j.core.authorization.authorizer;
+
+import org.pac4j.core.authorization.ElementBits;
+import org.pac4j.core.authorization.ElementRegistry;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+
+/**
+ * The elements of a role / permission authorizer compiled as {@link ElementBits}, compiled again when the elements are replaced:
+ * as the authorizer keeps them unmodifiable, checking that they are the same instance is enough.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+final class CompiledElements {
+
+    private final ElementRegistry registry;
+
+    private final boolean enabled;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param registry the registry of the elements
+     * @param authorizerClass the class of the authorizer
+     * @param baseClass the base authorizer class: compilation is disabled if a subclass overrides the <code>check</code> method
+     */
+    CompiledElements(final ElementRegistry registry, final Class<?> authorizerClass, final Class<?> baseClass) {
+        this.registry = registry;
+        this.enabled = !overridesCheck(authorizerClass, baseClass);
+    }
+
+    private static boolean overridesCheck(final Class<?> authorizerClass, final Class<?> baseClass) {
+        for (Class<?> clazz = authorizerClass; clazz != null && clazz != baseClass; clazz = clazz.getSuperclass()) {
+            for (final Method method : clazz.getDeclaredMethods()) {
+                if ("check".equals(method.getName()) && method.getParameterCount() == 3) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the compiled elements.
+     *
+     * @param elements the elements
+     * @return the bits or <code>null</code> if the elements cannot be compiled
+     */
+    ElementBits get(final Set<String> elements) {
+        if (!enabled || elements == null) {
+            return null;
+        }
+        Snapshot current = this.snapshot;
+        // the elements may have been replaced
+        if (current == null || current.elements != elements) {
+            current = new Snapshot(elements, registry.compile(elements));
+            this.snapshot = current;
+        }
+        return current.bits;
+    }
+
+    private static final class Snapshot {
+
+        private final Set<String> elements;
+
+        private final ElementBits bits;
+
+        private Snapshot(final Set<String> elements, final ElementBits bits) {
+            this.elements = elements;
+            this.bits = bits;
+        }
+    }
+}
@@ -6,12 +6,13 @@ import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.util.CommonHelper;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * Define how the CORS requests are authorized.
+ * Define how the CORS requests are authorized. The headers are computed once from the configuration, on first use.
  *
  * @author Jerome Leleu
  * @since 1.9.2
@@ -30,34 +31,53 @@ public class CorsAuthorizer implements Authorizer<CommonProfile> {
 
     private String allowHeaders;
 
+    /* headers computed once from the configuration */
+    private volatile HeaderPolicy headers;
+
     @Override
     public boolean isAuthorized(WebContext context, List<CommonProfile> profiles) throws HttpAction {
+        HeaderPolicy currentHeaders = headers;
+        if (currentHeaders == null) {
+            currentHeaders = buildHeaders();
+            headers = currentHeaders;
+        }
+        currentHeaders.apply(context);
+        return true;
+    }
+
+    private HeaderPolicy buildHeaders() {
         CommonHelper.assertNotBlank("allowOrigin", allowOrigin);
 
-        context.setResponseHeader(HttpConstants.ACCESS_CONTROL_ALLOW_ORIGIN_HEADER, allowOrigin);
+        final List<String> namesAndValues = new ArrayList<>();
+        namesAndValues.add(HttpConstants.ACCESS_CONTROL_ALLOW_ORIGIN_HEADER);
+        namesAndValues.add(allowOrigin);
 
         if (CommonHelper.isNotBlank(exposeHeaders)) {
-            context.setResponseHeader(HttpConstants.ACCESS_CONTROL_EXPOSE_HEADERS_HEADER, exposeHeaders);
+            namesAndValues.add(HttpConstants.ACCESS_CONTROL_EXPOSE_HEADERS_HEADER);
+            namesAndValues.add(exposeHeaders);
         }
 
         if (maxAge != -1) {
-            context.setResponseHeader(HttpConstants.ACCESS_CONTROL_MAX_AGE_HEADER, "" + maxAge);
+            namesAndValues.add(HttpConstants.ACCESS_CONTROL_MAX_AGE_HEADER);
+            namesAndValues.add("" + maxAge);
         }
 
         if (allowCredentials != null) {
-            context.setResponseHeader(HttpConstants.ACCESS_CONTROL_ALLOW_CREDENTIALS_HEADER, allowCredentials.toString());
+            namesAndValues.add(HttpConstants.ACCESS_CONTROL_ALLOW_CREDENTIALS_HEADER);
+            namesAndValues.add(allowCredentials.toString());
         }
 
         if (allowMethods != null) {
-            final String methods = allowMethods.stream().map(m -> m.toString()).collect(Collectors.joining(", "));
-            context.setResponseHeader(HttpConstants.ACCESS_CONTROL_ALLOW_METHODS_HEADER, methods);
+            namesAndValues.add(HttpConstants.ACCESS_CONTROL_ALLOW_METHODS_HEADER);
+            namesAndValues.add(allowMethods.stream().map(m -> m.toString()).collect(Collectors.joining(", ")));
         }
 
         if (CommonHelper.isNotBlank(allowHeaders)) {
-            context.setResponseHeader(HttpConstants.ACCESS_CONTROL_ALLOW_HEADERS_HEADER, allowHeaders);
+            namesAndValues.add(HttpConstants.ACCESS_CONTROL_ALLOW_HEADERS_HEADER);
+            namesAndValues.add(allowHeaders);
         }
 
-        return true;
+        return HeaderPolicy.of(namesAndValues.toArray(new String[namesAndValues.size()]));
     }
 
     public String getAllowOrigin() {
@@ -66,6 +86,7 @@ public class CorsAuthorizer implements Authorizer<CommonProfile> {
 
     public void setAllowOrigin(final String allowOrigin) {
         this.allowOrigin = allowOrigin;
+        this.headers = null;
     }
 
     public String getExposeHeaders() {
@@ -74,6 +95,7 @@ public class CorsAuthorizer implements Authorizer<CommonProfile> {
 
     public void setExposeHeaders(final String exposeHeaders) {
         this.exposeHeaders = exposeHeaders;
+        this.headers = null;
     }
 
     public int getMaxAge() {
@@ -82,6 +104,7 @@ public class CorsAuthorizer implements Authorizer<CommonProfile> {
 
     public void setMaxAge(final int maxAge) {
         this.maxAge = maxAge;
+        this.headers = null;
     }
 
     public Boolean getAllowCredentials() {
@@ -90,6 +113,7 @@ public class CorsAuthorizer implements Authorizer<CommonProfile> {
 
     public void setAllowCredentials(final Boolean allowCredentials) {
         this.allowCredentials = allowCredentials;
+        this.headers = null;
     }
 
     public Set<HttpConstants.HTTP_METHOD> getAllowMethods() {
@@ -98,6 +122,7 @@ public class CorsAuthorizer implements Authorizer<CommonProfile> {
 
     public void setAllowMethods(final Set<HttpConstants.HTTP_METHOD> allowMethods) {
         this.allowMethods = allowMethods;
+        this.headers = null;
     }
 
     public String getAllowHeaders() {
@@ -106,6 +131,7 @@ public class CorsAuthorizer implements Authorizer<CommonProfile> {
 
     public void setAllowHeaders(final String allowHeaders) {
         this.allowHeaders = allowHeaders;
+        this.headers = null;
     }
 
     @Override
@@ -0,0 +1,90 @@
+package org.pac4j.core.authorization.authorizer;
+
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of response headers, precomputed at configuration time and applied in one pass
+ * (see {@link WebContext#setResponseHeaders(String[], String[])}).
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class HeaderPolicy {
+
+    public static final HeaderPolicy EMPTY = new HeaderPolicy(new String[0], new String[0]);
+
+    private final String[] names;
+
+    private final String[] values;
+
+    private HeaderPolicy(final String[] names, final String[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    /**
+     * Build a header policy.
+     *
+     * @param namesAndValues the names and values of the headers: name1, value1, name2, value2...
+     * @return the header policy
+     */
+    public static HeaderPolicy of(final String... namesAndValues) {
+        CommonHelper.assertTrue(namesAndValues.length % 2 == 0, "namesAndValues must contain pairs of name and value");
+        final int nb = namesAndValues.length / 2;
+        final String[] names = new String[nb];
+        final String[] values = new String[nb];
+        for (int i = 0; i < nb; i++) {
+            names[i] = namesAndValues[2 * i];
+            values[i] = namesAndValues[2 * i + 1];
+            CommonHelper.assertNotBlank("name", names[i]);
+            CommonHelper.assertNotNull("value", values[i]);
+        }
+        return new HeaderPolicy(names, values);
+    }
+
+    /**
+     * Add the headers of another policy (after the headers of this policy).
+     *
+     * @param other the other policy
+     * @return the new header policy
+     */
+    public HeaderPolicy and(final HeaderPolicy other) {
+        CommonHelper.assertNotNull("other", other);
+        final int nb = names.length + other.names.length;
+        final String[] newNames = Arrays.copyOf(names, nb);
+        final String[] newValues = Arrays.copyOf(values, nb);
+        System.arraycopy(other.names, 0, newNames, names.length, other.names.length);
+        System.arraycopy(other.values, 0, newValues, values.length, other.values.length);
+        return new HeaderPolicy(newNames, newValues);
+    }
+
+    /**
+     * Set the headers in the response.
+     *
+     * @param context the web context
+     */
+    public void apply(final WebContext context) {
+        if (names.length > 0) {
+            context.setResponseHeaders(names, values);
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("HeaderPolicy[");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(names[i]).append(": ").append(values[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
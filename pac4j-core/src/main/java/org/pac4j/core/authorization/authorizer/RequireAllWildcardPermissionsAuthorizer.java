@@ -0,0 +1,44 @@
+package org.pac4j.core.authorization.authorizer;
+
+import org.pac4j.core.authorization.permission.PermissionTrie;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks an access if the permissions of the user profile, as wildcard permissions, imply all the permissions
+ * (see {@link PermissionTrie}).
+ *
+ * @param <U> the user profile
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class RequireAllWildcardPermissionsAuthorizer<U extends CommonProfile> extends AbstractRequireAllAuthorizer<String, U> {
+
+    public RequireAllWildcardPermissionsAuthorizer() { }
+
+    public RequireAllWildcardPermissionsAuthorizer(final String... permissions) {
+        setElements(permissions);
+    }
+
+    public RequireAllWildcardPermissionsAuthorizer(final List<String> permissions) {
+        setElements(permissions);
+    }
+
+    public RequireAllWildcardPermissionsAuthorizer(final Set<String> permissions) {
+        setElements(permissions);
+    }
+
+    @Override
+    public boolean isContextIndependent() {
+        return true;
+    }
+
+    @Override
+    protected boolean check(final WebContext context, final U profile, final String element) throws HttpAction {
+        return profile.getPermissionTrie().implies(element);
+    }
+}
@@ -28,6 +28,11 @@ public class RequireAnyAttributeAuthorizer<U extends CommonProfile> extends Abst
         this.valueToMatch = valueToMatch;
     }
 
+    @Override
+    public boolean isContextIndependent() {
+        return true;
+    }
+
     @Override
     protected boolean check(final WebContext context, final U profile, final String element) throws HttpAction {
         if (!profile.containsAttribute(element)) {
@@ -1,5 +1,7 @@
 package org.pac4j.core.authorization.authorizer;
 
+import org.pac4j.core.authorization.ElementBits;
+import org.pac4j.core.authorization.ElementRegistry;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.profile.CommonProfile;
@@ -9,6 +11,7 @@ import java.util.Set;
 
 /**
  * Checks an access if the user profile has any of the roles.
+ * The roles are checked with a single bitmask operation (see {@link ElementRegistry}).
  *
  * @param <U> the user profile
  * @author Jerome Leleu
@@ -16,6 +19,8 @@ import java.util.Set;
  */
 public class RequireAnyRoleAuthorizer<U extends CommonProfile> extends AbstractRequireAnyAuthorizer<String, U> {
 
+    private final CompiledElements compiledElements = new CompiledElements(ElementRegistry.ROLES, getClass(), RequireAnyRoleAuthorizer.class);
+
     public RequireAnyRoleAuthorizer() { }
 
     public RequireAnyRoleAuthorizer(final String... roles) {
@@ -28,6 +33,20 @@ public class RequireAnyRoleAuthorizer<U extends CommonProfile> extends AbstractR
 
     public RequireAnyRoleAuthorizer(final Set<String> roles) { setElements(roles); }
 
+    @Override
+    protected boolean isProfileAuthorized(final WebContext context, final U profile) throws HttpAction {
+        final ElementBits required = compiledElements.get(elements);
+        if (required == null) {
+            return super.isProfileAuthorized(context, profile);
+        }
+        return required.isEmpty() || profile.getRoleBits().intersects(required);
+    }
+
+    @Override
+    public boolean isContextIndependent() {
+        return true;
+    }
+
     @Override
     protected boolean check(final WebContext context, final U profile, final String element) throws HttpAction {
         final Set<String> profileRoles = profile.getRoles();
@@ -0,0 +1,68 @@
+package org.pac4j.core.authorization.authorizer;
+
+import org.pac4j.core.context.ContextHelper;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.List;
+
+/**
+ * All the security headers at once: the headers of the {@link CacheControlHeader} (except for static resources),
+ * {@link XContentTypeOptionsHeader}, {@link StrictTransportSecurityHeader} (for HTTPS requests only), {@link XFrameOptionsHeader}
+ * and {@link XSSProtectionHeader} authorizers, precomputed for each case and set in one pass.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class SecurityHeadersAuthorizer implements Authorizer<CommonProfile> {
+
+    private int hstsMaxAge;
+
+    /* indexed by: static resource (1) + HTTPS (2) */
+    private HeaderPolicy[] headers;
+
+    public SecurityHeadersAuthorizer() {
+        this(StrictTransportSecurityHeader.DEFAULT_MAX_AGE);
+    }
+
+    public SecurityHeadersAuthorizer(final int hstsMaxAge) {
+        setHstsMaxAge(hstsMaxAge);
+    }
+
+    @Override
+    public boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles) throws HttpAction {
+        final int index = (CacheControlHeader.isStaticResource(context) ? 1 : 0) + (ContextHelper.isHttpsOrSecure(context) ? 2 : 0);
+        headers[index].apply(context);
+        return true;
+    }
+
+    private static HeaderPolicy buildHeaders(final boolean staticResource, final boolean https, final HeaderPolicy hsts) {
+        HeaderPolicy policy = staticResource ? HeaderPolicy.EMPTY : CacheControlHeader.HEADERS;
+        policy = policy.and(XContentTypeOptionsHeader.HEADERS);
+        if (https) {
+            policy = policy.and(hsts);
+        }
+        return policy.and(XFrameOptionsHeader.HEADERS).and(XSSProtectionHeader.HEADERS);
+    }
+
+    public int getHstsMaxAge() {
+        return hstsMaxAge;
+    }
+
+    public void setHstsMaxAge(final int hstsMaxAge) {
+        this.hstsMaxAge = hstsMaxAge;
+        final HeaderPolicy hsts = StrictTransportSecurityHeader.buildHeaders(hstsMaxAge);
+        final HeaderPolicy[] newHeaders = new HeaderPolicy[4];
+        for (int i = 0; i < newHeaders.length; i++) {
+            newHeaders[i] = buildHeaders((i & 1) != 0, (i & 2) != 0, hsts);
+        }
+        this.headers = newHeaders;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "hstsMaxAge", hstsMaxAge);
+    }
+}
@@ -18,20 +18,28 @@ public class StrictTransportSecurityHeader implements Authorizer<CommonProfile>
     /**
      * 6 months in seconds.
      */
-    private final static int DEFAULT_MAX_AGE = 15768000;
+    final static int DEFAULT_MAX_AGE = 15768000;
 
-    private int maxAge = DEFAULT_MAX_AGE;
+    private int maxAge;
 
-    public StrictTransportSecurityHeader() {}
+    private HeaderPolicy headers;
+
+    public StrictTransportSecurityHeader() {
+        this(DEFAULT_MAX_AGE);
+    }
 
     public StrictTransportSecurityHeader(final int maxAge) {
-        this.maxAge = maxAge;
+        setMaxAge(maxAge);
+    }
+
+    static HeaderPolicy buildHeaders(final int maxAge) {
+        return HeaderPolicy.of("Strict-Transport-Security", "max-age=" + maxAge + " ; includeSubDomains");
     }
 
     @Override
     public boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles) throws HttpAction {
         if (ContextHelper.isHttpsOrSecure(context)) {
-            context.setResponseHeader("Strict-Transport-Security", "max-age=" + maxAge + " ; includeSubDomains");
+            headers.apply(context);
         }
         return true;
     }
@@ -40,7 +48,8 @@ public class StrictTransportSecurityHeader implements Authorizer<CommonProfile>
         return maxAge;
     }
 
-    public void setMaxAge(int maxAge) {
+    public void setMaxAge(final int maxAge) {
         this.maxAge = maxAge;
+        this.headers = buildHeaders(maxAge);
     }
 }
@@ -14,9 +14,11 @@ import java.util.List;
  */
 public class XContentTypeOptionsHeader implements Authorizer<CommonProfile> {
 
+    static final HeaderPolicy HEADERS = HeaderPolicy.of("X-Content-Type-Options", "nosniff");
+
     @Override
     public boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles) throws HttpAction {
-        context.setResponseHeader("X-Content-Type-Options", "nosniff");
+        HEADERS.apply(context);
         return true;
     }
 }
@@ -14,9 +14,11 @@ import java.util.List;
  */
 public class XFrameOptionsHeader implements Authorizer<CommonProfile> {
 
+    static final HeaderPolicy HEADERS = HeaderPolicy.of("X-Frame-Options", "DENY");
+
     @Override
     public boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles) throws HttpAction {
-        context.setResponseHeader("X-Frame-Options", "DENY");
+        HEADERS.apply(context);
         return true;
     }
 }
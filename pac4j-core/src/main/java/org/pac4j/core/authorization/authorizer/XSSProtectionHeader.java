@@ -14,9 +14,11 @@ import java.util.List;
  */
 public class XSSProtectionHeader implements Authorizer<CommonProfile> {
 
+    static final HeaderPolicy HEADERS = HeaderPolicy.of("X-XSS-Protection", "1; mode=block");
+
     @Override
     public boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles) throws HttpAction {
-        context.setResponseHeader("X-XSS-Protection", "1; mode=block");
+        HEADERS.apply(context);
         return true;
     }
 }
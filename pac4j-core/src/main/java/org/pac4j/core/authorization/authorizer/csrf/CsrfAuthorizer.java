@@ -11,7 +11,8 @@ import org.pac4j.core.util.CommonHelper;
 import java.util.List;
 
 /**
- * Authorizer that checks CSRF tokens.
+ * Authorizer that checks CSRF tokens: against the token saved in session by default or using a {@link CsrfTokenValidator}
+ * (like the stateless {@link HmacCsrfTokenGenerator}).
  *
  * @author Jerome Leleu
  * @since 1.8.0
@@ -24,9 +25,15 @@ public class CsrfAuthorizer implements Authorizer<CommonProfile> {
 
     private boolean onlyCheckPostRequest = true;
 
+    private CsrfTokenValidator tokenValidator;
+
     public CsrfAuthorizer() {
     }
 
+    public CsrfAuthorizer(final CsrfTokenValidator tokenValidator) {
+        this.tokenValidator = tokenValidator;
+    }
+
     public CsrfAuthorizer(final String parameterName, final String headerName) {
         this.parameterName = parameterName;
         this.headerName = headerName;
@@ -43,6 +50,9 @@ public class CsrfAuthorizer implements Authorizer<CommonProfile> {
         if (checkRequest) {
             final String parameterToken = context.getRequestParameter(parameterName);
             final String headerToken = context.getRequestHeader(headerName);
+            if (tokenValidator != null) {
+                return tokenValidator.isValid(parameterToken, context, profiles) || tokenValidator.isValid(headerToken, context, profiles);
+            }
             final String sessionToken = (String) context.getSessionAttribute(Pac4jConstants.CSRF_TOKEN);
             return CommonHelper.areEquals(parameterToken, sessionToken) || CommonHelper.areEquals(headerToken, sessionToken);
         } else {
@@ -73,4 +83,12 @@ public class CsrfAuthorizer implements Authorizer<CommonProfile> {
     public void setOnlyCheckPostRequest(boolean onlyCheckPostRequest) {
         this.onlyCheckPostRequest = onlyCheckPostRequest;
     }
+
+    public CsrfTokenValidator getTokenValidator() {
+        return tokenValidator;
+    }
+
+    public void setTokenValidator(final CsrfTokenValidator tokenValidator) {
+        this.tokenValidator = tokenValidator;
+    }
 }
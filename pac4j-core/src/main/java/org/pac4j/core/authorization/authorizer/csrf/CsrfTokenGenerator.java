@@ -1,6 +1,9 @@
 package org.pac4j.core.authorization.authorizer.csrf;
 
 import org.pac4j.core.context.WebContext;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.List;
 
 /**
  * CSRF token generator.
@@ -17,4 +20,15 @@ public interface CsrfTokenGenerator {
      * @return the CSRF token
      */
     String get(WebContext context);
+
+    /**
+     * Get the CSRF token for the current user.
+     *
+     * @param context the current web context
+     * @param profiles the current user profiles
+     * @return the CSRF token
+     */
+    default String get(final WebContext context, final List<CommonProfile> profiles) {
+        return get(context);
+    }
 }
@@ -27,7 +27,7 @@ public class CsrfTokenGeneratorAuthorizer implements Authorizer<CommonProfile> {
     @Override
     public boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles) throws HttpAction {
         CommonHelper.assertNotNull("csrfTokenGenerator", csrfTokenGenerator);
-        final String token = csrfTokenGenerator.get(context);
+        final String token = csrfTokenGenerator.get(context, profiles);
         context.setRequestAttribute(Pac4jConstants.CSRF_TOKEN, token);
         final Cookie cookie = new Cookie(Pac4jConstants.CSRF_TOKEN, token);
         cookie.setDomain(context.getServerName());
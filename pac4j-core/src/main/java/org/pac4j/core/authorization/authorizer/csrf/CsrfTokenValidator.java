@@ -0,0 +1,25 @@
+package org.pac4j.core.authorization.authorizer.csrf;
+
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.List;
+
+/**
+ * CSRF token validator.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public interface CsrfTokenValidator {
+
+    /**
+     * Check whether a CSRF token is valid for the current user.
+     *
+     * @param token the CSRF token sent by the client (may be <code>null</code>)
+     * @param context the current web context
+     * @param profiles the current user profiles
+     * @return whether the token is valid
+     */
+    boolean isValid(String token, WebContext context, List<CommonProfile> profiles);
+}
@@ -0,0 +1,259 @@
+package org.pac4j.core.authorization.authorizer.csrf;
+
+import org.pac4j.core.context.ContextHelper;
+import org.pac4j.core.context.Cookie;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.AnonymousProfile;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.util.CommonHelper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stateless CSRF token generator and validator: a token is <code>timestamp.HMAC-SHA256(secret, subject + timestamp)</code>, so it
+ * is verified by computing the HMAC again, without any session lookup (which suits horizontally scaled servers sharing the secret).
+ *
+ * The subject is the typed identifier of the (non-anonymous) user profile. For anonymous users, it is a random value stored in
+ * a cookie ({@link #setAnonymousCookieName(String)}), created when the first token is issued, so that no web session is created.
+ * Tokens expire
+ * after {@link #setTimeToLive(int)} seconds. By default, a new token is issued for each request ({@link #setRotationPeriod(int)}
+ * at 0); with a rotation period, the same token is issued during each period. Secrets can be rotated: tokens are issued with the
+ * first secret and checked with all of them.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class HmacCsrfTokenGenerator implements CsrfTokenGenerator, CsrfTokenValidator {
+
+    public static final String ALGORITHM = "HmacSHA256";
+
+    public static final int MIN_SECRET_LENGTH = 32;
+
+    /* default time to live of the tokens: 1 hour */
+    public static final int DEFAULT_TIME_TO_LIVE = 3600;
+
+    /* allowed clock skew between servers */
+    public static final int CLOCK_SKEW = 60;
+
+    public static final String DEFAULT_ANONYMOUS_COOKIE_NAME = "pac4jCsrfSubject";
+
+    private static final char SEPARATOR = '.';
+
+    private static final int ANONYMOUS_SUBJECT_LENGTH = 16;
+
+    private static final String ANONYMOUS_SUBJECT_ATTRIBUTE = HmacCsrfTokenGenerator.class.getName() + "$anonymousSubject";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private volatile List<HmacKey> keys = Collections.emptyList();
+
+    private int timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    private int rotationPeriod;
+
+    private String anonymousCookieName = DEFAULT_ANONYMOUS_COOKIE_NAME;
+
+    public HmacCsrfTokenGenerator() {}
+
+    public HmacCsrfTokenGenerator(final String... secrets) {
+        setSecrets(Arrays.asList(secrets));
+    }
+
+    @Override
+    public String get(final WebContext context) {
+        return get(context, null);
+    }
+
+    @Override
+    public String get(final WebContext context, final List<CommonProfile> profiles) {
+        final List<HmacKey> currentKeys = this.keys;
+        CommonHelper.assertTrue(!currentKeys.isEmpty(), "secrets cannot be empty");
+        long timestamp = System.currentTimeMillis() / 1000;
+        if (rotationPeriod > 0) {
+            timestamp -= timestamp % rotationPeriod;
+        }
+        final String encodedTimestamp = Long.toString(timestamp, Character.MAX_RADIX);
+        final byte[] signature = currentKeys.get(0).sign(getSubject(context, profiles, true), encodedTimestamp);
+        return encodedTimestamp + SEPARATOR + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    @Override
+    public boolean isValid(final String token, final WebContext context, final List<CommonProfile> profiles) {
+        if (token == null) {
+            return false;
+        }
+        final int separator = token.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            return false;
+        }
+        final String encodedTimestamp = token.substring(0, separator);
+        final long timestamp;
+        final byte[] signature;
+        try {
+            timestamp = Long.parseLong(encodedTimestamp, Character.MAX_RADIX);
+            signature = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+        } catch (final IllegalArgumentException e) {
+            return false;
+        }
+        final long now = System.currentTimeMillis() / 1000;
+        if (timestamp > now + CLOCK_SKEW || now - timestamp > timeToLive) {
+            return false;
+        }
+        final String subject = getSubject(context, profiles, false);
+        if (subject == null) {
+            return false;
+        }
+        for (final HmacKey key : this.keys) {
+            if (MessageDigest.isEqual(signature, key.sign(subject, encodedTimestamp))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the subject the tokens are bound to.
+     *
+     * @param context the web context
+     * @param profiles the user profiles
+     * @param create whether the anonymous subject must be created if it does not exist yet
+     * @return the subject (<code>null</code> for an anonymous user without subject cookie if not created)
+     */
+    protected String getSubject(final WebContext context, final List<CommonProfile> profiles, final boolean create) {
+        if (profiles != null && !profiles.isEmpty()) {
+            final CommonProfile profile = profiles.get(0);
+            if (!(profile instanceof AnonymousProfile) && profile.getId() != null) {
+                return "profile:" + profile.getTypedId();
+            }
+        }
+        final String anonymousSubject = getAnonymousSubject(context, create);
+        return anonymousSubject != null ? "anonymous:" + anonymousSubject : null;
+    }
+
+    private String getAnonymousSubject(final WebContext context, final boolean create) {
+        CommonHelper.assertNotBlank("anonymousCookieName", anonymousCookieName);
+        // created earlier in this request
+        final Object created = context.getRequestAttribute(ANONYMOUS_SUBJECT_ATTRIBUTE);
+        if (created instanceof String) {
+            return (String) created;
+        }
+        final Cookie cookie = ContextHelper.getCookie(context, anonymousCookieName);
+        if (cookie != null && CommonHelper.isNotBlank(cookie.getValue())) {
+            return cookie.getValue();
+        }
+        if (!create) {
+            return null;
+        }
+        final byte[] bytes = new byte[ANONYMOUS_SUBJECT_LENGTH];
+        RANDOM.nextBytes(bytes);
+        final String subject = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        final Cookie newCookie = new Cookie(anonymousCookieName, subject);
+        newCookie.setPath("/");
+        newCookie.setHttpOnly(true);
+        newCookie.setSecure(ContextHelper.isHttpsOrSecure(context));
+        context.addResponseCookie(newCookie);
+        context.setRequestAttribute(ANONYMOUS_SUBJECT_ATTRIBUTE, subject);
+        return subject;
+    }
+
+    /**
+     * Define the secrets: the first one is used to issue the tokens, all of them to check the tokens.
+     *
+     * @param secrets the secrets (at least {@link #MIN_SECRET_LENGTH} characters each)
+     */
+    public void setSecrets(final List<String> secrets) {
+        CommonHelper.assertNotNull("secrets", secrets);
+        final List<HmacKey> newKeys = new ArrayList<>();
+        for (final String secret : secrets) {
+            CommonHelper.assertNotBlank("secret", secret);
+            CommonHelper.assertTrue(secret.length() >= MIN_SECRET_LENGTH, "secret must be at least " + MIN_SECRET_LENGTH + " characters");
+            newKeys.add(new HmacKey(secret));
+        }
+        this.keys = Collections.unmodifiableList(newKeys);
+    }
+
+    public int getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Define the time to live of the tokens.
+     *
+     * @param timeToLive the time to live in seconds
+     */
+    public void setTimeToLive(final int timeToLive) {
+        CommonHelper.assertTrue(timeToLive > 0, "timeToLive must be greater than zero");
+        this.timeToLive = timeToLive;
+    }
+
+    public int getRotationPeriod() {
+        return rotationPeriod;
+    }
+
+    /**
+     * Define the rotation period of the tokens: 0 to issue a new token for each request.
+     *
+     * @param rotationPeriod the rotation period in seconds
+     */
+    public void setRotationPeriod(final int rotationPeriod) {
+        CommonHelper.assertTrue(rotationPeriod >= 0, "rotationPeriod cannot be negative");
+        this.rotationPeriod = rotationPeriod;
+    }
+
+    public String getAnonymousCookieName() {
+        return anonymousCookieName;
+    }
+
+    public void setAnonymousCookieName(final String anonymousCookieName) {
+        this.anonymousCookieName = anonymousCookieName;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "nbSecrets", keys.size(), "timeToLive", timeToLive, "rotationPeriod", rotationPeriod,
+                "anonymousCookieName", anonymousCookieName);
+    }
+
+    /**
+     * A secret with its (per thread) MAC instances, initialized once.
+     */
+    private static final class HmacKey {
+
+        private final SecretKeySpec spec;
+
+        private final ThreadLocal<Mac> macs;
+
+        private HmacKey(final String secret) {
+            this.spec = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+            this.macs = ThreadLocal.withInitial(this::newMac);
+        }
+
+        private Mac newMac() {
+            try {
+                final Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(spec);
+                return mac;
+            } catch (final GeneralSecurityException e) {
+                throw new TechnicalException(e);
+            }
+        }
+
+        private byte[] sign(final String subject, final String encodedTimestamp) {
+            final Mac mac = macs.get();
+            mac.update(subject.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) SEPARATOR);
+            return mac.doFinal(encodedTimestamp.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -3,6 +3,8 @@ package org.pac4j.core.authorization.checker;
 import org.pac4j.core.authorization.authorizer.Authorizer;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.metrics.SecurityMetrics;
+import org.pac4j.core.metrics.SecurityPhase;
 import org.pac4j.core.profile.CommonProfile;
 
 import java.util.List;
@@ -27,4 +29,31 @@ public interface AuthorizationChecker {
      * @throws HttpAction whether an additional HTTP action is required
      */
     boolean isAuthorized(WebContext context, List<CommonProfile> profiles, String authorizerNames, Map<String, Authorizer> authorizersMap) throws HttpAction;
+
+    /**
+     * Check whether the user is authorized and record the authorization phase (as a whole, by default).
+     *
+     * @param context the web context
+     * @param profiles the profile
+     * @param authorizerNames the authorizers
+     * @param authorizersMap the map of authorizers
+     * @param metrics the security metrics
+     * @return whether the user is authorized.
+     * @throws HttpAction whether an additional HTTP action is required
+     */
+    default boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles, final String authorizerNames,
+                                 final Map<String, Authorizer> authorizersMap, final SecurityMetrics metrics) throws HttpAction {
+        final long start = metrics.start(SecurityPhase.AUTHORIZATION, authorizerNames);
+        SecurityMetrics.Outcome outcome = SecurityMetrics.Outcome.ERROR;
+        try {
+            final boolean isAuthorized = isAuthorized(context, profiles, authorizerNames, authorizersMap);
+            outcome = isAuthorized ? SecurityMetrics.Outcome.SUCCESS : SecurityMetrics.Outcome.FAILURE;
+            return isAuthorized;
+        } catch (final HttpAction e) {
+            outcome = SecurityMetrics.Outcome.ACTION;
+            throw e;
+        } finally {
+            metrics.stop(SecurityPhase.AUTHORIZATION, authorizerNames, start, outcome);
+        }
+    }
 }
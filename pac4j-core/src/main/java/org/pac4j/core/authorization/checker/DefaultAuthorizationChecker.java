@@ -5,6 +5,9 @@ import org.pac4j.core.authorization.authorizer.csrf.*;
 import org.pac4j.core.context.Pac4jConstants;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.metrics.NopSecurityMetrics;
+import org.pac4j.core.metrics.SecurityMetrics;
+import org.pac4j.core.metrics.SecurityPhase;
 import org.pac4j.core.profile.CommonProfile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +33,7 @@ public class DefaultAuthorizationChecker implements AuthorizationChecker {
     final static XFrameOptionsHeader X_FRAME_OPTIONS_HEADER = new XFrameOptionsHeader();
     final static XSSProtectionHeader XSS_PROTECTION_HEADER = new XSSProtectionHeader();
     final static CacheControlHeader CACHE_CONTROL_HEADER = new CacheControlHeader();
+    final static SecurityHeadersAuthorizer SECURITY_HEADERS_AUTHORIZER = new SecurityHeadersAuthorizer();
     final static CsrfAuthorizer CSRF_AUTHORIZER = new CsrfAuthorizer();
     final static CsrfTokenGeneratorAuthorizer CSRF_TOKEN_GENERATOR_AUTHORIZER = new CsrfTokenGeneratorAuthorizer(new DefaultCsrfTokenGenerator());
     final static CorsAuthorizer CORS_AUTHORIZER = new CorsAuthorizer();
@@ -37,6 +41,13 @@ public class DefaultAuthorizationChecker implements AuthorizationChecker {
     final static IsAuthenticatedAuthorizer IS_AUTHENTICATED_AUTHORIZER =new IsAuthenticatedAuthorizer();
     final static IsFullyAuthenticatedAuthorizer IS_FULLY_AUTHENTICATED_AUTHORIZER = new IsFullyAuthenticatedAuthorizer();
     final static IsRememberedAuthorizer IS_REMEMBERED_AUTHORIZER = new IsRememberedAuthorizer();
+    final static SecurityMetrics NOP_SECURITY_METRICS = new NopSecurityMetrics();
+
+    private boolean cacheDecisions = false;
+
+    private CsrfAuthorizer csrfAuthorizer = CSRF_AUTHORIZER;
+
+    private CsrfTokenGeneratorAuthorizer csrfTokenGeneratorAuthorizer = CSRF_TOKEN_GENERATOR_AUTHORIZER;
 
     static {
         CORS_AUTHORIZER.setAllowOrigin("*");
@@ -52,13 +63,20 @@ public class DefaultAuthorizationChecker implements AuthorizationChecker {
 
     @Override
     public boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles, final String authorizerNames, final Map<String, Authorizer> authorizersMap) throws HttpAction {
+        return isAuthorized(context, profiles, authorizerNames, authorizersMap, NOP_SECURITY_METRICS);
+    }
+
+    @Override
+    public boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles, final String authorizerNames,
+                                final Map<String, Authorizer> authorizersMap, final SecurityMetrics metrics) throws HttpAction {
         final List<Authorizer> authorizers = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
         // if we have an authorizer name (which may be a list of authorizer names)
         if (isNotBlank(authorizerNames)) {
-            final String[] names = authorizerNames.split(Pac4jConstants.ELEMENT_SEPRATOR);
-            final int nb = names.length;
+            final String[] splitNames = authorizerNames.split(Pac4jConstants.ELEMENT_SEPRATOR);
+            final int nb = splitNames.length;
             for (int i = 0; i < nb; i++) {
-                final String name = names[i].trim();
+                final String name = splitNames[i].trim();
                 if ("hsts".equalsIgnoreCase(name)) {
                     authorizers.add(STRICT_TRANSPORT_SECURITY_HEADER);
                 } else if ("nosniff".equalsIgnoreCase(name)) {
@@ -70,18 +88,14 @@ public class DefaultAuthorizationChecker implements AuthorizationChecker {
                 } else if ("nocache".equalsIgnoreCase(name)) {
                     authorizers.add(CACHE_CONTROL_HEADER);
                 } else if ("securityheaders".equalsIgnoreCase(name)) {
-                    authorizers.add(CACHE_CONTROL_HEADER);
-                    authorizers.add(X_CONTENT_TYPE_OPTIONS_HEADER);
-                    authorizers.add(STRICT_TRANSPORT_SECURITY_HEADER);
-                    authorizers.add(X_FRAME_OPTIONS_HEADER);
-                    authorizers.add(XSS_PROTECTION_HEADER);
+                    authorizers.add(SECURITY_HEADERS_AUTHORIZER);
                 } else if ("csrfToken".equalsIgnoreCase(name)) {
-                    authorizers.add(CSRF_TOKEN_GENERATOR_AUTHORIZER);
+                    authorizers.add(csrfTokenGeneratorAuthorizer);
                 } else if ("csrfCheck".equalsIgnoreCase(name)) {
-                    authorizers.add(CSRF_AUTHORIZER);
+                    authorizers.add(csrfAuthorizer);
                 } else if ("csrf".equalsIgnoreCase(name)) {
-                    authorizers.add(CSRF_TOKEN_GENERATOR_AUTHORIZER);
-                    authorizers.add(CSRF_AUTHORIZER);
+                    authorizers.add(csrfTokenGeneratorAuthorizer);
+                    authorizers.add(csrfAuthorizer);
                 } else if ("allowAjaxRequests".equalsIgnoreCase(name)) {
                     authorizers.add(CORS_AUTHORIZER);
                 } else if ("isAnonymous".equalsIgnoreCase(name)) {
@@ -106,9 +120,16 @@ public class DefaultAuthorizationChecker implements AuthorizationChecker {
                     assertNotNull("authorizersMap['" + name + "']", result);
                     authorizers.add(result);
                 }
+                // one name per added authorizer
+                while (names.size() < authorizers.size()) {
+                    names.add(name);
+                }
             }
         }
-        return isAuthorized(context, profiles, authorizers);
+        if (!metrics.isEnabled()) {
+            return isAuthorized(context, profiles, authorizers);
+        }
+        return isAuthorized(context, profiles, authorizers, names, metrics);
     }
 
     protected boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles, final List<Authorizer> authorizers) throws HttpAction {
@@ -117,7 +138,7 @@ public class DefaultAuthorizationChecker implements AuthorizationChecker {
         if (isNotEmpty(authorizers)) {
             // check authorizations using authorizers: all must be satisfied
             for (Authorizer authorizer : authorizers) {
-                final boolean isAuthorized = authorizer.isAuthorized(context, profiles);
+                final boolean isAuthorized = checkAuthorizer(context, profiles, authorizer);
                 logger.debug("Checking authorizer: {} -> {}", authorizer, isAuthorized);
                 if (!isAuthorized) {
                     return false;
@@ -126,4 +147,111 @@ public class DefaultAuthorizationChecker implements AuthorizationChecker {
         }
         return true;
     }
+
+    /**
+     * Check the authorizations and record each authorizer check.
+     *
+     * @param context the web context
+     * @param profiles the user profiles
+     * @param authorizers the authorizers
+     * @param names the names of the authorizers
+     * @param metrics the security metrics
+     * @return whether the access is authorized
+     * @throws HttpAction whether an additional HTTP action is required
+     */
+    protected boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles, final List<Authorizer> authorizers,
+                                   final List<String> names, final SecurityMetrics metrics) throws HttpAction {
+        assertTrue(isNotEmpty(profiles), "profiles must not be null or empty");
+        final int nb = authorizers.size();
+        for (int i = 0; i < nb; i++) {
+            final Authorizer authorizer = authorizers.get(i);
+            final String name = names.get(i);
+            final long start = metrics.start(SecurityPhase.AUTHORIZATION, name);
+            SecurityMetrics.Outcome outcome = SecurityMetrics.Outcome.ERROR;
+            final boolean isAuthorized;
+            try {
+                isAuthorized = checkAuthorizer(context, profiles, authorizer);
+                outcome = isAuthorized ? SecurityMetrics.Outcome.SUCCESS : SecurityMetrics.Outcome.FAILURE;
+            } catch (final HttpAction e) {
+                outcome = SecurityMetrics.Outcome.ACTION;
+                throw e;
+            } finally {
+                metrics.stop(SecurityPhase.AUTHORIZATION, name, start, outcome);
+            }
+            logger.debug("Checking authorizer: {} -> {}", authorizer, isAuthorized);
+            if (!isAuthorized) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check an authorizer, using the decision cached with the profile if the decision cache is enabled, the authorizer is
+     * context-independent and there is a single profile.
+     *
+     * @param context the web context
+     * @param profiles the user profiles
+     * @param authorizer the authorizer
+     * @return whether the access is authorized
+     * @throws HttpAction whether an additional HTTP action is required
+     */
+    protected boolean checkAuthorizer(final WebContext context, final List<CommonProfile> profiles, final Authorizer authorizer) throws HttpAction {
+        if (!cacheDecisions || profiles.size() != 1 || !authorizer.isContextIndependent()) {
+            return authorizer.isAuthorized(context, profiles);
+        }
+        final CommonProfile profile = profiles.get(0);
+        final Boolean cached = profile.getAuthorizationDecisions().get(authorizer);
+        if (cached != null) {
+            return cached;
+        }
+        final int version = profile.getProfileVersion();
+        final boolean isAuthorized = authorizer.isAuthorized(context, profiles);
+        profile.putAuthorizationDecision(authorizer, version, isAuthorized);
+        return isAuthorized;
+    }
+
+    public boolean isCacheDecisions() {
+        return cacheDecisions;
+    }
+
+    /**
+     * Define whether the decisions of the context-independent authorizers are cached (transiently) with the profile, until it changes.
+     *
+     * @param cacheDecisions whether the decisions are cached
+     */
+    public void setCacheDecisions(final boolean cacheDecisions) {
+        this.cacheDecisions = cacheDecisions;
+    }
+
+    /**
+     * Use the same generator for the <code>csrfToken</code>, <code>csrfCheck</code> and <code>csrf</code> authorizers, to generate
+     * and check the tokens (like the stateless {@link HmacCsrfTokenGenerator}, which doesn't need any session).
+     *
+     * @param generator the CSRF token generator and validator
+     * @param <G> the type of the generator
+     */
+    public <G extends CsrfTokenGenerator & CsrfTokenValidator> void setCsrfTokenGenerator(final G generator) {
+        assertNotNull("generator", generator);
+        this.csrfTokenGeneratorAuthorizer = new CsrfTokenGeneratorAuthorizer(generator);
+        this.csrfAuthorizer = new CsrfAuthorizer(generator);
+    }
+
+    public CsrfAuthorizer getCsrfAuthorizer() {
+        return csrfAuthorizer;
+    }
+
+    public void setCsrfAuthorizer(final CsrfAuthorizer csrfAuthorizer) {
+        assertNotNull("csrfAuthorizer", csrfAuthorizer);
+        this.csrfAuthorizer = csrfAuthorizer;
+    }
+
+    public CsrfTokenGeneratorAuthorizer getCsrfTokenGeneratorAuthorizer() {
+        return csrfTokenGeneratorAuthorizer;
+    }
+
+    public void setCsrfTokenGeneratorAuthorizer(final CsrfTokenGeneratorAuthorizer csrfTokenGeneratorAuthorizer) {
+        assertNotNull("csrfTokenGeneratorAuthorizer", csrfTokenGeneratorAuthorizer);
+        this.csrfTokenGeneratorAuthorizer = csrfTokenGeneratorAuthorizer;
+    }
 }
@@ -0,0 +1,183 @@
+package org.pac4j.core.authorization.permission;
+
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wildcard permissions (Shiro-style <code>domain:action:instance</code>) granted to a profile, parsed once into a trie.
+ *
+ * A permission is made of parts separated by <code>:</code>, each part being a list of values separated by <code>,</code> or the
+ * <code>*</code> wildcard. A granted permission implies a required permission if each part of the granted permission is a wildcard
+ * or contains the values of the required part: <code>printer:*</code> implies <code>printer:print:lp7200</code>,
+ * <code>printer:print,query</code> implies <code>printer:query</code> and a missing trailing part acts as a wildcard. Values are
+ * case-sensitive.
+ *
+ * A required permission with several values in a part is implied if each of its single-valued permissions is implied (possibly by
+ * different granted permissions). Checks are done in O(depth) and their results are cached (at most {@link #MAX_CACHE_SIZE} entries):
+ * the trie is immutable and built again when the permissions of the profile change.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class PermissionTrie {
+
+    public static final String PART_SEPARATOR = ":";
+
+    public static final String VALUE_SEPARATOR = ",";
+
+    public static final String WILDCARD = "*";
+
+    public static final int MAX_CACHE_SIZE = 256;
+
+    private final Node root = new Node();
+
+    private final ConcurrentMap<String, Boolean> cache = new ConcurrentHashMap<>();
+
+    public PermissionTrie(final Collection<String> permissions) {
+        CommonHelper.assertNotNull("permissions", permissions);
+        for (final String permission : permissions) {
+            final String[][] parts = parse(permission);
+            if (parts.length > 0) {
+                insert(root, parts, 0);
+            }
+        }
+        root.computeImpliesAll();
+    }
+
+    /**
+     * Parse a permission into parts of values.
+     *
+     * @param permission the permission
+     * @return the parts (empty for a blank permission)
+     */
+    public static String[][] parse(final String permission) {
+        if (CommonHelper.isBlank(permission)) {
+            return new String[0][];
+        }
+        final String[] parts = permission.trim().split(PART_SEPARATOR, -1);
+        final String[][] result = new String[parts.length][];
+        for (int i = 0; i < parts.length; i++) {
+            final String[] values = parts[i].split(VALUE_SEPARATOR, -1);
+            for (int j = 0; j < values.length; j++) {
+                values[j] = values[j].trim();
+            }
+            result[i] = values;
+        }
+        return result;
+    }
+
+    private static void insert(final Node node, final String[][] parts, final int index) {
+        if (index == parts.length) {
+            node.terminal = true;
+            return;
+        }
+        for (final String value : parts[index]) {
+            final Node child;
+            if (WILDCARD.equals(value)) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+                child = node.wildcard;
+            } else {
+                child = node.children.computeIfAbsent(value, k -> new Node());
+            }
+            insert(child, parts, index + 1);
+        }
+    }
+
+    /**
+     * Whether the granted permissions imply the required permission.
+     *
+     * @param permission the required permission
+     * @return whether the permission is implied
+     */
+    public boolean implies(final String permission) {
+        if (permission == null) {
+            return false;
+        }
+        final Boolean cached = cache.get(permission);
+        if (cached != null) {
+            return cached;
+        }
+        final boolean result = computeImplies(permission);
+        if (cache.size() < MAX_CACHE_SIZE) {
+            cache.put(permission, result);
+        }
+        return result;
+    }
+
+    private boolean computeImplies(final String permission) {
+        final String[][] parts = parse(permission);
+        if (parts.length == 0) {
+            return false;
+        }
+        return impliesAll(parts, 0, new String[parts.length]);
+    }
+
+    /* expand the multi-valued parts into single-valued permissions */
+    private boolean impliesAll(final String[][] parts, final int index, final String[] single) {
+        if (index == parts.length) {
+            return implies(root, single, 0);
+        }
+        for (final String value : parts[index]) {
+            single[index] = value;
+            if (!impliesAll(parts, index + 1, single)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean implies(final Node node, final String[] parts, final int index) {
+        if (node.terminal) {
+            return true;
+        }
+        if (index == parts.length) {
+            return node.impliesAll;
+        }
+        final String value = parts[index];
+        if (!WILDCARD.equals(value)) {
+            final Node child = node.children.get(value);
+            if (child != null && implies(child, parts, index + 1)) {
+                return true;
+            }
+        }
+        return node.wildcard != null && implies(node.wildcard, parts, index + 1);
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "cacheSize", cache.size());
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+
+        private Node wildcard;
+
+        /* a granted permission ends here: it implies everything below */
+        private boolean terminal;
+
+        /* a granted permission ends below, through wildcards only */
+        private boolean impliesAll;
+
+        private boolean computeImpliesAll() {
+            for (final Node child : children.values()) {
+                child.computeImpliesAll();
+            }
+            final boolean wildcardImpliesAll = wildcard != null && wildcard.computeImpliesAll();
+            impliesAll = terminal || wildcardImpliesAll;
+            return impliesAll;
+        }
+    }
+}
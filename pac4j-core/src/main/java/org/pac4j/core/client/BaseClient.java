@@ -53,7 +53,16 @@ public abstract class BaseClient<C extends Credentials, U extends CommonProfile>
             return null;
         }
 
-        final U profile = retrieveUserProfile(credentials, context);
+        return completeUserProfile(retrieveUserProfile(credentials, context));
+    }
+
+    /**
+     * Set the client name and generate the authorization information of a retrieved user profile.
+     *
+     * @param profile the user profile (may be <code>null</code>)
+     * @return the same user profile
+     */
+    protected final U completeUserProfile(final U profile) {
         if (profile != null) {
             profile.setClientName(getName());
             if (this.authorizationGenerators != null) {
@@ -103,13 +103,23 @@ public abstract class IndirectClient<C extends Credentials, U extends CommonProf
     public final C getCredentials(final WebContext context) throws HttpAction {
         init(context);
         final C credentials = retrieveCredentials(context);
+        updateAttemptedAuthentication(context, credentials);
+        return credentials;
+    }
+
+    /**
+     * Save whether the authentication has already been tried and failed.
+     *
+     * @param context the web context
+     * @param credentials the retrieved credentials (may be <code>null</code>)
+     */
+    protected final void updateAttemptedAuthentication(final WebContext context, final C credentials) {
         // no credentials -> save this authentication has already been tried and failed
         if (credentials == null) {
             context.setSessionAttribute(getName() + ATTEMPTED_AUTHENTICATION_SUFFIX, "true");
         } else {
             cleanAttemptedAuthentication(context);
         }
-        return credentials;
     }
 
     private void cleanRequestedUrl(final WebContext context) {
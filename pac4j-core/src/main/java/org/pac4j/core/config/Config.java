@@ -6,6 +6,8 @@ import org.pac4j.core.client.Clients;
 import org.pac4j.core.context.session.SessionStore;
 import org.pac4j.core.http.HttpActionAdapter;
 import org.pac4j.core.matching.Matcher;
+import org.pac4j.core.metrics.NopSecurityMetrics;
+import org.pac4j.core.metrics.SecurityMetrics;
 import org.pac4j.core.util.CommonHelper;
 
 import java.util.HashMap;
@@ -30,6 +32,8 @@ public class Config {
 
     protected HttpActionAdapter httpActionAdapter;
 
+    protected SecurityMetrics securityMetrics = new NopSecurityMetrics();
+
     public Config() {}
 
     public Config(final Client client) {
@@ -148,4 +152,18 @@ public class Config {
     public void setHttpActionAdapter(HttpActionAdapter httpActionAdapter) {
         this.httpActionAdapter = httpActionAdapter;
     }
+
+    public SecurityMetrics getSecurityMetrics() {
+        return securityMetrics;
+    }
+
+    /**
+     * Define the metrics of the security, callback and logout logics (nothing is measured by default).
+     *
+     * @param securityMetrics the security metrics
+     */
+    public void setSecurityMetrics(final SecurityMetrics securityMetrics) {
+        CommonHelper.assertNotNull("securityMetrics", securityMetrics);
+        this.securityMetrics = securityMetrics;
+    }
 }
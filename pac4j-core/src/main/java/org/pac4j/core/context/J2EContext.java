@@ -158,6 +158,14 @@ public class J2EContext implements WebContext {
         this.response.setHeader(name, value);
     }
 
+    @Override
+    public void setResponseHeaders(final String[] names, final String[] values) {
+        final HttpServletResponse currentResponse = this.response;
+        for (int i = 0; i < names.length; i++) {
+            currentResponse.setHeader(names[i], values[i]);
+        }
+    }
+
     @Override
     public void setResponseContentType(final String content) {
         this.response.setContentType(content);
@@ -222,7 +230,9 @@ public class J2EContext implements WebContext {
         c.setMaxAge(cookie.getMaxAge());
         c.setHttpOnly(cookie.isHttpOnly());
         c.setComment(cookie.getComment());
-        c.setDomain(cookie.getDomain());
+        if (cookie.getDomain() != null) {
+            c.setDomain(cookie.getDomain());
+        }
         this.response.addCookie(c);
     }
 
@@ -118,6 +118,18 @@ public interface WebContext {
      */
     void setResponseHeader(String name, String value);
 
+    /**
+     * Add several headers to the response at once (the arrays must not be modified).
+     *
+     * @param names  names of the headers
+     * @param values values of the headers (same length as the names)
+     */
+    default void setResponseHeaders(final String[] names, final String[] values) {
+        for (int i = 0; i < names.length; i++) {
+            setResponseHeader(names[i], values[i]);
+        }
+    }
+
     /**
      * Sets the response content type.
      *
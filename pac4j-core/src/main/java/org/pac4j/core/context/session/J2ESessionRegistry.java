@@ -0,0 +1,61 @@
+package org.pac4j.core.context.session;
+
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionEvent;
+import javax.servlet.http.HttpSessionIdListener;
+import javax.servlet.http.HttpSessionListener;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>Registry of the live J2E sessions of the web application, by identifier, so that the {@link J2ESessionStore} can invalidate
+ * a session which is not the one of the current request (for example on a CAS back channel logout request).</p>
+ *
+ * <p>It must be declared as a listener of the web application (<code>&lt;listener&gt;</code> in the <code>web.xml</code> file).
+ * Only the sessions of the current node are registered: sessions are removed when they are destroyed.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class J2ESessionRegistry implements HttpSessionListener, HttpSessionIdListener {
+
+    private static final ConcurrentMap<String, HttpSession> SESSIONS = new ConcurrentHashMap<>();
+
+    @Override
+    public void sessionCreated(final HttpSessionEvent event) {
+        final HttpSession session = event.getSession();
+        SESSIONS.put(session.getId(), session);
+    }
+
+    @Override
+    public void sessionDestroyed(final HttpSessionEvent event) {
+        final HttpSession session = event.getSession();
+        SESSIONS.remove(session.getId(), session);
+    }
+
+    @Override
+    public void sessionIdChanged(final HttpSessionEvent event, final String oldSessionId) {
+        final HttpSession session = event.getSession();
+        SESSIONS.remove(oldSessionId, session);
+        SESSIONS.put(session.getId(), session);
+    }
+
+    /**
+     * Return the live session with the provided identifier.
+     *
+     * @param sessionId the session identifier
+     * @return the session or <code>null</code> if it is unknown
+     */
+    public static HttpSession getSession(final String sessionId) {
+        return sessionId != null ? SESSIONS.get(sessionId) : null;
+    }
+
+    /**
+     * Return the number of registered sessions.
+     *
+     * @return the number of sessions
+     */
+    public static int size() {
+        return SESSIONS.size();
+    }
+}
@@ -5,7 +5,10 @@ import org.pac4j.core.context.J2EContext;
 import javax.servlet.http.HttpSession;
 
 /**
- * Store data in the J2E session.
+ * <p>Store data in the J2E session.</p>
+ *
+ * <p>To invalidate a session by its identifier from another request, the {@link J2ESessionRegistry} must be declared as a listener
+ * of the web application.</p>
  *
  * @author Jerome Leleu
  * @since 1.8.1
@@ -35,4 +38,17 @@ public class J2ESessionStore implements SessionStore<J2EContext> {
     public void invalidateSession(final J2EContext context) {
         getHttpSession(context).invalidate();
     }
+
+    @Override
+    public boolean invalidateSession(final J2EContext context, final String sessionId) {
+        HttpSession session = context.getRequest().getSession(false);
+        if (session == null || !session.getId().equals(sessionId)) {
+            session = J2ESessionRegistry.getSession(sessionId);
+        }
+        if (session != null) {
+            session.invalidate();
+            return true;
+        }
+        return false;
+    }
 }
@@ -44,4 +44,17 @@ public interface SessionStore<C extends WebContext> {
     default void invalidateSession(C context) {
         throw new UnsupportedOperationException("To be implemented");
     }
+
+    /**
+     * Invalidate the session identified by the provided identifier, which is not necessarily the session of the current request.
+     * By default, no session is invalidated (and none is created): the session stores able to reach the sessions, like the ones
+     * shared between several nodes, should override this method.
+     *
+     * @param context the web context
+     * @param sessionId the identifier of the session to invalidate
+     * @return whether the session has been invalidated
+     */
+    default boolean invalidateSession(C context, String sessionId) {
+        return false;
+    }
 }
@@ -4,12 +4,14 @@ import org.pac4j.core.context.WebContext;
 import org.pac4j.core.credentials.UsernamePasswordCredentials;
 import org.pac4j.core.credentials.password.NopPasswordEncoder;
 import org.pac4j.core.credentials.password.PasswordEncoder;
+import org.pac4j.core.credentials.password.PasswordVerifier;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.core.util.InitializableWebObject;
 
 /**
- * An abstract username / password authenticator having a password encoder.
- * 
+ * An abstract username / password authenticator having a password encoder. The passwords are checked on the current thread or in the
+ * bounded pool of a {@link PasswordVerifier} if one is defined.
+ *
  * @author Jerome Leleu
  * @since 1.8.0
  */
@@ -17,6 +19,23 @@ public abstract class AbstractUsernamePasswordAuthenticator extends Initializabl
 
     private PasswordEncoder passwordEncoder = new NopPasswordEncoder();
 
+    private PasswordVerifier passwordVerifier;
+
+    /**
+     * Check a password, using the password verifier if defined.
+     *
+     * @param username the username
+     * @param plainPassword the not encoded password to check
+     * @param encodedPassword the encoded password
+     * @return <code>true</code> if they match
+     */
+    protected boolean matchesPassword(final String username, final String plainPassword, final String encodedPassword) {
+        if (passwordVerifier != null) {
+            return passwordVerifier.matches(username, passwordEncoder, plainPassword, encodedPassword);
+        }
+        return passwordEncoder.matches(plainPassword, encodedPassword);
+    }
+
     public PasswordEncoder getPasswordEncoder() {
         return passwordEncoder;
     }
@@ -25,6 +44,14 @@ public abstract class AbstractUsernamePasswordAuthenticator extends Initializabl
         this.passwordEncoder = passwordEncoder;
     }
 
+    public PasswordVerifier getPasswordVerifier() {
+        return passwordVerifier;
+    }
+
+    public void setPasswordVerifier(final PasswordVerifier passwordVerifier) {
+        this.passwordVerifier = passwordVerifier;
+    }
+
     @Override
     protected void internalInit(final WebContext context) {
         CommonHelper.assertNotNull("passwordEncoder", this.passwordEncoder);
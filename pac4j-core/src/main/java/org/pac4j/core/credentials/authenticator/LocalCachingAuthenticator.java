@@ -2,22 +2,42 @@ package org.pac4j.core.credentials.authenticator;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.TokenCredentials;
+import org.pac4j.core.credentials.UsernamePasswordCredentials;
 import org.pac4j.core.exception.CredentialsException;
 import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.core.util.InitializableWebObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * An authenticator that caches the result of an authentication event locally.
  * The authentication is delegated to a pluggable component.
  *
+ * The username / password and token credentials are not kept in the cache: they are identified by an HMAC-SHA256 of their content
+ * computed with a random key generated for each authenticator (other credentials are used as the cache key as is). Each entry
+ * expires after its own time to live ({@link #getTimeToLive(CommonProfile)}), failed authentications can be cached for a shorter
+ * time ({@link #setNegativeTimeout(long)}) and concurrent identical authentications are delegated only once. The hit / miss /
+ * load time statistics are available via {@link #getStats()}.
+ *
  * Add the <code>guava</code> dependency to use this class.
  *
  * @author Misagh Moayyed
@@ -27,12 +47,21 @@ public class LocalCachingAuthenticator<T extends Credentials> extends Initializa
 
     protected final Logger logger = LoggerFactory.getLogger(getClass());
 
+    private static final int HMAC_KEY_LENGTH = 32;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
     private Authenticator<T> delegate;
     private long cacheSize;
     private long timeout;
+    private long negativeTimeout;
     private TimeUnit timeUnit;
 
-    private Cache<T, CommonProfile> cache;
+    private Cache<Object, CacheEntry> cache;
+
+    private ThreadLocal<Mac> macs;
+
+    private final AtomicLong nbNegativeHits = new AtomicLong();
 
     public LocalCachingAuthenticator() {}
 
@@ -48,18 +77,105 @@ public class LocalCachingAuthenticator<T extends Credentials> extends Initializa
     public void validate(final T credentials, final WebContext context) throws HttpAction {
         init(context);
 
+        final Object key = computeKey(credentials);
+        final boolean[] loaded = new boolean[1];
+        CacheEntry entry = load(key, credentials, context, loaded);
+        if (entry.isExpired()) {
+            this.cache.asMap().remove(key, entry);
+            entry = load(key, credentials, context, loaded);
+        }
+        if (entry.failure != null) {
+            if (!loaded[0]) {
+                nbNegativeHits.incrementAndGet();
+            }
+            throw new CredentialsException(entry.failure);
+        }
+        credentials.setUserProfile(entry.profile);
+        logger.debug("Found cached credential. Using cached profile {}...", entry.profile);
+    }
+
+    /* concurrent loadings of the same key are done once */
+    private CacheEntry load(final Object key, final T credentials, final WebContext context, final boolean[] loaded) throws HttpAction {
         try {
-            final CommonProfile profile = this.cache.get(credentials, () -> {
+            return this.cache.get(key, () -> {
+                loaded[0] = true;
                 logger.debug("Delegating authentication to {}...", delegate);
-                delegate.validate(credentials, context);
-                return credentials.getUserProfile();
+                try {
+                    delegate.validate(credentials, context);
+                } catch (final CredentialsException e) {
+                    if (negativeTimeout > 0) {
+                        logger.debug("Caching authentication failure: {}", e.getMessage());
+                        return new CacheEntry(null, e.getMessage(), expiration(timeUnit.toNanos(negativeTimeout)));
+                    }
+                    throw e;
+                }
+                final CommonProfile profile = credentials.getUserProfile();
+                return new CacheEntry(profile, null, expiration(timeUnit.toNanos(getTimeToLive(profile))));
             });
-            credentials.setUserProfile(profile);
-            logger.debug("Found cached credential. Using cached profile {}...", profile);
-        } catch (Exception e) {
-            throw new CredentialsException(e);
+        } catch (final ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof HttpAction) {
+                throw (HttpAction) cause;
+            } else if (cause instanceof CredentialsException) {
+                throw (CredentialsException) cause;
+            }
+            throw new CredentialsException(cause != null ? cause : e);
         }
+    }
 
+    private static long expiration(final long timeToLive) {
+        return System.nanoTime() + timeToLive;
+    }
+
+    /**
+     * Define the time to live of a successful authentication (the timeout by default).
+     *
+     * @param profile the authenticated user profile
+     * @return the time to live in the time unit of the authenticator (must not exceed the timeout)
+     */
+    protected long getTimeToLive(final CommonProfile profile) {
+        return timeout;
+    }
+
+    /**
+     * Compute the cache key of the credentials: an HMAC of their content for the username / password and token credentials,
+     * the credentials themselves otherwise.
+     *
+     * @param credentials the credentials
+     * @return the cache key
+     */
+    protected Object computeKey(final T credentials) {
+        if (credentials instanceof UsernamePasswordCredentials) {
+            final UsernamePasswordCredentials upCredentials = (UsernamePasswordCredentials) credentials;
+            return hash(credentials, upCredentials.getUsername(), upCredentials.getPassword());
+        } else if (credentials instanceof TokenCredentials) {
+            return hash(credentials, ((TokenCredentials) credentials).getToken());
+        }
+        return credentials;
+    }
+
+    private CredentialsHash hash(final T credentials, final String... values) {
+        final Mac mac = macs.get();
+        update(mac, credentials.getClass().getName());
+        for (final String value : values) {
+            update(mac, value);
+        }
+        return new CredentialsHash(mac.doFinal());
+    }
+
+    /* length-prefixed to avoid ambiguities between the values */
+    private static void update(final Mac mac, final String value) {
+        if (value == null) {
+            mac.update((byte) 0);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            mac.update((byte) 1);
+            mac.update((byte) (bytes.length >>> 24));
+            mac.update((byte) (bytes.length >>> 16));
+            mac.update((byte) (bytes.length >>> 8));
+            mac.update((byte) bytes.length);
+            mac.update(bytes);
+        }
     }
 
     @Override
@@ -67,23 +183,38 @@ public class LocalCachingAuthenticator<T extends Credentials> extends Initializa
         CommonHelper.assertNotNull("delegate", this.delegate);
         CommonHelper.assertTrue(cacheSize > 0, "cacheSize must be > 0");
         CommonHelper.assertTrue(timeout > 0, "timeout must be > 0");
+        CommonHelper.assertTrue(negativeTimeout >= 0, "negativeTimeout must be >= 0");
         CommonHelper.assertNotNull("timeUnit", this.timeUnit);
 
         if (delegate instanceof InitializableWebObject) {
             ((InitializableWebObject) delegate).init(context);
         }
 
+        final byte[] hmacKey = new byte[HMAC_KEY_LENGTH];
+        new SecureRandom().nextBytes(hmacKey);
+        final SecretKeySpec keySpec = new SecretKeySpec(hmacKey, HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(keySpec);
+                return mac;
+            } catch (final GeneralSecurityException e) {
+                throw new TechnicalException(e);
+            }
+        });
+
         this.cache = CacheBuilder.newBuilder().maximumSize(cacheSize)
-                .expireAfterWrite(timeout, timeUnit).build();
+                .expireAfterWrite(Math.max(timeout, negativeTimeout), timeUnit).recordStats().build();
     }
 
 
     public void removeFromCache(final T credentials) {
-        this.cache.invalidate(credentials);
+        this.cache.invalidate(computeKey(credentials));
     }
 
     public boolean isCached(final T credentials) {
-        return this.cache.getIfPresent(credentials) != null;
+        final CacheEntry entry = this.cache.getIfPresent(computeKey(credentials));
+        return entry != null && !entry.isExpired();
     }
 
     public boolean clearCache() {
@@ -91,6 +222,24 @@ public class LocalCachingAuthenticator<T extends Credentials> extends Initializa
         return this.cache.asMap().isEmpty();
     }
 
+    /**
+     * The statistics of the cache (hits, misses, load times...).
+     *
+     * @return the statistics
+     */
+    public CacheStats getStats() {
+        return this.cache.stats();
+    }
+
+    /**
+     * The number of authentications rejected from a cached failure.
+     *
+     * @return the number of negative hits
+     */
+    public long getNbNegativeHits() {
+        return nbNegativeHits.get();
+    }
+
     public Authenticator<T> getDelegate() {
         return delegate;
     }
@@ -115,6 +264,19 @@ public class LocalCachingAuthenticator<T extends Credentials> extends Initializa
         this.timeout = timeout;
     }
 
+    public long getNegativeTimeout() {
+        return negativeTimeout;
+    }
+
+    /**
+     * Define how long the authentication failures are cached (0, the default, to not cache them).
+     *
+     * @param negativeTimeout the negative timeout in the time unit of the authenticator
+     */
+    public void setNegativeTimeout(final long negativeTimeout) {
+        this.negativeTimeout = negativeTimeout;
+    }
+
     public TimeUnit getTimeUnit() {
         return timeUnit;
     }
@@ -126,6 +288,53 @@ public class LocalCachingAuthenticator<T extends Credentials> extends Initializa
     @Override
     public String toString() {
         return CommonHelper.toString(this.getClass(), "delegate", this.delegate, "cacheSize", this.cacheSize,
-                "timeout", this.timeout, "timeUnit", this.timeUnit);
+                "timeout", this.timeout, "negativeTimeout", this.negativeTimeout, "timeUnit", this.timeUnit);
+    }
+
+    /**
+     * A cached authentication result: a profile or a failure message.
+     */
+    private static final class CacheEntry {
+
+        private final CommonProfile profile;
+
+        private final String failure;
+
+        private final long expiration;
+
+        private CacheEntry(final CommonProfile profile, final String failure, final long expiration) {
+            this.profile = profile;
+            this.failure = failure;
+            this.expiration = expiration;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiration >= 0;
+        }
+    }
+
+    /**
+     * The HMAC of some credentials.
+     */
+    private static final class CredentialsHash {
+
+        private final byte[] hash;
+
+        private final int hashCode;
+
+        private CredentialsHash(final byte[] hash) {
+            this.hash = hash;
+            this.hashCode = Arrays.hashCode(hash);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof CredentialsHash && Arrays.equals(hash, ((CredentialsHash) o).hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
     }
 }
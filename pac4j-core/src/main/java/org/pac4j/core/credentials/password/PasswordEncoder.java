@@ -1,5 +1,8 @@
 package org.pac4j.core.credentials.password;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * Encode a password.
  *
@@ -26,4 +29,19 @@ public interface PasswordEncoder {
      * @return <code>true</code> if they match
      */
     boolean matches(String plainPassword, String encodedPassword);
+
+    /**
+     * Validate asynchronously if a plainPassword matches (by default, {@link #matches(String, String)} run by the executor).
+     *
+     * @param plainPassword
+     *            the not encoded password to check
+     * @param encodedPassword
+     *            the encoded password
+     * @param executor
+     *            the executor running the check
+     * @return the future result: <code>true</code> if they match
+     */
+    default CompletableFuture<Boolean> matchesAsync(final String plainPassword, final String encodedPassword, final Executor executor) {
+        return CompletableFuture.supplyAsync(() -> matches(plainPassword, encodedPassword), executor);
+    }
 }
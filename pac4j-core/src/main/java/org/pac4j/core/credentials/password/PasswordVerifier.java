@@ -0,0 +1,266 @@
+package org.pac4j.core.credentials.password;
+
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the CPU-heavy password checks (bcrypt, Shiro or Spring Security hashing...) in a dedicated bounded pool, so that a login
+ * burst cannot starve the request threads used by the other traffic.
+ *
+ * When all the threads are busy and the queue is full, the checks are rejected immediately (with a {@link TechnicalException})
+ * instead of piling up. Concurrent identical checks (same username, password and encoded password) are de-duplicated: they share
+ * the same in-flight result. The numbers of checks (submitted, de-duplicated, rejected, failed, timed out) and the total check time
+ * are available as metrics.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class PasswordVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordVerifier.class);
+
+    /* default max number of queued checks per thread */
+    public static final int DEFAULT_QUEUE_SIZE_PER_THREAD = 16;
+
+    /* default time to wait for a check: 10 seconds */
+    public static final long DEFAULT_TIMEOUT = 10000;
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+
+    private final ConcurrentMap<CheckKey, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    private long timeout = DEFAULT_TIMEOUT;
+
+    private final AtomicLong nbSubmitted = new AtomicLong();
+
+    private final AtomicLong nbDeduplicated = new AtomicLong();
+
+    private final AtomicLong nbRejected = new AtomicLong();
+
+    private final AtomicLong nbFailed = new AtomicLong();
+
+    private final AtomicLong nbTimeouts = new AtomicLong();
+
+    private final AtomicLong totalCheckTime = new AtomicLong();
+
+    public PasswordVerifier() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public PasswordVerifier(final int nbThreads) {
+        this(nbThreads, nbThreads * DEFAULT_QUEUE_SIZE_PER_THREAD);
+    }
+
+    public PasswordVerifier(final int nbThreads, final int queueSize) {
+        CommonHelper.assertTrue(nbThreads > 0, "nbThreads must be greater than zero");
+        CommonHelper.assertTrue(queueSize > 0, "queueSize must be greater than zero");
+        final int poolNumber = POOL_NUMBER.incrementAndGet();
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(nbThreads, nbThreads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+            final Thread thread = new Thread(r, "pac4j-password-verifier-" + poolNumber + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Check a password asynchronously.
+     *
+     * @param username the username (to de-duplicate the concurrent identical checks)
+     * @param passwordEncoder the password encoder
+     * @param plainPassword the not encoded password to check
+     * @param encodedPassword the encoded password
+     * @return the future result (completed exceptionally with a {@link TechnicalException} if the check is rejected)
+     */
+    public CompletableFuture<Boolean> matchesAsync(final String username, final PasswordEncoder passwordEncoder,
+                                                   final String plainPassword, final String encodedPassword) {
+        CommonHelper.assertNotNull("passwordEncoder", passwordEncoder);
+        final CheckKey key = new CheckKey(username, plainPassword, encodedPassword, passwordEncoder);
+        final CompletableFuture<Boolean> promise = new CompletableFuture<>();
+        final CompletableFuture<Boolean> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            nbDeduplicated.incrementAndGet();
+            return existing;
+        }
+        nbSubmitted.incrementAndGet();
+        final long start = System.nanoTime();
+        final CompletableFuture<Boolean> check;
+        try {
+            check = passwordEncoder.matchesAsync(plainPassword, encodedPassword, executor);
+        } catch (final RejectedExecutionException e) {
+            nbRejected.incrementAndGet();
+            inFlight.remove(key, promise);
+            logger.warn("Too many concurrent password checks, rejecting the check for: {}", username);
+            promise.completeExceptionally(new TechnicalException("Too many concurrent password checks"));
+            return promise;
+        }
+        check.whenComplete((result, error) -> {
+            totalCheckTime.addAndGet(System.nanoTime() - start);
+            inFlight.remove(key, promise);
+            if (error != null) {
+                nbFailed.incrementAndGet();
+                promise.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                promise.complete(result);
+            }
+        });
+        return promise;
+    }
+
+    /**
+     * Check a password in the pool and wait for the result.
+     *
+     * @param username the username (to de-duplicate the concurrent identical checks)
+     * @param passwordEncoder the password encoder
+     * @param plainPassword the not encoded password to check
+     * @param encodedPassword the encoded password
+     * @return <code>true</code> if they match
+     */
+    public boolean matches(final String username, final PasswordEncoder passwordEncoder, final String plainPassword,
+                           final String encodedPassword) {
+        final CompletableFuture<Boolean> future = matchesAsync(username, passwordEncoder, plainPassword, encodedPassword);
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TechnicalException(e);
+        } catch (final TimeoutException e) {
+            nbTimeouts.incrementAndGet();
+            throw new TechnicalException("Password check timed out after " + timeout + " ms");
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new TechnicalException(cause);
+        }
+    }
+
+    /**
+     * Stop the pool.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Define how long to wait for a check.
+     *
+     * @param timeout the timeout in milliseconds
+     */
+    public void setTimeout(final long timeout) {
+        CommonHelper.assertTrue(timeout > 0, "timeout must be greater than zero");
+        this.timeout = timeout;
+    }
+
+    public long getNbSubmitted() {
+        return nbSubmitted.get();
+    }
+
+    public long getNbDeduplicated() {
+        return nbDeduplicated.get();
+    }
+
+    public long getNbRejected() {
+        return nbRejected.get();
+    }
+
+    public long getNbFailed() {
+        return nbFailed.get();
+    }
+
+    public long getNbTimeouts() {
+        return nbTimeouts.get();
+    }
+
+    /**
+     * The total time spent in the checks which have completed (including their time in the queue).
+     *
+     * @return the total time in milliseconds
+     */
+    public long getTotalCheckTime() {
+        return TimeUnit.NANOSECONDS.toMillis(totalCheckTime.get());
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getNbInFlight() {
+        return inFlight.size();
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "nbThreads", executor.getMaximumPoolSize(), "timeout", timeout,
+                "nbSubmitted", nbSubmitted, "nbDeduplicated", nbDeduplicated, "nbRejected", nbRejected, "nbFailed", nbFailed,
+                "nbTimeouts", nbTimeouts);
+    }
+
+    /**
+     * The key of an in-flight check (only kept in memory while the check runs).
+     */
+    private static final class CheckKey {
+
+        private final String username;
+
+        private final String plainPassword;
+
+        private final String encodedPassword;
+
+        private final PasswordEncoder passwordEncoder;
+
+        private CheckKey(final String username, final String plainPassword, final String encodedPassword,
+                         final PasswordEncoder passwordEncoder) {
+            this.username = username;
+            this.plainPassword = plainPassword;
+            this.encodedPassword = encodedPassword;
+            this.passwordEncoder = passwordEncoder;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CheckKey)) {
+                return false;
+            }
+            final CheckKey other = (CheckKey) o;
+            return passwordEncoder == other.passwordEncoder && Objects.equals(username, other.username)
+                    && Objects.equals(plainPassword, other.plainPassword) && Objects.equals(encodedPassword, other.encodedPassword);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(username, plainPassword, encodedPassword);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.pac4j.core.context.Pac4jConstants;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.http.HttpActionAdapter;
+import org.pac4j.core.metrics.SecurityMetrics;
 import org.pac4j.core.profile.ProfileManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,10 +49,12 @@ public class DefaultApplicationLogoutLogic<R, C extends WebContext> implements A
         assertNotNull("config", config);
         assertNotNull("httpActionAdapter", httpActionAdapter);
         assertNotBlank(Pac4jConstants.LOGOUT_URL_PATTERN, logoutUrlPattern);
+        final SecurityMetrics metrics = config.getSecurityMetrics();
+        assertNotNull("metrics", metrics);
 
         // logic
         final ProfileManager manager = getProfileManager(context);
-        manager.logout();
+        EngineMetrics.logout(manager, metrics);
         postLogout(context);
 
         final String url = context.getRequestParameter(Pac4jConstants.URL);
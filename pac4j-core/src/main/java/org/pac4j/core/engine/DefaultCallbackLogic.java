@@ -9,6 +9,8 @@ import org.pac4j.core.context.WebContext;
 import org.pac4j.core.credentials.Credentials;
 import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.http.HttpActionAdapter;
+import org.pac4j.core.metrics.SecurityMetrics;
+import org.pac4j.core.metrics.SecurityPhase;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.profile.ProfileManager;
 import org.slf4j.Logger;
@@ -65,21 +67,30 @@ public class DefaultCallbackLogic<R, C extends WebContext> implements CallbackLo
         assertNotBlank(Pac4jConstants.DEFAULT_URL, defaultUrl);
         final Clients clients = config.getClients();
         assertNotNull("clients", clients);
+        final SecurityMetrics metrics = config.getSecurityMetrics();
+        assertNotNull("metrics", metrics);
 
         // logic
-        final Client client = clients.findClient(context);
+        final Client client = findClient(context, clients, metrics);
         logger.debug("client: {}", client);
         assertNotNull("client", client);
         assertTrue(client instanceof IndirectClient, "only indirect clients are allowed on the callback url");
 
         HttpAction action;
         try {
-            final Credentials credentials = client.getCredentials(context);
+            final Credentials credentials = EngineMetrics.getCredentials(client, context, metrics);
             logger.debug("credentials: {}", credentials);
 
-            final CommonProfile profile = client.getUserProfile(credentials, context);
+            final CommonProfile profile = EngineMetrics.getUserProfile(client, credentials, context, metrics);
             logger.debug("profile: {}", profile);
-            saveUserProfile(context, profile, multiProfile, renewSession);
+            final long start = metrics.start(SecurityPhase.SESSION_WRITE, client.getName());
+            SecurityMetrics.Outcome outcome = SecurityMetrics.Outcome.ERROR;
+            try {
+                saveUserProfile(context, profile, multiProfile, renewSession);
+                outcome = profile != null ? SecurityMetrics.Outcome.SUCCESS : SecurityMetrics.Outcome.FAILURE;
+            } finally {
+                metrics.stop(SecurityPhase.SESSION_WRITE, client.getName(), start, outcome);
+            }
             action = redirectToOriginallyRequestedUrl(context, defaultUrl);
 
         } catch (final HttpAction e) {
@@ -90,6 +101,18 @@ public class DefaultCallbackLogic<R, C extends WebContext> implements CallbackLo
         return httpActionAdapter.adapt(action.getCode(), context);
     }
 
+    private Client findClient(final C context, final Clients clients, final SecurityMetrics metrics) {
+        final long start = metrics.start(SecurityPhase.CLIENT_FINDING, null);
+        SecurityMetrics.Outcome outcome = SecurityMetrics.Outcome.ERROR;
+        try {
+            final Client client = clients.findClient(context);
+            outcome = SecurityMetrics.Outcome.SUCCESS;
+            return client;
+        } finally {
+            metrics.stop(SecurityPhase.CLIENT_FINDING, null, start, outcome);
+        }
+    }
+
     protected void saveUserProfile(final C context, final CommonProfile profile,
                                    final boolean multiProfile, final boolean renewSession) {
         final ProfileManager manager = getProfileManager(context);
@@ -18,6 +18,8 @@ import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.http.HttpActionAdapter;
 import org.pac4j.core.matching.DefaultMatchingChecker;
 import org.pac4j.core.matching.MatchingChecker;
+import org.pac4j.core.metrics.SecurityMetrics;
+import org.pac4j.core.metrics.SecurityPhase;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.profile.ProfileManager;
 import org.slf4j.Logger;
@@ -83,23 +85,27 @@ public class DefaultSecurityLogic<R, C extends WebContext> implements SecurityLo
         assertNotNull("matchingChecker", matchingChecker);
         final Clients configClients = config.getClients();
         assertNotNull("configClients", configClients);
+        final SecurityMetrics metrics = config.getSecurityMetrics();
+        assertNotNull("metrics", metrics);
 
         // logic
         HttpAction action;
         try {
 
-            logger.debug("url: {}", context.getFullRequestURL());
+            if (logger.isDebugEnabled()) {
+                logger.debug("url: {}", context.getFullRequestURL());
+            }
             logger.debug("matchers: {}", matchers);
-            if (matchingChecker.matches(context, matchers, config.getMatchers())) {
+            if (matches(context, config, matchers, metrics)) {
 
                 logger.debug("clients: {}", clients);
-                final List<Client> currentClients = clientFinder.find(configClients, context, clients);
+                final List<Client> currentClients = findClients(context, configClients, clients, metrics);
                 logger.debug("currentClients: {}", currentClients);
 
                 final boolean loadProfilesFromSession = loadProfilesFromSession(context, currentClients);
                 logger.debug("loadProfilesFromSession: {}", loadProfilesFromSession);
                 final ProfileManager manager = getProfileManager(context);
-                List<CommonProfile> profiles = manager.getAll(loadProfilesFromSession);
+                List<CommonProfile> profiles = EngineMetrics.getProfiles(manager, loadProfilesFromSession, metrics);
                 logger.debug("profiles: {}", profiles);
 
                 // no profile and some current clients
@@ -110,14 +116,14 @@ public class DefaultSecurityLogic<R, C extends WebContext> implements SecurityLo
                         if (currentClient instanceof DirectClient) {
                             logger.debug("Performing authentication for direct client: {}", currentClient);
 
-                            final Credentials credentials = currentClient.getCredentials(context);
+                            final Credentials credentials = EngineMetrics.getCredentials(currentClient, context, metrics);
                             logger.debug("credentials: {}", credentials);
-                            final CommonProfile profile = currentClient.getUserProfile(credentials, context);
+                            final CommonProfile profile = EngineMetrics.getUserProfile(currentClient, credentials, context, metrics);
                             logger.debug("profile: {}", profile);
                             if (profile != null) {
                                 final boolean saveProfileInSession = saveProfileInSession(context, currentClients, (DirectClient) currentClient, profile);
                                 logger.debug("saveProfileInSession: {} / multiProfile: {}", saveProfileInSession, multiProfile);
-                                manager.save(saveProfileInSession, profile, multiProfile);
+                                EngineMetrics.saveProfile(manager, saveProfileInSession, profile, multiProfile, metrics);
                                 updated = true;
                                 if (!multiProfile) {
                                     break;
@@ -126,7 +132,7 @@ public class DefaultSecurityLogic<R, C extends WebContext> implements SecurityLo
                         }
                     }
                     if (updated) {
-                        profiles = manager.getAll(loadProfilesFromSession);
+                        profiles = EngineMetrics.getProfiles(manager, loadProfilesFromSession, metrics);
                         logger.debug("new profiles: {}", profiles);
                     }
                 }
@@ -134,7 +140,7 @@ public class DefaultSecurityLogic<R, C extends WebContext> implements SecurityLo
                 // we have profile(s) -> check authorizations
                 if (isNotEmpty(profiles)) {
                     logger.debug("authorizers: {}", authorizers);
-                    if (authorizationChecker.isAuthorized(context, profiles, authorizers, config.getAuthorizers())) {
+                    if (authorizationChecker.isAuthorized(context, profiles, authorizers, config.getAuthorizers(), metrics)) {
                         logger.debug("authenticated and authorized -> grant access");
                         return securityGrantedAccessAdapter.adapt(context, parameters);
                     } else {
@@ -170,6 +176,33 @@ public class DefaultSecurityLogic<R, C extends WebContext> implements SecurityLo
         return httpActionAdapter.adapt(action.getCode(), context);
     }
 
+    private boolean matches(final C context, final Config config, final String matchers, final SecurityMetrics metrics) throws HttpAction {
+        final long start = metrics.start(SecurityPhase.MATCHING, matchers);
+        SecurityMetrics.Outcome outcome = SecurityMetrics.Outcome.ERROR;
+        try {
+            final boolean matches = matchingChecker.matches(context, matchers, config.getMatchers());
+            outcome = matches ? SecurityMetrics.Outcome.SUCCESS : SecurityMetrics.Outcome.FAILURE;
+            return matches;
+        } catch (final HttpAction e) {
+            outcome = SecurityMetrics.Outcome.ACTION;
+            throw e;
+        } finally {
+            metrics.stop(SecurityPhase.MATCHING, matchers, start, outcome);
+        }
+    }
+
+    private List<Client> findClients(final C context, final Clients configClients, final String clients, final SecurityMetrics metrics) {
+        final long start = metrics.start(SecurityPhase.CLIENT_FINDING, clients);
+        SecurityMetrics.Outcome outcome = SecurityMetrics.Outcome.ERROR;
+        try {
+            final List<Client> currentClients = clientFinder.find(configClients, context, clients);
+            outcome = isNotEmpty(currentClients) ? SecurityMetrics.Outcome.SUCCESS : SecurityMetrics.Outcome.FAILURE;
+            return currentClients;
+        } finally {
+            metrics.stop(SecurityPhase.CLIENT_FINDING, clients, start, outcome);
+        }
+    }
+
     /**
      * Given a webcontext generate a profileManager for it.
      * Can be overridden for custom profile manager implementations
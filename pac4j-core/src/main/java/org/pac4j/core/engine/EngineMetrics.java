@@ -0,0 +1,94 @@
+package org.pac4j.core.engine;
+
+import org.pac4j.core.client.Client;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.metrics.SecurityMetrics;
+import org.pac4j.core.metrics.SecurityPhase;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.ProfileManager;
+
+import java.util.List;
+
+import static org.pac4j.core.util.CommonHelper.*;
+
+/**
+ * The phases shared by the logics, recorded in the security metrics.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+final class EngineMetrics {
+
+    private EngineMetrics() {}
+
+    static Credentials getCredentials(final Client client, final WebContext context, final SecurityMetrics metrics) throws HttpAction {
+        final String name = client.getName();
+        final long start = metrics.start(SecurityPhase.CREDENTIALS_EXTRACTION, name);
+        SecurityMetrics.Outcome outcome = SecurityMetrics.Outcome.ERROR;
+        try {
+            final Credentials credentials = client.getCredentials(context);
+            outcome = credentials != null ? SecurityMetrics.Outcome.SUCCESS : SecurityMetrics.Outcome.FAILURE;
+            return credentials;
+        } catch (final HttpAction e) {
+            outcome = SecurityMetrics.Outcome.ACTION;
+            throw e;
+        } finally {
+            metrics.stop(SecurityPhase.CREDENTIALS_EXTRACTION, name, start, outcome);
+        }
+    }
+
+    static CommonProfile getUserProfile(final Client client, final Credentials credentials, final WebContext context,
+                                        final SecurityMetrics metrics) throws HttpAction {
+        final String name = client.getName();
+        final long start = metrics.start(SecurityPhase.AUTHENTICATION, name);
+        SecurityMetrics.Outcome outcome = SecurityMetrics.Outcome.ERROR;
+        try {
+            final CommonProfile profile = client.getUserProfile(credentials, context);
+            outcome = profile != null ? SecurityMetrics.Outcome.SUCCESS : SecurityMetrics.Outcome.FAILURE;
+            return profile;
+        } catch (final HttpAction e) {
+            outcome = SecurityMetrics.Outcome.ACTION;
+            throw e;
+        } finally {
+            metrics.stop(SecurityPhase.AUTHENTICATION, name, start, outcome);
+        }
+    }
+
+    static List<CommonProfile> getProfiles(final ProfileManager manager, final boolean readFromSession, final SecurityMetrics metrics) {
+        final long start = metrics.start(SecurityPhase.SESSION_READ, null);
+        SecurityMetrics.Outcome outcome = SecurityMetrics.Outcome.ERROR;
+        try {
+            final List<CommonProfile> profiles = manager.getAll(readFromSession);
+            outcome = isNotEmpty(profiles) ? SecurityMetrics.Outcome.SUCCESS : SecurityMetrics.Outcome.FAILURE;
+            return profiles;
+        } finally {
+            metrics.stop(SecurityPhase.SESSION_READ, null, start, outcome);
+        }
+    }
+
+    static void saveProfile(final ProfileManager manager, final boolean saveInSession, final CommonProfile profile,
+                            final boolean multiProfile, final SecurityMetrics metrics) {
+        final String name = profile.getClientName();
+        final long start = metrics.start(SecurityPhase.SESSION_WRITE, name);
+        SecurityMetrics.Outcome outcome = SecurityMetrics.Outcome.ERROR;
+        try {
+            manager.save(saveInSession, profile, multiProfile);
+            outcome = SecurityMetrics.Outcome.SUCCESS;
+        } finally {
+            metrics.stop(SecurityPhase.SESSION_WRITE, name, start, outcome);
+        }
+    }
+
+    static void logout(final ProfileManager manager, final SecurityMetrics metrics) {
+        final long start = metrics.start(SecurityPhase.SESSION_WRITE, null);
+        SecurityMetrics.Outcome outcome = SecurityMetrics.Outcome.ERROR;
+        try {
+            manager.logout();
+            outcome = SecurityMetrics.Outcome.SUCCESS;
+        } finally {
+            metrics.stop(SecurityPhase.SESSION_WRITE, null, start, outcome);
+        }
+    }
+}
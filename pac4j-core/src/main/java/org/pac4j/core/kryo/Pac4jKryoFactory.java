@@ -0,0 +1,202 @@
+package org.pac4j.core.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.pool.KryoFactory;
+import org.pac4j.core.exception.TechnicalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Kryo factory which pre-registers the pac4j profiles (of all modules), their common attribute types and the pac4j serializers.
+ *
+ * Each class is registered with a fixed identifier (its position in the list + {@link #FIRST_REGISTRATION_ID}) so that all nodes
+ * produce and read the same payloads, whatever the pac4j modules available in their classpath: classes which cannot be loaded are
+ * skipped without shifting the identifiers of the following ones. New classes must therefore only be added at the end of the list.
+ *
+ * The payloads differ from the ones of a default {@link Kryo} instance (used by the default
+ * {@link org.pac4j.core.util.KryoSerializationHelper}): they cannot be read by each other.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class Pac4jKryoFactory implements KryoFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(Pac4jKryoFactory.class);
+
+    public static final int FIRST_REGISTRATION_ID = 100;
+
+    public static final int FIRST_CUSTOM_REGISTRATION_ID = 1000;
+
+    private static final String[][] REGISTRATIONS = {
+        // JDK types
+        { "java.util.HashMap" },
+        { "java.util.LinkedHashMap" },
+        { "java.util.HashSet" },
+        { "java.util.LinkedHashSet" },
+        { "java.util.ArrayList" },
+        { "java.util.Date" },
+        { "java.util.Locale", "org.pac4j.core.kryo.LocaleSerializer" },
+        // pac4j-core
+        { "org.pac4j.core.profile.FormattedDate", "org.pac4j.core.kryo.FormattedDateSerializer" },
+        { "org.pac4j.core.profile.Color", "org.pac4j.core.kryo.ColorSerializer" },
+        { "org.pac4j.core.profile.Gender" },
+        { "org.pac4j.core.profile.CommonProfile" },
+        { "org.pac4j.core.profile.AnonymousProfile" },
+        // pac4j-cas
+        { "org.pac4j.cas.profile.CasProfile" },
+        { "org.pac4j.cas.profile.CasProxyProfile" },
+        { "org.pac4j.cas.profile.CasRestProfile" },
+        // pac4j-gae
+        { "org.pac4j.gae.profile.GaeUserServiceProfile" },
+        // pac4j-http
+        { "org.pac4j.http.profile.IpProfile" },
+        // pac4j-jwt
+        { "org.pac4j.jwt.profile.JwtProfile" },
+        // pac4j-ldap
+        { "org.pac4j.ldap.profile.LdapProfile" },
+        // pac4j-mongo
+        { "org.pac4j.mongo.profile.MongoProfile" },
+        // pac4j-oauth
+        { "org.pac4j.oauth.profile.OAuth10Profile" },
+        { "org.pac4j.oauth.profile.OAuth20Profile" },
+        { "org.pac4j.oauth.profile.bitbucket.BitbucketProfile" },
+        { "org.pac4j.oauth.profile.casoauthwrapper.CasOAuthWrapperProfile" },
+        { "org.pac4j.oauth.profile.dropbox.DropBoxProfile" },
+        { "org.pac4j.oauth.profile.facebook.FacebookProfile" },
+        { "org.pac4j.oauth.profile.foursquare.FoursquareProfile" },
+        { "org.pac4j.oauth.profile.generic.GenericOAuth20Profile" },
+        { "org.pac4j.oauth.profile.github.GitHubProfile" },
+        { "org.pac4j.oauth.profile.google2.Google2Profile" },
+        { "org.pac4j.oauth.profile.linkedin2.LinkedIn2Profile" },
+        { "org.pac4j.oauth.profile.ok.OkProfile" },
+        { "org.pac4j.oauth.profile.orcid.OrcidProfile" },
+        { "org.pac4j.oauth.profile.paypal.PayPalProfile" },
+        { "org.pac4j.oauth.profile.strava.StravaProfile" },
+        { "org.pac4j.oauth.profile.twitter.TwitterProfile" },
+        { "org.pac4j.oauth.profile.vk.VkProfile" },
+        { "org.pac4j.oauth.profile.windowslive.WindowsLiveProfile" },
+        { "org.pac4j.oauth.profile.wordpress.WordPressProfile" },
+        { "org.pac4j.oauth.profile.yahoo.YahooProfile" },
+        // pac4j-oidc
+        { "org.pac4j.oidc.profile.OidcProfile" },
+        { "org.pac4j.oidc.profile.azuread.AzureAdProfile" },
+        { "org.pac4j.oidc.profile.google.GoogleOidcProfile" },
+        { "com.nimbusds.oauth2.sdk.token.AccessTokenType", "org.pac4j.oidc.kryo.AccessTokenTypeSerializer" },
+        { "com.nimbusds.oauth2.sdk.Scope$Value", "org.pac4j.oidc.kryo.ScopeValueSerializer" },
+        { "com.nimbusds.oauth2.sdk.Scope" },
+        { "com.nimbusds.oauth2.sdk.token.BearerAccessToken" },
+        { "com.nimbusds.oauth2.sdk.token.RefreshToken" },
+        // pac4j-openid
+        { "org.pac4j.openid.profile.OpenIdProfile" },
+        { "org.pac4j.openid.profile.yahoo.YahooOpenIdProfile" },
+        // pac4j-saml
+        { "org.pac4j.saml.profile.SAML2Profile" },
+        // pac4j-sql
+        { "org.pac4j.sql.profile.DbProfile" },
+        // pac4j-stormpath
+        { "org.pac4j.stormpath.profile.StormpathProfile" }
+    };
+
+    private final List<Registration> registrations;
+
+    private final boolean registrationRequired;
+
+    public Pac4jKryoFactory() {
+        this(false);
+    }
+
+    public Pac4jKryoFactory(final boolean registrationRequired) {
+        this.registrationRequired = registrationRequired;
+        final List<Registration> resolved = new ArrayList<>();
+        for (int i = 0; i < REGISTRATIONS.length; i++) {
+            final String[] registration = REGISTRATIONS[i];
+            final Class<?> clazz = loadClass(registration[0]);
+            if (clazz == null) {
+                logger.debug("Class {} not available: skipped from Kryo registrations", registration[0]);
+                continue;
+            }
+            Class<?> serializerClass = null;
+            if (registration.length > 1) {
+                serializerClass = loadClass(registration[1]);
+                if (serializerClass == null) {
+                    logger.debug("Serializer {} not available: {} skipped from Kryo registrations", registration[1], registration[0]);
+                    continue;
+                }
+            }
+            resolved.add(new Registration(clazz, serializerClass, FIRST_REGISTRATION_ID + i));
+        }
+        this.registrations = Collections.unmodifiableList(resolved);
+    }
+
+    @Override
+    public Kryo create() {
+        final Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(registrationRequired);
+        for (final Registration registration : registrations) {
+            if (registration.serializerClass != null) {
+                kryo.register(registration.clazz, newSerializer(registration.serializerClass), registration.id);
+            } else {
+                kryo.register(registration.clazz, registration.id);
+            }
+        }
+        customize(kryo);
+        return kryo;
+    }
+
+    /**
+     * Customize a newly created Kryo instance (additional registrations...). Custom registration identifiers must start at
+     * {@link #FIRST_CUSTOM_REGISTRATION_ID} to never collide with the ones of this factory.
+     *
+     * @param kryo the Kryo instance
+     */
+    protected void customize(final Kryo kryo) {}
+
+    public List<Class<?>> getRegisteredClasses() {
+        final List<Class<?>> classes = new ArrayList<>();
+        for (final Registration registration : registrations) {
+            classes.add(registration.clazz);
+        }
+        return classes;
+    }
+
+    private static Class<?> loadClass(final String name) {
+        try {
+            final ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+            if (tccl == null) {
+                return Class.forName(name);
+            } else {
+                return Class.forName(name, true, tccl);
+            }
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static Serializer<?> newSerializer(final Class<?> serializerClass) {
+        try {
+            return (Serializer<?>) serializerClass.newInstance();
+        } catch (final InstantiationException | IllegalAccessException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    private static final class Registration {
+
+        private final Class<?> clazz;
+
+        private final Class<?> serializerClass;
+
+        private final int id;
+
+        private Registration(final Class<?> clazz, final Class<?> serializerClass, final int id) {
+            this.clazz = clazz;
+            this.serializerClass = serializerClass;
+            this.id = id;
+        }
+    }
+}
@@ -9,7 +9,7 @@ import org.slf4j.LoggerFactory;
 import java.util.regex.Pattern;
 
 /**
- * To match requests by excluding path.
+ * To match requests by excluding path (to exclude many paths, use the {@link PathMatcher}, compiled once).
  *
  * @author Jerome Leleu
  * @since 1.8.1
@@ -0,0 +1,182 @@
+package org.pac4j.core.matching;
+
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * To match requests by including / excluding many paths at once: the request matches if its path matches one of the included paths
+ * (or if there is no included path) and none of the excluded paths.
+ *
+ * Paths are exact paths (<code>/health</code>) or Ant-style patterns (<code>/static/**</code>, <code>/img/*.png</code>): they are
+ * all compiled into a single {@link PathTrie} checked in one pass without allocation. Paths starting with a <code>^</code> are
+ * regular expressions (which must end with a <code>$</code>), only checked as a fallback.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class PathMatcher implements Matcher {
+
+    private final static Logger logger = LoggerFactory.getLogger(PathMatcher.class);
+
+    private final List<String> includedPaths = new ArrayList<>();
+
+    private final List<String> excludedPaths = new ArrayList<>();
+
+    private volatile Rules includes;
+
+    private volatile Rules excludes;
+
+    public PathMatcher() {}
+
+    public PathMatcher(final String... excludedPaths) {
+        for (final String path : excludedPaths) {
+            excludePath(path);
+        }
+    }
+
+    @Override
+    public boolean matches(final WebContext context) {
+        final String path = context.getPath();
+        final Rules currentIncludes = includes();
+        if (!currentIncludes.isEmpty() && !currentIncludes.matches(path)) {
+            logger.debug("path: {} is not included", path);
+            return false;
+        }
+        if (excludes().matches(path)) {
+            logger.debug("path: {} is excluded", path);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Exclude a path.
+     *
+     * @param path the exact path, Ant-style pattern or regular expression
+     * @return this path matcher
+     */
+    public synchronized PathMatcher excludePath(final String path) {
+        validate(path);
+        excludedPaths.add(path);
+        excludes = null;
+        return this;
+    }
+
+    /**
+     * Include a path.
+     *
+     * @param path the exact path, Ant-style pattern or regular expression
+     * @return this path matcher
+     */
+    public synchronized PathMatcher includePath(final String path) {
+        validate(path);
+        includedPaths.add(path);
+        includes = null;
+        return this;
+    }
+
+    private static void validate(final String path) {
+        CommonHelper.assertNotBlank("path", path);
+        if (path.startsWith("^") && !path.endsWith("$")) {
+            throw new TechnicalException("Your regular expression: '" + path + "' must start with a ^ and ends with a $ to define a full path matching");
+        }
+    }
+
+    private Rules includes() {
+        Rules rules = includes;
+        if (rules == null) {
+            synchronized (this) {
+                rules = new Rules(includedPaths);
+                includes = rules;
+            }
+        }
+        return rules;
+    }
+
+    private Rules excludes() {
+        Rules rules = excludes;
+        if (rules == null) {
+            synchronized (this) {
+                rules = new Rules(excludedPaths);
+                excludes = rules;
+            }
+        }
+        return rules;
+    }
+
+    public synchronized List<String> getIncludedPaths() {
+        return Collections.unmodifiableList(new ArrayList<>(includedPaths));
+    }
+
+    public synchronized void setIncludedPaths(final Collection<String> paths) {
+        CommonHelper.assertNotNull("paths", paths);
+        includedPaths.clear();
+        includes = null;
+        for (final String path : paths) {
+            includePath(path);
+        }
+    }
+
+    public synchronized List<String> getExcludedPaths() {
+        return Collections.unmodifiableList(new ArrayList<>(excludedPaths));
+    }
+
+    public synchronized void setExcludedPaths(final Collection<String> paths) {
+        CommonHelper.assertNotNull("paths", paths);
+        excludedPaths.clear();
+        excludes = null;
+        for (final String path : paths) {
+            excludePath(path);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "includedPaths", includedPaths, "excludedPaths", excludedPaths);
+    }
+
+    /**
+     * The compiled paths.
+     */
+    private static final class Rules {
+
+        private final PathTrie trie = new PathTrie();
+
+        private final List<Pattern> patterns = new ArrayList<>();
+
+        private Rules(final List<String> paths) {
+            for (final String path : paths) {
+                if (path.startsWith("^")) {
+                    patterns.add(Pattern.compile(path));
+                } else {
+                    trie.add(path);
+                }
+            }
+        }
+
+        private boolean isEmpty() {
+            return trie.size() == 0 && patterns.isEmpty();
+        }
+
+        private boolean matches(final String path) {
+            if (trie.matches(path)) {
+                return true;
+            }
+            for (final Pattern pattern : patterns) {
+                if (pattern.matcher(path).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
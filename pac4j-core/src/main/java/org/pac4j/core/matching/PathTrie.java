@@ -0,0 +1,251 @@
+package org.pac4j.core.matching;
+
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A set of Ant-style path patterns compiled into a trie of path segments, to match a path in a single pass and without allocation.
+ *
+ * Patterns are made of segments separated by <code>/</code>: a literal segment (<code>/health</code>), a segment with the
+ * <code>*</code> (any characters) and <code>?</code> (one character) wildcards (<code>/img/*.png</code>) or the <code>**</code>
+ * segment (any number of segments: <code>/static/**</code> matches <code>/static</code> and everything below it). A trailing slash
+ * is ignored.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class PathTrie {
+
+    private final Node root = new Node();
+
+    private int size;
+
+    /**
+     * Add a pattern.
+     *
+     * @param pattern the Ant-style pattern
+     */
+    public void add(final String pattern) {
+        CommonHelper.assertNotNull("pattern", pattern);
+        Node node = root;
+        final int length = pattern.length();
+        int pos = start(pattern);
+        while (pos < length) {
+            final int end = segmentEnd(pattern, pos);
+            final String segment = pattern.substring(pos, end);
+            if ("**".equals(segment)) {
+                if (node.deep == null) {
+                    node.deep = new Node();
+                }
+                node = node.deep;
+            } else if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0) {
+                node = node.globChild(segment);
+            } else {
+                node = node.literals.getOrCreate(segment);
+            }
+            pos = end + 1;
+        }
+        node.terminal = true;
+        size++;
+    }
+
+    /**
+     * Whether the path matches one of the patterns.
+     *
+     * @param path the path
+     * @return whether the path matches
+     */
+    public boolean matches(final String path) {
+        if (path == null || size == 0) {
+            return false;
+        }
+        return matches(root, path, start(path));
+    }
+
+    private static boolean matches(final Node node, final String path, final int pos) {
+        final int length = path.length();
+        if (pos >= length) {
+            return node.terminal || node.deep != null && matches(node.deep, path, length);
+        }
+        final int end = segmentEnd(path, pos);
+        final int next = end + 1;
+
+        final Node literal = node.literals.get(path, pos, end);
+        if (literal != null && matches(literal, path, next)) {
+            return true;
+        }
+        for (int i = 0; i < node.globs.size(); i++) {
+            final Node glob = node.globs.get(i);
+            if (globMatches(glob.glob, path, pos, end) && matches(glob, path, next)) {
+                return true;
+            }
+        }
+        if (node.deep != null) {
+            // "**" matches zero or more segments
+            int p = pos;
+            while (true) {
+                if (matches(node.deep, path, p)) {
+                    return true;
+                }
+                if (p >= length) {
+                    return false;
+                }
+                p = segmentEnd(path, p) + 1;
+            }
+        }
+        return false;
+    }
+
+    private static int start(final String path) {
+        return path.startsWith("/") ? 1 : 0;
+    }
+
+    private static int segmentEnd(final String path, final int pos) {
+        final int end = path.indexOf('/', pos);
+        return end < 0 ? path.length() : end;
+    }
+
+    /* iterative wildcard matching with backtracking on the last star */
+    private static boolean globMatches(final String glob, final String path, final int start, final int end) {
+        int g = 0;
+        int p = start;
+        int starG = -1;
+        int starP = -1;
+        final int globLength = glob.length();
+        while (p < end) {
+            if (g < globLength && (glob.charAt(g) == '?' || glob.charAt(g) == path.charAt(p))) {
+                g++;
+                p++;
+            } else if (g < globLength && glob.charAt(g) == '*') {
+                starG = g++;
+                starP = p;
+            } else if (starG >= 0) {
+                g = starG + 1;
+                p = ++starP;
+            } else {
+                return false;
+            }
+        }
+        while (g < globLength && glob.charAt(g) == '*') {
+            g++;
+        }
+        return g == globLength;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "size", size);
+    }
+
+    private static final class Node {
+
+        private final LiteralTable literals = new LiteralTable();
+
+        private final List<Node> globs = new ArrayList<>();
+
+        private final String glob;
+
+        private Node deep;
+
+        private boolean terminal;
+
+        private Node() {
+            this(null);
+        }
+
+        private Node(final String glob) {
+            this.glob = glob;
+        }
+
+        private Node globChild(final String segment) {
+            for (final Node child : globs) {
+                if (child.glob.equals(segment)) {
+                    return child;
+                }
+            }
+            final Node child = new Node(segment);
+            globs.add(child);
+            return child;
+        }
+    }
+
+    /**
+     * Open addressing table of the literal segments, looked up by a region of the path (no substring).
+     */
+    private static final class LiteralTable {
+
+        private String[] keys = new String[0];
+
+        private Node[] nodes = new Node[0];
+
+        private int count;
+
+        private static int hash(final String s, final int start, final int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + s.charAt(i);
+            }
+            return h ^ h >>> 16;
+        }
+
+        private Node get(final String path, final int start, final int end) {
+            if (count == 0) {
+                return null;
+            }
+            final int mask = keys.length - 1;
+            final int length = end - start;
+            int i = hash(path, start, end) & mask;
+            while (keys[i] != null) {
+                final String key = keys[i];
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    return nodes[i];
+                }
+                i = i + 1 & mask;
+            }
+            return null;
+        }
+
+        private Node getOrCreate(final String segment) {
+            final Node existing = get(segment, 0, segment.length());
+            if (existing != null) {
+                return existing;
+            }
+            if ((count + 1) * 2 > keys.length) {
+                resize();
+            }
+            final Node node = new Node();
+            put(segment, node);
+            count++;
+            return node;
+        }
+
+        private void put(final String key, final Node node) {
+            final int mask = keys.length - 1;
+            int i = hash(key, 0, key.length()) & mask;
+            while (keys[i] != null) {
+                i = i + 1 & mask;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+
+        private void resize() {
+            final String[] oldKeys = keys;
+            final Node[] oldNodes = nodes;
+            final int capacity = Math.max(4, oldKeys.length * 2);
+            keys = new String[capacity];
+            nodes = new Node[capacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    put(oldKeys[i], oldNodes[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.pac4j.core.metrics;
+
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Security metrics kept in memory: the number of phases and their total duration, per phase, name and outcome.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class InMemorySecurityMetrics implements SecurityMetrics {
+
+    private static final String NO_NAME = "";
+
+    private final Map<SecurityPhase, ConcurrentMap<String, Timer>> timers = new EnumMap<>(SecurityPhase.class);
+
+    public InMemorySecurityMetrics() {
+        for (final SecurityPhase phase : SecurityPhase.values()) {
+            timers.put(phase, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public void record(final SecurityPhase phase, final String name, final long duration, final Outcome outcome) {
+        final ConcurrentMap<String, Timer> phaseTimers = timers.get(phase);
+        final String key = name == null ? NO_NAME : name;
+        Timer timer = phaseTimers.get(key);
+        if (timer == null) {
+            timer = phaseTimers.computeIfAbsent(key, k -> new Timer());
+        }
+        timer.record(duration, outcome);
+    }
+
+    /**
+     * Get the timer of a phase.
+     *
+     * @param phase the phase
+     * @param name the name of the client, authorizer... involved in the phase (may be <code>null</code>)
+     * @return the timer (<code>null</code> if the phase has never been recorded for this name)
+     */
+    public Timer getTimer(final SecurityPhase phase, final String name) {
+        CommonHelper.assertNotNull("phase", phase);
+        return timers.get(phase).get(name == null ? NO_NAME : name);
+    }
+
+    /**
+     * Get the timers of a phase.
+     *
+     * @param phase the phase
+     * @return the timers by name (an empty string when there is no name)
+     */
+    public Map<String, Timer> getTimers(final SecurityPhase phase) {
+        CommonHelper.assertNotNull("phase", phase);
+        return Collections.unmodifiableMap(timers.get(phase));
+    }
+
+    /**
+     * Reset all the timers.
+     */
+    public void clear() {
+        for (final ConcurrentMap<String, Timer> phaseTimers : timers.values()) {
+            phaseTimers.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "timers", timers);
+    }
+
+    /**
+     * The number of phases and their total duration, per outcome.
+     */
+    public static final class Timer {
+
+        private final LongAdder[] counts = new LongAdder[Outcome.values().length];
+
+        private final LongAdder[] durations = new LongAdder[Outcome.values().length];
+
+        private Timer() {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+                durations[i] = new LongAdder();
+            }
+        }
+
+        private void record(final long duration, final Outcome outcome) {
+            final int i = outcome.ordinal();
+            counts[i].increment();
+            durations[i].add(duration);
+        }
+
+        public long getCount(final Outcome outcome) {
+            return counts[outcome.ordinal()].sum();
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (final LongAdder adder : counts) {
+                count += adder.sum();
+            }
+            return count;
+        }
+
+        /**
+         * The total duration of the phases with this outcome.
+         *
+         * @param outcome the outcome
+         * @param unit the time unit
+         * @return the total duration
+         */
+        public long getTotalTime(final Outcome outcome, final TimeUnit unit) {
+            return unit.convert(durations[outcome.ordinal()].sum(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            return CommonHelper.toString(this.getClass(), "success", getCount(Outcome.SUCCESS), "failure", getCount(Outcome.FAILURE),
+                    "error", getCount(Outcome.ERROR), "action", getCount(Outcome.ACTION));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.pac4j.core.metrics;
+
+/**
+ * A no-operation security metrics (the default): nothing is measured.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class NopSecurityMetrics implements SecurityMetrics {
+
+    @Override
+    public void record(final SecurityPhase phase, final String name, final long duration, final Outcome outcome) {}
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public long start(final SecurityPhase phase, final String name) {
+        return 0;
+    }
+
+    @Override
+    public void stop(final SecurityPhase phase, final String name, final long startTime, final Outcome outcome) {}
+}
@@ -0,0 +1,70 @@
+package org.pac4j.core.metrics;
+
+/**
+ * Records the duration and the outcome of each {@link SecurityPhase} (to be bridged to a metrics or tracing library).
+ *
+ * The logics call {@link #start(SecurityPhase, String)} before a phase and {@link #stop(SecurityPhase, String, long, Outcome)} after
+ * it, so tracing implementations can open and close a span. The implementations must be thread-safe and fast: they are called
+ * several times per request.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public interface SecurityMetrics {
+
+    /**
+     * The outcome of a phase.
+     */
+    enum Outcome {
+        /* the phase succeeded: matching request, credentials or profile found, access authorized... */
+        SUCCESS,
+        /* the phase ended with a negative result: no matching, no credentials or profile, access forbidden... */
+        FAILURE,
+        /* an exception was thrown */
+        ERROR,
+        /* an HTTP action was required (redirection, unauthorized...) */
+        ACTION
+    }
+
+    /**
+     * Record a phase.
+     *
+     * @param phase the phase
+     * @param name the name of the client, authorizer... involved in the phase (may be <code>null</code>)
+     * @param duration the duration of the phase in nanoseconds
+     * @param outcome the outcome of the phase
+     */
+    void record(SecurityPhase phase, String name, long duration, Outcome outcome);
+
+    /**
+     * Whether the phases are recorded at all.
+     *
+     * @return whether the phases are recorded
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Start a phase.
+     *
+     * @param phase the phase
+     * @param name the name of the client, authorizer... involved in the phase (may be <code>null</code>)
+     * @return the start time in nanoseconds
+     */
+    default long start(final SecurityPhase phase, final String name) {
+        return System.nanoTime();
+    }
+
+    /**
+     * Stop a phase and record it.
+     *
+     * @param phase the phase
+     * @param name the name of the client, authorizer... involved in the phase (may be <code>null</code>)
+     * @param startTime the start time returned by {@link #start(SecurityPhase, String)}
+     * @param outcome the outcome of the phase
+     */
+    default void stop(final SecurityPhase phase, final String name, final long startTime, final Outcome outcome) {
+        record(phase, name, System.nanoTime() - startTime, outcome);
+    }
+}
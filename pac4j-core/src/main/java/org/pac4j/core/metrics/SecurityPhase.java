@@ -0,0 +1,31 @@
+package org.pac4j.core.metrics;
+
+/**
+ * The phases of the security, callback and logout logics which are measured.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public enum SecurityPhase {
+
+    /* the matchers are checked, named by the matchers configuration */
+    MATCHING,
+
+    /* the current clients are found, named by the clients configuration */
+    CLIENT_FINDING,
+
+    /* the credentials are extracted, named by the client */
+    CREDENTIALS_EXTRACTION,
+
+    /* the user profile is retrieved from the credentials, named by the client */
+    AUTHENTICATION,
+
+    /* an authorizer is checked, named by the authorizer */
+    AUTHORIZATION,
+
+    /* the user profiles are read from the request or the web session */
+    SESSION_READ,
+
+    /* the user profiles are saved in or removed from the request and the web session */
+    SESSION_WRITE
+}
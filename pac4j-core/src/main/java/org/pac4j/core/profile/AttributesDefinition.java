@@ -20,6 +20,8 @@ public class AttributesDefinition {
     protected List<String> secondaries = new ArrayList<>();
     
     protected Map<String, AttributeConverter<? extends Object>> converters = new HashMap<>();
+
+    private volatile ProfileCodec.NameTable nameTable;
     
     /**
      * Return the primary attributes names.
@@ -48,6 +50,7 @@ public class AttributesDefinition {
     protected void primary(final String name, final AttributeConverter<? extends Object> converter) {
         primaries.add(name);
         converters.put(name, converter);
+        nameTable = null;
     }
 
     /**
@@ -59,6 +62,7 @@ public class AttributesDefinition {
     protected void secondary(final String name, final AttributeConverter<? extends Object> converter) {
         secondaries.add(name);
         converters.put(name, converter);
+        nameTable = null;
     }
 
     /**
@@ -76,4 +80,20 @@ public class AttributesDefinition {
             return value;
         }
     }
+
+    /**
+     * Return the attribute names (primary then secondary ones) interned by their index for the {@link ProfileCodec}.
+     *
+     * @return the name table
+     */
+    ProfileCodec.NameTable getNameTable() {
+        ProfileCodec.NameTable table = nameTable;
+        if (table == null) {
+            final List<String> names = new ArrayList<>(primaries);
+            names.addAll(secondaries);
+            table = new ProfileCodec.NameTable(names);
+            nameTable = table;
+        }
+        return table;
+    }
 }
@@ -0,0 +1,610 @@
+package org.pac4j.core.profile;
+
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact and versioned binary codec for user profiles.
+ *
+ * Lengths and numbers are written as varints, the attribute names defined in the {@link AttributesDefinition} of the profile are
+ * written as indexes and the common attribute types (strings, numbers, dates, {@link FormattedDate}, {@link Color}, {@link Locale},
+ * {@link Gender}, JDK lists, sets and maps...) have their own tags: the Java serialization is only used as a fallback for the other
+ * types (including the other collections, to keep their concrete type).
+ *
+ * The indexes remain valid when attribute names are added at the end of the definition. Profiles encoded with a definition
+ * which has changed otherwise cannot be decoded: this is detected when the profile is decoded, not on the access to its attributes.
+ *
+ * The attributes are not decoded when the profile is read, but on their first access: they remain in the original bytes array
+ * (which must not be modified afterwards) and are copied as is if the profile is encoded again without having been accessed.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class ProfileCodec {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0xCA;
+
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int TRUE = 2;
+    private static final int FALSE = 3;
+    private static final int INTEGER = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int DATE = 7;
+    private static final int FORMATTED_DATE = 8;
+    private static final int COLOR = 9;
+    private static final int LOCALE = 10;
+    private static final int GENDER = 11;
+    private static final int LIST = 12;
+    private static final int SET = 13;
+    private static final int MAP = 14;
+    private static final int URI_TAG = 15;
+    private static final int SERIALIZED = 16;
+
+    private static final Gender[] GENDERS = Gender.values();
+
+    private ProfileCodec() {}
+
+    /**
+     * Encode a profile (including its type).
+     *
+     * @param profile the profile
+     * @return the encoded profile
+     */
+    public static byte[] encode(final UserProfile profile) {
+        CommonHelper.assertNotNull("profile", profile);
+        final Writer writer = new Writer(256);
+        writer.writeByte(MAGIC);
+        writer.writeString(profile.getClass().getName());
+        writeBody(writer, profile);
+        return writer.toBytes();
+    }
+
+    /**
+     * Decode a profile encoded by {@link #encode(UserProfile)}. The attributes are decoded on first access.
+     *
+     * @param bytes the encoded profile
+     * @return the decoded profile
+     */
+    public static CommonProfile decode(final byte[] bytes) {
+        CommonHelper.assertNotNull("bytes", bytes);
+        final Reader reader = new Reader(bytes, 0, bytes.length);
+        if (reader.readByte() != MAGIC) {
+            throw new TechnicalException("Not an encoded profile");
+        }
+        final CommonProfile profile = ProfileHelper.buildUserProfileByClassCompleteName(reader.readString());
+        readBody(reader, profile);
+        return profile;
+    }
+
+    static byte[] encodeBody(final UserProfile profile) {
+        final Writer writer = new Writer(256);
+        writeBody(writer, profile);
+        return writer.toBytes();
+    }
+
+    static void decodeBody(final UserProfile profile, final byte[] bytes) {
+        readBody(new Reader(bytes, 0, bytes.length), profile);
+    }
+
+    private static void writeBody(final Writer writer, final UserProfile profile) {
+        writer.writeByte(VERSION);
+        writer.writeNullableString(profile.getId());
+        final String clientName = profile.getClientName();
+        writer.writeByte((profile.isRemembered() ? 1 : 0) | (clientName != null ? 2 : 0));
+        if (clientName != null) {
+            writer.writeString(clientName);
+        }
+        writeStrings(writer, profile.getRoles());
+        writeStrings(writer, profile.getPermissions());
+
+        final EncodedAttributes encoded = profile.getEncodedAttributes();
+        if (encoded != null) {
+            writer.writeVarint(encoded.namesCount);
+            writer.writeInt(encoded.namesHash);
+            writer.writeVarint(encoded.length);
+            writer.writeBytes(encoded.bytes, encoded.offset, encoded.length);
+        } else {
+            final NameTable names = nameTable(profile.getAttributesDefinition());
+            writer.writeVarint(names.names.length);
+            writer.writeInt(names.hashOf(names.names.length));
+            final Writer attributesWriter = new Writer(256);
+            final Map<String, Object> attributes = profile.getStoredAttributes();
+            attributesWriter.writeVarint(attributes.size());
+            for (final Map.Entry<String, Object> entry : attributes.entrySet()) {
+                final int index = names.indexOf(entry.getKey());
+                if (index >= 0) {
+                    attributesWriter.writeVarint(index + 1);
+                } else {
+                    attributesWriter.writeVarint(0);
+                    attributesWriter.writeString(entry.getKey());
+                }
+                writeValue(attributesWriter, entry.getValue());
+            }
+            writer.writeVarint(attributesWriter.pos);
+            writer.writeBytes(attributesWriter.buffer, 0, attributesWriter.pos);
+        }
+    }
+
+    private static void readBody(final Reader reader, final UserProfile profile) {
+        final int version = reader.readByte();
+        if (version != VERSION) {
+            throw new TechnicalException("Unsupported profile encoding version: " + version);
+        }
+        final String id = reader.readNullableString();
+        if (id != null) {
+            profile.setId(id);
+        }
+        final int flags = reader.readByte();
+        profile.setRemembered((flags & 1) != 0);
+        if ((flags & 2) != 0) {
+            profile.setClientName(reader.readString());
+        }
+        profile.addRoles(readStrings(reader));
+        profile.addPermissions(readStrings(reader));
+
+        final int namesCount = reader.readVarint();
+        final int namesHash = reader.readInt();
+        checkNames(nameTable(profile.getAttributesDefinition()), namesCount, namesHash);
+        final int length = reader.readVarint();
+        profile.setEncodedAttributes(new EncodedAttributes(reader.buffer, reader.pos, length, namesCount, namesHash));
+        reader.skip(length);
+    }
+
+    /**
+     * Decode the attributes of a profile which have not been accessed yet.
+     *
+     * @param encoded the encoded attributes
+     * @param definition the attributes definition of the profile
+     * @return the decoded attributes
+     */
+    static Map<String, Object> decodeAttributes(final EncodedAttributes encoded, final AttributesDefinition definition) {
+        final NameTable names = nameTable(definition);
+        checkNames(names, encoded.namesCount, encoded.namesHash);
+        final Reader reader = new Reader(encoded.bytes, encoded.offset, encoded.length);
+        final int size = reader.readVarint();
+        final Map<String, Object> attributes = new HashMap<>(Math.max(16, size * 2));
+        for (int i = 0; i < size; i++) {
+            final int index = reader.readVarint();
+            final String name = index == 0 ? reader.readString() : names.nameAt(index - 1);
+            attributes.put(name, readValue(reader));
+        }
+        return attributes;
+    }
+
+    /* the names used to encode the profile must be the first ones of the current definition */
+    private static void checkNames(final NameTable names, final int namesCount, final int namesHash) {
+        if (namesCount > names.names.length || names.hashOf(namesCount) != namesHash) {
+            throw new TechnicalException("The attributes definition has changed since the profile was encoded");
+        }
+    }
+
+    private static NameTable nameTable(final AttributesDefinition definition) {
+        return definition == null ? NameTable.EMPTY : definition.getNameTable();
+    }
+
+    private static void writeStrings(final Writer writer, final Collection<String> values) {
+        writer.writeVarint(values.size());
+        for (final String value : values) {
+            writer.writeString(value);
+        }
+    }
+
+    private static Set<String> readStrings(final Reader reader) {
+        final int size = reader.readVarint();
+        final Set<String> values = new HashSet<>(Math.max(16, size * 2));
+        for (int i = 0; i < size; i++) {
+            values.add(reader.readString());
+        }
+        return values;
+    }
+
+    private static void writeValue(final Writer writer, final Object value) {
+        if (value == null) {
+            writer.writeByte(NULL);
+        } else if (value instanceof String) {
+            writer.writeByte(STRING);
+            writer.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            writer.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Integer) {
+            writer.writeByte(INTEGER);
+            writer.writeVarlong(zigzag((Integer) value));
+        } else if (value instanceof Long) {
+            writer.writeByte(LONG);
+            writer.writeVarlong(zigzag((Long) value));
+        } else if (value instanceof Double) {
+            writer.writeByte(DOUBLE);
+            writer.writeLong(Double.doubleToLongBits((Double) value));
+        } else if (value instanceof FormattedDate) {
+            final FormattedDate date = (FormattedDate) value;
+            writer.writeByte(FORMATTED_DATE);
+            writer.writeVarlong(zigzag(date.getTime()));
+            writer.writeNullableString(date.getFormat());
+            writeValue(writer, date.getLocale());
+        } else if (value.getClass() == Date.class) {
+            writer.writeByte(DATE);
+            writer.writeVarlong(zigzag(((Date) value).getTime()));
+        } else if (value instanceof Color) {
+            final Color color = (Color) value;
+            writer.writeByte(COLOR);
+            writer.writeByte(color.getRed());
+            writer.writeByte(color.getGreen());
+            writer.writeByte(color.getBlue());
+        } else if (value instanceof Locale) {
+            final Locale locale = (Locale) value;
+            writer.writeByte(LOCALE);
+            writer.writeString(locale.getLanguage());
+            writer.writeString(locale.getCountry());
+            writer.writeString(locale.getVariant());
+        } else if (value instanceof Gender) {
+            writer.writeByte(GENDER);
+            writer.writeByte(((Gender) value).ordinal());
+        } else if (value instanceof URI) {
+            writer.writeByte(URI_TAG);
+            writer.writeString(value.toString());
+        } else if (value.getClass() == ArrayList.class) {
+            final List<?> list = (List<?>) value;
+            writer.writeByte(LIST);
+            writer.writeVarint(list.size());
+            for (final Object element : list) {
+                writeValue(writer, element);
+            }
+        } else if (value.getClass() == HashSet.class || value.getClass() == LinkedHashSet.class) {
+            final Set<?> set = (Set<?>) value;
+            writer.writeByte(SET);
+            writer.writeByte(value.getClass() == LinkedHashSet.class ? 1 : 0);
+            writer.writeVarint(set.size());
+            for (final Object element : set) {
+                writeValue(writer, element);
+            }
+        } else if ((value.getClass() == HashMap.class || value.getClass() == LinkedHashMap.class) && hasStringKeys((Map<?, ?>) value)) {
+            final Map<?, ?> map = (Map<?, ?>) value;
+            writer.writeByte(MAP);
+            writer.writeByte(value.getClass() == LinkedHashMap.class ? 1 : 0);
+            writer.writeVarint(map.size());
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                writer.writeString((String) entry.getKey());
+                writeValue(writer, entry.getValue());
+            }
+        } else if (value instanceof Serializable) {
+            writer.writeByte(SERIALIZED);
+            final byte[] serialized = javaSerialize((Serializable) value);
+            writer.writeVarint(serialized.length);
+            writer.writeBytes(serialized, 0, serialized.length);
+        } else {
+            throw new TechnicalException("Cannot encode attribute value of type: " + value.getClass());
+        }
+    }
+
+    private static Object readValue(final Reader reader) {
+        final int tag = reader.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return reader.readString();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INTEGER:
+                return (int) unzigzag(reader.readVarlong());
+            case LONG:
+                return unzigzag(reader.readVarlong());
+            case DOUBLE:
+                return Double.longBitsToDouble(reader.readLong());
+            case DATE:
+                return new Date(unzigzag(reader.readVarlong()));
+            case FORMATTED_DATE:
+                final Date date = new Date(unzigzag(reader.readVarlong()));
+                final String format = reader.readNullableString();
+                return new FormattedDate(date, format, (Locale) readValue(reader));
+            case COLOR:
+                return new Color(reader.readByte(), reader.readByte(), reader.readByte());
+            case LOCALE:
+                return new Locale(reader.readString(), reader.readString(), reader.readString());
+            case GENDER:
+                return GENDERS[reader.readByte()];
+            case URI_TAG:
+                return URI.create(reader.readString());
+            case LIST:
+                final int listSize = reader.readVarint();
+                final List<Object> list = new ArrayList<>(listSize);
+                for (int i = 0; i < listSize; i++) {
+                    list.add(readValue(reader));
+                }
+                return list;
+            case SET:
+                final boolean linkedSet = reader.readByte() == 1;
+                final int setSize = reader.readVarint();
+                final int setCapacity = Math.max(16, setSize * 2);
+                final Set<Object> set = linkedSet ? new LinkedHashSet<>(setCapacity) : new HashSet<>(setCapacity);
+                for (int i = 0; i < setSize; i++) {
+                    set.add(readValue(reader));
+                }
+                return set;
+            case MAP:
+                final boolean linkedMap = reader.readByte() == 1;
+                final int mapSize = reader.readVarint();
+                final int mapCapacity = Math.max(16, mapSize * 2);
+                final Map<String, Object> map = linkedMap ? new LinkedHashMap<>(mapCapacity) : new HashMap<>(mapCapacity);
+                for (int i = 0; i < mapSize; i++) {
+                    final String key = reader.readString();
+                    map.put(key, readValue(reader));
+                }
+                return map;
+            case SERIALIZED:
+                final int length = reader.readVarint();
+                final Object value = javaUnserialize(reader.buffer, reader.pos, length);
+                reader.skip(length);
+                return value;
+            default:
+                throw new TechnicalException("Unknown attribute tag: " + tag);
+        }
+    }
+
+    private static boolean hasStringKeys(final Map<?, ?> map) {
+        for (final Object key : map.keySet()) {
+            if (!(key instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static byte[] javaSerialize(final Serializable value) {
+        final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(byteStream)) {
+            out.writeObject(value);
+        } catch (final IOException e) {
+            throw new TechnicalException(e);
+        }
+        return byteStream.toByteArray();
+    }
+
+    private static Object javaUnserialize(final byte[] bytes, final int offset, final int length) {
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes, offset, length))) {
+            return in.readObject();
+        } catch (final IOException | ClassNotFoundException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    /**
+     * The encoded attributes of a profile, kept until their first access.
+     */
+    static final class EncodedAttributes implements Serializable {
+
+        private static final long serialVersionUID = -4106457307932429958L;
+
+        private final byte[] bytes;
+
+        private final int offset;
+
+        private final int length;
+
+        private final int namesCount;
+
+        private final int namesHash;
+
+        private EncodedAttributes() {
+            this(null, 0, 0, 0, 0);
+        }
+
+        private EncodedAttributes(final byte[] bytes, final int offset, final int length, final int namesCount, final int namesHash) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+            this.namesCount = namesCount;
+            this.namesHash = namesHash;
+        }
+    }
+
+    /**
+     * The attribute names of an attributes definition, interned by their index.
+     */
+    static final class NameTable {
+
+        private static final NameTable EMPTY = new NameTable(Collections.emptyList());
+
+        private final String[] names;
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        /* the hash of the first n names, for each n */
+        private final int[] hashes;
+
+        NameTable(final List<String> names) {
+            this.names = names.toArray(new String[names.size()]);
+            this.hashes = new int[this.names.length + 1];
+            int hash = 1;
+            hashes[0] = hash;
+            for (int i = 0; i < this.names.length; i++) {
+                indexes.putIfAbsent(this.names[i], i);
+                hash = 31 * hash + this.names[i].hashCode();
+                hashes[i + 1] = hash;
+            }
+        }
+
+        private int hashOf(final int count) {
+            return hashes[count];
+        }
+
+        private int indexOf(final String name) {
+            final Integer index = indexes.get(name);
+            return index == null ? -1 : index;
+        }
+
+        private String nameAt(final int index) {
+            if (index < 0 || index >= names.length) {
+                throw new TechnicalException("Unknown attribute index: " + index);
+            }
+            return names[index];
+        }
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer;
+
+        private int pos;
+
+        private Writer(final int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        private void ensure(final int size) {
+            if (pos + size > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, pos + size));
+            }
+        }
+
+        private void writeByte(final int value) {
+            ensure(1);
+            buffer[pos++] = (byte) value;
+        }
+
+        private void writeBytes(final byte[] bytes, final int offset, final int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buffer, pos, length);
+            pos += length;
+        }
+
+        private void writeVarint(final int value) {
+            writeVarlong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarlong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[pos++] = (byte) value;
+        }
+
+        private void writeInt(final int value) {
+            ensure(4);
+            buffer[pos++] = (byte) (value >>> 24);
+            buffer[pos++] = (byte) (value >>> 16);
+            buffer[pos++] = (byte) (value >>> 8);
+            buffer[pos++] = (byte) value;
+        }
+
+        private void writeLong(final long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        private void writeString(final String value) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        private void writeNullableString(final String value) {
+            if (value == null) {
+                writeVarint(0);
+            } else {
+                final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarint(bytes.length + 1);
+                writeBytes(bytes, 0, bytes.length);
+            }
+        }
+
+        private byte[] toBytes() {
+            return Arrays.copyOf(buffer, pos);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buffer;
+
+        private int pos;
+
+        private final int limit;
+
+        private Reader(final byte[] buffer, final int offset, final int length) {
+            this.buffer = buffer;
+            this.pos = offset;
+            this.limit = offset + length;
+        }
+
+        private void check(final int size) {
+            if (size < 0 || pos + size > limit) {
+                throw new TechnicalException("Truncated encoded profile");
+            }
+        }
+
+        private void skip(final int length) {
+            check(length);
+            pos += length;
+        }
+
+        private int readByte() {
+            check(1);
+            return buffer[pos++] & 0xFF;
+        }
+
+        private int readVarint() {
+            return (int) readVarlong();
+        }
+
+        private long readVarlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new TechnicalException("Malformed varint in encoded profile");
+        }
+
+        private int readInt() {
+            return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        }
+
+        private long readLong() {
+            return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+        }
+
+        private String readString() {
+            final int length = readVarint();
+            check(length);
+            final String value = new String(buffer, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        private String readNullableString() {
+            final int length = readVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            check(length);
+            final String value = new String(buffer, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+    }
+}
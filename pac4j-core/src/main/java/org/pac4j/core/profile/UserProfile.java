@@ -6,7 +6,13 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.pac4j.core.authorization.ElementBits;
+import org.pac4j.core.authorization.ElementRegistry;
+import org.pac4j.core.authorization.permission.PermissionTrie;
 import org.pac4j.core.util.CommonHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,10 +33,18 @@ public abstract class UserProfile implements Serializable, Externalizable {
 
     private String id;
 
-    private Map<String, Object> attributes = new HashMap<>();
+    private volatile Map<String, Object> attributes = new HashMap<>();
+
+    private ProfileCodec.EncodedAttributes encodedAttributes;
 
     public transient static final String SEPARATOR = "#";
 
+    private static final String EXTERNAL_CODEC_MARKER = "\u0000pac4j";
+
+    private static volatile boolean compactSerialization = false;
+
+    private static final int MAX_AUTHORIZATION_DECISIONS = 64;
+
     private boolean isRemembered = false;
 
     private Set<String> roles = new HashSet<>();
@@ -39,6 +53,17 @@ public abstract class UserProfile implements Serializable, Externalizable {
 
     private String clientName;
 
+    private transient volatile ElementBits roleBits;
+
+    private transient volatile ElementBits permissionBits;
+
+    private transient volatile PermissionTrie permissionTrie;
+
+    /* incremented on each change of the profile */
+    private final transient AtomicInteger version = new AtomicInteger();
+
+    private transient volatile AuthorizationDecisions authorizationDecisions;
+
     /**
      * Build a profile from user identifier and attributes.
      * 
@@ -72,7 +97,8 @@ public abstract class UserProfile implements Serializable, Externalizable {
             if (definition == null) {
                 logger.debug("no conversion => key: {} / value: {} / {}",
                         new Object[] { key, value, value.getClass() });
-                this.attributes.put(key, value);
+                attributes().put(key, value);
+                markModified();
             } else {
                 value = definition.convert(key, value);
                 if (value != null) {
@@ -85,12 +111,27 @@ public abstract class UserProfile implements Serializable, Externalizable {
                     }
                     logger.debug("converted to => key: {} / value: {} / {}",
                             new Object[] { key, value2, value2.getClass() });
-                    this.attributes.put(key, value2);
+                    attributes().put(key, value2);
+                    markModified();
                 }
             }
         }
     }
 
+    /**
+     * Add an attribute as is, without conversion (for the subclasses storing a compact form of the attribute).
+     *
+     * @param key key of the attribute
+     * @param value value of the attribute
+     */
+    protected void addAttributeWithoutConversion(final String key, final Object value) {
+        CommonHelper.assertNotNull("key", key);
+        if (value != null) {
+            attributes().put(key, value);
+            markModified();
+        }
+    }
+
     /**
      * Add attributes.
      * 
@@ -111,7 +152,8 @@ public abstract class UserProfile implements Serializable, Externalizable {
      */
     public void removeAttribute(final String key) {
         CommonHelper.assertNotNull("key", key);
-        attributes.remove(key);
+        attributes().remove(key);
+        markModified();
     }
 
     /**
@@ -132,6 +174,7 @@ public abstract class UserProfile implements Serializable, Externalizable {
         }
         logger.debug("identifier: {}", sId);
         this.id = sId;
+        markModified();
     }
 
     /**
@@ -170,7 +213,16 @@ public abstract class UserProfile implements Serializable, Externalizable {
      * @return the immutable attributes
      */
     public Map<String, Object> getAttributes() {
-        return Collections.unmodifiableMap(this.attributes);
+        return Collections.unmodifiableMap(attributes());
+    }
+
+    /**
+     * Get the attributes actually stored in the profile (subclasses may expose computed attributes through {@link #getAttributes()}).
+     *
+     * @return the immutable stored attributes
+     */
+    Map<String, Object> getStoredAttributes() {
+        return Collections.unmodifiableMap(attributes());
     }
 
     /**
@@ -180,7 +232,7 @@ public abstract class UserProfile implements Serializable, Externalizable {
      * @return the attribute with name
      */
     public Object getAttribute(final String name) {
-        return this.attributes.get(name);
+        return attributes().get(name);
     }
 
     /**
@@ -190,7 +242,7 @@ public abstract class UserProfile implements Serializable, Externalizable {
      * @return true/false
      */
     public boolean containsAttribute(final String name) {
-        return this.attributes.containsKey(name);
+        return attributes().containsKey(name);
     }
     /**
      * Return the attribute with name.
@@ -225,6 +277,8 @@ public abstract class UserProfile implements Serializable, Externalizable {
     public void addRole(final String role) {
         CommonHelper.assertNotBlank("role", role);
         this.roles.add(role);
+        markModified();
+        this.roleBits = null;
     }
 
     /**
@@ -235,6 +289,8 @@ public abstract class UserProfile implements Serializable, Externalizable {
     public void addRoles(final List<String> roles) {
         CommonHelper.assertNotNull("roles", roles);
         this.roles.addAll(roles);
+        markModified();
+        this.roleBits = null;
     }
 
     /**
@@ -245,6 +301,8 @@ public abstract class UserProfile implements Serializable, Externalizable {
     public void addRoles(final Set<String> roles) {
         CommonHelper.assertNotNull("roles", roles);
         this.roles.addAll(roles);
+        markModified();
+        this.roleBits = null;
     }
 
     /**
@@ -255,6 +313,9 @@ public abstract class UserProfile implements Serializable, Externalizable {
     public void addPermission(final String permission) {
         CommonHelper.assertNotBlank("permission", permission);
         this.permissions.add(permission);
+        markModified();
+        this.permissionBits = null;
+        this.permissionTrie = null;
     }
 
     /**
@@ -265,6 +326,9 @@ public abstract class UserProfile implements Serializable, Externalizable {
     public void addPermissions(final List<String> permissions) {
         CommonHelper.assertNotNull("permissions", permissions);
         this.permissions.addAll(permissions);
+        markModified();
+        this.permissionBits = null;
+        this.permissionTrie = null;
     }
 
     /**
@@ -275,6 +339,9 @@ public abstract class UserProfile implements Serializable, Externalizable {
     public void addPermissions(final Set<String> permissions) {
         CommonHelper.assertNotNull("permissions", permissions);
         this.permissions.addAll(permissions);
+        markModified();
+        this.permissionBits = null;
+        this.permissionTrie = null;
     }
 
     /**
@@ -284,6 +351,7 @@ public abstract class UserProfile implements Serializable, Externalizable {
      */
     public void setRemembered(final boolean rme) {
         this.isRemembered = rme;
+        markModified();
     }
 
     /**
@@ -304,6 +372,96 @@ public abstract class UserProfile implements Serializable, Externalizable {
         return Collections.unmodifiableSet(this.permissions);
     }
 
+    /**
+     * Get the roles of the user as bits of the {@link ElementRegistry#ROLES} registry.
+     *
+     * @return the user roles as bits
+     */
+    public ElementBits getRoleBits() {
+        ElementBits bits = this.roleBits;
+        if (!ElementRegistry.ROLES.isCurrent(bits)) {
+            bits = ElementRegistry.ROLES.bitsOf(this.roles);
+            this.roleBits = bits;
+        }
+        return bits;
+    }
+
+    /**
+     * Get the permissions of the user as bits of the {@link ElementRegistry#PERMISSIONS} registry.
+     *
+     * @return the user permissions as bits
+     */
+    public ElementBits getPermissionBits() {
+        ElementBits bits = this.permissionBits;
+        if (!ElementRegistry.PERMISSIONS.isCurrent(bits)) {
+            bits = ElementRegistry.PERMISSIONS.bitsOf(this.permissions);
+            this.permissionBits = bits;
+        }
+        return bits;
+    }
+
+    /**
+     * Get the permissions of the user as wildcard permissions.
+     *
+     * @return the user permissions as a trie
+     */
+    public PermissionTrie getPermissionTrie() {
+        PermissionTrie trie = this.permissionTrie;
+        if (trie == null) {
+            trie = new PermissionTrie(this.permissions);
+            this.permissionTrie = trie;
+        }
+        return trie;
+    }
+
+    /**
+     * Return the version of the profile, incremented on each change of its identifier, attributes, roles, permissions,
+     * "remember me" nature or client name.
+     *
+     * @return the version of the profile
+     */
+    public int getProfileVersion() {
+        return version.get();
+    }
+
+    private void markModified() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Return the authorization decisions cached for the current version of the profile, by authorizer.
+     *
+     * @return the immutable cached decisions
+     */
+    public Map<Object, Boolean> getAuthorizationDecisions() {
+        final AuthorizationDecisions decisions = this.authorizationDecisions;
+        if (decisions == null || decisions.version != version.get()) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(decisions.decisions);
+    }
+
+    /**
+     * Cache an authorization decision (transiently), unless the profile has changed since the decision was made.
+     *
+     * @param authorizer the authorizer
+     * @param decisionVersion the version of the profile when the decision was made
+     * @param decision the decision
+     */
+    public void putAuthorizationDecision(final Object authorizer, final int decisionVersion, final boolean decision) {
+        if (decisionVersion != version.get()) {
+            return;
+        }
+        AuthorizationDecisions decisions = this.authorizationDecisions;
+        if (decisions == null || decisions.version != decisionVersion) {
+            decisions = new AuthorizationDecisions(decisionVersion);
+            this.authorizationDecisions = decisions;
+        }
+        if (decisions.decisions.size() < MAX_AUTHORIZATION_DECISIONS) {
+            decisions.decisions.put(authorizer, decision);
+        }
+    }
+
     /**
      * Is the user remembered?
      * 
@@ -315,26 +473,86 @@ public abstract class UserProfile implements Serializable, Externalizable {
 
     @Override
     public String toString() {
-        return CommonHelper.toString(this.getClass(), "id", this.id, "attributes", this.attributes, "roles",
+        return CommonHelper.toString(this.getClass(), "id", this.id, "attributes", attributes(), "roles",
                 this.roles, "permissions", this.permissions, "isRemembered", this.isRemembered);
     }
 
+    /**
+     * Return the attributes, decoding them first if the profile has been read by the {@link ProfileCodec}.
+     *
+     * @return the mutable attributes
+     */
+    private Map<String, Object> attributes() {
+        Map<String, Object> map = this.attributes;
+        if (map == null) {
+            synchronized (this) {
+                map = this.attributes;
+                if (map == null) {
+                    map = ProfileCodec.decodeAttributes(this.encodedAttributes, getAttributesDefinition());
+                    this.attributes = map;
+                    this.encodedAttributes = null;
+                }
+            }
+        }
+        return map;
+    }
+
+    synchronized ProfileCodec.EncodedAttributes getEncodedAttributes() {
+        return this.encodedAttributes;
+    }
+
+    synchronized void setEncodedAttributes(final ProfileCodec.EncodedAttributes encodedAttributes) {
+        this.encodedAttributes = encodedAttributes;
+        this.attributes = null;
+        markModified();
+    }
+
+    /**
+     * Define whether the profiles are serialized with the {@link ProfileCodec} (smaller) or in the format of the previous releases
+     * (the default). Both formats are always read: the compact format must only be enabled once all the nodes sharing the profiles
+     * can read it.
+     *
+     * @param compact whether the profiles are serialized with the {@link ProfileCodec}
+     */
+    public static void setCompactSerialization(final boolean compact) {
+        compactSerialization = compact;
+    }
+
+    public static boolean isCompactSerialization() {
+        return compactSerialization;
+    }
+
     @Override
     public void writeExternal(final ObjectOutput out) throws IOException {
-        out.writeObject(this.id);
-        out.writeObject(this.attributes);
-        out.writeBoolean(this.isRemembered);
-        out.writeObject(this.roles);
-        out.writeObject(this.permissions);
+        if (compactSerialization) {
+            out.writeObject(EXTERNAL_CODEC_MARKER);
+            final byte[] body = ProfileCodec.encodeBody(this);
+            out.writeInt(body.length);
+            out.write(body);
+        } else {
+            out.writeObject(this.id);
+            out.writeObject(attributes());
+            out.writeBoolean(this.isRemembered);
+            out.writeObject(this.roles);
+            out.writeObject(this.permissions);
+        }
     }
 
     @Override
     public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
-        this.id = (String) in.readObject();
-        this.attributes = (Map) in.readObject();
-        this.isRemembered = (boolean) in.readBoolean();
-        this.roles = (Set) in.readObject();
-        this.permissions = (Set) in.readObject();
+        final Object first = in.readObject();
+        if (EXTERNAL_CODEC_MARKER.equals(first)) {
+            final byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            ProfileCodec.decodeBody(this, body);
+        } else {
+            // profile serialized by a previous version
+            this.id = (String) first;
+            this.attributes = (Map) in.readObject();
+            this.isRemembered = (boolean) in.readBoolean();
+            this.roles = (Set) in.readObject();
+            this.permissions = (Set) in.readObject();
+        }
     }
 
     public void clearSensitiveData() {
@@ -348,5 +566,17 @@ public abstract class UserProfile implements Serializable, Externalizable {
     public void setClientName(String clientName) {
         CommonHelper.assertNotNull("clientName", clientName);
         this.clientName = clientName;
+        markModified();
+    }
+
+    private static final class AuthorizationDecisions {
+
+        private final int version;
+
+        private final ConcurrentMap<Object, Boolean> decisions = new ConcurrentHashMap<>();
+
+        private AuthorizationDecisions(final int version) {
+            this.version = version;
+        }
     }
 }
@@ -0,0 +1,209 @@
+package org.pac4j.core.util;
+
+import org.pac4j.core.exception.TechnicalException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * <p>Streaming and bounded decompression of DEFLATE data (CAS front channel logout requests, SAML HTTP-Redirect binding messages...).</p>
+ *
+ * <p>The data is inflated chunk by chunk into a small buffer instead of a buffer proportional to the input size,
+ * the decompression fails when the output exceeds a maximum size and the {@link Inflater} instances are pooled.</p>
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class CompressionHelper {
+
+    public static final int DEFAULT_MAX_OUTPUT_SIZE = 64 * 1024;
+
+    private static final int CHUNK_SIZE = 512;
+
+    private static final int POOL_SIZE = 32;
+
+    private static final BlockingQueue<PooledInflater> WRAPPED_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private static final BlockingQueue<PooledInflater> NOWRAP_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * Handler of the inflated data.
+     */
+    @FunctionalInterface
+    public interface ChunkHandler {
+
+        /**
+         * Handle a chunk of inflated data.
+         *
+         * @param buffer the buffer
+         * @param length the number of inflated bytes in the buffer
+         * @return whether the decompression must go on
+         */
+        boolean handle(byte[] buffer, int length);
+    }
+
+    private static final class PooledInflater {
+
+        private final Inflater inflater;
+
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+
+        private PooledInflater(final boolean nowrap) {
+            this.inflater = new Inflater(nowrap);
+        }
+    }
+
+    private CompressionHelper() {}
+
+    /**
+     * Inflate the data and give it chunk by chunk to the handler.
+     *
+     * @param input the compressed data
+     * @param nowrap whether the data is raw DEFLATE (SAML) or has the ZLIB header and checksum (CAS)
+     * @param maxOutputSize the maximum size of the inflated data
+     * @param handler the handler of the inflated data
+     */
+    public static void inflate(final byte[] input, final boolean nowrap, final int maxOutputSize, final ChunkHandler handler) {
+        CommonHelper.assertNotNull("input", input);
+        CommonHelper.assertNotNull("handler", handler);
+
+        final BlockingQueue<PooledInflater> pool = nowrap ? NOWRAP_POOL : WRAPPED_POOL;
+        PooledInflater pooled = pool.poll();
+        if (pooled == null) {
+            pooled = new PooledInflater(nowrap);
+        }
+        final Inflater inflater = pooled.inflater;
+        try {
+            inflater.setInput(input);
+            int total = 0;
+            while (!inflater.finished()) {
+                final int length = inflater.inflate(pooled.buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                total += length;
+                if (total > maxOutputSize) {
+                    throw new TechnicalException("Inflated data exceeds the maximum size: " + maxOutputSize);
+                }
+                if (!handler.handle(pooled.buffer, length)) {
+                    break;
+                }
+            }
+        } catch (final DataFormatException e) {
+            throw new TechnicalException(e);
+        } finally {
+            inflater.reset();
+            if (!pool.offer(pooled)) {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Inflate the data into a string.
+     *
+     * @param input the compressed data
+     * @param nowrap whether the data is raw DEFLATE (SAML) or has the ZLIB header and checksum (CAS)
+     * @param maxOutputSize the maximum size of the inflated data
+     * @param charset the charset of the inflated data
+     * @return the inflated string
+     */
+    public static String inflate(final byte[] input, final boolean nowrap, final int maxOutputSize, final Charset charset) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(Math.min(maxOutputSize, input.length * 4));
+        inflate(input, nowrap, maxOutputSize, (buffer, length) -> {
+            output.write(buffer, 0, length);
+            return true;
+        });
+        return new String(output.toByteArray(), charset);
+    }
+
+    /**
+     * Inflate the data only until the value between the (ASCII) start marker and the end marker character is found.
+     *
+     * @param input the compressed data
+     * @param nowrap whether the data is raw DEFLATE (SAML) or has the ZLIB header and checksum (CAS)
+     * @param maxOutputSize the maximum size of the inflated data
+     * @param startMarker the text just before the value
+     * @param endMarker the character just after the value
+     * @param charset the charset of the inflated data
+     * @return the value or <code>null</code> if it is not found
+     */
+    public static String inflateAndFind(final byte[] input, final boolean nowrap, final int maxOutputSize, final String startMarker,
+                                        final char endMarker, final Charset charset) {
+        CommonHelper.assertNotBlank("startMarker", startMarker);
+
+        final ValueFinder finder = new ValueFinder(startMarker.getBytes(charset), (byte) endMarker);
+        inflate(input, nowrap, maxOutputSize, finder);
+        return finder.isFound() ? new String(finder.value.toByteArray(), charset) : null;
+    }
+
+    /**
+     * Incremental search of a value in the inflated data, the markers can be split over several chunks.
+     */
+    private static final class ValueFinder implements ChunkHandler {
+
+        private final byte[] startMarker;
+
+        private final byte endMarker;
+
+        // KMP failure function of the start marker
+        private final int[] failure;
+
+        private final ByteArrayOutputStream value = new ByteArrayOutputStream();
+
+        private int matched = 0;
+
+        private boolean inValue = false;
+
+        private boolean found = false;
+
+        private ValueFinder(final byte[] startMarker, final byte endMarker) {
+            this.startMarker = startMarker;
+            this.endMarker = endMarker;
+            this.failure = new int[startMarker.length];
+            int k = 0;
+            for (int i = 1; i < startMarker.length; i++) {
+                while (k > 0 && startMarker[i] != startMarker[k]) {
+                    k = failure[k - 1];
+                }
+                if (startMarker[i] == startMarker[k]) {
+                    k++;
+                }
+                failure[i] = k;
+            }
+        }
+
+        @Override
+        public boolean handle(final byte[] buffer, final int length) {
+            for (int i = 0; i < length; i++) {
+                final byte b = buffer[i];
+                if (inValue) {
+                    if (b == endMarker) {
+                        found = true;
+                        return false;
+                    }
+                    value.write(b);
+                } else {
+                    while (matched > 0 && b != startMarker[matched]) {
+                        matched = failure[matched - 1];
+                    }
+                    if (b == startMarker[matched]) {
+                        matched++;
+                    }
+                    if (matched == startMarker.length) {
+                        inValue = true;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private boolean isFound() {
+            return found;
+        }
+    }
+}
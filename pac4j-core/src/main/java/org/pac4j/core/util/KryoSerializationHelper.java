@@ -3,25 +3,58 @@ package org.pac4j.core.util;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.pool.KryoCallback;
+import com.esotericsoftware.kryo.pool.KryoFactory;
+import com.esotericsoftware.kryo.pool.KryoPool;
+import org.pac4j.core.kryo.Pac4jKryoFactory;
 
-import javax.xml.bind.DatatypeConverter;
 import java.io.*;
+import java.util.Base64;
 
 /**
  * Helper for Kryo serialization.
  *
+ * As Kryo instances are not thread-safe, they are borrowed from a pool and the output buffers are reused per thread. This helper
+ * can be shared.
+ *
+ * By default, the pooled Kryo instances are not customized, so the payloads are the same as the ones of the previous releases.
+ * Smaller payloads can be produced by building the helper with a {@link Pac4jKryoFactory}, which pre-registers the pac4j profiles
+ * and serializers: but these payloads cannot be read by the nodes using a default helper (and vice versa), so all the nodes
+ * must be switched at once.
+ *
  * @author Jerome Leleu
  * @since 1.8.1
  */
 public class KryoSerializationHelper {
 
+    private static final int OUTPUT_BUFFER_SIZE = 4096;
+
+    private static final int MAX_REUSED_OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<Output> OUTPUTS = ThreadLocal.withInitial(() -> new Output(OUTPUT_BUFFER_SIZE, -1));
+
+    private final KryoPool pool;
+
     private final Kryo kryo;
 
     public KryoSerializationHelper() {
-        this.kryo = new Kryo();
+        this(Kryo::new);
     }
 
+    public KryoSerializationHelper(final KryoFactory factory) {
+        CommonHelper.assertNotNull("factory", factory);
+        this.pool = new KryoPool.Builder(factory).softReferences().build();
+        this.kryo = null;
+    }
+
+    /**
+     * Use a single Kryo instance: the calls are serialized on it.
+     *
+     * @param kryo the Kryo instance
+     */
     public KryoSerializationHelper(final Kryo kryo) {
+        CommonHelper.assertNotNull("kryo", kryo);
+        this.pool = null;
         this.kryo = kryo;
     }
 
@@ -32,7 +65,7 @@ public class KryoSerializationHelper {
      * @return the base64 string of the serialized object
      */
     public String serializeToBase64(final Serializable o) {
-        return DatatypeConverter.printBase64Binary(serializeToBytes(o));
+        return Base64.getEncoder().encodeToString(serializeToBytes(o));
     }
 
     /**
@@ -42,12 +75,18 @@ public class KryoSerializationHelper {
      * @return the bytes array of the serialized object
      */
     public byte[] serializeToBytes(final Serializable o) {
-        final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-        try (final Output output = new Output(byteStream)) {
-            kryo.writeClassAndObject(output, o);
-            output.flush();
-            return byteStream.toByteArray();
+        Output output = OUTPUTS.get();
+        if (output.getBuffer().length > MAX_REUSED_OUTPUT_BUFFER_SIZE) {
+            // do not keep a large buffer forever after an unusually large object
+            output = new Output(OUTPUT_BUFFER_SIZE, -1);
+            OUTPUTS.set(output);
         }
+        final Output threadOutput = output;
+        threadOutput.clear();
+        return run(k -> {
+            k.writeClassAndObject(threadOutput, o);
+            return threadOutput.toBytes();
+        });
     }
 
     /**
@@ -57,7 +96,7 @@ public class KryoSerializationHelper {
      * @return the unserialized Java object
      */
     public Serializable unserializeFromBase64(final String base64) {
-        return unserializeFromBytes(DatatypeConverter.parseBase64Binary(base64));
+        return unserializeFromBytes(Base64.getMimeDecoder().decode(base64));
     }
 
     /**
@@ -67,9 +106,17 @@ public class KryoSerializationHelper {
      * @return the unserialized Java object
      */
     public Serializable unserializeFromBytes(final byte[] bytes) {
-        try (final Input input = new Input(new ByteArrayInputStream(bytes))) {
-            final Serializable obj =  (Serializable) kryo.readClassAndObject(input);
-            return obj;
+        final Input input = new Input(bytes);
+        return run(k -> (Serializable) k.readClassAndObject(input));
+    }
+
+    private <T> T run(final KryoCallback<T> callback) {
+        if (pool != null) {
+            return pool.run(callback);
+        } else {
+            synchronized (kryo) {
+                return callback.execute(kryo);
+            }
         }
     }
 }
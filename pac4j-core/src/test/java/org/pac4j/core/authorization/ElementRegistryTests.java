@@ -0,0 +1,88 @@
+package org.pac4j.core.authorization;
+
+import org.junit.Test;
+import org.pac4j.core.authorization.authorizer.RequireAllPermissionsAuthorizer;
+import org.pac4j.core.authorization.authorizer.RequireAnyRoleAuthorizer;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.util.TestsConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link ElementRegistry}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class ElementRegistryTests implements TestsConstants {
+
+    @Test
+    public void testRegister() {
+        final ElementRegistry registry = new ElementRegistry(NAME, 2);
+        assertEquals(0, registry.register(KEY));
+        assertEquals(0, registry.register(KEY));
+        assertEquals(1, registry.register(VALUE));
+        assertEquals(-1, registry.register(NAME));
+        assertEquals(1, registry.getId(VALUE));
+        assertEquals(-1, registry.getId(NAME));
+        assertNull(registry.compile(Arrays.asList(KEY, NAME)));
+    }
+
+    @Test
+    public void testBits() {
+        final ElementRegistry registry = new ElementRegistry(NAME, 1000);
+        final List<String> profileElements = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            profileElements.add("perm" + i);
+        }
+        final ElementBits required = registry.compile(Arrays.asList("perm10", "perm200"));
+        final ElementBits other = registry.compile(Collections.singletonList("other"));
+        final ElementBits profileBits = registry.bitsOf(profileElements);
+
+        assertEquals(2, profileBits.cardinality());
+        assertTrue(profileBits.containsAll(required));
+        assertTrue(profileBits.intersects(required));
+        assertFalse(profileBits.containsAll(other));
+        assertFalse(profileBits.intersects(other));
+        assertTrue(profileBits.contains(registry.getId("perm200")));
+        assertTrue(registry.isCurrent(profileBits));
+
+        registry.register("perm20");
+        assertFalse(registry.isCurrent(profileBits));
+        assertEquals(3, registry.bitsOf(profileElements).cardinality());
+    }
+
+    @Test
+    public void testProfileBitsRefreshed() throws HttpAction {
+        final CommonProfile profile = new CommonProfile();
+        profile.addRole("bits-role1");
+        final List<CommonProfile> profiles = Collections.singletonList(profile);
+        final WebContext context = MockWebContext.create();
+
+        assertTrue(new RequireAnyRoleAuthorizer<>("bits-role1").isAuthorized(context, profiles));
+        // a role registered after the bits of the profile were built
+        final RequireAnyRoleAuthorizer<CommonProfile> authorizer = new RequireAnyRoleAuthorizer<>("bits-role2");
+        assertFalse(authorizer.isAuthorized(context, profiles));
+        profile.addRole("bits-role2");
+        assertTrue(authorizer.isAuthorized(context, profiles));
+    }
+
+    @Test
+    public void testOverriddenCheck() throws HttpAction {
+        final RequireAllPermissionsAuthorizer<CommonProfile> authorizer = new RequireAllPermissionsAuthorizer<CommonProfile>("bits-perm") {
+            @Override
+            protected boolean check(final WebContext context, final CommonProfile profile, final String element) {
+                return true;
+            }
+        };
+        assertTrue(authorizer.isAuthorized(MockWebContext.create(), Collections.singletonList(new CommonProfile())));
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Test;
 import org.pac4j.core.context.J2EContext;
 import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.util.TestsHelper;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -114,4 +115,18 @@ public final class RequireAnyRoleAuthorizerTests {
         profile.addRole(ROLE3);
         assertFalse(authorizer.isAuthorized(context, profiles));
     }
+
+    @Test
+    public void testHasAnyRoleElementsReplaced() throws HttpAction {
+        final RequireAnyRoleAuthorizer<CommonProfile> authorizer = new RequireAnyRoleAuthorizer<>(ROLE2);
+        profile.addRole(ROLE1);
+        assertFalse(authorizer.isAuthorized(context, profiles));
+        TestsHelper.expectException(() -> authorizer.getElements().add(ROLE1), UnsupportedOperationException.class, null);
+        authorizer.setElements(ROLE1);
+        assertTrue(authorizer.isAuthorized(context, profiles));
+        authorizer.setElements(ROLE3);
+        assertFalse(authorizer.isAuthorized(context, profiles));
+        authorizer.addElement(ROLE1);
+        assertTrue(authorizer.isAuthorized(context, profiles));
+    }
 }
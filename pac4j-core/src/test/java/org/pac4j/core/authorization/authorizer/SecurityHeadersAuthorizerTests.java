@@ -0,0 +1,71 @@
+package org.pac4j.core.authorization.authorizer;
+
+import org.junit.Test;
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.exception.HttpAction;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link SecurityHeadersAuthorizer}, {@link CorsAuthorizer} and {@link HeaderPolicy}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class SecurityHeadersAuthorizerTests {
+
+    @Test
+    public void testHttps() throws HttpAction {
+        final MockWebContext context = MockWebContext.create().setScheme("HTTPS");
+        assertTrue(new SecurityHeadersAuthorizer(1000).isAuthorized(context, null));
+        final Map<String, String> headers = context.getResponseHeaders();
+        assertEquals(7, headers.size());
+        assertEquals("max-age=1000 ; includeSubDomains", headers.get("Strict-Transport-Security"));
+        assertEquals("nosniff", headers.get("X-Content-Type-Options"));
+        assertEquals("DENY", headers.get("X-Frame-Options"));
+        assertEquals("1; mode=block", headers.get("X-XSS-Protection"));
+        assertEquals("no-cache", headers.get("Pragma"));
+    }
+
+    @Test
+    public void testHttpStaticResource() throws HttpAction {
+        final MockWebContext context = MockWebContext.create().setFullRequestURL("http://localhost/js/APP.JS");
+        assertTrue(new SecurityHeadersAuthorizer().isAuthorized(context, null));
+        final Map<String, String> headers = context.getResponseHeaders();
+        assertEquals(3, headers.size());
+        assertNull(headers.get("Strict-Transport-Security"));
+        assertNull(headers.get("Cache-Control"));
+    }
+
+    @Test
+    public void testCors() throws HttpAction {
+        final CorsAuthorizer authorizer = new CorsAuthorizer();
+        authorizer.setAllowOrigin("*");
+        authorizer.setAllowMethods(new LinkedHashSet<>(Arrays.asList(HttpConstants.HTTP_METHOD.GET, HttpConstants.HTTP_METHOD.POST)));
+        MockWebContext context = MockWebContext.create();
+        assertTrue(authorizer.isAuthorized(context, null));
+        assertEquals("*", context.getResponseHeaders().get(HttpConstants.ACCESS_CONTROL_ALLOW_ORIGIN_HEADER));
+        assertEquals("GET, POST", context.getResponseHeaders().get(HttpConstants.ACCESS_CONTROL_ALLOW_METHODS_HEADER));
+        assertNull(context.getResponseHeaders().get(HttpConstants.ACCESS_CONTROL_MAX_AGE_HEADER));
+
+        authorizer.setMaxAge(100);
+        context = MockWebContext.create();
+        assertTrue(authorizer.isAuthorized(context, null));
+        assertEquals("100", context.getResponseHeaders().get(HttpConstants.ACCESS_CONTROL_MAX_AGE_HEADER));
+    }
+
+    @Test
+    public void testPolicy() {
+        final HeaderPolicy policy = HeaderPolicy.of("A", "1").and(HeaderPolicy.of("B", "2", "C", "3"));
+        assertEquals(3, policy.size());
+        assertEquals("HeaderPolicy[A: 1, B: 2, C: 3]", policy.toString());
+        final MockWebContext context = MockWebContext.create();
+        policy.apply(context);
+        assertEquals("3", context.getResponseHeaders().get("C"));
+    }
+}
@@ -0,0 +1,126 @@
+package org.pac4j.core.authorization.authorizer.csrf;
+
+import org.junit.Test;
+import org.pac4j.core.context.Cookie;
+import org.pac4j.core.context.J2EContext;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.profile.AnonymousProfile;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.util.TestsConstants;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link HmacCsrfTokenGenerator}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class HmacCsrfTokenGeneratorTests implements TestsConstants {
+
+    private static final String OTHER_SECRET = "another" + MAC_SECRET;
+
+    private List<CommonProfile> profiles(final String id) {
+        final CommonProfile profile = new CommonProfile();
+        profile.setId(id);
+        return Collections.singletonList(profile);
+    }
+
+    @Test
+    public void testBoundToProfile() {
+        final HmacCsrfTokenGenerator generator = new HmacCsrfTokenGenerator(MAC_SECRET);
+        final String token = generator.get(MockWebContext.create(), profiles(ID));
+        // no session needed: another context (another server) validates the token
+        assertTrue(generator.isValid(token, MockWebContext.create(), profiles(ID)));
+        assertFalse(generator.isValid(token, MockWebContext.create(), profiles(VALUE)));
+        assertFalse(generator.isValid(token + "x", MockWebContext.create(), profiles(ID)));
+        assertFalse(generator.isValid("1." + token, MockWebContext.create(), profiles(ID)));
+        assertFalse(generator.isValid(VALUE, MockWebContext.create(), profiles(ID)));
+        assertFalse(generator.isValid(null, MockWebContext.create(), profiles(ID)));
+    }
+
+    @Test
+    public void testAnonymousBoundToCookie() {
+        final HmacCsrfTokenGenerator generator = new HmacCsrfTokenGenerator(MAC_SECRET);
+        final MockWebContext context = MockWebContext.create();
+        final List<CommonProfile> anonymous = Collections.singletonList(new AnonymousProfile());
+        final String token = generator.get(context, anonymous);
+        assertEquals(1, context.getResponseCookies().size());
+        final Cookie cookie = context.getResponseCookies().iterator().next();
+        assertEquals(HmacCsrfTokenGenerator.DEFAULT_ANONYMOUS_COOKIE_NAME, cookie.getName());
+        assertTrue(cookie.isHttpOnly());
+        // same subject for the whole request
+        assertTrue(generator.isValid(generator.get(context, anonymous), context, anonymous));
+        assertEquals(1, context.getResponseCookies().size());
+
+        final MockWebContext nextContext = MockWebContext.create();
+        nextContext.getRequestCookies().add(cookie);
+        assertTrue(generator.isValid(token, nextContext, anonymous));
+        assertTrue(generator.isValid(token, nextContext, null));
+        assertFalse(generator.isValid(token, MockWebContext.create(), anonymous));
+        final MockWebContext otherContext = MockWebContext.create();
+        otherContext.getRequestCookies().add(new Cookie(HmacCsrfTokenGenerator.DEFAULT_ANONYMOUS_COOKIE_NAME, VALUE));
+        assertFalse(generator.isValid(token, otherContext, anonymous));
+        assertTrue(nextContext.getResponseCookies().isEmpty());
+    }
+
+    @Test
+    public void testAnonymousNoSessionCreated() {
+        final HmacCsrfTokenGenerator generator = new HmacCsrfTokenGenerator(MAC_SECRET);
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        final String token = generator.get(new J2EContext(request, response), null);
+        assertNull(request.getSession(false));
+
+        final MockHttpServletRequest nextRequest = new MockHttpServletRequest();
+        nextRequest.setCookies(response.getCookies());
+        assertTrue(generator.isValid(token, new J2EContext(nextRequest, new MockHttpServletResponse()), null));
+        assertNull(nextRequest.getSession(false));
+    }
+
+    @Test
+    public void testRotation() {
+        final HmacCsrfTokenGenerator generator = new HmacCsrfTokenGenerator(MAC_SECRET);
+        generator.setRotationPeriod(3600);
+        final WebContext context = MockWebContext.create();
+        assertEquals(generator.get(context, profiles(ID)), generator.get(context, profiles(ID)));
+    }
+
+    @Test
+    public void testSecretRotation() {
+        final HmacCsrfTokenGenerator generator = new HmacCsrfTokenGenerator(MAC_SECRET);
+        final String token = generator.get(MockWebContext.create(), profiles(ID));
+        generator.setSecrets(Arrays.asList(OTHER_SECRET, MAC_SECRET));
+        assertTrue(generator.isValid(token, MockWebContext.create(), profiles(ID)));
+        generator.setSecrets(Collections.singletonList(OTHER_SECRET));
+        assertFalse(generator.isValid(token, MockWebContext.create(), profiles(ID)));
+    }
+
+    @Test
+    public void testExpiredToken() {
+        final HmacCsrfTokenGenerator generator = new HmacCsrfTokenGenerator(MAC_SECRET);
+        generator.setTimeToLive(1);
+        generator.setRotationPeriod(1000000);
+        // the token timestamp is the start of the rotation period
+        final String token = generator.get(MockWebContext.create(), profiles(ID));
+        assertFalse(generator.isValid(token, MockWebContext.create(), profiles(ID)));
+    }
+
+    @Test
+    public void testAuthorizer() throws Exception {
+        final HmacCsrfTokenGenerator generator = new HmacCsrfTokenGenerator(MAC_SECRET);
+        final CsrfAuthorizer authorizer = new CsrfAuthorizer(generator);
+        final String token = generator.get(MockWebContext.create(), profiles(ID));
+        final MockWebContext context = MockWebContext.create().setRequestMethod("POST").addRequestHeader(Pac4jConstants.CSRF_TOKEN, token);
+        assertTrue(authorizer.isAuthorized(context, profiles(ID)));
+        assertFalse(authorizer.isAuthorized(MockWebContext.create().setRequestMethod("POST"), profiles(ID)));
+    }
+}
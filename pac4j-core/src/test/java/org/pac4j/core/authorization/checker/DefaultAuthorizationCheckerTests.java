@@ -5,6 +5,7 @@ import org.junit.Test;
 import org.pac4j.core.authorization.authorizer.Authorizer;
 import org.pac4j.core.authorization.authorizer.RequireAnyRoleAuthorizer;
 import org.pac4j.core.authorization.authorizer.csrf.DefaultCsrfTokenGenerator;
+import org.pac4j.core.authorization.authorizer.csrf.HmacCsrfTokenGenerator;
 import org.pac4j.core.context.*;
 import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.exception.TechnicalException;
@@ -44,6 +45,27 @@ public final class DefaultAuthorizationCheckerTests implements TestsConstants {
         }
     }
 
+    private static class CountingAuthorizer implements Authorizer<CommonProfile> {
+
+        private final boolean contextIndependent;
+
+        private int nbCalls;
+
+        private CountingAuthorizer(final boolean contextIndependent) {
+            this.contextIndependent = contextIndependent;
+        }
+
+        public boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles) {
+            nbCalls++;
+            return profiles.get(0).getRoles().contains(ROLE);
+        }
+
+        @Override
+        public boolean isContextIndependent() {
+            return contextIndependent;
+        }
+    }
+
     @Test
     public void testBlankAuthorizerNameAProfile() throws HttpAction {
         assertTrue(checker.isAuthorized(null, profiles, null, null));
@@ -292,6 +314,23 @@ public final class DefaultAuthorizationCheckerTests implements TestsConstants {
         assertTrue(checker.isAuthorized(context, profiles, "csrfCheck", null));
     }
 
+    @Test
+    public void testStatelessCsrf() throws HttpAction {
+        profile.setId(ID);
+        final DefaultAuthorizationChecker statelessChecker = new DefaultAuthorizationChecker();
+        statelessChecker.setCsrfTokenGenerator(new HmacCsrfTokenGenerator(MAC_SECRET));
+        final MockWebContext context = MockWebContext.create();
+        assertTrue(statelessChecker.isAuthorized(context, profiles, "csrfToken", null));
+        final String token = (String) context.getRequestAttribute(Pac4jConstants.CSRF_TOKEN);
+        assertNull(context.getSessionAttribute(Pac4jConstants.CSRF_TOKEN));
+
+        final MockWebContext postContext = MockWebContext.create().setRequestMethod("post");
+        assertFalse(statelessChecker.isAuthorized(postContext, profiles, "csrfCheck", null));
+        postContext.addRequestParameter(Pac4jConstants.CSRF_TOKEN, token);
+        assertTrue(statelessChecker.isAuthorized(postContext, profiles, "csrfCheck", null));
+        assertTrue(statelessChecker.isAuthorized(postContext, profiles, "csrf", null));
+    }
+
     @Test
     public void testIsAnonymous() throws HttpAction {
         profiles.clear();
@@ -314,4 +353,37 @@ public final class DefaultAuthorizationCheckerTests implements TestsConstants {
         profile.setRemembered(true);
         assertTrue(checker.isAuthorized(null, profiles, "isRemembered", null));
     }
+
+    @Test
+    public void testCachedDecisions() throws HttpAction {
+        final DefaultAuthorizationChecker cachingChecker = new DefaultAuthorizationChecker();
+        cachingChecker.setCacheDecisions(true);
+        final CountingAuthorizer authorizer = new CountingAuthorizer(true);
+        final Map<String, Authorizer> authorizers = new HashMap<>();
+        authorizers.put(NAME, authorizer);
+        assertFalse(cachingChecker.isAuthorized(null, profiles, NAME, authorizers));
+        assertFalse(cachingChecker.isAuthorized(null, profiles, NAME, authorizers));
+        assertEquals(1, authorizer.nbCalls);
+        profile.addRole(ROLE);
+        assertTrue(cachingChecker.isAuthorized(null, profiles, NAME, authorizers));
+        assertTrue(cachingChecker.isAuthorized(null, profiles, NAME, authorizers));
+        assertEquals(2, authorizer.nbCalls);
+    }
+
+    @Test
+    public void testNotCachedDecisions() throws HttpAction {
+        final DefaultAuthorizationChecker cachingChecker = new DefaultAuthorizationChecker();
+        cachingChecker.setCacheDecisions(true);
+        final CountingAuthorizer authorizer = new CountingAuthorizer(false);
+        final CountingAuthorizer independentAuthorizer = new CountingAuthorizer(true);
+        final Map<String, Authorizer> authorizers = new HashMap<>();
+        authorizers.put(NAME, authorizer);
+        authorizers.put(KEY, independentAuthorizer);
+        cachingChecker.isAuthorized(null, profiles, NAME, authorizers);
+        cachingChecker.isAuthorized(null, profiles, NAME, authorizers);
+        assertEquals(2, authorizer.nbCalls);
+        checker.isAuthorized(null, profiles, KEY, authorizers);
+        checker.isAuthorized(null, profiles, KEY, authorizers);
+        assertEquals(2, independentAuthorizer.nbCalls);
+    }
 }
@@ -0,0 +1,85 @@
+package org.pac4j.core.authorization.permission;
+
+import org.junit.Test;
+import org.pac4j.core.authorization.authorizer.RequireAllWildcardPermissionsAuthorizer;
+import org.pac4j.core.authorization.authorizer.RequireAnyWildcardPermissionAuthorizer;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.profile.CommonProfile;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link PermissionTrie}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class PermissionTrieTests {
+
+    private PermissionTrie build(final String... permissions) {
+        return new PermissionTrie(Arrays.asList(permissions));
+    }
+
+    @Test
+    public void testExact() {
+        final PermissionTrie trie = build("printer:print:lp7200");
+        assertTrue(trie.implies("printer:print:lp7200"));
+        assertTrue(trie.implies("printer:print:lp7200:tray1"));
+        assertFalse(trie.implies("printer:print"));
+        assertFalse(trie.implies("printer:print:epsoncolor"));
+        assertFalse(trie.implies("printer"));
+        assertFalse(trie.implies(""));
+    }
+
+    @Test
+    public void testWildcards() {
+        final PermissionTrie trie = build("printer:*", "newsletter:*:*", "document:*:readme");
+        assertTrue(trie.implies("printer"));
+        assertTrue(trie.implies("printer:print:lp7200"));
+        assertTrue(trie.implies("newsletter"));
+        assertTrue(trie.implies("newsletter:edit:12"));
+        assertTrue(trie.implies("document:read:readme"));
+        assertFalse(trie.implies("document:read:secret"));
+        assertFalse(trie.implies("document:read"));
+        assertFalse(trie.implies("scanner:scan"));
+    }
+
+    @Test
+    public void testMultipleValues() {
+        final PermissionTrie trie = build("printer:print,query:lp7200", "scanner:scan");
+        assertTrue(trie.implies("printer:query:lp7200"));
+        assertTrue(trie.implies("printer:print,query:lp7200"));
+        assertFalse(trie.implies("printer:print,manage:lp7200"));
+        assertFalse(trie.implies("printer:*:lp7200"));
+        assertTrue(trie.implies("scanner:scan"));
+    }
+
+    @Test
+    public void testCache() {
+        final PermissionTrie trie = build("printer:*");
+        assertTrue(trie.implies("printer:print"));
+        assertTrue(trie.implies("printer:print"));
+        assertFalse(trie.implies("scanner:scan"));
+        assertEquals(2, trie.getCacheSize());
+    }
+
+    @Test
+    public void testAuthorizers() throws HttpAction {
+        final CommonProfile profile = new CommonProfile();
+        profile.addPermission("printer:print:*");
+        final List<CommonProfile> profiles = Collections.singletonList(profile);
+        final MockWebContext context = MockWebContext.create();
+
+        assertTrue(new RequireAnyWildcardPermissionAuthorizer<>("scanner:scan", "printer:print:lp7200").isAuthorized(context, profiles));
+        final RequireAllWildcardPermissionsAuthorizer<CommonProfile> authorizer =
+                new RequireAllWildcardPermissionsAuthorizer<>("scanner:scan", "printer:print:lp7200");
+        assertFalse(authorizer.isAuthorized(context, profiles));
+        profile.addPermission("scanner:*");
+        assertTrue(authorizer.isAuthorized(context, profiles));
+    }
+}
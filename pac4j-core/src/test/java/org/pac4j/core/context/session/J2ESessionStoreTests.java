@@ -6,6 +6,9 @@ import org.pac4j.core.context.WebContext;
 import org.pac4j.core.util.TestsConstants;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+import javax.servlet.http.HttpSessionEvent;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -49,4 +52,30 @@ public final class J2ESessionStoreTests implements TestsConstants {
         verify(store, times(1)).get(any(WebContext.class), eq(NAME));
         verify(store, times(1)).set(any(WebContext.class), eq(NAME), eq(VALUE));
     }
+
+    @Test
+    public void testInvalidateAnotherSessionById() {
+        final J2ESessionRegistry registry = new J2ESessionRegistry();
+        final MockHttpSession userSession = new MockHttpSession(null, ID);
+        registry.sessionCreated(new HttpSessionEvent(userSession));
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(new MockHttpSession(null, VALUE));
+        final J2EContext context = new J2EContext(request, new MockHttpServletResponse());
+
+        assertTrue(new J2ESessionStore().invalidateSession(context, ID));
+        assertTrue(userSession.isInvalid());
+        assertFalse(((MockHttpSession) request.getSession(false)).isInvalid());
+
+        registry.sessionDestroyed(new HttpSessionEvent(userSession));
+        assertNull(J2ESessionRegistry.getSession(ID));
+        assertFalse(new J2ESessionStore().invalidateSession(context, ID));
+    }
+
+    @Test
+    public void testInvalidateUnknownSessionDoesNotCreateOne() {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final J2EContext context = new J2EContext(request, new MockHttpServletResponse());
+        assertFalse(new J2ESessionStore().invalidateSession(context, KEY));
+        assertNull(request.getSession(false));
+    }
 }
@@ -7,11 +7,18 @@ import org.pac4j.core.exception.CredentialsException;
 import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.credentials.UsernamePasswordCredentials;
-
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.core.util.TestsHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 /**
  * Test cases for {@link LocalCachingAuthenticator}.
@@ -20,7 +27,7 @@ import static org.junit.Assert.assertTrue;
  * @since 1.8
  */
 @SuppressWarnings("unchecked")
-public class LocalCachingAuthenticatorTests {
+public class LocalCachingAuthenticatorTests implements TestsConstants {
 
     private static class OnlyOneCallAuthenticator implements Authenticator<UsernamePasswordCredentials> {
 
@@ -142,6 +149,99 @@ public class LocalCachingAuthenticatorTests {
         assertFalse(authenticator.isCached(this.credentials));
     }
 
+    @Test
+    public void testNegativeCache() {
+        final CountingAuthenticator counting = new CountingAuthenticator(true);
+        final LocalCachingAuthenticator<UsernamePasswordCredentials> authenticator = new
+                LocalCachingAuthenticator<>(counting, 10, 2, TimeUnit.SECONDS);
+        authenticator.setNegativeTimeout(1);
+        authenticator.init(null);
+
+        for (int i = 0; i < 3; i++) {
+            TestsHelper.expectException(() -> authenticator.validate(new UsernamePasswordCredentials("a", "b", CLIENT_NAME), null),
+                    CredentialsException.class, "fail");
+        }
+        assertEquals(1, counting.n.get());
+        assertEquals(2, authenticator.getNbNegativeHits());
+    }
+
+    @Test
+    public void testNoNegativeCache() {
+        final CountingAuthenticator counting = new CountingAuthenticator(true);
+        final LocalCachingAuthenticator<UsernamePasswordCredentials> authenticator = new
+                LocalCachingAuthenticator<>(counting, 10, 2, TimeUnit.SECONDS);
+        authenticator.init(null);
+
+        final UsernamePasswordCredentials credentials = new UsernamePasswordCredentials("a", "a", CLIENT_NAME);
+        for (int i = 0; i < 2; i++) {
+            TestsHelper.expectException(() -> authenticator.validate(credentials, null), CredentialsException.class, "fail");
+            assertFalse(authenticator.isCached(credentials));
+        }
+        assertEquals(2, counting.n.get());
+    }
+
+    @Test
+    public void testKeysAndStats() throws HttpAction {
+        final LocalCachingAuthenticator<UsernamePasswordCredentials> authenticator = new
+                LocalCachingAuthenticator<>(this.delegate, 10, 2, TimeUnit.SECONDS);
+        authenticator.init(null);
+
+        authenticator.validate(this.credentials, null);
+        final UsernamePasswordCredentials other = new UsernamePasswordCredentials("a", "b", CLIENT_NAME);
+        assertFalse(authenticator.isCached(other));
+        authenticator.validate(new UsernamePasswordCredentials("a", "a", CLIENT_NAME), null);
+        assertEquals(1, authenticator.getStats().hitCount());
+        assertEquals(1, authenticator.getStats().loadCount());
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        final CountingAuthenticator counting = new CountingAuthenticator(false);
+        final LocalCachingAuthenticator<UsernamePasswordCredentials> authenticator = new
+                LocalCachingAuthenticator<>(counting, 10, 2, TimeUnit.SECONDS);
+        authenticator.init(null);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<CommonProfile>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> {
+                final UsernamePasswordCredentials creds = new UsernamePasswordCredentials("a", "a", CLIENT_NAME);
+                authenticator.validate(creds, null);
+                return creds.getUserProfile();
+            }));
+        }
+        for (final Future<CommonProfile> result : results) {
+            assertNotNull(result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, counting.n.get());
+    }
+
+    private static class CountingAuthenticator implements Authenticator<UsernamePasswordCredentials> {
+
+        private final AtomicInteger n = new AtomicInteger();
+
+        private final boolean fail;
+
+        private CountingAuthenticator(final boolean fail) {
+            this.fail = fail;
+        }
+
+        @Override
+        public void validate(final UsernamePasswordCredentials credentials, final WebContext context) {
+            n.incrementAndGet();
+            try {
+                Thread.sleep(100);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (fail) {
+                throw new CredentialsException("fail");
+            }
+            credentials.setUserProfile(new CommonProfile());
+        }
+    }
+
     private static class ThrowingAuthenticator implements Authenticator<UsernamePasswordCredentials> {
 
         @Override
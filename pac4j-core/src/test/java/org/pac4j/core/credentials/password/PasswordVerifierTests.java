@@ -0,0 +1,82 @@
+package org.pac4j.core.credentials.password;
+
+import org.junit.Test;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.TestsConstants;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link PasswordVerifier}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class PasswordVerifierTests implements TestsConstants {
+
+    /**
+     * A clear text password encoder blocked until released.
+     */
+    private static final class BlockingPasswordEncoder implements PasswordEncoder {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        @Override
+        public String encode(final String password) {
+            return password;
+        }
+
+        @Override
+        public boolean matches(final String plainPassword, final String encodedPassword) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return plainPassword.equals(encodedPassword);
+        }
+    }
+
+    @Test
+    public void testMatches() {
+        final PasswordVerifier verifier = new PasswordVerifier(2);
+        final BlockingPasswordEncoder encoder = new BlockingPasswordEncoder();
+        encoder.latch.countDown();
+        assertTrue(verifier.matches(USERNAME, encoder, PASSWORD, PASSWORD));
+        assertFalse(verifier.matches(USERNAME, encoder, PASSWORD, VALUE));
+        assertEquals(2, verifier.getNbSubmitted());
+        assertEquals(0, verifier.getNbInFlight());
+        verifier.shutdown();
+    }
+
+    @Test
+    public void testDeduplicationAndRejection() throws Exception {
+        final PasswordVerifier verifier = new PasswordVerifier(1, 1);
+        final BlockingPasswordEncoder encoder = new BlockingPasswordEncoder();
+        final CompletableFuture<Boolean> running = verifier.matchesAsync(USERNAME, encoder, PASSWORD, PASSWORD);
+        final CompletableFuture<Boolean> queued = verifier.matchesAsync(USERNAME, encoder, VALUE, PASSWORD);
+        // an identical check shares the running one
+        assertSame(running, verifier.matchesAsync(USERNAME, encoder, PASSWORD, PASSWORD));
+        assertEquals(1, verifier.getNbDeduplicated());
+
+        // the pool and the queue are full
+        final CompletableFuture<Boolean> rejected = verifier.matchesAsync(USERNAME, encoder, NAME, PASSWORD);
+        try {
+            rejected.get();
+            fail("should fail");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof TechnicalException);
+        }
+        assertEquals(1, verifier.getNbRejected());
+
+        encoder.latch.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertFalse(queued.get(5, TimeUnit.SECONDS));
+        verifier.shutdown();
+    }
+}
@@ -11,6 +11,9 @@ import org.pac4j.core.credentials.MockCredentials;
 import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.http.HttpActionAdapter;
+import org.pac4j.core.metrics.InMemorySecurityMetrics;
+import org.pac4j.core.metrics.SecurityMetrics;
+import org.pac4j.core.metrics.SecurityPhase;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.util.TestsConstants;
 import org.pac4j.core.util.TestsHelper;
@@ -189,6 +192,60 @@ public final class DefaultSecurityLogicTests implements TestsConstants {
         assertTrue(profiles.containsValue(profile));
     }
 
+    @Test
+    public void testSecurityMetrics() throws Exception {
+        final InMemorySecurityMetrics metrics = new InMemorySecurityMetrics();
+        config.setSecurityMetrics(metrics);
+        final CommonProfile profile = new CommonProfile();
+        profile.setId(ID);
+        final DirectClient directClient = new MockDirectClient(NAME, new MockCredentials(), profile);
+        config.setClients(new Clients(CALLBACK_URL, directClient));
+        config.addAuthorizer(NAME, (context, prof) -> true);
+        config.addAuthorizer(VALUE, (context, prof) -> false);
+        clients = NAME;
+        authorizers = NAME + "," + VALUE;
+        call();
+        assertEquals(403, context.getResponseStatus());
+        assertEquals(1, metrics.getTimer(SecurityPhase.MATCHING, null).getCount(SecurityMetrics.Outcome.SUCCESS));
+        assertEquals(1, metrics.getTimer(SecurityPhase.CLIENT_FINDING, NAME).getCount(SecurityMetrics.Outcome.SUCCESS));
+        assertEquals(1, metrics.getTimer(SecurityPhase.CREDENTIALS_EXTRACTION, NAME).getCount(SecurityMetrics.Outcome.SUCCESS));
+        assertEquals(1, metrics.getTimer(SecurityPhase.AUTHENTICATION, NAME).getCount(SecurityMetrics.Outcome.SUCCESS));
+        assertEquals(1, metrics.getTimer(SecurityPhase.SESSION_WRITE, NAME).getCount(SecurityMetrics.Outcome.SUCCESS));
+        final InMemorySecurityMetrics.Timer sessionRead = metrics.getTimer(SecurityPhase.SESSION_READ, null);
+        assertEquals(1, sessionRead.getCount(SecurityMetrics.Outcome.FAILURE));
+        assertEquals(1, sessionRead.getCount(SecurityMetrics.Outcome.SUCCESS));
+        assertEquals(1, metrics.getTimer(SecurityPhase.AUTHORIZATION, NAME).getCount(SecurityMetrics.Outcome.SUCCESS));
+        assertEquals(1, metrics.getTimer(SecurityPhase.AUTHORIZATION, VALUE).getCount(SecurityMetrics.Outcome.FAILURE));
+    }
+
+    @Test
+    public void testSecurityMetricsHttpActions() throws Exception {
+        final InMemorySecurityMetrics metrics = new InMemorySecurityMetrics();
+        config.setSecurityMetrics(metrics);
+        final CommonProfile profile = new CommonProfile();
+        profile.setId(ID);
+        final DirectClient directClient = new MockDirectClient(NAME, () -> { throw HttpAction.status("bad request", 400, context); }, profile);
+        config.setClients(new Clients(CALLBACK_URL, directClient));
+        clients = NAME;
+        call();
+        assertEquals(400, context.getResponseStatus());
+        final InMemorySecurityMetrics.Timer extraction = metrics.getTimer(SecurityPhase.CREDENTIALS_EXTRACTION, NAME);
+        assertEquals(1, extraction.getCount(SecurityMetrics.Outcome.ACTION));
+        assertEquals(0, extraction.getCount(SecurityMetrics.Outcome.ERROR));
+
+        context = MockWebContext.create();
+        metrics.clear();
+        config.setClients(new Clients(CALLBACK_URL, new MockDirectClient(NAME, new MockCredentials(), profile)));
+        config.addAuthorizer(NAME, (ctx, prof) -> { throw HttpAction.unauthorized("unauthorized", ctx, null); });
+        authorizers = NAME;
+        call();
+        assertEquals(401, context.getResponseStatus());
+        final InMemorySecurityMetrics.Timer authorization = metrics.getTimer(SecurityPhase.AUTHORIZATION, NAME);
+        assertEquals(1, authorization.getCount(SecurityMetrics.Outcome.ACTION));
+        assertEquals(0, authorization.getCount(SecurityMetrics.Outcome.ERROR));
+        assertEquals(0, nbCall);
+    }
+
     @Test
     public void testDirectClientThrowsRequiresHttpAction() throws Exception {
         final CommonProfile profile = new CommonProfile();
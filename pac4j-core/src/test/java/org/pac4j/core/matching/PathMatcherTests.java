@@ -0,0 +1,93 @@
+package org.pac4j.core.matching;
+
+import org.junit.Test;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.TestsHelper;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link PathMatcher} and {@link PathTrie}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class PathMatcherTests {
+
+    private boolean matches(final PathMatcher matcher, final String path) {
+        return matcher.matches(MockWebContext.create().setPath(path));
+    }
+
+    @Test
+    public void testTrie() {
+        final PathTrie trie = new PathTrie();
+        trie.add("/health");
+        trie.add("/static/**");
+        trie.add("/img/*.png");
+        trie.add("/api/*/status");
+        trie.add("/docs/**/index.html");
+        trie.add("/v?/ping");
+
+        assertTrue(trie.matches("/health"));
+        assertTrue(trie.matches("/health/"));
+        assertFalse(trie.matches("/health/check"));
+        assertFalse(trie.matches("/healthz"));
+        assertTrue(trie.matches("/static"));
+        assertTrue(trie.matches("/static/js/app.js"));
+        assertFalse(trie.matches("/statics/app.js"));
+        assertTrue(trie.matches("/img/logo.png"));
+        assertFalse(trie.matches("/img/logo.gif"));
+        assertFalse(trie.matches("/img/sub/logo.png"));
+        assertTrue(trie.matches("/api/users/status"));
+        assertFalse(trie.matches("/api/users/list"));
+        assertTrue(trie.matches("/docs/index.html"));
+        assertTrue(trie.matches("/docs/a/b/index.html"));
+        assertFalse(trie.matches("/docs/a/b/other.html"));
+        assertTrue(trie.matches("/v1/ping"));
+        assertFalse(trie.matches("/v10/ping"));
+        assertFalse(trie.matches("/"));
+    }
+
+    @Test
+    public void testManyLiterals() {
+        final PathTrie trie = new PathTrie();
+        for (int i = 0; i < 300; i++) {
+            trie.add("/health/check" + i);
+        }
+        assertEquals(300, trie.size());
+        assertTrue(trie.matches("/health/check0"));
+        assertTrue(trie.matches("/health/check299"));
+        assertFalse(trie.matches("/health/check300"));
+    }
+
+    @Test
+    public void testExcludedPaths() {
+        final PathMatcher matcher = new PathMatcher("/health", "/static/**", "^/(img|css)/.*$");
+        assertFalse(matches(matcher, "/health"));
+        assertFalse(matches(matcher, "/static/app.js"));
+        assertFalse(matches(matcher, "/css/app.css"));
+        assertTrue(matches(matcher, "/app"));
+        assertTrue(matches(matcher, "/"));
+    }
+
+    @Test
+    public void testIncludedPaths() {
+        final PathMatcher matcher = new PathMatcher().includePath("/api/**").excludePath("/api/public/**");
+        assertTrue(matches(matcher, "/api/users"));
+        assertFalse(matches(matcher, "/api/public/info"));
+        assertFalse(matches(matcher, "/app"));
+
+        matcher.setIncludedPaths(Arrays.asList("/app"));
+        assertTrue(matches(matcher, "/app"));
+        assertFalse(matches(matcher, "/api/users"));
+    }
+
+    @Test
+    public void testBadRegexp() {
+        TestsHelper.expectException(() -> new PathMatcher("^/img/.*"), TechnicalException.class,
+                "Your regular expression: '^/img/.*' must start with a ^ and ends with a $ to define a full path matching");
+    }
+}
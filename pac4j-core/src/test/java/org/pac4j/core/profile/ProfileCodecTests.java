@@ -0,0 +1,250 @@
+package org.pac4j.core.profile;
+
+import org.junit.Test;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.converter.Converters;
+import org.pac4j.core.util.JavaSerializationHelper;
+import org.pac4j.core.util.KryoSerializationHelper;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.core.util.TestsHelper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link ProfileCodec}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class ProfileCodecTests implements TestsConstants {
+
+    private static final Date DATE = new Date(1234567890123L);
+
+    public static class DefinedProfile extends CommonProfile {
+
+        private static final long serialVersionUID = 4183524358263880425L;
+
+        private transient final static AttributesDefinition ATTRIBUTES_DEFINITION = new AttributesDefinition() {
+            {
+                primary(FIRSTNAME, Converters.STRING);
+                primary(KEY, Converters.STRING);
+                secondary(NAME, Converters.STRING);
+            }
+        };
+
+        @Override
+        public AttributesDefinition getAttributesDefinition() {
+            return ATTRIBUTES_DEFINITION;
+        }
+    }
+
+    public static class AppendedProfile extends CommonProfile {
+
+        private static final long serialVersionUID = -2917346563196342016L;
+
+        private transient final static AttributesDefinition ATTRIBUTES_DEFINITION = new AttributesDefinition() {
+            {
+                primary(FIRSTNAME, Converters.STRING);
+                primary(KEY, Converters.STRING);
+                secondary(NAME, Converters.STRING);
+                secondary(ROLE, Converters.STRING);
+            }
+        };
+
+        @Override
+        public AttributesDefinition getAttributesDefinition() {
+            return ATTRIBUTES_DEFINITION;
+        }
+    }
+
+    public static class ReorderedProfile extends CommonProfile {
+
+        private static final long serialVersionUID = 6413389123512345791L;
+
+        private transient final static AttributesDefinition ATTRIBUTES_DEFINITION = new AttributesDefinition() {
+            {
+                primary(KEY, Converters.STRING);
+                primary(FIRSTNAME, Converters.STRING);
+                secondary(NAME, Converters.STRING);
+            }
+        };
+
+        @Override
+        public AttributesDefinition getAttributesDefinition() {
+            return ATTRIBUTES_DEFINITION;
+        }
+    }
+
+    private DefinedProfile buildProfile() {
+        final DefinedProfile profile = new DefinedProfile();
+        profile.setId(ID);
+        profile.setClientName(CLIENT_NAME);
+        profile.setRemembered(true);
+        profile.addRole(ROLE);
+        profile.addPermission(VALUE);
+        profile.addAttribute(FIRSTNAME, FIRSTNAME_VALUE);
+        profile.addAttribute(NAME, VALUE);
+        profile.addAttribute("string", "été");
+        profile.addAttribute("int", -12);
+        profile.addAttribute("long", Long.MAX_VALUE);
+        profile.addAttribute("double", 1.5d);
+        profile.addAttribute("boolean", Boolean.TRUE);
+        profile.addAttribute("date", DATE);
+        profile.addAttribute("formattedDate", new FormattedDate(DATE, Converters.DATE_TZ_GENERAL_FORMAT, Locale.FRENCH));
+        profile.addAttribute("color", new Color(10, 200, 255));
+        profile.addAttribute("locale", Locale.CANADA_FRENCH);
+        profile.addAttribute("gender", Gender.FEMALE);
+        profile.addAttribute("uri", java.net.URI.create(CALLBACK_URL));
+        profile.addAttribute("list", new ArrayList<>(Arrays.asList(VALUE, 1, null)));
+        profile.addAttribute("set", new HashSet<>(Arrays.asList(KEY, VALUE)));
+        final Map<String, Object> map = new HashMap<>();
+        map.put(KEY, VALUE);
+        profile.addAttribute("map", map);
+        profile.addAttribute("float", 2.5f);
+        return profile;
+    }
+
+    private void assertSameProfile(final CommonProfile expected, final CommonProfile profile) {
+        assertEquals(expected.getClass(), profile.getClass());
+        assertEquals(expected.getId(), profile.getId());
+        assertEquals(expected.getClientName(), profile.getClientName());
+        assertEquals(expected.isRemembered(), profile.isRemembered());
+        assertEquals(expected.getRoles(), profile.getRoles());
+        assertEquals(expected.getPermissions(), profile.getPermissions());
+        for (final Map.Entry<String, Object> entry : expected.getAttributes().entrySet()) {
+            final Object value = profile.getAttribute(entry.getKey());
+            if (entry.getValue() instanceof Color) {
+                assertEquals(entry.getValue().toString(), value.toString());
+            } else {
+                assertEquals(entry.getKey(), entry.getValue(), value);
+            }
+        }
+        assertEquals(expected.getAttributes().size(), profile.getAttributes().size());
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        final DefinedProfile profile = buildProfile();
+        final CommonProfile profile2 = ProfileCodec.decode(ProfileCodec.encode(profile));
+        assertSameProfile(profile, profile2);
+        final FormattedDate date = (FormattedDate) profile2.getAttribute("formattedDate");
+        assertEquals(Converters.DATE_TZ_GENERAL_FORMAT, date.getFormat());
+        assertEquals(Locale.FRENCH, date.getLocale());
+    }
+
+    @Test
+    public void testDefinedNamesAreInterned() {
+        final DefinedProfile profile = new DefinedProfile();
+        profile.setId(ID);
+        profile.addAttribute(FIRSTNAME, FIRSTNAME_VALUE);
+        final String content = new String(ProfileCodec.encode(profile), StandardCharsets.UTF_8);
+        assertFalse(content.contains(FIRSTNAME + ""));
+        assertTrue(content.contains(FIRSTNAME_VALUE));
+    }
+
+    @Test
+    public void testLazyAttributesReencodedAsIs() {
+        final byte[] encoded = ProfileCodec.encode(buildProfile());
+        final CommonProfile profile = ProfileCodec.decode(encoded);
+        assertNotNull(profile.getEncodedAttributes());
+        assertArrayEquals(encoded, ProfileCodec.encode(profile));
+        assertEquals(VALUE, profile.getAttribute(NAME));
+        assertNull(profile.getEncodedAttributes());
+        profile.addAttribute(KEY, VALUE);
+        final CommonProfile profile2 = ProfileCodec.decode(ProfileCodec.encode(profile));
+        assertEquals(VALUE, profile2.getAttribute(KEY));
+        assertEquals(FIRSTNAME_VALUE, profile2.getAttribute(FIRSTNAME));
+    }
+
+    @Test
+    public void testSmallerThanJavaSerialization() {
+        final CommonProfile profile = new CommonProfile();
+        profile.setId(ID);
+        profile.addAttribute(NAME, VALUE);
+        profile.addRole(ROLE);
+        final byte[] serialized = new JavaSerializationHelper().serializeToBytes(profile);
+        assertTrue(ProfileCodec.encode(profile).length < serialized.length);
+    }
+
+    @Test
+    public void testJavaSerialization() {
+        final JavaSerializationHelper helper = new JavaSerializationHelper();
+        final DefinedProfile profile = buildProfile();
+        UserProfile.setCompactSerialization(true);
+        try {
+            final byte[] compact = helper.serializeToBytes(profile);
+            final CommonProfile profile2 = (CommonProfile) helper.unserializeFromBytes(compact);
+            assertSameProfile(profile, profile2);
+            UserProfile.setCompactSerialization(false);
+            final byte[] legacy = helper.serializeToBytes(profile2);
+            assertTrue(compact.length < legacy.length);
+            // the legacy format does not include the client name
+            final CommonProfile profile3 = (CommonProfile) helper.unserializeFromBytes(legacy);
+            assertEquals(ID, profile3.getId());
+            assertEquals(profile.getRoles(), profile3.getRoles());
+            assertEquals(profile.getAttribute("formattedDate"), profile3.getAttribute("formattedDate"));
+            assertEquals(profile.getAttributes().size(), profile3.getAttributes().size());
+        } finally {
+            UserProfile.setCompactSerialization(false);
+        }
+    }
+
+    @Test
+    public void testLegacySerializationByDefault() {
+        final DefinedProfile profile = buildProfile();
+        final String content = new String(new JavaSerializationHelper().serializeToBytes(profile), StandardCharsets.UTF_8);
+        // the defined attribute names are not interned
+        assertTrue(content.contains(FIRSTNAME));
+    }
+
+    @Test
+    public void testConcreteCollectionTypes() {
+        final CommonProfile profile = new CommonProfile();
+        profile.addAttribute("linkedList", new LinkedList<>(Arrays.asList(KEY, VALUE)));
+        profile.addAttribute("linkedSet", new LinkedHashSet<>(Arrays.asList(KEY, VALUE)));
+        profile.addAttribute("treeMap", new TreeMap<>(Collections.singletonMap(KEY, VALUE)));
+        profile.addAttribute("hashMap", new HashMap<>(Collections.singletonMap(KEY, VALUE)));
+        final CommonProfile profile2 = ProfileCodec.decode(ProfileCodec.encode(profile));
+        assertEquals(LinkedList.class, profile2.getAttribute("linkedList").getClass());
+        assertEquals(LinkedHashSet.class, profile2.getAttribute("linkedSet").getClass());
+        assertEquals(TreeMap.class, profile2.getAttribute("treeMap").getClass());
+        assertEquals(HashMap.class, profile2.getAttribute("hashMap").getClass());
+        assertEquals(profile.getAttributes(), profile2.getAttributes());
+    }
+
+    @Test
+    public void testAppendedAttributesDefinition() {
+        final byte[] body = ProfileCodec.encodeBody(buildProfile());
+        final AppendedProfile profile = new AppendedProfile();
+        ProfileCodec.decodeBody(profile, body);
+        assertEquals(FIRSTNAME_VALUE, profile.getAttribute(FIRSTNAME));
+        assertEquals(VALUE, profile.getAttribute(NAME));
+    }
+
+    @Test
+    public void testChangedAttributesDefinition() {
+        final byte[] body = ProfileCodec.encodeBody(buildProfile());
+        TestsHelper.expectException(() -> ProfileCodec.decodeBody(new ReorderedProfile(), body), TechnicalException.class,
+                "The attributes definition has changed since the profile was encoded");
+    }
+
+    @Test
+    public void testKryoSerializationOfLazyProfile() {
+        final KryoSerializationHelper helper = new KryoSerializationHelper();
+        final DefinedProfile profile = buildProfile();
+        final CommonProfile lazyProfile = ProfileCodec.decode(ProfileCodec.encode(profile));
+        final CommonProfile profile2 = (CommonProfile) helper.unserializeFromBytes(helper.serializeToBytes(lazyProfile));
+        assertSameProfile(profile, profile2);
+    }
+
+    @Test
+    public void testBadInput() {
+        TestsHelper.expectException(() -> ProfileCodec.decode(new byte[] { 1, 2, 3 }), TechnicalException.class, "Not an encoded profile");
+        final byte[] encoded = ProfileCodec.encode(buildProfile());
+        TestsHelper.expectException(() -> ProfileCodec.decode(Arrays.copyOf(encoded, encoded.length - 10)), TechnicalException.class,
+                "Truncated encoded profile");
+    }
+}
@@ -0,0 +1,74 @@
+package org.pac4j.core.util;
+
+import org.junit.Test;
+import org.pac4j.core.exception.TechnicalException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link CompressionHelper} class.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class CompressionHelperTests implements TestsConstants {
+
+    private static final String MARKER = "SessionIndex>";
+
+    private static byte[] deflate(final String message, final boolean nowrap) {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap);
+        deflater.setInput(message.getBytes(StandardCharsets.UTF_8));
+        deflater.finish();
+        final byte[] buffer = new byte[message.length() + 100];
+        final int length = deflater.deflate(buffer);
+        deflater.end();
+        final byte[] result = new byte[length];
+        System.arraycopy(buffer, 0, result, 0, length);
+        return result;
+    }
+
+    private static String buildMessage(final int paddingSize) {
+        final StringBuilder sb = new StringBuilder("<samlp:LogoutRequest><padding>");
+        for (int i = 0; i < paddingSize; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        sb.append("</padding><samlp:SessionIndex>").append(TICKET).append("</samlp:SessionIndex></samlp:LogoutRequest>");
+        return sb.toString();
+    }
+
+    @Test
+    public void testInflate() {
+        final String message = buildMessage(2000);
+        assertEquals(message, CompressionHelper.inflate(deflate(message, false), false, 10000, StandardCharsets.UTF_8));
+        assertEquals(message, CompressionHelper.inflate(deflate(message, true), true, 10000, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFindValueAcrossChunks() {
+        for (int padding = 480; padding < 520; padding++) {
+            final byte[] compressed = deflate(buildMessage(padding), false);
+            assertEquals(TICKET, CompressionHelper.inflateAndFind(compressed, false, 10000, MARKER, '<', StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testValueNotFound() {
+        final byte[] compressed = deflate("<samlp:LogoutRequest/>", false);
+        assertNull(CompressionHelper.inflateAndFind(compressed, false, 10000, MARKER, '<', StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testMaxOutputSize() {
+        final byte[] compressed = deflate(buildMessage(5000), false);
+        TestsHelper.expectException(() -> CompressionHelper.inflate(compressed, false, 1000, StandardCharsets.UTF_8),
+                TechnicalException.class, "Inflated data exceeds the maximum size: 1000");
+    }
+
+    @Test
+    public void testBadData() {
+        TestsHelper.expectException(() -> CompressionHelper.inflate(VALUE.getBytes(StandardCharsets.UTF_8), false, 1000, StandardCharsets.UTF_8));
+    }
+}
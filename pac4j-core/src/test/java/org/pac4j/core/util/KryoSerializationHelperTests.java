@@ -1,9 +1,19 @@
 package org.pac4j.core.util;
 
+import com.esotericsoftware.kryo.Kryo;
 import org.junit.Test;
+import org.pac4j.core.kryo.Pac4jKryoFactory;
+import org.pac4j.core.profile.Color;
 import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.Gender;
 
-import static org.junit.Assert.assertEquals;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
 
 /**
  * Tests {@link KryoSerializationHelper}.
@@ -39,4 +49,60 @@ public final class KryoSerializationHelperTests implements TestsConstants {
         assertEquals(profile.getId(), profile2.getId());
         assertEquals(profile.getAttribute(NAME), profile2.getAttribute(NAME));
     }
+
+    @Test
+    public void testRegisteredClassesNotWrittenByName() {
+        final CommonProfile profile = getUserProfile();
+        profile.addAttribute(KEY, Locale.FRANCE);
+        profile.addAttribute(FIRSTNAME, new Color(1, 2, 3));
+        profile.addAttribute(ROLE, Gender.FEMALE);
+        final KryoSerializationHelper pac4jHelper = new KryoSerializationHelper(new Pac4jKryoFactory());
+        final byte[] serialized = pac4jHelper.serializeToBytes(profile);
+        final String content = new String(serialized, StandardCharsets.UTF_8);
+        assertFalse(content.contains(CommonProfile.class.getName()));
+        assertFalse(content.contains(Color.class.getName()));
+        final CommonProfile profile2 = (CommonProfile) pac4jHelper.unserializeFromBytes(serialized);
+        assertEquals(Locale.FRANCE, profile2.getAttribute(KEY));
+        assertEquals(new Color(1, 2, 3).toString(), profile2.getAttribute(FIRSTNAME).toString());
+        assertEquals(Gender.FEMALE, profile2.getAttribute(ROLE));
+    }
+
+    @Test
+    public void testDefaultFormatReadableByDefaultKryo() {
+        final CommonProfile profile = getUserProfile();
+        profile.addAttribute(KEY, Locale.FRANCE);
+        final byte[] serialized = helper.serializeToBytes(profile);
+        final KryoSerializationHelper legacyHelper = new KryoSerializationHelper(new Kryo());
+        final CommonProfile profile2 = (CommonProfile) legacyHelper.unserializeFromBytes(serialized);
+        assertEquals(ID, profile2.getId());
+        assertEquals(Locale.FRANCE, profile2.getAttribute(KEY));
+    }
+
+    @Test
+    public void testSingleKryo() {
+        final KryoSerializationHelper singleHelper = new KryoSerializationHelper(new Kryo());
+        final CommonProfile profile2 = (CommonProfile) singleHelper.unserializeFromBytes(singleHelper.serializeToBytes(getUserProfile()));
+        assertEquals(ID, profile2.getId());
+    }
+
+    @Test
+    public void testConcurrentSerialization() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final String id = ID + i;
+                futures.add(executor.submit(() -> {
+                    final CommonProfile profile = getUserProfile();
+                    profile.setId(id);
+                    return ((CommonProfile) helper.unserializeFromBase64(helper.serializeToBase64(profile))).getId();
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(ID + i, futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package org.pac4j.http.authorization.authorizer;
+
+import org.pac4j.core.authorization.authorizer.Authorizer;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.http.ip.CidrRanges;
+import org.pac4j.http.ip.RemoteIpResolver;
+
+import java.util.List;
+
+/**
+ * Authorizes users based on their IP and a list of IPv4 / IPv6 CIDR ranges (checked in a radix tree, see {@link CidrRanges}).
+ * The IP can be resolved behind trusted proxies by a {@link RemoteIpResolver}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class IpCidrAuthorizer implements Authorizer<CommonProfile> {
+
+    private CidrRanges ranges;
+
+    private RemoteIpResolver remoteIpResolver;
+
+    public IpCidrAuthorizer() { }
+
+    public IpCidrAuthorizer(final CidrRanges ranges) {
+        this.ranges = ranges;
+    }
+
+    public IpCidrAuthorizer(final String... ranges) {
+        this.ranges = new CidrRanges(ranges);
+    }
+
+    @Override
+    public boolean isAuthorized(final WebContext context, final List<CommonProfile> profiles) {
+        CommonHelper.assertNotNull("ranges", ranges);
+
+        final String ip = remoteIpResolver != null ? remoteIpResolver.resolve(context) : context.getRemoteAddr();
+        return ip != null && this.ranges.contains(ip);
+    }
+
+    public CidrRanges getRanges() {
+        return ranges;
+    }
+
+    public void setRanges(final CidrRanges ranges) {
+        this.ranges = ranges;
+    }
+
+    public RemoteIpResolver getRemoteIpResolver() {
+        return remoteIpResolver;
+    }
+
+    public void setRemoteIpResolver(final RemoteIpResolver remoteIpResolver) {
+        this.remoteIpResolver = remoteIpResolver;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "ranges", ranges, "remoteIpResolver", remoteIpResolver);
+    }
+}
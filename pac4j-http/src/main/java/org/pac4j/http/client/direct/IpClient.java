@@ -7,6 +7,7 @@ import org.pac4j.core.credentials.authenticator.Authenticator;
 import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.profile.creator.ProfileCreator;
 import org.pac4j.http.credentials.extractor.IpExtractor;
+import org.pac4j.http.ip.RemoteIpResolver;
 
 /**
  * <p>This class is the client to authenticate users directly based on their IP address.</p>
@@ -16,6 +17,8 @@ import org.pac4j.http.credentials.extractor.IpExtractor;
  */
 public class IpClient extends DirectClientV2<TokenCredentials, CommonProfile> {
 
+    private RemoteIpResolver remoteIpResolver;
+
     public IpClient() {}
 
     public IpClient(final Authenticator tokenAuthenticator) {
@@ -29,6 +32,14 @@ public class IpClient extends DirectClientV2<TokenCredentials, CommonProfile> {
 
     @Override
     protected void internalInit(final WebContext context) {
-        setCredentialsExtractor(new IpExtractor(getName()));
+        setCredentialsExtractor(new IpExtractor(getName(), remoteIpResolver));
+    }
+
+    public RemoteIpResolver getRemoteIpResolver() {
+        return remoteIpResolver;
+    }
+
+    public void setRemoteIpResolver(final RemoteIpResolver remoteIpResolver) {
+        this.remoteIpResolver = remoteIpResolver;
     }
 }
@@ -0,0 +1,63 @@
+package org.pac4j.http.credentials.authenticator;
+
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.credentials.TokenCredentials;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+import org.pac4j.core.exception.CredentialsException;
+import org.pac4j.core.exception.HttpAction;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.http.ip.CidrRanges;
+import org.pac4j.http.profile.IpProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Authenticates users based on their IP and a list of IPv4 / IPv6 CIDR ranges (checked in a radix tree, see {@link CidrRanges}).
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class IpCidrAuthenticator implements Authenticator<TokenCredentials> {
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private CidrRanges ranges;
+
+    public IpCidrAuthenticator() { }
+
+    public IpCidrAuthenticator(final CidrRanges ranges) {
+        this.ranges = ranges;
+    }
+
+    public IpCidrAuthenticator(final String... ranges) {
+        this.ranges = new CidrRanges(ranges);
+    }
+
+    @Override
+    public void validate(final TokenCredentials credentials, final WebContext context) throws HttpAction {
+        CommonHelper.assertNotNull("ranges", ranges);
+
+        final String ip = credentials.getToken();
+
+        if (!this.ranges.contains(ip)) {
+            throw new CredentialsException("Unauthorized IP address: " + ip);
+        }
+
+        final IpProfile profile = new IpProfile(ip);
+        logger.debug("profile: {}", profile);
+        credentials.setUserProfile(profile);
+    }
+
+    public CidrRanges getRanges() {
+        return ranges;
+    }
+
+    public void setRanges(final CidrRanges ranges) {
+        this.ranges = ranges;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "ranges", ranges);
+    }
+}
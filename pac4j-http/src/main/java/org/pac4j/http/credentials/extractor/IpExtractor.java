@@ -5,9 +5,10 @@ import org.pac4j.core.credentials.TokenCredentials;
 import org.pac4j.core.credentials.extractor.CredentialsExtractor;
 import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.util.CommonHelper;
+import org.pac4j.http.ip.RemoteIpResolver;
 
 /**
- * To extract a remote IP address.
+ * To extract a remote IP address (resolved behind trusted proxies if a {@link RemoteIpResolver} is defined).
  *
  * @author Jerome Leleu
  * @since 1.8.0
@@ -16,12 +17,19 @@ public class IpExtractor implements CredentialsExtractor<TokenCredentials> {
 
     private final String clientName;
 
+    private RemoteIpResolver remoteIpResolver;
+
     public IpExtractor(final String clientName) {
         this.clientName = clientName;
     }
 
+    public IpExtractor(final String clientName, final RemoteIpResolver remoteIpResolver) {
+        this.clientName = clientName;
+        this.remoteIpResolver = remoteIpResolver;
+    }
+
     public TokenCredentials extract(WebContext context) throws HttpAction {
-        final String ip = context.getRemoteAddr();
+        final String ip = remoteIpResolver != null ? remoteIpResolver.resolve(context) : context.getRemoteAddr();
         if (ip == null) {
             return null;
         }
@@ -29,8 +37,16 @@ public class IpExtractor implements CredentialsExtractor<TokenCredentials> {
         return new TokenCredentials(ip, clientName);
     }
 
+    public RemoteIpResolver getRemoteIpResolver() {
+        return remoteIpResolver;
+    }
+
+    public void setRemoteIpResolver(final RemoteIpResolver remoteIpResolver) {
+        this.remoteIpResolver = remoteIpResolver;
+    }
+
     @Override
     public String toString() {
-        return CommonHelper.toString(this.getClass(), "clientName", this.clientName);
+        return CommonHelper.toString(this.getClass(), "clientName", this.clientName, "remoteIpResolver", this.remoteIpResolver);
     }
 }
@@ -0,0 +1,213 @@
+package org.pac4j.http.ip;
+
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.io.Resource;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A list of IPv4 and IPv6 CIDR ranges, either given directly or loaded from a resource (one range per line, <code>#</code> starts
+ * a comment), compiled into a {@link CidrTree}.
+ *
+ * A list loaded from a resource is loaded on first use and can be reloaded in the background (by a single scheduler thread shared
+ * by the whole JVM): when the resource is a file, it is reloaded only if it has been modified. A new tree is built aside and
+ * swapped atomically, so lookups are never blocked, and the last-known-good ranges are kept if the reloading fails.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class CidrRanges {
+
+    private static final Logger logger = LoggerFactory.getLogger(CidrRanges.class);
+
+    public static final String COMMENT = "#";
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "pac4j-http-cidr-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Resource resource;
+
+    private volatile CidrTree tree;
+
+    private long lastModified;
+
+    private ScheduledFuture<?> reloadTask;
+
+    public CidrRanges(final Collection<String> ranges) {
+        CommonHelper.assertNotNull("ranges", ranges);
+        this.resource = null;
+        this.tree = build(ranges);
+    }
+
+    public CidrRanges(final String... ranges) {
+        this(Arrays.asList(ranges));
+    }
+
+    public CidrRanges(final Resource resource) {
+        CommonHelper.assertNotNull("resource", resource);
+        this.resource = resource;
+    }
+
+    /**
+     * Build the ranges from a file path (which may use the <code>resource:</code> or <code>classpath:</code> prefixes).
+     *
+     * @param path the path
+     * @return the ranges
+     */
+    public static CidrRanges fromPath(final String path) {
+        CommonHelper.assertNotBlank("path", path);
+        return new CidrRanges(CommonHelper.getResource(path));
+    }
+
+    private static CidrTree build(final Collection<String> ranges) {
+        final CidrTree tree = new CidrTree();
+        for (final String range : ranges) {
+            tree.add(range);
+        }
+        return tree;
+    }
+
+    /**
+     * Whether an address belongs to one of the ranges.
+     *
+     * @param address the address
+     * @return whether the address belongs to one of the ranges (<code>false</code> for an invalid address)
+     */
+    public boolean contains(final CharSequence address) {
+        return getTree().contains(address);
+    }
+
+    /**
+     * Whether an address given in its numeric form belongs to one of the ranges.
+     *
+     * @param high the high 64 bits of the address
+     * @param low the low 64 bits of the address
+     * @return whether the address belongs to one of the ranges
+     */
+    public boolean contains(final long high, final long low) {
+        return getTree().contains(high, low);
+    }
+
+    /**
+     * The current tree (loading the resource if it has not been loaded yet).
+     *
+     * @return the tree
+     */
+    public CidrTree getTree() {
+        CidrTree current = tree;
+        if (current == null) {
+            synchronized (this) {
+                current = tree;
+                if (current == null) {
+                    load();
+                    current = tree;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Load the resource (which must succeed).
+     */
+    public synchronized void load() {
+        if (resource == null) {
+            return;
+        }
+        final long modified = lastModified();
+        final List<String> ranges = new ArrayList<>();
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final int comment = line.indexOf(COMMENT);
+                final String range = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                if (!range.isEmpty()) {
+                    ranges.add(range);
+                }
+            }
+        } catch (final IOException e) {
+            throw new TechnicalException(e);
+        }
+        final CidrTree newTree = build(ranges);
+        logger.debug("Loaded {} CIDR range(s) from: {}", newTree.size(), resource.getFilename());
+        this.tree = newTree;
+        this.lastModified = modified;
+    }
+
+    /**
+     * Reload the resource if it has been modified (or if it is not a file), keeping the last-known-good ranges on failure.
+     *
+     * @return whether the ranges have been reloaded
+     */
+    public boolean reloadIfModified() {
+        if (resource == null) {
+            return false;
+        }
+        synchronized (this) {
+            try {
+                final long modified = lastModified();
+                if (tree != null && modified > 0 && modified == lastModified) {
+                    return false;
+                }
+                load();
+                return true;
+            } catch (final RuntimeException e) {
+                logger.warn("Cannot reload the CIDR ranges from: {}, keeping the last-known-good ones", resource.getFilename(), e);
+                return false;
+            }
+        }
+    }
+
+    private long lastModified() {
+        final File file = resource.getFile();
+        return file != null ? file.lastModified() : 0;
+    }
+
+    /**
+     * Reload the resource in the background, at a fixed interval.
+     *
+     * @param interval the interval in milliseconds
+     */
+    public synchronized void startReload(final long interval) {
+        CommonHelper.assertTrue(interval > 0, "interval must be greater than zero");
+        stopReload();
+        reloadTask = SCHEDULER.scheduleWithFixedDelay(this::reloadIfModified, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancel the background reloading.
+     */
+    public synchronized void stopReload() {
+        if (reloadTask != null) {
+            reloadTask.cancel(false);
+            reloadTask = null;
+        }
+    }
+
+    public int size() {
+        return getTree().size();
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "resource", resource != null ? resource.getFilename() : null, "tree", tree);
+    }
+}
@@ -0,0 +1,247 @@
+package org.pac4j.http.ip;
+
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.Arrays;
+
+/**
+ * A set of IPv4 and IPv6 CIDR ranges (<code>10.0.0.0/8</code>, <code>2001:db8::/32</code> or a single address) compiled into a
+ * radix (Patricia) tree over the 128-bit form of the addresses: checking whether an address belongs to one of the ranges walks
+ * at most one node per distinct prefix length on its path, without allocation, whatever the number of ranges.
+ *
+ * The nodes are stored in parallel arrays to keep large trees (tens of thousands of ranges) compact. The tree is not thread-safe
+ * while it is being built: it must be fully built before being shared, after which concurrent lookups are safe.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class CidrTree {
+
+    private static final ThreadLocal<IpAddressParser> PARSERS = ThreadLocal.withInitial(IpAddressParser::new);
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] highs = new long[INITIAL_CAPACITY];
+
+    private long[] lows = new long[INITIAL_CAPACITY];
+
+    private int[] lengths = new int[INITIAL_CAPACITY];
+
+    private int[] lefts = new int[INITIAL_CAPACITY];
+
+    private int[] rights = new int[INITIAL_CAPACITY];
+
+    private boolean[] terminals = new boolean[INITIAL_CAPACITY];
+
+    private int nbNodes;
+
+    private int root = -1;
+
+    private int size;
+
+    /**
+     * Add a CIDR range.
+     *
+     * @param cidr the range (<code>address/prefix</code> or a single address)
+     */
+    public void add(final String cidr) {
+        CommonHelper.assertNotBlank("cidr", cidr);
+        final String range = cidr.trim();
+        final int slash = range.indexOf('/');
+        final IpAddressParser parser = new IpAddressParser();
+        if (!parser.parse(range, 0, slash < 0 ? range.length() : slash)) {
+            throw new TechnicalException("Invalid CIDR range: " + cidr);
+        }
+        final int maxLength = parser.isIpv4() ? 32 : 128;
+        int length = maxLength;
+        if (slash >= 0) {
+            try {
+                length = Integer.parseInt(range.substring(slash + 1));
+            } catch (final NumberFormatException e) {
+                throw new TechnicalException("Invalid CIDR range: " + cidr);
+            }
+            if (length < 0 || length > maxLength) {
+                throw new TechnicalException("Invalid CIDR range: " + cidr);
+            }
+        }
+        if (parser.isIpv4()) {
+            length += IpAddressParser.IPV4_MAPPED_PREFIX_LENGTH;
+        }
+        add(parser.getHigh(), parser.getLow(), length);
+    }
+
+    /**
+     * Add a range given in its numeric form.
+     *
+     * @param high the high 64 bits of the address
+     * @param low the low 64 bits of the address
+     * @param length the prefix length (0 to 128)
+     */
+    public void add(final long high, final long low, final int length) {
+        if (length < 0 || length > 128) {
+            throw new TechnicalException("Invalid prefix length: " + length);
+        }
+        root = insert(root, high & highMask(length), low & lowMask(length), length);
+    }
+
+    private int insert(final int node, final long high, final long low, final int length) {
+        if (node < 0) {
+            size++;
+            return newNode(high, low, length, true);
+        }
+        final int nodeLength = lengths[node];
+        final int common = Math.min(Math.min(nodeLength, length), commonPrefixLength(highs[node], lows[node], high, low));
+        if (common == nodeLength && common == length) {
+            if (!terminals[node]) {
+                terminals[node] = true;
+                size++;
+            }
+            return node;
+        }
+        if (common == nodeLength) {
+            // the new range is below this node
+            if (bit(high, low, nodeLength) == 0) {
+                final int child = insert(lefts[node], high, low, length);
+                lefts[node] = child;
+            } else {
+                final int child = insert(rights[node], high, low, length);
+                rights[node] = child;
+            }
+            return node;
+        }
+        final int parent;
+        if (common == length) {
+            // the new range contains this node
+            size++;
+            parent = newNode(high, low, length, true);
+        } else {
+            // the new range and this node diverge: split at their common prefix
+            parent = newNode(high & highMask(common), low & lowMask(common), common, false);
+            final int leaf = newNode(high, low, length, true);
+            size++;
+            if (bit(high, low, common) == 0) {
+                lefts[parent] = leaf;
+            } else {
+                rights[parent] = leaf;
+            }
+        }
+        if (bit(highs[node], lows[node], lengths[parent]) == 0) {
+            lefts[parent] = node;
+        } else {
+            rights[parent] = node;
+        }
+        return parent;
+    }
+
+    private int newNode(final long high, final long low, final int length, final boolean terminal) {
+        if (nbNodes == highs.length) {
+            final int capacity = nbNodes * 2;
+            highs = Arrays.copyOf(highs, capacity);
+            lows = Arrays.copyOf(lows, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+            terminals = Arrays.copyOf(terminals, capacity);
+        }
+        final int node = nbNodes++;
+        highs[node] = high;
+        lows[node] = low;
+        lengths[node] = length;
+        lefts[node] = -1;
+        rights[node] = -1;
+        terminals[node] = terminal;
+        return node;
+    }
+
+    /**
+     * Whether an address belongs to one of the ranges.
+     *
+     * @param address the address
+     * @return whether the address belongs to one of the ranges (<code>false</code> for an invalid address)
+     */
+    public boolean contains(final CharSequence address) {
+        return address != null && contains(address, 0, address.length());
+    }
+
+    /**
+     * Whether the address in a region of a char sequence belongs to one of the ranges.
+     *
+     * @param s the char sequence
+     * @param start the start of the region (inclusive)
+     * @param end the end of the region (exclusive)
+     * @return whether the address belongs to one of the ranges (<code>false</code> for an invalid address)
+     */
+    public boolean contains(final CharSequence s, final int start, final int end) {
+        final IpAddressParser parser = PARSERS.get();
+        return parser.parse(s, start, end) && contains(parser.getHigh(), parser.getLow());
+    }
+
+    /**
+     * Whether an address given in its numeric form belongs to one of the ranges.
+     *
+     * @param high the high 64 bits of the address
+     * @param low the low 64 bits of the address
+     * @return whether the address belongs to one of the ranges
+     */
+    public boolean contains(final long high, final long low) {
+        int node = root;
+        while (node >= 0) {
+            final int length = lengths[node];
+            if (((highs[node] ^ high) & highMask(length)) != 0 || ((lows[node] ^ low) & lowMask(length)) != 0) {
+                return false;
+            }
+            if (terminals[node]) {
+                return true;
+            }
+            if (length == 128) {
+                return false;
+            }
+            node = bit(high, low, length) == 0 ? lefts[node] : rights[node];
+        }
+        return false;
+    }
+
+    private static int commonPrefixLength(final long high1, final long low1, final long high2, final long low2) {
+        final long high = high1 ^ high2;
+        if (high != 0) {
+            return Long.numberOfLeadingZeros(high);
+        }
+        return 64 + Long.numberOfLeadingZeros(low1 ^ low2);
+    }
+
+    private static int bit(final long high, final long low, final int index) {
+        if (index < 64) {
+            return (int) (high >>> 63 - index) & 1;
+        }
+        return (int) (low >>> 127 - index) & 1;
+    }
+
+    private static long highMask(final int length) {
+        if (length >= 64) {
+            return -1L;
+        }
+        return length == 0 ? 0L : -1L << 64 - length;
+    }
+
+    private static long lowMask(final int length) {
+        if (length <= 64) {
+            return 0L;
+        }
+        return length == 128 ? -1L : -1L << 128 - length;
+    }
+
+    /**
+     * The number of distinct ranges.
+     *
+     * @return the number of ranges
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "size", size, "nbNodes", nbNodes);
+    }
+}
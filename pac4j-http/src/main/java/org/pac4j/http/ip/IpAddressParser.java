@@ -0,0 +1,265 @@
+package org.pac4j.http.ip;
+
+/**
+ * Parses an IPv4 or IPv6 address into its numeric 128-bit form (two longs), without allocation.
+ *
+ * IPv4 addresses are mapped into the IPv6 space (<code>::ffff:a.b.c.d</code>) so that both families are handled the same way.
+ * IPv6 addresses support the <code>::</code> compression, an embedded IPv4 address, brackets and a zone identifier
+ * (<code>fe80::1%eth0</code>). Octets with leading zeros are rejected.
+ *
+ * This parser is mutable and not thread-safe: it is meant to be reused by a single thread.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class IpAddressParser {
+
+    /* prefix of the IPv4-mapped IPv6 addresses: ::ffff:0:0/96 */
+    public static final long IPV4_MAPPED_PREFIX = 0xFFFF00000000L;
+
+    public static final int IPV4_MAPPED_PREFIX_LENGTH = 96;
+
+    private long high;
+
+    private long low;
+
+    private boolean ipv4;
+
+    /* IPv6 accumulator */
+    private long accHigh;
+
+    private long accLow;
+
+    /**
+     * Parse an address.
+     *
+     * @param address the address
+     * @return whether the address is valid
+     */
+    public boolean parse(final CharSequence address) {
+        return address != null && parse(address, 0, address.length());
+    }
+
+    /**
+     * Parse the address in a region of a char sequence (surrounding spaces are ignored).
+     *
+     * @param s the char sequence
+     * @param start the start of the region (inclusive)
+     * @param end the end of the region (exclusive)
+     * @return whether the address is valid
+     */
+    public boolean parse(final CharSequence s, final int start, final int end) {
+        int from = start;
+        int to = end;
+        while (from < to && s.charAt(from) == ' ') {
+            from++;
+        }
+        while (to > from && s.charAt(to - 1) == ' ') {
+            to--;
+        }
+        if (from == to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == ':') {
+                ipv4 = false;
+                return parseIpv6(s, from, to);
+            }
+        }
+        final long value = parseIpv4(s, from, to);
+        if (value < 0) {
+            return false;
+        }
+        ipv4 = true;
+        high = 0;
+        low = IPV4_MAPPED_PREFIX | value;
+        return true;
+    }
+
+    /* returns the unsigned 32 bits of the address or -1 */
+    private static long parseIpv4(final CharSequence s, final int start, final int end) {
+        long result = 0;
+        int octets = 0;
+        int value = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            final char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits > 0 && value == 0) {
+                    return -1;
+                }
+                value = value * 10 + c - '0';
+                digits++;
+                if (value > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (digits == 0 || octets == 3) {
+                    return -1;
+                }
+                result = result << 8 | value;
+                octets++;
+                value = 0;
+                digits = 0;
+            } else {
+                return -1;
+            }
+        }
+        if (digits == 0 || octets != 3) {
+            return -1;
+        }
+        return result << 8 | value;
+    }
+
+    private boolean parseIpv6(final CharSequence s, final int start, final int end) {
+        int from = start;
+        int to = end;
+        if (s.charAt(from) == '[') {
+            if (s.charAt(to - 1) != ']') {
+                return false;
+            }
+            from++;
+            to--;
+        }
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == '%') {
+                to = i;
+                break;
+            }
+        }
+        if (to - from < 2) {
+            return false;
+        }
+
+        accHigh = 0;
+        accLow = 0;
+        int count = 0;
+        long headHigh = 0;
+        long headLow = 0;
+        int headCount = -1;
+        int i = from;
+        if (s.charAt(i) == ':') {
+            if (s.charAt(i + 1) != ':') {
+                return false;
+            }
+            headCount = 0;
+            i += 2;
+        }
+        while (i < to) {
+            final int groupStart = i;
+            int value = 0;
+            int digits = 0;
+            int digit;
+            while (i < to && (digit = hexDigit(s.charAt(i))) >= 0) {
+                value = value << 4 | digit;
+                digits++;
+                i++;
+            }
+            if (i < to && s.charAt(i) == '.') {
+                // embedded IPv4 address, necessarily the last part
+                final long ipv4Value = parseIpv4(s, groupStart, to);
+                if (ipv4Value < 0) {
+                    return false;
+                }
+                shiftAccumulator(32, ipv4Value);
+                count += 2;
+                i = to;
+                break;
+            }
+            if (digits == 0 || digits > 4) {
+                return false;
+            }
+            shiftAccumulator(16, value);
+            count++;
+            if (i == to) {
+                break;
+            }
+            if (s.charAt(i) != ':') {
+                return false;
+            }
+            i++;
+            if (i < to && s.charAt(i) == ':') {
+                if (headCount >= 0) {
+                    return false;
+                }
+                headHigh = accHigh;
+                headLow = accLow;
+                headCount = count;
+                accHigh = 0;
+                accLow = 0;
+                count = 0;
+                i++;
+            } else if (i == to) {
+                return false;
+            }
+        }
+
+        if (headCount < 0) {
+            if (count != 8) {
+                return false;
+            }
+            high = accHigh;
+            low = accLow;
+        } else {
+            if (headCount + count > 7) {
+                return false;
+            }
+            // the head groups go on the left, the tail groups (in the accumulator) on the right
+            final int shift = 16 * (8 - headCount);
+            if (shift >= 128) {
+                high = accHigh;
+                low = accLow;
+            } else if (shift >= 64) {
+                high = headLow << shift - 64 | accHigh;
+                low = accLow;
+            } else {
+                high = headHigh << shift | headLow >>> 64 - shift | accHigh;
+                low = headLow << shift | accLow;
+            }
+        }
+        return true;
+    }
+
+    private static int hexDigit(final char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private void shiftAccumulator(final int bits, final long value) {
+        accHigh = accHigh << bits | accLow >>> 64 - bits;
+        accLow = accLow << bits | value;
+    }
+
+    /**
+     * The high 64 bits of the last parsed address.
+     *
+     * @return the high bits
+     */
+    public long getHigh() {
+        return high;
+    }
+
+    /**
+     * The low 64 bits of the last parsed address.
+     *
+     * @return the low bits
+     */
+    public long getLow() {
+        return low;
+    }
+
+    /**
+     * Whether the last parsed address is an IPv4 address.
+     *
+     * @return whether it is an IPv4 address
+     */
+    public boolean isIpv4() {
+        return ipv4;
+    }
+}
@@ -0,0 +1,91 @@
+package org.pac4j.http.ip;
+
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * Resolves the IP address of the client behind trusted proxies.
+ *
+ * If the remote address is a trusted proxy, the proxy header (<code>X-Forwarded-For</code> by default) is walked from right to left
+ * and the first address which is not a trusted proxy is the client address. The remote address is used as is if it is not a trusted
+ * proxy, so that the header cannot be spoofed by the clients themselves. The addresses are checked without allocation.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class RemoteIpResolver {
+
+    public static final String DEFAULT_HEADER_NAME = "X-Forwarded-For";
+
+    private static final ThreadLocal<IpAddressParser> PARSERS = ThreadLocal.withInitial(IpAddressParser::new);
+
+    private final CidrRanges trustedProxies;
+
+    private String headerName = DEFAULT_HEADER_NAME;
+
+    public RemoteIpResolver(final CidrRanges trustedProxies) {
+        CommonHelper.assertNotNull("trustedProxies", trustedProxies);
+        this.trustedProxies = trustedProxies;
+    }
+
+    public RemoteIpResolver(final String... trustedProxies) {
+        this(new CidrRanges(trustedProxies));
+    }
+
+    /**
+     * Resolve the client address.
+     *
+     * @param context the web context
+     * @return the client address (<code>null</code> if there is no remote address)
+     */
+    public String resolve(final WebContext context) {
+        final String remoteAddr = context.getRemoteAddr();
+        if (remoteAddr == null || !trustedProxies.contains(remoteAddr)) {
+            return remoteAddr;
+        }
+        final String header = context.getRequestHeader(headerName);
+        if (header == null) {
+            return remoteAddr;
+        }
+        final IpAddressParser parser = PARSERS.get();
+        int clientStart = -1;
+        int clientEnd = -1;
+        int end = header.length();
+        while (end >= 0) {
+            final int comma = header.lastIndexOf(',', end - 1);
+            final int start = comma + 1;
+            if (!parser.parse(header, start, end)) {
+                // an invalid hop: stop at the last valid one
+                break;
+            }
+            clientStart = start;
+            clientEnd = end;
+            if (!trustedProxies.contains(parser.getHigh(), parser.getLow())) {
+                break;
+            }
+            end = comma;
+        }
+        if (clientStart < 0) {
+            return remoteAddr;
+        }
+        return header.substring(clientStart, clientEnd).trim();
+    }
+
+    public CidrRanges getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public String getHeaderName() {
+        return headerName;
+    }
+
+    public void setHeaderName(final String headerName) {
+        CommonHelper.assertNotBlank("headerName", headerName);
+        this.headerName = headerName;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "trustedProxies", trustedProxies, "headerName", headerName);
+    }
+}
@@ -0,0 +1,80 @@
+package org.pac4j.http.authorization.authorizer;
+
+import org.junit.Test;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.http.ip.CidrRanges;
+import org.pac4j.http.ip.RemoteIpResolver;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link IpCidrAuthorizer}, {@link CidrRanges} and {@link RemoteIpResolver}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+@SuppressWarnings("PMD.AvoidUsingHardCodedIP")
+public final class IpCidrAuthorizerTests {
+
+    private static final String PROXY = "10.0.0.1";
+
+    private boolean isAuthorized(final IpCidrAuthorizer authorizer, final String remoteAddr, final String forwardedFor) {
+        final MockWebContext context = MockWebContext.create().setRemoteAddress(remoteAddr);
+        if (forwardedFor != null) {
+            context.addRequestHeader(RemoteIpResolver.DEFAULT_HEADER_NAME, forwardedFor);
+        }
+        return authorizer.isAuthorized(context, null);
+    }
+
+    @Test
+    public void testRemoteAddr() {
+        final IpCidrAuthorizer authorizer = new IpCidrAuthorizer("203.0.113.0/24", "2001:db8::/32");
+        assertTrue(isAuthorized(authorizer, "203.0.113.10", null));
+        assertTrue(isAuthorized(authorizer, "2001:db8::10", null));
+        assertFalse(isAuthorized(authorizer, "198.51.100.1", null));
+        assertFalse(isAuthorized(authorizer, PROXY, "203.0.113.10"));
+    }
+
+    @Test
+    public void testTrustedProxies() {
+        final IpCidrAuthorizer authorizer = new IpCidrAuthorizer("203.0.113.0/24");
+        authorizer.setRemoteIpResolver(new RemoteIpResolver("10.0.0.0/8"));
+        assertTrue(isAuthorized(authorizer, PROXY, "203.0.113.10"));
+        assertTrue(isAuthorized(authorizer, PROXY, "198.51.100.1, 203.0.113.10, 10.0.0.2"));
+        assertFalse(isAuthorized(authorizer, PROXY, "203.0.113.10, 198.51.100.1"));
+        // the header of an untrusted remote address is ignored
+        assertFalse(isAuthorized(authorizer, "198.51.100.1", "203.0.113.10"));
+        assertFalse(isAuthorized(authorizer, PROXY, "203.0.113.10, unknown"));
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        final File file = File.createTempFile("pac4j-cidr", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "# partners\n203.0.113.0/24 # first\n\n".getBytes(StandardCharsets.UTF_8));
+
+        final CidrRanges ranges = new CidrRanges(CommonHelper.getResource(file.getAbsolutePath()));
+        final IpCidrAuthorizer authorizer = new IpCidrAuthorizer(ranges);
+        assertTrue(isAuthorized(authorizer, "203.0.113.10", null));
+        assertFalse(isAuthorized(authorizer, "198.51.100.1", null));
+        assertFalse(ranges.reloadIfModified());
+
+        Files.write(file.toPath(), "198.51.100.0/24\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        assertTrue(ranges.reloadIfModified());
+        assertFalse(isAuthorized(authorizer, "203.0.113.10", null));
+        assertTrue(isAuthorized(authorizer, "198.51.100.1", null));
+
+        // an invalid file keeps the last-known-good ranges
+        Files.write(file.toPath(), "invalid\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        assertFalse(ranges.reloadIfModified());
+        assertTrue(isAuthorized(authorizer, "198.51.100.1", null));
+        assertEquals(1, ranges.size());
+    }
+}
@@ -0,0 +1,107 @@
+package org.pac4j.http.ip;
+
+import org.junit.Test;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.TestsHelper;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link CidrTree} and {@link IpAddressParser}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+@SuppressWarnings("PMD.AvoidUsingHardCodedIP")
+public final class CidrTreeTests {
+
+    private void assertParsed(final String address, final long high, final long low) {
+        final IpAddressParser parser = new IpAddressParser();
+        assertTrue(address, parser.parse(address));
+        assertEquals(address, high, parser.getHigh());
+        assertEquals(address, low, parser.getLow());
+    }
+
+    @Test
+    public void testParse() {
+        assertParsed("10.0.0.1", 0L, 0xFFFF0A000001L);
+        assertParsed("::ffff:10.0.0.1", 0L, 0xFFFF0A000001L);
+        assertParsed("::", 0L, 0L);
+        assertParsed("::1", 0L, 1L);
+        assertParsed("0:0:0:0:0:0:0:1", 0L, 1L);
+        assertParsed("2001:db8::", 0x20010DB800000000L, 0L);
+        assertParsed("2001:DB8:0:0:1::2", 0x20010DB800000000L, 0x0001000000000002L);
+        assertParsed("1:2:3:4:5:6:7::", 0x0001000200030004L, 0x0005000600070000L);
+        assertParsed("[fe80::1%eth0]", 0xFE80000000000000L, 1L);
+        assertParsed(" 192.168.1.1 ", 0L, 0xFFFFC0A80101L);
+
+        final IpAddressParser parser = new IpAddressParser();
+        for (final String invalid : new String[] { "", "10.0.0", "10.0.0.256", "10.0.0.01", "10..0.1", "1:2:3:4:5:6:7:8:9", "1::2::3",
+                ":1", "1:", "12345::", "unknown", "1:2:3:4:5:6:7:8::" }) {
+            assertFalse(invalid, parser.parse(invalid));
+        }
+    }
+
+    @Test
+    public void testContains() {
+        final CidrTree tree = new CidrTree();
+        tree.add("10.0.0.0/8");
+        tree.add("192.168.1.0/24");
+        tree.add("192.168.2.7");
+        tree.add("2001:db8::/32");
+        tree.add("::1");
+        assertEquals(5, tree.size());
+
+        assertTrue(tree.contains("10.1.2.3"));
+        assertFalse(tree.contains("11.0.0.1"));
+        assertTrue(tree.contains("192.168.1.255"));
+        assertFalse(tree.contains("192.168.0.1"));
+        assertTrue(tree.contains("192.168.2.7"));
+        assertFalse(tree.contains("192.168.2.8"));
+        assertTrue(tree.contains("::ffff:10.0.0.1"));
+        assertTrue(tree.contains("2001:db8:1::1"));
+        assertFalse(tree.contains("2001:db9::1"));
+        assertTrue(tree.contains("0:0:0:0:0:0:0:1"));
+        assertFalse(tree.contains("::2"));
+        assertFalse(tree.contains("unknown"));
+        assertFalse(tree.contains(null));
+    }
+
+    @Test
+    public void testNestedRanges() {
+        final CidrTree tree = new CidrTree();
+        tree.add("10.1.2.0/24");
+        tree.add("10.1.3.0/24");
+        tree.add("10.0.0.0/8");
+        tree.add("10.1.2.0/24");
+        assertEquals(3, tree.size());
+        assertTrue(tree.contains("10.200.0.1"));
+        assertTrue(tree.contains("10.1.3.1"));
+
+        final CidrTree all = new CidrTree();
+        all.add("0.0.0.0/0");
+        assertTrue(all.contains("8.8.8.8"));
+        assertFalse(all.contains("2001:db8::1"));
+    }
+
+    @Test
+    public void testManyRanges() {
+        final CidrTree tree = new CidrTree();
+        for (int i = 0; i < 50000; i++) {
+            tree.add(((i >> 8) + 1) + "." + (i & 0xFF) + ".0.0/24");
+        }
+        assertEquals(50000, tree.size());
+        assertTrue(tree.contains("1.0.0.1"));
+        assertTrue(tree.contains("196.79.0.254"));
+        assertFalse(tree.contains("196.79.1.1"));
+        assertFalse(tree.contains("200.0.0.1"));
+    }
+
+    @Test
+    public void testInvalidRange() {
+        final CidrTree tree = new CidrTree();
+        TestsHelper.expectException(() -> tree.add("10.0.0.0/33"), TechnicalException.class, "Invalid CIDR range: 10.0.0.0/33");
+        TestsHelper.expectException(() -> tree.add("10.0.0/8"), TechnicalException.class, "Invalid CIDR range: 10.0.0/8");
+        TestsHelper.expectException(() -> tree.add("::/x"), TechnicalException.class, "Invalid CIDR range: ::/x");
+    }
+}
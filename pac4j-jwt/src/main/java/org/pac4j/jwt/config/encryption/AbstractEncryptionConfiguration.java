@@ -21,6 +21,10 @@ public abstract class AbstractEncryptionConfiguration extends InitializableObjec
 
     protected EncryptionMethod method;
 
+    private volatile JWEEncrypter encrypter;
+
+    private volatile JWEDecrypter decrypter;
+
     @Override
     public String encrypt(final JWT jwt) {
         init();
@@ -33,7 +37,7 @@ public abstract class AbstractEncryptionConfiguration extends InitializableObjec
 
             try {
                 // Perform encryption
-                jweObject.encrypt(buildEncrypter());
+                jweObject.encrypt(getEncrypter());
             } catch (final JOSEException e) {
                 throw new TechnicalException(e);
             }
@@ -49,7 +53,7 @@ public abstract class AbstractEncryptionConfiguration extends InitializableObjec
                 EncryptedJWT encryptedJwt = new EncryptedJWT(header, jwt.getJWTClaimsSet());
 
                 // Perform encryption
-                encryptedJwt.encrypt(buildEncrypter());
+                encryptedJwt.encrypt(getEncrypter());
 
                 // serialize
                 return encryptedJwt.serialize();
@@ -59,8 +63,17 @@ public abstract class AbstractEncryptionConfiguration extends InitializableObjec
         }
     }
 
+    private JWEEncrypter getEncrypter() {
+        JWEEncrypter current = this.encrypter;
+        if (current == null) {
+            current = buildEncrypter();
+            this.encrypter = current;
+        }
+        return current;
+    }
+
     /**
-     * Build the appropriate encrypter.
+     * Build the appropriate encrypter (only once, until the keys change).
      *
      * @return the appropriate encrypter
      */
@@ -71,22 +84,40 @@ public abstract class AbstractEncryptionConfiguration extends InitializableObjec
         init();
 
         // decrypt
-        encryptedJWT.decrypt(buildDecrypter());
+        encryptedJWT.decrypt(getDecrypter());
+    }
+
+    private JWEDecrypter getDecrypter() {
+        JWEDecrypter current = this.decrypter;
+        if (current == null) {
+            current = buildDecrypter();
+            this.decrypter = current;
+        }
+        return current;
     }
 
     /**
-     * Build the appropriate decrypter.
+     * Build the appropriate decrypter (only once, until the keys change).
      *
      * @return the appropriate decrypter
      */
     protected abstract JWEDecrypter buildDecrypter();
 
+    /**
+     * Discard the encrypter and decrypter built from the previous keys.
+     */
+    protected void resetCrypto() {
+        this.encrypter = null;
+        this.decrypter = null;
+    }
+
     public JWEAlgorithm getAlgorithm() {
         return algorithm;
     }
 
     public void setAlgorithm(final JWEAlgorithm algorithm) {
         this.algorithm = algorithm;
+        resetCrypto();
     }
 
     public EncryptionMethod getMethod() {
@@ -95,5 +126,6 @@ public abstract class AbstractEncryptionConfiguration extends InitializableObjec
 
     public void setMethod(final EncryptionMethod method) {
         this.method = method;
+        resetCrypto();
     }
 }
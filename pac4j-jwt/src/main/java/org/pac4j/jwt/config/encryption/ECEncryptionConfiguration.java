@@ -79,6 +79,7 @@ public class ECEncryptionConfiguration extends AbstractEncryptionConfiguration {
         CommonHelper.assertNotNull("keyPair", keyPair);
         this.privateKey = (ECPrivateKey) keyPair.getPrivate();
         this.publicKey = (ECPublicKey) keyPair.getPublic();
+        resetCrypto();
     }
 
     public ECPublicKey getPublicKey() {
@@ -87,6 +88,7 @@ public class ECEncryptionConfiguration extends AbstractEncryptionConfiguration {
 
     public void setPublicKey(final ECPublicKey publicKey) {
         this.publicKey = publicKey;
+        resetCrypto();
     }
 
     public ECPrivateKey getPrivateKey() {
@@ -95,6 +97,7 @@ public class ECEncryptionConfiguration extends AbstractEncryptionConfiguration {
 
     public void setPrivateKey(final ECPrivateKey privateKey) {
         this.privateKey = privateKey;
+        resetCrypto();
     }
 
     @Override
@@ -0,0 +1,111 @@
+package org.pac4j.jwt.config.encryption;
+
+import com.nimbusds.jose.*;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.SignedJWT;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.jwt.config.jwk.JwtKey;
+import org.pac4j.jwt.config.jwk.JwtKeySet;
+
+import java.text.ParseException;
+
+/**
+ * Encryption configuration based on a {@link JwtKeySet}: tokens are encrypted with the active encryption key (its identifier is set
+ * in the <code>kid</code> header) and decrypted with the key named by their <code>kid</code> header. Tokens without <code>kid</code>
+ * are decrypted with the keys of the same algorithm.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class KeySetEncryptionConfiguration implements EncryptionConfiguration {
+
+    private final JwtKeySet keySet;
+
+    private EncryptionMethod method = EncryptionMethod.A256GCM;
+
+    public KeySetEncryptionConfiguration(final JwtKeySet keySet) {
+        CommonHelper.assertNotNull("keySet", keySet);
+        this.keySet = keySet;
+    }
+
+    public KeySetEncryptionConfiguration(final JwtKeySet keySet, final EncryptionMethod method) {
+        this(keySet);
+        setMethod(method);
+    }
+
+    @Override
+    public boolean supports(final JWEAlgorithm algorithm, final EncryptionMethod method) {
+        return keySet.supports(algorithm, method);
+    }
+
+    @Override
+    public String encrypt(final JWT jwt) {
+        final JwtKey key = keySet.getEncryptionKey();
+        if (key == null) {
+            throw new TechnicalException("No active encryption key");
+        }
+
+        try {
+            if (jwt instanceof SignedJWT) {
+                final JWEObject jweObject = new JWEObject(
+                        new JWEHeader.Builder(key.getEncryptionAlgorithm(), method).contentType("JWT").keyID(key.getKeyId()).build(),
+                        new Payload((SignedJWT) jwt));
+                jweObject.encrypt(key.getEncrypter());
+                return jweObject.serialize();
+            } else {
+                final EncryptedJWT encryptedJwt = new EncryptedJWT(
+                        new JWEHeader.Builder(key.getEncryptionAlgorithm(), method).keyID(key.getKeyId()).build(), jwt.getJWTClaimsSet());
+                encryptedJwt.encrypt(key.getEncrypter());
+                return encryptedJwt.serialize();
+            }
+        } catch (final JOSEException | ParseException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    @Override
+    public void decrypt(final EncryptedJWT encryptedJWT) throws JOSEException {
+        final JWEHeader header = encryptedJWT.getHeader();
+        final String kid = header.getKeyID();
+        if (kid != null) {
+            final JwtKey key = keySet.getKey(kid);
+            if (key == null || !key.canDecrypt(header.getAlgorithm(), header.getEncryptionMethod())) {
+                throw new JOSEException("No encryption key: " + kid + " for algorithm: " + header.getAlgorithm());
+            }
+            encryptedJWT.decrypt(key.getDecrypter());
+            return;
+        }
+        JOSEException lastException = null;
+        for (final JwtKey key : keySet.getKeys()) {
+            if (key.canDecrypt(header.getAlgorithm(), header.getEncryptionMethod())) {
+                try {
+                    encryptedJWT.decrypt(key.getDecrypter());
+                    return;
+                } catch (final JOSEException e) {
+                    lastException = e;
+                }
+            }
+        }
+        throw lastException != null ? lastException : new JOSEException("No encryption key for algorithm: " + header.getAlgorithm());
+    }
+
+    public JwtKeySet getKeySet() {
+        return keySet;
+    }
+
+    public EncryptionMethod getMethod() {
+        return method;
+    }
+
+    public void setMethod(final EncryptionMethod method) {
+        CommonHelper.assertNotNull("method", method);
+        this.method = method;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "keySet", keySet, "method", method);
+    }
+}
@@ -69,6 +69,7 @@ public class RSAEncryptionConfiguration extends AbstractEncryptionConfiguration
         CommonHelper.assertNotNull("keyPair", keyPair);
         this.privateKey = (RSAPrivateKey) keyPair.getPrivate();
         this.publicKey = (RSAPublicKey) keyPair.getPublic();
+        resetCrypto();
     }
 
     public RSAPublicKey getPublicKey() {
@@ -77,6 +78,7 @@ public class RSAEncryptionConfiguration extends AbstractEncryptionConfiguration
 
     public void setPublicKey(final RSAPublicKey publicKey) {
         this.publicKey = publicKey;
+        resetCrypto();
     }
 
     public RSAPrivateKey getPrivateKey() {
@@ -85,6 +87,7 @@ public class RSAEncryptionConfiguration extends AbstractEncryptionConfiguration
 
     public void setPrivateKey(final RSAPrivateKey privateKey) {
         this.privateKey = privateKey;
+        resetCrypto();
     }
 
     @Override
@@ -89,6 +89,7 @@ public class SecretEncryptionConfiguration extends AbstractEncryptionConfigurati
 
     public void setSecret(final String secret) {
         this.secret = secret;
+        resetCrypto();
     }
 
     @Override
@@ -0,0 +1,64 @@
+package org.pac4j.jwt.config.jwk;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * Publish the public keys (active and retiring) of a {@link JwtKeySet} as a JWK set, for example on a
+ * <code>/.well-known/jwks.json</code> endpoint. The JSON is computed once per change of the key set.
+ *
+ * During a rotation, the retiring key must be kept (and published) at least as long as the tokens it has issued, and the new
+ * key should be published (in all the caches of the clients) before it is used: keep {@link #getMaxAge()} short enough.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class JwksPublisher {
+
+    /* default max age: 10 minutes */
+    public static final int DEFAULT_MAX_AGE = 600;
+
+    private final JwtKeySet keySet;
+
+    private int maxAge = DEFAULT_MAX_AGE;
+
+    public JwksPublisher(final JwtKeySet keySet) {
+        CommonHelper.assertNotNull("keySet", keySet);
+        this.keySet = keySet;
+    }
+
+    /**
+     * Write the public JWK set in the response.
+     *
+     * @param context the web context
+     */
+    public void publish(final WebContext context) {
+        context.setResponseStatus(HttpConstants.OK);
+        context.setResponseContentType(JWKSet.MIME_TYPE);
+        context.setResponseHeader("Cache-Control", "public, max-age=" + maxAge);
+        context.writeResponseContent(getJson());
+    }
+
+    public String getJson() {
+        return keySet.getPublicJson();
+    }
+
+    public JwtKeySet getKeySet() {
+        return keySet;
+    }
+
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(final int maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "keySet", keySet, "maxAge", maxAge);
+    }
+}
@@ -0,0 +1,230 @@
+package org.pac4j.jwt.config.jwk;
+
+import com.nimbusds.jose.*;
+import com.nimbusds.jose.crypto.*;
+import com.nimbusds.jose.jwk.*;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * A key of a {@link JwtKeySet} with its state and its crypto primitives, built once when the key is loaded.
+ *
+ * A key is used either for signature or for encryption, according to its JWK <code>use</code> (signature by default).
+ * Its algorithm is the JWK <code>alg</code> or, if not defined: RS256 / ES256, ES384, ES512 / HS256 for signature and
+ * RSA-OAEP-256 / ECDH-ES / dir for encryption. The signer and the decrypter are only available for private (or secret) keys.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class JwtKey {
+
+    private final JWK jwk;
+
+    private final KeyState state;
+
+    private final boolean encryption;
+
+    private final JWSAlgorithm signatureAlgorithm;
+
+    private final JWEAlgorithm encryptionAlgorithm;
+
+    private final JWSSigner signer;
+
+    private final JWSVerifier verifier;
+
+    private final JWEEncrypter encrypter;
+
+    private final JWEDecrypter decrypter;
+
+    public JwtKey(final JWK jwk, final KeyState state) {
+        CommonHelper.assertNotNull("jwk", jwk);
+        CommonHelper.assertNotBlank("kid", jwk.getKeyID());
+        CommonHelper.assertNotNull("state", state);
+        this.jwk = jwk;
+        this.state = state;
+        this.encryption = KeyUse.ENCRYPTION.equals(jwk.getKeyUse());
+
+        try {
+            if (encryption) {
+                this.signatureAlgorithm = null;
+                this.signer = null;
+                this.verifier = null;
+                this.encryptionAlgorithm = jwk.getAlgorithm() != null ? JWEAlgorithm.parse(jwk.getAlgorithm().getName())
+                        : defaultEncryptionAlgorithm(jwk);
+                if (jwk instanceof RSAKey) {
+                    final RSAKey rsaKey = (RSAKey) jwk;
+                    this.encrypter = new RSAEncrypter(rsaKey);
+                    this.decrypter = rsaKey.isPrivate() ? new RSADecrypter(rsaKey) : null;
+                } else if (jwk instanceof ECKey) {
+                    final ECKey ecKey = (ECKey) jwk;
+                    this.encrypter = new ECDHEncrypter(ecKey);
+                    this.decrypter = ecKey.isPrivate() ? new ECDHDecrypter(ecKey) : null;
+                } else if (jwk instanceof OctetSequenceKey && JWEAlgorithm.DIR.equals(encryptionAlgorithm)) {
+                    final OctetSequenceKey octKey = (OctetSequenceKey) jwk;
+                    this.encrypter = new DirectEncrypter(octKey);
+                    this.decrypter = new DirectDecrypter(octKey);
+                } else if (jwk instanceof OctetSequenceKey) {
+                    final OctetSequenceKey octKey = (OctetSequenceKey) jwk;
+                    this.encrypter = new AESEncrypter(octKey);
+                    this.decrypter = new AESDecrypter(octKey);
+                } else {
+                    throw new TechnicalException("Unsupported key type: " + jwk.getKeyType() + " for key: " + jwk.getKeyID());
+                }
+                if (!encrypter.supportedJWEAlgorithms().contains(encryptionAlgorithm)) {
+                    throw new TechnicalException("Unsupported encryption algorithm: " + encryptionAlgorithm + " for key: " + jwk.getKeyID());
+                }
+            } else {
+                this.encryptionAlgorithm = null;
+                this.encrypter = null;
+                this.decrypter = null;
+                this.signatureAlgorithm = jwk.getAlgorithm() != null ? JWSAlgorithm.parse(jwk.getAlgorithm().getName())
+                        : defaultSignatureAlgorithm(jwk);
+                if (jwk instanceof RSAKey) {
+                    final RSAKey rsaKey = (RSAKey) jwk;
+                    this.verifier = new RSASSAVerifier(rsaKey);
+                    this.signer = rsaKey.isPrivate() ? new RSASSASigner(rsaKey) : null;
+                } else if (jwk instanceof ECKey) {
+                    final ECKey ecKey = (ECKey) jwk;
+                    this.verifier = new ECDSAVerifier(ecKey);
+                    this.signer = ecKey.isPrivate() ? new ECDSASigner(ecKey) : null;
+                } else if (jwk instanceof OctetSequenceKey) {
+                    final OctetSequenceKey octKey = (OctetSequenceKey) jwk;
+                    this.verifier = new MACVerifier(octKey);
+                    this.signer = new MACSigner(octKey);
+                } else {
+                    throw new TechnicalException("Unsupported key type: " + jwk.getKeyType() + " for key: " + jwk.getKeyID());
+                }
+                if (!verifier.supportedJWSAlgorithms().contains(signatureAlgorithm)) {
+                    throw new TechnicalException("Unsupported signature algorithm: " + signatureAlgorithm + " for key: " + jwk.getKeyID());
+                }
+            }
+        } catch (final JOSEException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    private JwtKey(final JwtKey key, final KeyState state) {
+        this.jwk = key.jwk;
+        this.state = state;
+        this.encryption = key.encryption;
+        this.signatureAlgorithm = key.signatureAlgorithm;
+        this.encryptionAlgorithm = key.encryptionAlgorithm;
+        this.signer = key.signer;
+        this.verifier = key.verifier;
+        this.encrypter = key.encrypter;
+        this.decrypter = key.decrypter;
+    }
+
+    /**
+     * Return the same key (with the same crypto primitives) in another state.
+     *
+     * @param state the new state
+     * @return the key in the new state
+     */
+    public JwtKey withState(final KeyState state) {
+        CommonHelper.assertNotNull("state", state);
+        return new JwtKey(this, state);
+    }
+
+    private static JWSAlgorithm defaultSignatureAlgorithm(final JWK jwk) {
+        if (jwk instanceof ECKey) {
+            final ECKey.Curve curve = ((ECKey) jwk).getCurve();
+            if (ECKey.Curve.P_384.equals(curve)) {
+                return JWSAlgorithm.ES384;
+            } else if (ECKey.Curve.P_521.equals(curve)) {
+                return JWSAlgorithm.ES512;
+            }
+            return JWSAlgorithm.ES256;
+        } else if (jwk instanceof OctetSequenceKey) {
+            return JWSAlgorithm.HS256;
+        }
+        return JWSAlgorithm.RS256;
+    }
+
+    private static JWEAlgorithm defaultEncryptionAlgorithm(final JWK jwk) {
+        if (jwk instanceof ECKey) {
+            return JWEAlgorithm.ECDH_ES;
+        } else if (jwk instanceof OctetSequenceKey) {
+            return JWEAlgorithm.DIR;
+        }
+        return JWEAlgorithm.RSA_OAEP_256;
+    }
+
+    /**
+     * Whether this key can verify a token signed with the given algorithm (only the algorithm of the key is accepted).
+     *
+     * @param algorithm the signature algorithm
+     * @return whether this key can verify the token
+     */
+    public boolean canVerify(final JWSAlgorithm algorithm) {
+        return verifier != null && signatureAlgorithm.equals(algorithm);
+    }
+
+    /**
+     * Whether this key can decrypt a token encrypted with the given algorithm (only the algorithm of the key is accepted)
+     * and method.
+     *
+     * @param algorithm the encryption algorithm
+     * @param method the encryption method
+     * @return whether this key can decrypt the token
+     */
+    public boolean canDecrypt(final JWEAlgorithm algorithm, final EncryptionMethod method) {
+        return decrypter != null && encryptionAlgorithm.equals(algorithm)
+                && decrypter.supportedEncryptionMethods().contains(method);
+    }
+
+    public String getKeyId() {
+        return jwk.getKeyID();
+    }
+
+    public JWK getJwk() {
+        return jwk;
+    }
+
+    public KeyState getState() {
+        return state;
+    }
+
+    public boolean isEncryption() {
+        return encryption;
+    }
+
+    /**
+     * Whether this key is symmetric: it must never be published.
+     *
+     * @return whether this key is symmetric
+     */
+    public boolean isSecret() {
+        return jwk instanceof OctetSequenceKey;
+    }
+
+    public JWSAlgorithm getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    public JWEAlgorithm getEncryptionAlgorithm() {
+        return encryptionAlgorithm;
+    }
+
+    public JWSSigner getSigner() {
+        return signer;
+    }
+
+    public JWSVerifier getVerifier() {
+        return verifier;
+    }
+
+    public JWEEncrypter getEncrypter() {
+        return encrypter;
+    }
+
+    public JWEDecrypter getDecrypter() {
+        return decrypter;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "kid", jwk.getKeyID(), "state", state, "encryption", encryption,
+                "signatureAlgorithm", signatureAlgorithm, "encryptionAlgorithm", encryptionAlgorithm, "private", signer != null || decrypter != null);
+    }
+}
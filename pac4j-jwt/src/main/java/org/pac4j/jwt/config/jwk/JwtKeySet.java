@@ -0,0 +1,227 @@
+package org.pac4j.jwt.config.jwk;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+
+import java.text.ParseException;
+import java.util.*;
+
+/**
+ * A set of keys indexed by their key identifier (<code>kid</code>), for signature and encryption, supporting key rotation.
+ *
+ * New tokens are signed (encrypted) with the last added {@link KeyState#ACTIVE} signature (encryption) key, while tokens are
+ * verified (decrypted) with the key named by their <code>kid</code> header, whether it is active or retiring: no trial of all keys
+ * is needed. To rotate keys, add the new key, mark the previous one as {@link KeyState#RETIRING} and remove it when all the tokens
+ * it has issued have expired.
+ *
+ * The crypto primitives are built once when a key is added. The key set is copy-on-write: reads never lock and changes are
+ * immediately visible to all threads.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class JwtKeySet {
+
+    private volatile Snapshot snapshot = new Snapshot(new LinkedHashMap<>());
+
+    public JwtKeySet() {}
+
+    public JwtKeySet(final JWKSet jwkSet) {
+        CommonHelper.assertNotNull("jwkSet", jwkSet);
+        for (final JWK jwk : jwkSet.getKeys()) {
+            addKey(jwk, KeyState.ACTIVE);
+        }
+    }
+
+    /**
+     * Build a key set from the JSON of a JWK set: all the keys are active.
+     *
+     * @param json the JSON of the JWK set
+     * @return the key set
+     */
+    public static JwtKeySet parse(final String json) {
+        CommonHelper.assertNotBlank("json", json);
+        try {
+            return new JwtKeySet(JWKSet.parse(json));
+        } catch (final ParseException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    /**
+     * Add a key or replace the key with the same identifier.
+     *
+     * @param jwk the key
+     * @param state the state of the key
+     */
+    public synchronized void addKey(final JWK jwk, final KeyState state) {
+        final JwtKey key = new JwtKey(jwk, state);
+        final Map<String, JwtKey> keys = new LinkedHashMap<>(snapshot.keys);
+        keys.remove(key.getKeyId());
+        keys.put(key.getKeyId(), key);
+        snapshot = new Snapshot(keys);
+    }
+
+    /**
+     * Change the state of a key.
+     *
+     * @param kid the key identifier
+     * @param state the new state
+     */
+    public synchronized void setState(final String kid, final KeyState state) {
+        final JwtKey key = snapshot.keys.get(kid);
+        if (key == null) {
+            throw new TechnicalException("Unknown key: " + kid);
+        }
+        final Map<String, JwtKey> keys = new LinkedHashMap<>(snapshot.keys);
+        keys.put(kid, key.withState(state));
+        snapshot = new Snapshot(keys);
+    }
+
+    /**
+     * Mark a key as retiring: it is no longer used for new tokens.
+     *
+     * @param kid the key identifier
+     */
+    public void retire(final String kid) {
+        setState(kid, KeyState.RETIRING);
+    }
+
+    /**
+     * Remove a key: the tokens it has issued are no longer accepted.
+     *
+     * @param kid the key identifier
+     */
+    public synchronized void removeKey(final String kid) {
+        final Map<String, JwtKey> keys = new LinkedHashMap<>(snapshot.keys);
+        if (keys.remove(kid) != null) {
+            snapshot = new Snapshot(keys);
+        }
+    }
+
+    public JwtKey getKey(final String kid) {
+        return kid != null ? snapshot.keys.get(kid) : null;
+    }
+
+    public Collection<JwtKey> getKeys() {
+        return snapshot.keys.values();
+    }
+
+    /**
+     * Return the key to sign new tokens.
+     *
+     * @return the active signature key or <code>null</code>
+     */
+    public JwtKey getSigningKey() {
+        return snapshot.signingKey;
+    }
+
+    /**
+     * Return the key to encrypt new tokens.
+     *
+     * @return the active encryption key or <code>null</code>
+     */
+    public JwtKey getEncryptionKey() {
+        return snapshot.encryptionKey;
+    }
+
+    /**
+     * Whether a key can verify a token signed with the given algorithm.
+     *
+     * @param algorithm the signature algorithm
+     * @return whether a key can verify the token
+     */
+    public boolean supports(final JWSAlgorithm algorithm) {
+        return algorithm != null && snapshot.signatureAlgorithms.contains(algorithm);
+    }
+
+    /**
+     * Whether a key can decrypt a token encrypted with the given algorithm and method.
+     *
+     * @param algorithm the encryption algorithm
+     * @param method the encryption method
+     * @return whether a key can decrypt the token
+     */
+    public boolean supports(final JWEAlgorithm algorithm, final EncryptionMethod method) {
+        if (algorithm == null || method == null) {
+            return false;
+        }
+        for (final JwtKey key : snapshot.keys.values()) {
+            if (key.canDecrypt(algorithm, method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the public JWK set (active and retiring asymmetric keys) to publish.
+     *
+     * @return the public JWK set
+     */
+    public JWKSet getPublicJwkSet() {
+        return snapshot.publicJwkSet;
+    }
+
+    /**
+     * Return the JSON of the public JWK set, computed once per change of the key set.
+     *
+     * @return the JSON of the public JWK set
+     */
+    public String getPublicJson() {
+        return snapshot.publicJson;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "keys", snapshot.keys.values());
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, JwtKey> keys;
+
+        private final JwtKey signingKey;
+
+        private final JwtKey encryptionKey;
+
+        private final Set<JWSAlgorithm> signatureAlgorithms;
+
+        private final JWKSet publicJwkSet;
+
+        private final String publicJson;
+
+        private Snapshot(final Map<String, JwtKey> keys) {
+            this.keys = Collections.unmodifiableMap(keys);
+            JwtKey lastSigningKey = null;
+            JwtKey lastEncryptionKey = null;
+            final Set<JWSAlgorithm> algorithms = new HashSet<>();
+            final List<JWK> publicKeys = new ArrayList<>();
+            for (final JwtKey key : keys.values()) {
+                if (key.getState() == KeyState.ACTIVE) {
+                    if (key.isEncryption()) {
+                        lastEncryptionKey = key;
+                    } else if (key.getSigner() != null) {
+                        lastSigningKey = key;
+                    }
+                }
+                if (!key.isEncryption()) {
+                    algorithms.add(key.getSignatureAlgorithm());
+                }
+                if (!key.isSecret()) {
+                    publicKeys.add(key.getJwk().toPublicJWK());
+                }
+            }
+            this.signingKey = lastSigningKey;
+            this.encryptionKey = lastEncryptionKey;
+            this.signatureAlgorithms = Collections.unmodifiableSet(algorithms);
+            this.publicJwkSet = new JWKSet(publicKeys);
+            this.publicJson = publicJwkSet.toJSONObject().toJSONString();
+        }
+    }
+}
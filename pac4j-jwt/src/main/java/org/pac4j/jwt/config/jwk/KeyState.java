@@ -0,0 +1,16 @@
+package org.pac4j.jwt.config.jwk;
+
+/**
+ * The state of a key in a {@link JwtKeySet}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public enum KeyState {
+
+    /* used to sign / encrypt new tokens and to verify / decrypt tokens */
+    ACTIVE,
+
+    /* only used to verify / decrypt the tokens issued before a rotation, still published */
+    RETIRING
+}
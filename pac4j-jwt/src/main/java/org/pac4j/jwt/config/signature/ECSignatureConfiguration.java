@@ -24,6 +24,10 @@ public class ECSignatureConfiguration extends AbstractSignatureConfiguration {
 
     private ECPrivateKey privateKey;
 
+    private volatile JWSSigner signer;
+
+    private volatile JWSVerifier verifier;
+
     public ECSignatureConfiguration() {
         algorithm = JWSAlgorithm.ES256;
     }
@@ -59,9 +63,8 @@ public class ECSignatureConfiguration extends AbstractSignatureConfiguration {
         CommonHelper.assertNotNull("privateKey", privateKey);
 
         try {
-            final JWSSigner signer = new ECDSASigner(this.privateKey);
             final SignedJWT signedJWT = new SignedJWT(new JWSHeader(algorithm), claims);
-            signedJWT.sign(signer);
+            signedJWT.sign(getSigner());
             return signedJWT;
         } catch (final JOSEException e) {
             throw new TechnicalException(e);
@@ -73,14 +76,33 @@ public class ECSignatureConfiguration extends AbstractSignatureConfiguration {
         init();
         CommonHelper.assertNotNull("publicKey", publicKey);
 
-        final JWSVerifier verifier = new ECDSAVerifier(this.publicKey);
-        return jwt.verify(verifier);
+        return jwt.verify(getVerifier());
+    }
+
+    private JWSSigner getSigner() throws JOSEException {
+        JWSSigner current = this.signer;
+        if (current == null) {
+            current = new ECDSASigner(this.privateKey);
+            this.signer = current;
+        }
+        return current;
+    }
+
+    private JWSVerifier getVerifier() throws JOSEException {
+        JWSVerifier current = this.verifier;
+        if (current == null) {
+            current = new ECDSAVerifier(this.publicKey);
+            this.verifier = current;
+        }
+        return current;
     }
 
     public void setKeyPair(final KeyPair keyPair) {
         CommonHelper.assertNotNull("keyPair", keyPair);
         this.privateKey = (ECPrivateKey) keyPair.getPrivate();
         this.publicKey = (ECPublicKey) keyPair.getPublic();
+        this.signer = null;
+        this.verifier = null;
     }
 
     public ECPublicKey getPublicKey() {
@@ -89,6 +111,7 @@ public class ECSignatureConfiguration extends AbstractSignatureConfiguration {
 
     public void setPublicKey(final ECPublicKey publicKey) {
         this.publicKey = publicKey;
+        this.verifier = null;
     }
 
     public ECPrivateKey getPrivateKey() {
@@ -97,6 +120,7 @@ public class ECSignatureConfiguration extends AbstractSignatureConfiguration {
 
     public void setPrivateKey(final ECPrivateKey privateKey) {
         this.privateKey = privateKey;
+        this.signer = null;
     }
 
     @Override
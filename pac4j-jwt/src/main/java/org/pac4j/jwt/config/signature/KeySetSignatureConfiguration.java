@@ -0,0 +1,82 @@
+package org.pac4j.jwt.config.signature;
+
+import com.nimbusds.jose.*;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.jwt.config.jwk.JwtKey;
+import org.pac4j.jwt.config.jwk.JwtKeySet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Signature configuration based on a {@link JwtKeySet}: tokens are signed with the active signature key (its identifier is set in
+ * the <code>kid</code> header) and verified with the key named by their <code>kid</code> header. Tokens without <code>kid</code>
+ * are verified with the keys of the same algorithm.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class KeySetSignatureConfiguration implements SignatureConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeySetSignatureConfiguration.class);
+
+    private final JwtKeySet keySet;
+
+    public KeySetSignatureConfiguration(final JwtKeySet keySet) {
+        CommonHelper.assertNotNull("keySet", keySet);
+        this.keySet = keySet;
+    }
+
+    @Override
+    public boolean supports(final JWSAlgorithm algorithm) {
+        return keySet.supports(algorithm);
+    }
+
+    @Override
+    public SignedJWT sign(final JWTClaimsSet claims) {
+        final JwtKey key = keySet.getSigningKey();
+        if (key == null) {
+            throw new TechnicalException("No active signature key with a private key");
+        }
+
+        try {
+            final JWSHeader header = new JWSHeader.Builder(key.getSignatureAlgorithm()).keyID(key.getKeyId()).build();
+            final SignedJWT signedJWT = new SignedJWT(header, claims);
+            signedJWT.sign(key.getSigner());
+            return signedJWT;
+        } catch (final JOSEException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    @Override
+    public boolean verify(final SignedJWT jwt) throws JOSEException {
+        final JWSHeader header = jwt.getHeader();
+        final String kid = header.getKeyID();
+        if (kid != null) {
+            final JwtKey key = keySet.getKey(kid);
+            if (key == null || !key.canVerify(header.getAlgorithm())) {
+                logger.debug("No signature key: {} for algorithm: {}", kid, header.getAlgorithm());
+                return false;
+            }
+            return jwt.verify(key.getVerifier());
+        }
+        for (final JwtKey key : keySet.getKeys()) {
+            if (key.canVerify(header.getAlgorithm()) && jwt.verify(key.getVerifier())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public JwtKeySet getKeySet() {
+        return keySet;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "keySet", keySet);
+    }
+}
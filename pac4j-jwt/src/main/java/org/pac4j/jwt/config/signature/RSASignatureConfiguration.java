@@ -24,6 +24,10 @@ public class RSASignatureConfiguration extends AbstractSignatureConfiguration {
 
     private RSAPrivateKey privateKey;
 
+    private volatile JWSSigner signer;
+
+    private volatile JWSVerifier verifier;
+
     public RSASignatureConfiguration() {
         algorithm = JWSAlgorithm.RS256;
     }
@@ -58,9 +62,8 @@ public class RSASignatureConfiguration extends AbstractSignatureConfiguration {
         CommonHelper.assertNotNull("privateKey", privateKey);
 
         try {
-            final JWSSigner signer = new RSASSASigner(this.privateKey);
             final SignedJWT signedJWT = new SignedJWT(new JWSHeader(algorithm), claims);
-            signedJWT.sign(signer);
+            signedJWT.sign(getSigner());
             return signedJWT;
         } catch (final JOSEException e) {
             throw new TechnicalException(e);
@@ -72,14 +75,33 @@ public class RSASignatureConfiguration extends AbstractSignatureConfiguration {
         init();
         CommonHelper.assertNotNull("publicKey", publicKey);
 
-        final JWSVerifier verifier = new RSASSAVerifier(this.publicKey);
-        return jwt.verify(verifier);
+        return jwt.verify(getVerifier());
+    }
+
+    private JWSSigner getSigner() {
+        JWSSigner current = this.signer;
+        if (current == null) {
+            current = new RSASSASigner(this.privateKey);
+            this.signer = current;
+        }
+        return current;
+    }
+
+    private JWSVerifier getVerifier() {
+        JWSVerifier current = this.verifier;
+        if (current == null) {
+            current = new RSASSAVerifier(this.publicKey);
+            this.verifier = current;
+        }
+        return current;
     }
 
     public void setKeyPair(final KeyPair keyPair) {
         CommonHelper.assertNotNull("keyPair", keyPair);
         this.privateKey = (RSAPrivateKey) keyPair.getPrivate();
         this.publicKey = (RSAPublicKey) keyPair.getPublic();
+        this.signer = null;
+        this.verifier = null;
     }
 
     public RSAPublicKey getPublicKey() {
@@ -88,6 +110,7 @@ public class RSASignatureConfiguration extends AbstractSignatureConfiguration {
 
     public void setPublicKey(final RSAPublicKey publicKey) {
         this.publicKey = publicKey;
+        this.verifier = null;
     }
 
     public RSAPrivateKey getPrivateKey() {
@@ -96,6 +119,7 @@ public class RSASignatureConfiguration extends AbstractSignatureConfiguration {
 
     public void setPrivateKey(final RSAPrivateKey privateKey) {
         this.privateKey = privateKey;
+        this.signer = null;
     }
 
     @Override
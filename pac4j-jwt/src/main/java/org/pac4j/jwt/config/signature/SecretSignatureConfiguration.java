@@ -18,6 +18,10 @@ public class SecretSignatureConfiguration extends AbstractSignatureConfiguration
 
     private String secret;
 
+    private volatile JWSSigner signer;
+
+    private volatile JWSVerifier verifier;
+
     public SecretSignatureConfiguration() {
         algorithm = JWSAlgorithm.HS256;
     }
@@ -52,9 +56,8 @@ public class SecretSignatureConfiguration extends AbstractSignatureConfiguration
         init();
 
         try {
-            final JWSSigner signer = new MACSigner(this.secret);
             final SignedJWT signedJWT = new SignedJWT(new JWSHeader(algorithm), claims);
-            signedJWT.sign(signer);
+            signedJWT.sign(getSigner());
             return signedJWT;
         } catch (final JOSEException e) {
             throw new TechnicalException(e);
@@ -65,8 +68,25 @@ public class SecretSignatureConfiguration extends AbstractSignatureConfiguration
     public boolean verify(final SignedJWT jwt) throws JOSEException {
         init();
 
-        final JWSVerifier verifier = new MACVerifier(this.secret);
-        return jwt.verify(verifier);
+        return jwt.verify(getVerifier());
+    }
+
+    private JWSSigner getSigner() throws JOSEException {
+        JWSSigner current = this.signer;
+        if (current == null) {
+            current = new MACSigner(this.secret);
+            this.signer = current;
+        }
+        return current;
+    }
+
+    private JWSVerifier getVerifier() throws JOSEException {
+        JWSVerifier current = this.verifier;
+        if (current == null) {
+            current = new MACVerifier(this.secret);
+            this.verifier = current;
+        }
+        return current;
     }
 
     public String getSecret() {
@@ -75,6 +95,8 @@ public class SecretSignatureConfiguration extends AbstractSignatureConfiguration
 
     public void setSecret(final String secret) {
         this.secret = secret;
+        this.signer = null;
+        this.verifier = null;
     }
 
     @Override
@@ -0,0 +1,164 @@
+package org.pac4j.jwt.config.jwk;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.Test;
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.core.util.TestsHelper;
+import org.pac4j.jwt.config.encryption.KeySetEncryptionConfiguration;
+import org.pac4j.jwt.config.signature.KeySetSignatureConfiguration;
+import org.pac4j.jwt.credentials.authenticator.JwtAuthenticator;
+import org.pac4j.jwt.profile.JwtGenerator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link JwtKeySet}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class JwtKeySetTests implements TestsConstants {
+
+    private static RSAKey buildRsaKey(final String kid, final KeyUse use) {
+        try {
+            final KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+            return new RSAKey.Builder((RSAPublicKey) keyPair.getPublic()).privateKey((RSAPrivateKey) keyPair.getPrivate())
+                    .keyID(kid).keyUse(use).build();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    private static OctetSequenceKey buildSecretKey(final String kid) {
+        return new OctetSequenceKey.Builder(MAC_SECRET.getBytes(StandardCharsets.UTF_8)).keyID(kid).build();
+    }
+
+    private JWTClaimsSet buildClaims() {
+        return new JWTClaimsSet.Builder().subject(VALUE).build();
+    }
+
+    @Test
+    public void testMissingKeyId() {
+        final JwtKeySet keySet = new JwtKeySet();
+        TestsHelper.expectException(() -> keySet.addKey(new OctetSequenceKey.Builder(MAC_SECRET.getBytes(StandardCharsets.UTF_8)).build(),
+                KeyState.ACTIVE), TechnicalException.class, "kid cannot be blank");
+    }
+
+    @Test
+    public void testSignVerifyByKeyId() throws JOSEException {
+        final JwtKeySet keySet = new JwtKeySet();
+        keySet.addKey(buildRsaKey("k1", null), KeyState.ACTIVE);
+        final KeySetSignatureConfiguration config = new KeySetSignatureConfiguration(keySet);
+        assertTrue(config.supports(JWSAlgorithm.RS256));
+        assertFalse(config.supports(JWSAlgorithm.RS512));
+
+        final SignedJWT signedJWT = config.sign(buildClaims());
+        assertEquals("k1", signedJWT.getHeader().getKeyID());
+        assertEquals(JWSAlgorithm.RS256, signedJWT.getHeader().getAlgorithm());
+        assertTrue(config.verify(signedJWT));
+    }
+
+    @Test
+    public void testRotation() throws JOSEException, ParseException {
+        final JwtKeySet keySet = new JwtKeySet();
+        keySet.addKey(buildRsaKey("k1", null), KeyState.ACTIVE);
+        final KeySetSignatureConfiguration config = new KeySetSignatureConfiguration(keySet);
+        final SignedJWT oldJwt = config.sign(buildClaims());
+
+        keySet.addKey(buildRsaKey("k2", null), KeyState.ACTIVE);
+        keySet.retire("k1");
+        assertEquals("k2", keySet.getSigningKey().getKeyId());
+        final SignedJWT newJwt = config.sign(buildClaims());
+        assertEquals("k2", newJwt.getHeader().getKeyID());
+        assertTrue(config.verify(SignedJWT.parse(oldJwt.serialize())));
+        assertTrue(config.verify(SignedJWT.parse(newJwt.serialize())));
+        assertEquals(2, keySet.getPublicJwkSet().getKeys().size());
+
+        keySet.removeKey("k1");
+        assertFalse(config.verify(SignedJWT.parse(oldJwt.serialize())));
+        assertTrue(config.verify(SignedJWT.parse(newJwt.serialize())));
+    }
+
+    @Test
+    public void testNoActiveSigningKey() {
+        final JwtKeySet keySet = new JwtKeySet();
+        keySet.addKey(buildRsaKey("k1", null).toPublicJWK(), KeyState.ACTIVE);
+        final KeySetSignatureConfiguration config = new KeySetSignatureConfiguration(keySet);
+        TestsHelper.expectException(() -> config.sign(buildClaims()), TechnicalException.class,
+                "No active signature key with a private key");
+    }
+
+    @Test
+    public void testEncryptDecrypt() throws JOSEException, ParseException {
+        final JwtKeySet keySet = new JwtKeySet();
+        keySet.addKey(buildRsaKey("enc1", KeyUse.ENCRYPTION), KeyState.ACTIVE);
+        keySet.addKey(buildSecretKey("sig1"), KeyState.ACTIVE);
+        final KeySetEncryptionConfiguration encryptionConfiguration = new KeySetEncryptionConfiguration(keySet);
+        final KeySetSignatureConfiguration signatureConfiguration = new KeySetSignatureConfiguration(keySet);
+
+        final String token = encryptionConfiguration.encrypt(signatureConfiguration.sign(buildClaims()));
+        final EncryptedJWT encryptedJWT = EncryptedJWT.parse(token);
+        assertEquals("enc1", encryptedJWT.getHeader().getKeyID());
+        assertTrue(encryptionConfiguration.supports(encryptedJWT.getHeader().getAlgorithm(), EncryptionMethod.A256GCM));
+        encryptionConfiguration.decrypt(encryptedJWT);
+        assertTrue(signatureConfiguration.verify(encryptedJWT.getPayload().toSignedJWT()));
+    }
+
+    @Test
+    public void testJwtAuthenticator() {
+        final JwtKeySet keySet = new JwtKeySet();
+        keySet.addKey(buildRsaKey("k1", null), KeyState.ACTIVE);
+        keySet.addKey(buildRsaKey("enc1", KeyUse.ENCRYPTION), KeyState.ACTIVE);
+        final KeySetSignatureConfiguration signatureConfiguration = new KeySetSignatureConfiguration(keySet);
+        final KeySetEncryptionConfiguration encryptionConfiguration = new KeySetEncryptionConfiguration(keySet);
+        final CommonProfile profile = new CommonProfile();
+        profile.setId(ID);
+
+        final String token = new JwtGenerator<>(signatureConfiguration, encryptionConfiguration).generate(profile);
+        keySet.addKey(buildRsaKey("k2", null), KeyState.ACTIVE);
+        keySet.retire("k1");
+        final CommonProfile validated = new JwtAuthenticator(signatureConfiguration, encryptionConfiguration).validateToken(token);
+        assertEquals(ID, validated.getId());
+    }
+
+    @Test
+    public void testPublish() throws ParseException {
+        final JwtKeySet keySet = new JwtKeySet();
+        keySet.addKey(buildRsaKey("k1", null), KeyState.RETIRING);
+        keySet.addKey(buildRsaKey("k2", null), KeyState.ACTIVE);
+        keySet.addKey(buildSecretKey("s1"), KeyState.ACTIVE);
+        final JwksPublisher publisher = new JwksPublisher(keySet);
+        final MockWebContext context = MockWebContext.create();
+        publisher.publish(context);
+
+        assertEquals(HttpConstants.OK, context.getResponseStatus());
+        assertEquals(JWKSet.MIME_TYPE, context.getResponseContentType());
+        final JWKSet published = JWKSet.parse(context.getResponseContent());
+        assertEquals(2, published.getKeys().size());
+        assertNotNull(published.getKeyByKeyId("k1"));
+        assertFalse(published.getKeyByKeyId("k2").isPrivate());
+        assertNull(published.getKeyByKeyId("s1"));
+        assertSame(publisher.getJson(), publisher.getJson());
+    }
+}
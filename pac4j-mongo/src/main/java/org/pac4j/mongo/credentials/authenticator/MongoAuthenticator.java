@@ -101,7 +101,7 @@ public class MongoAuthenticator extends AbstractUsernamePasswordAuthenticator {
         } else {
             final Map<String, Object> user = users.get(0);
             final String returnedPassword = (String) user.get(passwordAttribute);
-            if (!getPasswordEncoder().matches(credentials.getPassword(), returnedPassword)) {
+            if (!matchesPassword(username, credentials.getPassword(), returnedPassword)) {
                 throw new BadCredentialsException("Bad credentials for: " + username);
             } else {
                 final MongoProfile profile = createProfile(username, attributes.split(","), user);
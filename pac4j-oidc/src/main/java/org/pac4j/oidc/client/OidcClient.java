@@ -1,9 +1,13 @@
 package org.pac4j.oidc.client;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.pac4j.core.client.IndirectClientV2;
 import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.CredentialsException;
+import org.pac4j.core.exception.HttpAction;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.oidc.config.OidcConfiguration;
 import org.pac4j.oidc.credentials.OidcCredentials;
@@ -13,8 +17,10 @@ import org.pac4j.oidc.profile.OidcProfile;
 
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.oauth2.sdk.auth.ClientAuthenticationMethod;
+import com.nimbusds.openid.connect.sdk.Nonce;
 import org.pac4j.oidc.profile.creator.OidcProfileCreator;
 import org.pac4j.oidc.redirect.OidcRedirectActionBuilder;
+import org.pac4j.oidc.refresh.OidcTokenRefresher;
 
 /**
  * This class is the client to authenticate users with an OpenID Connect 1.0 provider.
@@ -29,6 +35,8 @@ public class OidcClient<U extends OidcProfile> extends IndirectClientV2<OidcCred
 
     private OidcConfiguration configuration = new OidcConfiguration();
 
+    private OidcTokenRefresher tokenRefresher;
+
     public OidcClient() { }
 
     public OidcClient(final OidcConfiguration oidcConfiguration) {
@@ -96,8 +104,73 @@ public class OidcClient<U extends OidcProfile> extends IndirectClientV2<OidcCred
 
         setRedirectActionBuilder(new OidcRedirectActionBuilder(configuration));
         setCredentialsExtractor(new OidcExtractor(configuration, getName()));
-        setAuthenticator(new OidcAuthenticator(configuration));
+        final OidcAuthenticator authenticator = new OidcAuthenticator(configuration);
+        setAuthenticator(authenticator);
         setProfileCreator(new OidcProfileCreator<U>(configuration, getProfileClass()));
+
+        if (tokenRefresher != null) {
+            tokenRefresher.shutdown();
+        }
+        final OidcProfileCreator<? extends OidcProfile> profileCreator = getProfileCreator() instanceof OidcProfileCreator
+                ? (OidcProfileCreator<? extends OidcProfile>) getProfileCreator() : null;
+        tokenRefresher = new OidcTokenRefresher(getName(), configuration, authenticator, profileCreator);
+    }
+
+    /**
+     * Refresh the tokens of the profiles of this client which are about to expire (to be called on each request,
+     * for example by a filter) and save them through the {@link org.pac4j.core.profile.ProfileManager}.
+     *
+     * @param context the web context
+     */
+    public void refreshTokensIfNeeded(final WebContext context) {
+        init(context);
+        tokenRefresher.refreshIfNeeded(context);
+    }
+
+    public OidcTokenRefresher getTokenRefresher() {
+        return tokenRefresher;
+    }
+
+    /**
+     * Non-blocking callback: the credentials and the nonce are read from the web context on the calling thread, then the token
+     * request runs on the executor, followed by the ID token validation and then the UserInfo request.
+     *
+     * The web context must not be used by the completion stages (except if the web framework allows it).
+     *
+     * @param context the web context
+     * @param executor the executor running the requests to the OpenID Connect provider
+     * @return the future user profile (<code>null</code> if there are no credentials)
+     * @throws HttpAction requested HTTP action if required
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<U> getUserProfileAsync(final WebContext context, final Executor executor) throws HttpAction {
+        init(context);
+        CommonHelper.assertNotNull("executor", executor);
+        CommonHelper.assertTrue(getAuthenticator() instanceof OidcAuthenticator, "authenticator must be an OidcAuthenticator");
+        CommonHelper.assertTrue(getProfileCreator() instanceof OidcProfileCreator, "profileCreator must be an OidcProfileCreator");
+        final OidcAuthenticator authenticator = (OidcAuthenticator) getAuthenticator();
+        final OidcProfileCreator<U> profileCreator = (OidcProfileCreator<U>) getProfileCreator();
+
+        final OidcCredentials credentials = extractCredentials(context);
+        updateAttemptedAuthentication(context, credentials);
+        if (credentials == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        profileCreator.init(context);
+        final Nonce nonce = profileCreator.retrieveNonce(context);
+        return authenticator.validateAsync(credentials, context, executor)
+                .thenCompose(c -> profileCreator.createAsync(c, nonce, executor))
+                .thenApply(this::completeUserProfile);
+    }
+
+    private OidcCredentials extractCredentials(final WebContext context) throws HttpAction {
+        try {
+            return getCredentialsExtractor().extract(context);
+        } catch (final CredentialsException e) {
+            logger.error("Failed to retrieve credentials", e);
+            return null;
+        }
     }
 
     @Deprecated
@@ -0,0 +1,116 @@
+package org.pac4j.oidc.config;
+
+import com.nimbusds.jose.util.AbstractRestrictedResourceRetriever;
+import com.nimbusds.jose.util.Resource;
+import org.pac4j.core.context.HttpConstants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Resource retriever which also returns how long the resource can be cached, based on the <code>Cache-Control</code> and
+ * <code>Expires</code> response headers.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class CacheControlResourceRetriever extends AbstractRestrictedResourceRetriever {
+
+    /* default size limit: 512 KB */
+    public static final int DEFAULT_SIZE_LIMIT = 512 * 1024;
+
+    public CacheControlResourceRetriever() {
+        this(HttpConstants.DEFAULT_CONNECT_TIMEOUT, HttpConstants.DEFAULT_READ_TIMEOUT);
+    }
+
+    public CacheControlResourceRetriever(final int connectTimeout, final int readTimeout) {
+        super(connectTimeout, readTimeout, DEFAULT_SIZE_LIMIT);
+    }
+
+    @Override
+    public Resource retrieveResource(final URL url) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setConnectTimeout(getConnectTimeout());
+            connection.setReadTimeout(getReadTimeout());
+            connection.setRequestProperty("Accept", "application/json");
+
+            final int code = connection.getResponseCode();
+            if (code != HttpConstants.OK) {
+                throw new IOException("HTTP " + code + ": " + connection.getResponseMessage());
+            }
+            final String content = read(connection.getInputStream());
+            return new CachedResource(content, connection.getContentType(), computeMaxAge(connection));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private String read(final InputStream inputStream) throws IOException {
+        try (final InputStream in = inputStream) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read = in.read(buffer);
+            while (read >= 0) {
+                if (getSizeLimit() > 0 && out.size() + read > getSizeLimit()) {
+                    throw new IOException("Exceeded configured input limit of " + getSizeLimit() + " bytes");
+                }
+                out.write(buffer, 0, read);
+                read = in.read(buffer);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Compute how long the resource can be cached.
+     *
+     * @param connection the HTTP connection
+     * @return the max age in milliseconds, or -1 if unknown
+     */
+    protected long computeMaxAge(final HttpURLConnection connection) {
+        final String cacheControl = connection.getHeaderField("Cache-Control");
+        if (cacheControl != null) {
+            for (final String directive : cacheControl.toLowerCase(Locale.ENGLISH).split(",")) {
+                final String trimmed = directive.trim();
+                if ("no-cache".equals(trimmed) || "no-store".equals(trimmed)) {
+                    return 0;
+                } else if (trimmed.startsWith("max-age=")) {
+                    try {
+                        return Math.max(0, Long.parseLong(trimmed.substring(8).trim()) * 1000L);
+                    } catch (final NumberFormatException e) {
+                        return -1;
+                    }
+                }
+            }
+        }
+        final long expires = connection.getExpiration();
+        if (expires > 0) {
+            final long date = connection.getDate() > 0 ? connection.getDate() : System.currentTimeMillis();
+            return Math.max(0, expires - date);
+        }
+        return -1;
+    }
+
+    /**
+     * A resource with its max age.
+     */
+    public static class CachedResource extends Resource {
+
+        private final long maxAge;
+
+        public CachedResource(final String content, final String contentType, final long maxAge) {
+            super(content, contentType);
+            this.maxAge = maxAge;
+        }
+
+        public long getMaxAge() {
+            return maxAge;
+        }
+    }
+}
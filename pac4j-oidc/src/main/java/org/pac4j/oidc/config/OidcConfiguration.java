@@ -1,19 +1,16 @@
 package org.pac4j.oidc.config;
 
 import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.util.DefaultResourceRetriever;
 import com.nimbusds.jose.util.ResourceRetriever;
-import com.nimbusds.oauth2.sdk.ParseException;
 import com.nimbusds.oauth2.sdk.auth.*;
 import com.nimbusds.openid.connect.sdk.op.OIDCProviderMetadata;
 import org.pac4j.core.context.HttpConstants;
 import org.pac4j.core.context.WebContext;
-import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.util.CommonHelper;
 import org.pac4j.core.util.InitializableWebObject;
+import org.pac4j.oidc.state.OidcStateStorage;
+import org.pac4j.oidc.state.SessionStateStorage;
 
-import java.io.IOException;
-import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -42,6 +39,15 @@ public class OidcConfiguration extends InitializableWebObject {
     /* default max clock skew */
     public static final int DEFAULT_MAX_CLOCK_SKEW = 30;
 
+    /* default delay (in seconds) before the expiration of the access token to refresh it */
+    public static final int DEFAULT_REFRESH_AHEAD = 60;
+
+    /* default delay (in seconds) before retrying a failed refresh of the same refresh token */
+    public static final int DEFAULT_REFRESH_RETRY_DELAY = 30;
+
+    /* default token cache timeout: 1 hour */
+    public static final int DEFAULT_TOKEN_CACHE_TIMEOUT = 3600;
+
     /* OpenID client identifier */
     private String clientId;
 
@@ -75,7 +81,25 @@ public class OidcConfiguration extends InitializableWebObject {
 
     private ResourceRetriever resourceRetriever;
 
-    private OIDCProviderMetadata providerMetadata;
+    /* refresh the provider metadata and JWK set in the background? (otherwise, the JWK set is only fetched again on key rotation) */
+    private boolean backgroundRefresh;
+
+    /* refresh interval (in milliseconds) when the provider sends no cache header */
+    private long defaultRefreshInterval = ProviderMetadataManager.DEFAULT_REFRESH_INTERVAL;
+
+    /* min interval (in milliseconds) between two fetches, also for unknown key identifiers */
+    private long minRefreshInterval = ProviderMetadataManager.DEFAULT_MIN_REFRESH_INTERVAL;
+
+    /* max interval (in milliseconds) between two background refreshes */
+    private long maxRefreshInterval = ProviderMetadataManager.DEFAULT_MAX_REFRESH_INTERVAL;
+
+    private ProviderMetadataManager metadataManager;
+
+    /* max number of validated tokens kept in cache (0 = no cache) */
+    private int tokenCacheSize;
+
+    /* max time (in seconds) a validated token is kept in cache, also bounded by its expiration time */
+    private int tokenCacheTimeout = DEFAULT_TOKEN_CACHE_TIMEOUT;
 
     private String callbackUrl;
 
@@ -83,6 +107,24 @@ public class OidcConfiguration extends InitializableWebObject {
 
     private String responseMode;
 
+    /* keep the tokens as strings and read the ID token claims from the ID token instead of copying them as attributes? */
+    private boolean compactProfile;
+
+    /* refresh the tokens this number of seconds before the access token expires */
+    private int refreshAhead = DEFAULT_REFRESH_AHEAD;
+
+    /* do not retry a failed refresh of the same refresh token during this number of seconds */
+    private int refreshRetryDelay = DEFAULT_REFRESH_RETRY_DELAY;
+
+    /* number of threads refreshing tokens */
+    private int refreshThreads = 2;
+
+    /* max number of pending token refreshes */
+    private int refreshQueueSize = 100;
+
+    /* where the state and nonce are kept until the callback */
+    private OidcStateStorage stateStorage;
+
     @Override
     protected void internalInit(final WebContext context) {
 
@@ -91,22 +133,33 @@ public class OidcConfiguration extends InitializableWebObject {
         CommonHelper.assertNotBlank("secret", secret);
         CommonHelper.assertNotBlank("discoveryURI", discoveryURI);
 
-        // default value
+        // default values
+        if (stateStorage == null) {
+            stateStorage = new SessionStateStorage();
+        }
         if (resourceRetriever == null) {
-            resourceRetriever = new DefaultResourceRetriever(connectTimeout, readTimeout);
+            resourceRetriever = new CacheControlResourceRetriever(connectTimeout, readTimeout);
         }
-        try {
-            // Download OIDC metadata
-            this.providerMetadata = OIDCProviderMetadata.parse(resourceRetriever.retrieveResource(
-                    new URL(getDiscoveryURI())).getContent());
 
-        } catch (final IOException | ParseException e) {
-            throw new TechnicalException(e);
+        // Download OIDC metadata and keys, then keep them up to date
+        if (metadataManager != null) {
+            metadataManager.stop();
         }
+        final ProviderMetadataManager manager = new ProviderMetadataManager(discoveryURI, resourceRetriever);
+        manager.setDefaultRefreshInterval(defaultRefreshInterval);
+        manager.setMinRefreshInterval(minRefreshInterval);
+        manager.setMaxRefreshInterval(maxRefreshInterval);
+        manager.start(backgroundRefresh);
+        this.metadataManager = manager;
     }
 
     public OIDCProviderMetadata getProviderMetadata() {
-        return this.providerMetadata;
+        final ProviderMetadataManager manager = this.metadataManager;
+        return manager != null ? manager.getProviderMetadata() : null;
+    }
+
+    public ProviderMetadataManager getMetadataManager() {
+        return metadataManager;
     }
 
     public String getClientId() {
@@ -238,11 +291,111 @@ public class OidcConfiguration extends InitializableWebObject {
         this.responseMode = responseMode;
     }
 
+    public boolean isBackgroundRefresh() {
+        return backgroundRefresh;
+    }
+
+    public void setBackgroundRefresh(final boolean backgroundRefresh) {
+        this.backgroundRefresh = backgroundRefresh;
+    }
+
+    public long getDefaultRefreshInterval() {
+        return defaultRefreshInterval;
+    }
+
+    public void setDefaultRefreshInterval(final long defaultRefreshInterval) {
+        this.defaultRefreshInterval = defaultRefreshInterval;
+    }
+
+    public long getMinRefreshInterval() {
+        return minRefreshInterval;
+    }
+
+    public void setMinRefreshInterval(final long minRefreshInterval) {
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    public long getMaxRefreshInterval() {
+        return maxRefreshInterval;
+    }
+
+    public void setMaxRefreshInterval(final long maxRefreshInterval) {
+        this.maxRefreshInterval = maxRefreshInterval;
+    }
+
+    public int getTokenCacheSize() {
+        return tokenCacheSize;
+    }
+
+    public void setTokenCacheSize(final int tokenCacheSize) {
+        this.tokenCacheSize = tokenCacheSize;
+    }
+
+    public int getTokenCacheTimeout() {
+        return tokenCacheTimeout;
+    }
+
+    public void setTokenCacheTimeout(final int tokenCacheTimeout) {
+        this.tokenCacheTimeout = tokenCacheTimeout;
+    }
+
+    public boolean isCompactProfile() {
+        return compactProfile;
+    }
+
+    public void setCompactProfile(final boolean compactProfile) {
+        this.compactProfile = compactProfile;
+    }
+
+    public int getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    public void setRefreshAhead(final int refreshAhead) {
+        this.refreshAhead = refreshAhead;
+    }
+
+    public int getRefreshRetryDelay() {
+        return refreshRetryDelay;
+    }
+
+    public void setRefreshRetryDelay(final int refreshRetryDelay) {
+        this.refreshRetryDelay = refreshRetryDelay;
+    }
+
+    public int getRefreshThreads() {
+        return refreshThreads;
+    }
+
+    public void setRefreshThreads(final int refreshThreads) {
+        this.refreshThreads = refreshThreads;
+    }
+
+    public int getRefreshQueueSize() {
+        return refreshQueueSize;
+    }
+
+    public void setRefreshQueueSize(final int refreshQueueSize) {
+        this.refreshQueueSize = refreshQueueSize;
+    }
+
+    public OidcStateStorage getStateStorage() {
+        return stateStorage;
+    }
+
+    public void setStateStorage(final OidcStateStorage stateStorage) {
+        this.stateStorage = stateStorage;
+    }
+
     @Override
     public String toString() {
         return CommonHelper.toString(this.getClass(), "clientId", clientId, "discoveryURI", discoveryURI, "scope", scope, "customParams", customParams,
                 "clientAuthenticationMethod", clientAuthenticationMethod, "useNonce", useNonce, "preferredJwsAlgorithm", preferredJwsAlgorithm,
                 "maxClockSkew", maxClockSkew, "connectTimeout", connectTimeout, "readTimeout", readTimeout, "resourceRetriever", resourceRetriever,
-                "callbackUrl", callbackUrl, "responseType", responseType, "responseMode", responseMode);
+                "callbackUrl", callbackUrl, "responseType", responseType, "responseMode", responseMode,
+                "stateStorage", stateStorage, "backgroundRefresh", backgroundRefresh, "defaultRefreshInterval", defaultRefreshInterval,
+                "minRefreshInterval", minRefreshInterval, "maxRefreshInterval", maxRefreshInterval, "tokenCacheSize", tokenCacheSize,
+                "tokenCacheTimeout", tokenCacheTimeout, "compactProfile", compactProfile, "refreshAhead", refreshAhead,
+                "refreshRetryDelay", refreshRetryDelay, "refreshThreads", refreshThreads, "refreshQueueSize", refreshQueueSize);
     }
 }
@@ -0,0 +1,261 @@
+package org.pac4j.oidc.config;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.Resource;
+import com.nimbusds.jose.util.ResourceRetriever;
+import com.nimbusds.oauth2.sdk.ParseException;
+import com.nimbusds.openid.connect.sdk.op.OIDCProviderMetadata;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the OpenID Connect provider metadata and its JWK set up to date.
+ *
+ * Both are fetched at startup and, if enabled, refreshed in the background (by a single scheduler thread shared by the whole JVM) according to
+ * their cache headers, bounded by {@link #getMinRefreshInterval()} and {@link #getMaxRefreshInterval()}. When a token is signed
+ * with an unknown key identifier (key rotation) or when the JWK set is empty, the JWK set is fetched again immediately, by a single
+ * thread and at most once every {@link #getMinRefreshInterval()} after a successful fetch. If the provider is down, the last-known-good metadata and JWK set are still served.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class ProviderMetadataManager implements JWKSource<SecurityContext> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderMetadataManager.class);
+
+    /* default refresh interval when there is no cache header: 1 hour */
+    public static final long DEFAULT_REFRESH_INTERVAL = 60 * 60 * 1000L;
+
+    /* default min refresh interval: 1 minute */
+    public static final long DEFAULT_MIN_REFRESH_INTERVAL = 60 * 1000L;
+
+    /* default max refresh interval: 24 hours */
+    public static final long DEFAULT_MAX_REFRESH_INTERVAL = 24 * 60 * 60 * 1000L;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "pac4j-oidc-metadata-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String discoveryURI;
+
+    private final ResourceRetriever resourceRetriever;
+
+    private long defaultRefreshInterval = DEFAULT_REFRESH_INTERVAL;
+
+    private long minRefreshInterval = DEFAULT_MIN_REFRESH_INTERVAL;
+
+    private long maxRefreshInterval = DEFAULT_MAX_REFRESH_INTERVAL;
+
+    private volatile OIDCProviderMetadata providerMetadata;
+
+    private volatile JWKSet jwkSet = new JWKSet();
+
+    private volatile long lastJwkSetFetch;
+
+    private final Object jwkSetLock = new Object();
+
+    private ScheduledFuture<?> refreshTask;
+
+    private final AtomicInteger nbFetches = new AtomicInteger();
+
+    public ProviderMetadataManager(final String discoveryURI, final ResourceRetriever resourceRetriever) {
+        CommonHelper.assertNotBlank("discoveryURI", discoveryURI);
+        CommonHelper.assertNotNull("resourceRetriever", resourceRetriever);
+        this.discoveryURI = discoveryURI;
+        this.resourceRetriever = resourceRetriever;
+    }
+
+    /**
+     * Fetch the metadata (which must succeed) and the JWK set, then schedule the background refresh.
+     *
+     * @param backgroundRefresh whether the background refresh must be scheduled
+     */
+    public synchronized void start(final boolean backgroundRefresh) {
+        final long metadataMaxAge;
+        try {
+            metadataMaxAge = fetchMetadata();
+        } catch (final IOException | ParseException e) {
+            throw new TechnicalException(e);
+        }
+        long jwkSetMaxAge = -1;
+        try {
+            jwkSetMaxAge = fetchJwkSet();
+        } catch (final IOException | java.text.ParseException e) {
+            logger.warn("Cannot fetch the JWK set at startup, it will be fetched on demand", e);
+        }
+        if (backgroundRefresh) {
+            scheduleRefresh(nextRefresh(metadataMaxAge, jwkSetMaxAge));
+        }
+    }
+
+    /**
+     * Cancel the background refresh.
+     */
+    public synchronized void stop() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+            refreshTask = null;
+        }
+    }
+
+    private synchronized void scheduleRefresh(final long delay) {
+        logger.debug("Next refresh of the provider metadata {} in {} ms", discoveryURI, delay);
+        refreshTask = SCHEDULER.schedule(this::refresh, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Refresh the metadata and the JWK set, keeping the previous ones on failure.
+     */
+    protected void refresh() {
+        long metadataMaxAge;
+        long jwkSetMaxAge;
+        try {
+            metadataMaxAge = fetchMetadata();
+        } catch (final IOException | ParseException | RuntimeException e) {
+            logger.warn("Cannot refresh the provider metadata: {}, keeping the last-known-good ones", discoveryURI, e);
+            metadataMaxAge = 0;
+        }
+        try {
+            jwkSetMaxAge = fetchJwkSet();
+        } catch (final IOException | java.text.ParseException | RuntimeException e) {
+            logger.warn("Cannot refresh the JWK set of: {}, keeping the last-known-good one", discoveryURI, e);
+            jwkSetMaxAge = 0;
+        }
+        synchronized (this) {
+            if (refreshTask != null) {
+                scheduleRefresh(nextRefresh(metadataMaxAge, jwkSetMaxAge));
+            }
+        }
+    }
+
+    private long nextRefresh(final long metadataMaxAge, final long jwkSetMaxAge) {
+        final long metadataDelay = metadataMaxAge < 0 ? defaultRefreshInterval : metadataMaxAge;
+        final long jwkSetDelay = jwkSetMaxAge < 0 ? defaultRefreshInterval : jwkSetMaxAge;
+        return Math.max(minRefreshInterval, Math.min(maxRefreshInterval, Math.min(metadataDelay, jwkSetDelay)));
+    }
+
+    private long fetchMetadata() throws IOException, ParseException {
+        final Resource resource = resourceRetriever.retrieveResource(new URL(discoveryURI));
+        nbFetches.incrementAndGet();
+        this.providerMetadata = OIDCProviderMetadata.parse(resource.getContent());
+        return maxAge(resource);
+    }
+
+    private long fetchJwkSet() throws IOException, java.text.ParseException {
+        final OIDCProviderMetadata metadata = this.providerMetadata;
+        final URI jwkSetURI = metadata != null ? metadata.getJWKSetURI() : null;
+        if (jwkSetURI == null) {
+            return -1;
+        }
+        final Resource resource = resourceRetriever.retrieveResource(jwkSetURI.toURL());
+        nbFetches.incrementAndGet();
+        this.jwkSet = JWKSet.parse(resource.getContent());
+        // only a successful fetch delays the next on-demand one
+        lastJwkSetFetch = System.currentTimeMillis();
+        return maxAge(resource);
+    }
+
+    private static long maxAge(final Resource resource) {
+        if (resource instanceof CacheControlResourceRetriever.CachedResource) {
+            return ((CacheControlResourceRetriever.CachedResource) resource).getMaxAge();
+        }
+        return -1;
+    }
+
+    @Override
+    public List<JWK> get(final JWKSelector jwkSelector, final SecurityContext context) {
+        final JWKSet currentJwkSet = this.jwkSet;
+        final List<JWK> keys = select(jwkSelector, currentJwkSet);
+        if (!keys.isEmpty() || !hasKeyId(jwkSelector) && !isEmpty(currentJwkSet)) {
+            return keys;
+        }
+        // no JWK set or unknown key identifier: the keys may have been rotated
+        synchronized (jwkSetLock) {
+            if (this.jwkSet == currentJwkSet && System.currentTimeMillis() - lastJwkSetFetch >= minRefreshInterval) {
+                logger.debug("No JWK set or unknown key identifier(s): {}, fetching the JWK set again",
+                        jwkSelector.getMatcher().getKeyIDs());
+                try {
+                    fetchJwkSet();
+                } catch (final IOException | java.text.ParseException e) {
+                    logger.warn("Cannot fetch the JWK set of: {}, keeping the last-known-good one", discoveryURI, e);
+                }
+            }
+        }
+        return select(jwkSelector, this.jwkSet);
+    }
+
+    private static List<JWK> select(final JWKSelector jwkSelector, final JWKSet jwkSet) {
+        return jwkSet != null ? jwkSelector.select(jwkSet) : Collections.emptyList();
+    }
+
+    private static boolean isEmpty(final JWKSet jwkSet) {
+        return jwkSet == null || jwkSet.getKeys().isEmpty();
+    }
+
+    private static boolean hasKeyId(final JWKSelector jwkSelector) {
+        final java.util.Set<String> keyIds = jwkSelector.getMatcher().getKeyIDs();
+        return keyIds != null && !keyIds.isEmpty() && !keyIds.equals(Collections.singleton(null));
+    }
+
+    public OIDCProviderMetadata getProviderMetadata() {
+        return providerMetadata;
+    }
+
+    public JWKSet getJwkSet() {
+        return jwkSet;
+    }
+
+    public int getNbFetches() {
+        return nbFetches.get();
+    }
+
+    public long getDefaultRefreshInterval() {
+        return defaultRefreshInterval;
+    }
+
+    public void setDefaultRefreshInterval(final long defaultRefreshInterval) {
+        this.defaultRefreshInterval = defaultRefreshInterval;
+    }
+
+    public long getMinRefreshInterval() {
+        return minRefreshInterval;
+    }
+
+    public void setMinRefreshInterval(final long minRefreshInterval) {
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    public long getMaxRefreshInterval() {
+        return maxRefreshInterval;
+    }
+
+    public void setMaxRefreshInterval(final long maxRefreshInterval) {
+        this.maxRefreshInterval = maxRefreshInterval;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "discoveryURI", discoveryURI, "resourceRetriever", resourceRetriever,
+                "defaultRefreshInterval", defaultRefreshInterval, "minRefreshInterval", minRefreshInterval,
+                "maxRefreshInterval", maxRefreshInterval);
+    }
+}
@@ -5,6 +5,8 @@ import com.nimbusds.oauth2.sdk.auth.*;
 import com.nimbusds.oauth2.sdk.http.HTTPRequest;
 import com.nimbusds.oauth2.sdk.http.HTTPResponse;
 import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import com.nimbusds.oauth2.sdk.token.Tokens;
 import com.nimbusds.openid.connect.sdk.OIDCTokenResponse;
 import com.nimbusds.openid.connect.sdk.OIDCTokenResponseParser;
 import com.nimbusds.openid.connect.sdk.token.OIDCTokens;
@@ -16,6 +18,7 @@ import org.pac4j.core.util.CommonHelper;
 import org.pac4j.core.util.InitializableWebObject;
 import org.pac4j.oidc.config.OidcConfiguration;
 import org.pac4j.oidc.credentials.OidcCredentials;
+import org.pac4j.oidc.exception.OidcTokenErrorException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,6 +26,8 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * The OpenID Connect authenticator.
@@ -84,6 +89,37 @@ public class OidcAuthenticator extends InitializableWebObject implements Authent
     public void validate(final OidcCredentials credentials, final WebContext context) throws HttpAction {
         init(context);
 
+        requestTokens(credentials);
+    }
+
+    /**
+     * Non-blocking version of {@link #validate(OidcCredentials, WebContext)}: the token request runs on the executor.
+     *
+     * @param credentials the credentials
+     * @param context the web context (only used on the calling thread)
+     * @param executor the executor running the token request
+     * @return the future credentials, with their tokens
+     */
+    public CompletableFuture<OidcCredentials> validateAsync(final OidcCredentials credentials, final WebContext context,
+                                                            final Executor executor) {
+        init(context);
+        CommonHelper.assertNotNull("executor", executor);
+
+        if (credentials.getCode() == null) {
+            return CompletableFuture.completedFuture(credentials);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            requestTokens(credentials);
+            return credentials;
+        }, executor);
+    }
+
+    /**
+     * Exchange the authorization code (if any) for tokens at the token endpoint and save them in the credentials.
+     *
+     * @param credentials the credentials
+     */
+    protected void requestTokens(final OidcCredentials credentials) {
         final AuthorizationCode code = credentials.getCode();
         // if we have a code
         if (code != null) {
@@ -118,6 +154,46 @@ public class OidcAuthenticator extends InitializableWebObject implements Authent
         }
     }
 
+    /**
+     * Get new tokens from the token endpoint using a refresh token.
+     *
+     * @param refreshToken the refresh token
+     * @return the new tokens ({@link OIDCTokens} if the response contains an ID token)
+     * @throws OidcTokenErrorException if the token endpoint returns an error
+     */
+    public Tokens refreshTokens(final RefreshToken refreshToken) {
+        CommonHelper.assertNotNull("clientAuthentication", clientAuthentication);
+        CommonHelper.assertNotNull("refreshToken", refreshToken);
+        try {
+            final TokenRequest request = new TokenRequest(configuration.getProviderMetadata().getTokenEndpointURI(), this.clientAuthentication,
+                    new RefreshTokenGrant(refreshToken));
+            final HTTPRequest tokenHttpRequest = request.toHTTPRequest();
+            tokenHttpRequest.setConnectTimeout(configuration.getConnectTimeout());
+            tokenHttpRequest.setReadTimeout(configuration.getReadTimeout());
+
+            final HTTPResponse httpResponse = tokenHttpRequest.send();
+            logger.debug("Refresh token response: status={}", httpResponse.getStatusCode());
+
+            // the ID token is optional in a refresh response
+            final TokenResponse response;
+            if (httpResponse.getStatusCode() == HTTPResponse.SC_OK && httpResponse.getContentAsJSONObject().containsKey("id_token")) {
+                response = OIDCTokenResponseParser.parse(httpResponse);
+            } else {
+                response = TokenResponse.parse(httpResponse);
+            }
+            if (response instanceof TokenErrorResponse) {
+                final ErrorObject error = ((TokenErrorResponse) response).getErrorObject();
+                throw new OidcTokenErrorException("Bad refresh token response, error=" + error, error != null ? error.getCode() : null);
+            }
+            if (response instanceof OIDCTokenResponse) {
+                return ((OIDCTokenResponse) response).getOIDCTokens();
+            }
+            return ((AccessTokenResponse) response).getTokens();
+        } catch (final IOException | ParseException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
     public OidcConfiguration getConfiguration() {
         return configuration;
     }
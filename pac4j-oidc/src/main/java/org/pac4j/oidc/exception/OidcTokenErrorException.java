@@ -0,0 +1,30 @@
+package org.pac4j.oidc.exception;
+
+import org.pac4j.core.exception.TechnicalException;
+
+/**
+ * This class represents an error response of the token endpoint of the OpenID Connect provider.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class OidcTokenErrorException extends TechnicalException {
+
+    private static final long serialVersionUID = 4417617224963624391L;
+
+    private final String errorCode;
+
+    public OidcTokenErrorException(final String message, final String errorCode) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Return the error code (like <code>invalid_grant</code>).
+     *
+     * @return the error code (may be <code>null</code>)
+     */
+    public String getErrorCode() {
+        return errorCode;
+    }
+}
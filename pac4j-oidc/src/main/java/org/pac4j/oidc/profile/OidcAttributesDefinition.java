@@ -41,6 +41,7 @@ public class OidcAttributesDefinition extends AttributesDefinition {
     public static final String ACCESS_TOKEN = "access_token";
     public static final String ID_TOKEN = "id_token";
     public static final String REFRESH_TOKEN = "refresh_token";
+    public static final String ACCESS_TOKEN_EXPIRATION = "access_token_expiration";
     public static final String ISSUER          = "iss";
     public static final String SUBJECT         = "sub";
     public static final String AUDIENCE        = "aud";
@@ -87,5 +88,6 @@ public class OidcAttributesDefinition extends AttributesDefinition {
         Arrays.stream(new String[] {SUBJECT, ISSUER, NONCE, ACR, AZP}).forEach(a -> primary(a, Converters.STRING));
         Arrays.stream(new String[] {EXPIRATION_TIME, ISSUED_AT, NBF}).forEach(a -> primary(a, Converters.DATE_TZ_GENERAL));
         primary(AUTH_TIME, new OidcLongTimeConverter());
+        primary(ACCESS_TOKEN_EXPIRATION, Converters.DATE_TZ_GENERAL);
     }
 }
@@ -3,6 +3,7 @@ package org.pac4j.oidc.profile;
 import com.nimbusds.jwt.JWT;
 import com.nimbusds.jwt.JWTParser;
 import com.nimbusds.oauth2.sdk.token.AccessToken;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
 import com.nimbusds.oauth2.sdk.token.RefreshToken;
 import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.profile.AttributesDefinition;
@@ -15,6 +16,9 @@ import java.util.*;
 /**
  * <p>This class is the user profile for sites using OpenID Connect protocol.</p>
  * <p>It is returned by the {@link OidcClient}.</p>
+ * <p>Compact profiles keep the tokens as strings and do not copy the claims of the ID token as attributes: the missing
+ * attributes are read from the ID token itself, which is parsed only once. Thus, for these profiles, removing an attribute
+ * which is a claim of the ID token does not hide the claim.</p>
  *
  * @author Michael Remond
  * @version 1.7.0
@@ -27,11 +31,25 @@ public class OidcProfile extends CommonProfile {
 
     private transient final static AttributesDefinition ATTRIBUTES_DEFINITION = new OidcAttributesDefinition();
 
+    private transient volatile JWT idToken;
+
+    private transient volatile Map<String, Object> idTokenClaims;
+
     @Override
     public AttributesDefinition getAttributesDefinition() {
         return ATTRIBUTES_DEFINITION;
     }
 
+    /**
+     * Whether this profile is a compact one: its tokens are kept as strings (see {@link #setCompactTokens(AccessToken, RefreshToken)}).
+     *
+     * @return whether this profile is a compact one
+     */
+    public boolean isCompact() {
+        return super.getAttribute(OidcAttributesDefinition.ACCESS_TOKEN) instanceof String
+                || super.getAttribute(OidcAttributesDefinition.REFRESH_TOKEN) instanceof String;
+    }
+
     @Override
     public String getFirstName() {
         return (String) getAttribute(OidcAttributesDefinition.GIVEN_NAME);
@@ -137,7 +155,28 @@ public class OidcProfile extends CommonProfile {
     }
 
     public AccessToken getAccessToken() {
-        return (AccessToken) getAttribute(OidcAttributesDefinition.ACCESS_TOKEN);
+        final Object accessToken = getAttribute(OidcAttributesDefinition.ACCESS_TOKEN);
+        if (accessToken instanceof String) {
+            return new BearerAccessToken((String) accessToken);
+        }
+        return (AccessToken) accessToken;
+    }
+
+    /**
+     * Return when the access token expires (if known).
+     *
+     * @return the expiration date of the access token
+     */
+    public Date getAccessTokenExpiration() {
+        return (Date) getAttribute(OidcAttributesDefinition.ACCESS_TOKEN_EXPIRATION);
+    }
+
+    public void setAccessTokenExpiration(final Date expiration) {
+        if (expiration == null) {
+            removeAttribute(OidcAttributesDefinition.ACCESS_TOKEN_EXPIRATION);
+        } else {
+            addAttribute(OidcAttributesDefinition.ACCESS_TOKEN_EXPIRATION, expiration);
+        }
     }
 
     public String getIdTokenString() {
@@ -149,23 +188,145 @@ public class OidcProfile extends CommonProfile {
     }
 
     public JWT getIdToken() {
-        try {
-            return JWTParser.parse(getIdTokenString());
-        } catch (final ParseException e) {
-            throw new TechnicalException(e);
+        JWT jwt = this.idToken;
+        if (jwt == null) {
+            final String idTokenString = getIdTokenString();
+            if (idTokenString == null) {
+                return null;
+            }
+            try {
+                jwt = JWTParser.parse(idTokenString);
+            } catch (final ParseException e) {
+                throw new TechnicalException(e);
+            }
+            this.idToken = jwt;
         }
+        return jwt;
     }
 
     public RefreshToken getRefreshToken() {
-        return (RefreshToken) getAttribute(OidcAttributesDefinition.REFRESH_TOKEN);
+        final Object refreshToken = getAttribute(OidcAttributesDefinition.REFRESH_TOKEN);
+        if (refreshToken instanceof String) {
+            return new RefreshToken((String) refreshToken);
+        }
+        return (RefreshToken) refreshToken;
     }
 
     public void setRefreshToken(final RefreshToken refreshToken) {
         addAttribute(OidcAttributesDefinition.REFRESH_TOKEN, refreshToken);
     }
 
+    /**
+     * Store the tokens as compact strings instead of Nimbus objects, which makes this profile a compact one.
+     *
+     * @param accessToken the access token
+     * @param refreshToken the refresh token
+     */
+    public void setCompactTokens(final AccessToken accessToken, final RefreshToken refreshToken) {
+        // stored as is: the attributes definition would convert them back to Nimbus objects
+        if (accessToken != null) {
+            addAttributeWithoutConversion(OidcAttributesDefinition.ACCESS_TOKEN, accessToken.getValue());
+        }
+        if (refreshToken != null) {
+            addAttributeWithoutConversion(OidcAttributesDefinition.REFRESH_TOKEN, refreshToken.getValue());
+        }
+    }
+
+    /**
+     * Return the (converted) claims of the ID token, decoded once.
+     *
+     * @return the claims of the ID token
+     */
+    protected Map<String, Object> getIdTokenClaims() {
+        Map<String, Object> claims = this.idTokenClaims;
+        if (claims == null) {
+            claims = new HashMap<>();
+            final String idTokenString = getIdTokenString();
+            if (idTokenString != null) {
+                try {
+                    for (final Map.Entry<String, Object> entry : getIdToken().getJWTClaimsSet().getClaims().entrySet()) {
+                        final Object value = getAttributesDefinition().convert(entry.getKey(), entry.getValue());
+                        if (value != null) {
+                            claims.put(entry.getKey(), value);
+                        }
+                    }
+                } catch (final ParseException | TechnicalException e) {
+                    logger.debug("Cannot read the claims of the ID token", e);
+                    claims.clear();
+                }
+            }
+            this.idTokenClaims = claims;
+        }
+        return claims;
+    }
+
+    @Override
+    public void addAttribute(final String key, final Object value) {
+        super.addAttribute(key, value);
+        if (OidcAttributesDefinition.ID_TOKEN.equals(key)) {
+            resetIdToken();
+        }
+    }
+
+    @Override
+    public void removeAttribute(final String key) {
+        super.removeAttribute(key);
+        if (OidcAttributesDefinition.ID_TOKEN.equals(key)) {
+            resetIdToken();
+        }
+    }
+
+    private void resetIdToken() {
+        this.idToken = null;
+        this.idTokenClaims = null;
+    }
+
+    @Override
+    public Object getAttribute(final String name) {
+        final Object value = super.getAttribute(name);
+        if (value == null && !OidcAttributesDefinition.ID_TOKEN.equals(name) && super.containsAttribute(OidcAttributesDefinition.ID_TOKEN)
+                && isCompact()) {
+            return getIdTokenClaims().get(name);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsAttribute(final String name) {
+        if (super.containsAttribute(name)) {
+            return true;
+        }
+        return super.containsAttribute(OidcAttributesDefinition.ID_TOKEN) && isCompact() && getIdTokenClaims().containsKey(name);
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        final Map<String, Object> attributes = super.getAttributes();
+        if (!attributes.containsKey(OidcAttributesDefinition.ID_TOKEN) || !isCompact()) {
+            return attributes;
+        }
+        Map<String, Object> merged = null;
+        for (final Map.Entry<String, Object> entry : getIdTokenClaims().entrySet()) {
+            if (!attributes.containsKey(entry.getKey())) {
+                if (merged == null) {
+                    merged = new HashMap<>(attributes);
+                }
+                merged.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return merged == null ? attributes : Collections.unmodifiableMap(merged);
+    }
+
     @Override
     public void clearSensitiveData() {
+        // keep the claims of the ID token as attributes
+        if (super.containsAttribute(OidcAttributesDefinition.ID_TOKEN) && isCompact()) {
+            for (final Map.Entry<String, Object> entry : getIdTokenClaims().entrySet()) {
+                if (!super.containsAttribute(entry.getKey())) {
+                    super.addAttribute(entry.getKey(), entry.getValue());
+                }
+            }
+        }
         removeAttribute(OidcAttributesDefinition.ACCESS_TOKEN);
         removeAttribute(OidcAttributesDefinition.ID_TOKEN);
         removeAttribute(OidcAttributesDefinition.REFRESH_TOKEN);
@@ -3,6 +3,7 @@ package org.pac4j.oidc.profile.creator;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jwt.JWT;
 import com.nimbusds.oauth2.sdk.ParseException;
 import com.nimbusds.oauth2.sdk.auth.Secret;
@@ -30,9 +31,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static org.pac4j.core.util.CommonHelper.assertNotNull;
 
@@ -52,6 +56,8 @@ public class OidcProfileCreator<U extends OidcProfile> extends InitializableWebO
 
     protected IDTokenValidator idTokenValidator;
 
+    private ValidatedTokenCache tokenCache;
+
     public OidcProfileCreator() {}
 
     public OidcProfileCreator(final OidcConfiguration configuration, final Class<U> clazz) {
@@ -92,15 +98,18 @@ public class OidcProfileCreator<U extends OidcProfile> extends InitializableWebO
             this.idTokenValidator = createRSATokenValidator(jwsAlgorithm, _clientID);
         }
         this.idTokenValidator.setMaxClockSkew(configuration.getMaxClockSkew());
+
+        if (configuration.getTokenCacheSize() > 0) {
+            this.tokenCache = new ValidatedTokenCache(configuration.getTokenCacheSize(), configuration.getTokenCacheTimeout(), TimeUnit.SECONDS);
+        } else {
+            this.tokenCache = null;
+        }
     }
 
     protected IDTokenValidator createRSATokenValidator(final JWSAlgorithm jwsAlgorithm, final ClientID clientID) {
-        try {
-            return new IDTokenValidator(configuration.getProviderMetadata().getIssuer(), clientID, jwsAlgorithm,
-                    configuration.getProviderMetadata().getJWKSetURI().toURL(), configuration.getResourceRetriever());
-        } catch (final MalformedURLException e) {
-            throw new TechnicalException(e);
-        }
+        // keys are cached and refreshed by the metadata manager (unknown key identifiers trigger a new fetch)
+        return new IDTokenValidator(configuration.getProviderMetadata().getIssuer(), clientID,
+                new JWSVerificationKeySelector(jwsAlgorithm, configuration.getMetadataManager()), null);
     }
 
     protected IDTokenValidator createHMACTokenValidator(final JWSAlgorithm jwsAlgorithm, final ClientID clientID, final Secret secret) {
@@ -108,75 +117,188 @@ public class OidcProfileCreator<U extends OidcProfile> extends InitializableWebO
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public U create(final OidcCredentials credentials, final WebContext context) throws HttpAction {
         init(context);
 
-        final AccessToken accessToken = credentials.getAccessToken();
+        final String cacheKey = computeCacheKey(credentials);
+        final U cachedProfile = getCachedProfile(cacheKey, credentials);
+        if (cachedProfile != null) {
+            return cachedProfile;
+        }
+
+        final IDTokenClaimsSet claimsSet = validateIdToken(credentials.getIdToken(), retrieveNonce(context));
+        final UserInfo userInfo = fetchUserInfo(credentials.getAccessToken());
+        return buildProfile(credentials, claimsSet, userInfo, cacheKey);
+    }
+
+    /**
+     * Non-blocking version of {@link #create(OidcCredentials, WebContext)}: the nonce is read from the web context on the calling
+     * thread, then the ID token is validated and the UserInfo request is sent (only after a successful validation) on the executor.
+     *
+     * @param credentials the credentials
+     * @param context the web context
+     * @param executor the executor running the validation and the UserInfo request
+     * @return the future user profile
+     */
+    public CompletableFuture<U> createAsync(final OidcCredentials credentials, final WebContext context, final Executor executor) {
+        init(context);
+        return createAsync(credentials, retrieveNonce(context), executor);
+    }
+
+    /**
+     * Non-blocking profile creation when the nonce is already known (the web context must not be used from the executor threads).
+     *
+     * @param credentials the credentials
+     * @param nonce the expected nonce (may be <code>null</code>)
+     * @param executor the executor running the validation and the UserInfo request
+     * @return the future user profile
+     */
+    public CompletableFuture<U> createAsync(final OidcCredentials credentials, final Nonce nonce, final Executor executor) {
+        assertNotNull("idTokenValidator", idTokenValidator);
+        assertNotNull("executor", executor);
+
+        final String cacheKey = computeCacheKey(credentials);
+        final U cachedProfile = getCachedProfile(cacheKey, credentials);
+        if (cachedProfile != null) {
+            return CompletableFuture.completedFuture(cachedProfile);
+        }
+
+        // no UserInfo request for an invalid ID token
+        return CompletableFuture.supplyAsync(() -> validateIdToken(credentials.getIdToken(), nonce), executor)
+                .thenCompose(claimsSet -> CompletableFuture.supplyAsync(() -> fetchUserInfo(credentials.getAccessToken()), executor)
+                        .thenApply(userInfo -> buildProfile(credentials, claimsSet, userInfo, cacheKey)));
+    }
+
+    /**
+     * Retrieve the expected nonce (if the nonce is used).
+     *
+     * @param context the web context
+     * @return the expected nonce or <code>null</code>
+     */
+    public Nonce retrieveNonce(final WebContext context) {
+        if (configuration.isUseNonce()) {
+            final Nonce nonce = configuration.getStateStorage().retrieveNonce(context);
+            if (nonce == null) {
+                throw new TechnicalException("Missing nonce: session or state cookie expired");
+            }
+            return nonce;
+        }
+        return null;
+    }
+
+    /* already validated tokens are not cached for logins with a nonce, which is different each time */
+    private String computeCacheKey(final OidcCredentials credentials) {
+        if (tokenCache != null && !configuration.isUseNonce()) {
+            return tokenCache.key(credentials.getIdToken(), credentials.getAccessToken());
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private U getCachedProfile(final String cacheKey, final OidcCredentials credentials) {
+        if (cacheKey != null) {
+            final U cachedProfile = (U) tokenCache.get(cacheKey);
+            if (cachedProfile != null) {
+                logger.debug("Profile found in the validated tokens cache: {}", cachedProfile.getId());
+                final RefreshToken refreshToken = credentials.getRefreshToken();
+                if (refreshToken != null && !refreshToken.getValue().isEmpty()) {
+                    cachedProfile.setRefreshToken(refreshToken);
+                }
+                return cachedProfile;
+            }
+        }
+        return null;
+    }
+
+    protected IDTokenClaimsSet validateIdToken(final JWT idToken, final Nonce nonce) {
+        try {
+            final IDTokenClaimsSet claimsSet = this.idTokenValidator.validate(idToken, nonce);
+            assertNotNull("claimsSet", claimsSet);
+            return claimsSet;
+        } catch (final JOSEException | BadJOSEException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    protected UserInfo fetchUserInfo(final AccessToken accessToken) {
+        if (configuration.getProviderMetadata().getUserInfoEndpointURI() == null || accessToken == null) {
+            return null;
+        }
+        try {
+            final UserInfoRequest userInfoRequest = new UserInfoRequest(configuration.getProviderMetadata().getUserInfoEndpointURI(), (BearerAccessToken) accessToken);
+            final HTTPRequest userInfoHttpRequest = userInfoRequest.toHTTPRequest();
+            userInfoHttpRequest.setConnectTimeout(configuration.getConnectTimeout());
+            userInfoHttpRequest.setReadTimeout(configuration.getReadTimeout());
+            final HTTPResponse httpResponse = userInfoHttpRequest.send();
+            logger.debug("Token response: status={}, content={}", httpResponse.getStatusCode(),
+                    httpResponse.getContent());
+
+            final UserInfoResponse userInfoResponse = UserInfoResponse.parse(httpResponse);
+            if (userInfoResponse instanceof UserInfoErrorResponse) {
+                logger.error("Bad User Info response, error={}",
+                        ((UserInfoErrorResponse) userInfoResponse).getErrorObject());
+                return null;
+            }
+            return ((UserInfoSuccessResponse) userInfoResponse).getUserInfo();
+        } catch (final IOException | ParseException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected U buildProfile(final OidcCredentials credentials, final IDTokenClaimsSet claimsSet, final UserInfo userInfo,
+                             final String cacheKey) {
+        final JWT idToken = credentials.getIdToken();
 
         // Create profile
         final U profile = (U) ProfileHelper.buildUserProfileByClassCompleteName(clazz.getName());
-        profile.setAccessToken(accessToken);
-        final JWT idToken = credentials.getIdToken();
-        profile.setIdTokenString(idToken.getParsedString());
+        final boolean compact = configuration.isCompactProfile();
+        RefreshToken refreshToken = credentials.getRefreshToken();
         // Check if there is a refresh token
-        final RefreshToken refreshToken = credentials.getRefreshToken();
         if (refreshToken != null && !refreshToken.getValue().isEmpty()) {
-            profile.setRefreshToken(refreshToken);
             logger.debug("Refresh Token successful retrieved");
+        } else {
+            refreshToken = null;
         }
+        if (compact) {
+            profile.setCompactTokens(credentials.getAccessToken(), refreshToken);
+        } else {
+            profile.setAccessToken(credentials.getAccessToken());
+            profile.setRefreshToken(refreshToken);
+        }
+        final AccessToken accessToken = credentials.getAccessToken();
+        if (accessToken != null && accessToken.getLifetime() > 0) {
+            profile.setAccessTokenExpiration(new Date(System.currentTimeMillis() + accessToken.getLifetime() * 1000L));
+        } else if (refreshToken != null) {
+            // unknown lifetime: refresh the tokens when the ID token expires
+            profile.setAccessTokenExpiration(claimsSet.getExpirationTime());
+        }
+        profile.setId(claimsSet.getSubject());
 
         try {
-
-            // check idToken
-            final Nonce nonce;
-            if (configuration.isUseNonce()) {
-                nonce = new Nonce((String) context.getSessionAttribute(OidcConfiguration.NONCE_SESSION_ATTRIBUTE));
-            } else {
-                nonce = null;
-            }
-            // Check ID Token
-            final IDTokenClaimsSet claimsSet = this.idTokenValidator.validate(idToken, nonce);
-            assertNotNull("claimsSet", claimsSet);
-            profile.setId(claimsSet.getSubject());
-
-            // User Info request
-            if (configuration.getProviderMetadata().getUserInfoEndpointURI() != null && accessToken != null) {
-                final UserInfoRequest userInfoRequest = new UserInfoRequest(configuration.getProviderMetadata().getUserInfoEndpointURI(), (BearerAccessToken) accessToken);
-                final HTTPRequest userInfoHttpRequest = userInfoRequest.toHTTPRequest();
-                userInfoHttpRequest.setConnectTimeout(configuration.getConnectTimeout());
-                userInfoHttpRequest.setReadTimeout(configuration.getReadTimeout());
-                final HTTPResponse httpResponse = userInfoHttpRequest.send();
-                logger.debug("Token response: status={}, content={}", httpResponse.getStatusCode(),
-                        httpResponse.getContent());
-
-                final UserInfoResponse userInfoResponse = UserInfoResponse.parse(httpResponse);
-                if (userInfoResponse instanceof UserInfoErrorResponse) {
-                    logger.error("Bad User Info response, error={}",
-                            ((UserInfoErrorResponse) userInfoResponse).getErrorObject());
-                } else {
-                    final UserInfoSuccessResponse userInfoSuccessResponse = (UserInfoSuccessResponse) userInfoResponse;
-                    final UserInfo userInfo = userInfoSuccessResponse.getUserInfo();
-                    if (userInfo != null) {
-                        profile.addAttributes(userInfo.toJWTClaimsSet().getClaims());
-                    }
-                }
+            if (userInfo != null) {
+                profile.addAttributes(userInfo.toJWTClaimsSet().getClaims());
             }
 
-            // add attributes of the ID token if they don't already exist
-            for (final Map.Entry<String, Object> entry : idToken.getJWTClaimsSet().getClaims().entrySet()) {
-                final String key = entry.getKey();
-                final Object value = entry.getValue();
-                if (profile.getAttribute(key) == null) {
-                    profile.addAttribute(key, value);
+            // add attributes of the ID token if they don't already exist (compact profiles read them from the ID token)
+            if (!profile.isCompact()) {
+                for (final Map.Entry<String, Object> entry : idToken.getJWTClaimsSet().getClaims().entrySet()) {
+                    final String key = entry.getKey();
+                    final Object value = entry.getValue();
+                    if (profile.getAttribute(key) == null) {
+                        profile.addAttribute(key, value);
+                    }
                 }
             }
-
-            return profile;
-
-        } catch (final IOException | ParseException | JOSEException | BadJOSEException | java.text.ParseException e) {
+            profile.setIdTokenString(idToken.getParsedString());
+        } catch (final ParseException | java.text.ParseException e) {
             throw new TechnicalException(e);
         }
+
+        if (cacheKey != null) {
+            tokenCache.put(cacheKey, profile, claimsSet.getExpirationTime());
+        }
+        return profile;
     }
 
     public OidcConfiguration getConfiguration() {
@@ -199,6 +321,15 @@ public class OidcProfileCreator<U extends OidcProfile> extends InitializableWebO
         return idTokenValidator;
     }
 
+    /**
+     * Return the cache of the validated tokens (with its statistics) or <code>null</code> if it is disabled.
+     *
+     * @return the validated tokens cache
+     */
+    public ValidatedTokenCache getTokenCache() {
+        return tokenCache;
+    }
+
     @Override
     public String toString() {
         return CommonHelper.toString(this.getClass(), "configuration", configuration, "clazz", clazz);
@@ -0,0 +1,122 @@
+package org.pac4j.oidc.profile.creator;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.ProfileCodec;
+import org.pac4j.core.util.CommonHelper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of the profiles built from already validated tokens, so that the same ID token (and access token) presented again
+ * is neither verified again nor sent to the UserInfo endpoint.
+ *
+ * Entries are keyed by a SHA-256 hash of the tokens (the tokens themselves are not kept as keys), never outlive the expiration
+ * time of the ID token and are stored as {@link ProfileCodec} bytes: each hit returns a new profile instance.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class ValidatedTokenCache {
+
+    private final Cache<String, Entry> cache;
+
+    public ValidatedTokenCache(final long cacheSize, final long timeout, final TimeUnit timeUnit) {
+        CommonHelper.assertTrue(cacheSize > 0, "cacheSize must be > 0");
+        CommonHelper.assertTrue(timeout > 0, "timeout must be > 0");
+        CommonHelper.assertNotNull("timeUnit", timeUnit);
+
+        this.cache = CacheBuilder.newBuilder().maximumSize(cacheSize).expireAfterWrite(timeout, timeUnit).recordStats().build();
+    }
+
+    /**
+     * Compute the cache key of the tokens.
+     *
+     * @param idToken the ID token
+     * @param accessToken the access token (optional)
+     * @return the cache key
+     */
+    public String key(final JWT idToken, final AccessToken accessToken) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(idToken.getParsedString().getBytes(StandardCharsets.UTF_8));
+            if (accessToken != null) {
+                digest.update((byte) '|');
+                digest.update(accessToken.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+        } catch (final NoSuchAlgorithmException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    /**
+     * Return a new profile built from the cached entry or <code>null</code> if there is no (more) entry.
+     *
+     * @param key the cache key
+     * @return the profile or <code>null</code>
+     */
+    public CommonProfile get(final String key) {
+        final Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expirationTime <= System.currentTimeMillis()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return ProfileCodec.decode(entry.profile);
+    }
+
+    /**
+     * Cache a profile until the expiration time of the ID token.
+     *
+     * @param key the cache key
+     * @param profile the profile
+     * @param expirationTime the expiration time of the ID token
+     */
+    public void put(final String key, final CommonProfile profile, final Date expirationTime) {
+        if (expirationTime != null && expirationTime.getTime() > System.currentTimeMillis()) {
+            cache.put(key, new Entry(ProfileCodec.encode(profile), expirationTime.getTime()));
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "size", cache.size(), "stats", cache.stats());
+    }
+
+    private static final class Entry {
+
+        private final byte[] profile;
+
+        private final long expirationTime;
+
+        private Entry(final byte[] profile, final long expirationTime) {
+            this.profile = profile;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package org.pac4j.oidc.redirect;
 
+import com.nimbusds.oauth2.sdk.ParseException;
 import com.nimbusds.oauth2.sdk.id.State;
 import com.nimbusds.openid.connect.sdk.AuthenticationRequest;
 import com.nimbusds.openid.connect.sdk.Nonce;
+import com.nimbusds.openid.connect.sdk.op.OIDCProviderMetadata;
 import org.pac4j.core.client.RedirectAction;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.exception.HttpAction;
@@ -15,7 +17,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Redirect to the OpenID Connect provider.
@@ -31,6 +35,8 @@ public class OidcRedirectActionBuilder extends InitializableWebObject implements
 
     private Map<String, String> authParams;
 
+    private volatile AuthorizationUrlPrefix authorizationUrlPrefix;
+
     public OidcRedirectActionBuilder() {}
 
     public OidcRedirectActionBuilder(final OidcConfiguration configuration) {
@@ -86,33 +92,100 @@ public class OidcRedirectActionBuilder extends InitializableWebObject implements
     }
 
     protected Map<String, String> buildParams() {
-        return new HashMap<>(this.authParams);
+        return new LinkedHashMap<>(this.authParams);
     }
 
     protected void addStateAndNonceParameters(final WebContext context, final Map<String, String> params) {
         // Init state for CSRF mitigation
-        State state = new State();
+        final State state = new State();
         params.put(OidcConfiguration.STATE, state.getValue());
-        context.setSessionAttribute(OidcConfiguration.STATE_SESSION_ATTRIBUTE, state);
         // Init nonce for replay attack mitigation
+        Nonce nonce = null;
         if (configuration.isUseNonce()) {
-            Nonce nonce = new Nonce();
+            nonce = new Nonce();
             params.put(OidcConfiguration.NONCE, nonce.getValue());
-            context.setSessionAttribute(OidcConfiguration.NONCE_SESSION_ATTRIBUTE, nonce.getValue());
         }
+        configuration.getStateStorage().save(context, state, nonce);
     }
 
+    /**
+     * Build the authentication request url. When the parameters contain all the static parameters unchanged,
+     * only the per-request parameters are appended to the precomputed static part (rebuilt when the provider
+     * metadata change), otherwise the whole url is built.
+     *
+     * @param params the request parameters (static ones and state, nonce...)
+     * @return the authentication request url
+     */
     protected String buildAuthenticationRequestUrl(final Map<String, String> params) {
-        // Build authentication request query string
+        final Map<String, String> requestParams = new LinkedHashMap<>(4);
+        for (final Map.Entry<String, String> entry : params.entrySet()) {
+            if (!this.authParams.containsKey(entry.getKey()) || CommonHelper.areNotEquals(entry.getValue(), this.authParams.get(entry.getKey()))) {
+                requestParams.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (params.size() - requestParams.size() != this.authParams.size()) {
+            // some static parameters have been removed: build the whole url
+            return buildFullAuthenticationRequestUrl(params);
+        }
+
+        final String prefix = getAuthorizationUrlPrefix();
+        final StringBuilder sb = new StringBuilder(prefix.length() + 128).append(prefix);
+        for (final Map.Entry<String, String> entry : requestParams.entrySet()) {
+            sb.append('&').append(CommonHelper.urlEncode(entry.getKey())).append('=').append(CommonHelper.urlEncode(entry.getValue()));
+        }
+        return sb.toString();
+    }
+
+    private String buildFullAuthenticationRequestUrl(final Map<String, String> params) {
         final String queryString;
         try {
             queryString = AuthenticationRequest.parse(params).toQueryString();
-        } catch (Exception e) {
+        } catch (final ParseException e) {
             throw new TechnicalException(e);
         }
         return configuration.getProviderMetadata().getAuthorizationEndpointURI().toString() + "?" + queryString;
     }
 
+    private String getAuthorizationUrlPrefix() {
+        final OIDCProviderMetadata metadata = configuration.getProviderMetadata();
+        AuthorizationUrlPrefix urlPrefix = this.authorizationUrlPrefix;
+        if (urlPrefix == null || urlPrefix.metadata != metadata) {
+            urlPrefix = new AuthorizationUrlPrefix(metadata, buildAuthorizationUrlPrefix(metadata, this.authParams));
+            this.authorizationUrlPrefix = urlPrefix;
+        }
+        return urlPrefix.prefix;
+    }
+
+    /**
+     * Build the static part of the authentication request url (endpoint and static parameters).
+     *
+     * @param metadata the provider metadata
+     * @param params the static parameters
+     * @return the url prefix
+     */
+    protected String buildAuthorizationUrlPrefix(final OIDCProviderMetadata metadata, final Map<String, String> params) {
+        // check the parameters once with sample state and nonce values
+        final Map<String, String> sampleParams = new HashMap<>(params);
+        sampleParams.put(OidcConfiguration.STATE, new State().getValue());
+        if (configuration.isUseNonce()) {
+            sampleParams.put(OidcConfiguration.NONCE, new Nonce().getValue());
+        }
+        try {
+            AuthenticationRequest.parse(sampleParams);
+        } catch (final ParseException e) {
+            throw new TechnicalException(e);
+        }
+
+        final String endpoint = metadata.getAuthorizationEndpointURI().toString();
+        final StringBuilder sb = new StringBuilder(endpoint);
+        char separator = endpoint.indexOf('?') >= 0 ? '&' : '?';
+        for (final Map.Entry<String, String> entry : new TreeMap<>(params).entrySet()) {
+            sb.append(separator).append(CommonHelper.urlEncode(entry.getKey())).append('=').append(CommonHelper.urlEncode(entry.getValue()));
+            separator = '&';
+        }
+        return sb.toString();
+    }
+
     public OidcConfiguration getConfiguration() {
         return configuration;
     }
@@ -125,4 +198,16 @@ public class OidcRedirectActionBuilder extends InitializableWebObject implements
     public String toString() {
         return CommonHelper.toString(this.getClass(), "configuration", configuration);
     }
+
+    private static final class AuthorizationUrlPrefix {
+
+        private final OIDCProviderMetadata metadata;
+
+        private final String prefix;
+
+        private AuthorizationUrlPrefix(final OIDCProviderMetadata metadata, final String prefix) {
+            this.metadata = metadata;
+            this.prefix = prefix;
+        }
+    }
 }
@@ -0,0 +1,326 @@
+package org.pac4j.oidc.refresh;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.oauth2.sdk.OAuth2Error;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import com.nimbusds.oauth2.sdk.token.Tokens;
+import com.nimbusds.openid.connect.sdk.token.OIDCTokens;
+import com.nimbusds.openid.connect.sdk.validators.IDTokenValidator;
+import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.ProfileManager;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.oidc.config.OidcConfiguration;
+import org.pac4j.oidc.credentials.authenticator.OidcAuthenticator;
+import org.pac4j.oidc.exception.OidcTokenErrorException;
+import org.pac4j.oidc.profile.OidcAttributesDefinition;
+import org.pac4j.oidc.profile.OidcProfile;
+import org.pac4j.oidc.profile.creator.OidcProfileCreator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Refresh the tokens of the OpenID Connect profiles before they expire, using their refresh token.
+ *
+ * When the access token of a profile expires within {@link OidcConfiguration#getRefreshAhead()} seconds, a refresh is started in
+ * the background and the new tokens are saved (through the {@link ProfileManager}) on a next request. When the access token has
+ * already expired, the request waits for the refresh. Concurrent refreshes of the same refresh token are performed only once and
+ * run on a bounded executor: when it is full, refreshes are rejected (and retried on a next request). A failed refresh is not
+ * retried for the same refresh token during {@link OidcConfiguration#getRefreshRetryDelay()} seconds and, when the provider
+ * definitively rejects the refresh token (<code>invalid_grant</code> error), it is removed from the profile with the expiration
+ * of the access token, so that no more refresh is attempted.
+ *
+ * The expiration of the access token is the one returned by the token endpoint or, if unknown, the one of the ID token
+ * (returned by the refresh or, at login, by the authentication). If it remains unknown, the tokens are not refreshed anymore.
+ * The ID token returned by a refresh is validated by the ID token validator of the profile creator and must be issued for
+ * the same subject, otherwise the previous ID token is kept.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class OidcTokenRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OidcTokenRefresher.class);
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final String clientName;
+
+    private final OidcConfiguration configuration;
+
+    private final OidcAuthenticator authenticator;
+
+    private final OidcProfileCreator<? extends OidcProfile> profileCreator;
+
+    private final ThreadPoolExecutor executor;
+
+    /* refreshes in progress, by refresh token */
+    private final ConcurrentMap<String, CompletableFuture<Tokens>> inProgress = new ConcurrentHashMap<>();
+
+    /* refreshes done in the background, waiting to be saved in the profiles, by (old) refresh token */
+    private final Cache<String, Tokens> done;
+
+    /* failed refreshes, not retried until they expire, by refresh token */
+    private final Cache<String, RuntimeException> failed;
+
+    public OidcTokenRefresher(final String clientName, final OidcConfiguration configuration, final OidcAuthenticator authenticator) {
+        this(clientName, configuration, authenticator, null);
+    }
+
+    /**
+     * Build a token refresher.
+     *
+     * @param clientName the client name
+     * @param configuration the configuration
+     * @param authenticator the authenticator performing the refreshes
+     * @param profileCreator the profile creator validating the refreshed ID tokens (without it, they are ignored)
+     */
+    public OidcTokenRefresher(final String clientName, final OidcConfiguration configuration, final OidcAuthenticator authenticator,
+                              final OidcProfileCreator<? extends OidcProfile> profileCreator) {
+        CommonHelper.assertNotBlank("clientName", clientName);
+        CommonHelper.assertNotNull("configuration", configuration);
+        CommonHelper.assertNotNull("authenticator", authenticator);
+        CommonHelper.assertTrue(configuration.getRefreshThreads() > 0, "refreshThreads must be > 0");
+        CommonHelper.assertTrue(configuration.getRefreshQueueSize() > 0, "refreshQueueSize must be > 0");
+        CommonHelper.assertTrue(configuration.getRefreshRetryDelay() >= 0, "refreshRetryDelay must be >= 0");
+
+        this.clientName = clientName;
+        this.configuration = configuration;
+        this.authenticator = authenticator;
+        this.profileCreator = profileCreator;
+        this.executor = new ThreadPoolExecutor(configuration.getRefreshThreads(), configuration.getRefreshThreads(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(configuration.getRefreshQueueSize()), r -> {
+                    final Thread thread = new Thread(r, "pac4j-oidc-token-refresh-" + THREAD_NUMBER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.done = CacheBuilder.newBuilder().maximumSize(configuration.getRefreshQueueSize() * 10L)
+                .expireAfterWrite(Math.max(configuration.getRefreshAhead(), 60), TimeUnit.SECONDS).build();
+        this.failed = CacheBuilder.newBuilder().maximumSize(configuration.getRefreshQueueSize() * 10L)
+                .expireAfterWrite(configuration.getRefreshRetryDelay(), TimeUnit.SECONDS).build();
+    }
+
+    /**
+     * Refresh the tokens of the profiles of this client (current request and web session) if they are about to expire
+     * and save the refreshed profiles.
+     *
+     * @param context the web context
+     */
+    public void refreshIfNeeded(final WebContext context) {
+        authenticator.init(context);
+        if (profileCreator != null) {
+            profileCreator.init(context);
+        }
+        final ProfileManager<CommonProfile> manager = new ProfileManager<>(context);
+        final boolean inSession = context.getSessionAttribute(Pac4jConstants.USER_PROFILES) != null;
+        for (final CommonProfile profile : manager.getAll(true)) {
+            if (profile instanceof OidcProfile && clientName.equals(profile.getClientName())) {
+                final OidcProfile oidcProfile = (OidcProfile) profile;
+                if (refreshIfNeeded(oidcProfile)) {
+                    manager.save(inSession, oidcProfile, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Refresh the tokens of a profile if they are about to expire: wait for the refresh if they have already expired,
+     * otherwise start it in the background.
+     *
+     * @param profile the profile
+     * @return whether the tokens of the profile have been updated
+     */
+    public boolean refreshIfNeeded(final OidcProfile profile) {
+        final RefreshToken refreshToken = profile.getRefreshToken();
+        final Date expiration = profile.getAccessTokenExpiration();
+        if (refreshToken == null || expiration == null) {
+            return false;
+        }
+        final long now = System.currentTimeMillis();
+        if (expiration.getTime() - configuration.getRefreshAhead() * 1000L > now) {
+            return false;
+        }
+
+        final String key = refreshToken.getValue();
+        final Tokens refreshed = done.getIfPresent(key);
+        if (refreshed != null) {
+            final AccessToken accessToken = profile.getAccessToken();
+            if (accessToken == null || !accessToken.getValue().equals(refreshed.getAccessToken().getValue())) {
+                updateTokens(profile, refreshed);
+                return true;
+            }
+            // already saved and about to expire again
+            done.invalidate(key);
+        }
+
+        final CompletableFuture<Tokens> future = refresh(refreshToken);
+        if (expiration.getTime() <= now || future.isDone()) {
+            try {
+                updateTokens(profile, future.join());
+                return true;
+            } catch (final CompletionException | CancellationException e) {
+                if (isInvalidGrant(e.getCause())) {
+                    logger.warn("Refresh token rejected for: {}, no more refresh", profile.getId());
+                    profile.removeAttribute(OidcAttributesDefinition.REFRESH_TOKEN);
+                    profile.setAccessTokenExpiration(null);
+                    return true;
+                }
+                logger.warn("Cannot refresh the tokens of: {}", profile.getId(), e);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInvalidGrant(final Throwable t) {
+        return t instanceof OidcTokenErrorException
+                && OAuth2Error.INVALID_GRANT.getCode().equals(((OidcTokenErrorException) t).getErrorCode());
+    }
+
+    /**
+     * Refresh the tokens on the executor, only once for concurrent calls with the same refresh token. The future fails immediately
+     * if the refresh of this refresh token has failed less than {@link OidcConfiguration#getRefreshRetryDelay()} seconds ago.
+     *
+     * @param refreshToken the refresh token
+     * @return the future tokens
+     */
+    public CompletableFuture<Tokens> refresh(final RefreshToken refreshToken) {
+        final String key = refreshToken.getValue();
+        final CompletableFuture<Tokens> future = new CompletableFuture<>();
+        final RuntimeException failure = failed.getIfPresent(key);
+        if (failure != null) {
+            logger.debug("Refresh failed recently, not retried yet");
+            future.completeExceptionally(failure);
+            return future;
+        }
+        final CompletableFuture<Tokens> existing = inProgress.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        future.whenComplete((tokens, e) -> {
+            if (tokens != null) {
+                done.put(key, tokens);
+            }
+            inProgress.remove(key, future);
+        });
+        try {
+            logger.debug("Refreshing tokens");
+            final IDTokenValidator idTokenValidator = profileCreator != null ? profileCreator.getIdTokenValidator() : null;
+            executor.execute(() -> {
+                try {
+                    future.complete(validateIdToken(authenticator.refreshTokens(refreshToken), idTokenValidator));
+                } catch (final RuntimeException e) {
+                    failed.put(key, e);
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            future.completeExceptionally(new TechnicalException("Too many token refreshes in progress", e));
+        }
+        return future;
+    }
+
+    /**
+     * Validate the ID token returned by a refresh (if any), which is dropped when it is invalid.
+     *
+     * @param tokens the refreshed tokens
+     * @param idTokenValidator the ID token validator (may be <code>null</code>)
+     * @return the tokens, without the ID token if it is invalid
+     */
+    protected Tokens validateIdToken(final Tokens tokens, final IDTokenValidator idTokenValidator) {
+        if (!(tokens instanceof OIDCTokens) || ((OIDCTokens) tokens).getIDTokenString() == null) {
+            return tokens;
+        }
+        if (idTokenValidator == null) {
+            logger.debug("No ID token validator: ignoring the refreshed ID token");
+        } else {
+            try {
+                idTokenValidator.validate(getIdToken((OIDCTokens) tokens), null);
+                return tokens;
+            } catch (final ParseException | JOSEException | BadJOSEException e) {
+                logger.warn("Invalid refreshed ID token, keeping the previous one", e);
+            }
+        }
+        return new Tokens(tokens.getAccessToken(), tokens.getRefreshToken());
+    }
+
+    /**
+     * Save new tokens in a profile.
+     *
+     * @param profile the profile
+     * @param tokens the new tokens
+     */
+    protected void updateTokens(final OidcProfile profile, final Tokens tokens) {
+        final AccessToken accessToken = tokens.getAccessToken();
+        // the refresh token may not be rotated
+        final RefreshToken refreshToken = tokens.getRefreshToken();
+        if (configuration.isCompactProfile()) {
+            profile.setCompactTokens(accessToken, refreshToken);
+        } else {
+            profile.setAccessToken(accessToken);
+            if (refreshToken != null) {
+                profile.setRefreshToken(refreshToken);
+            }
+        }
+        Date expiration = null;
+        if (accessToken.getLifetime() > 0) {
+            expiration = new Date(System.currentTimeMillis() + accessToken.getLifetime() * 1000L);
+        }
+        if (tokens instanceof OIDCTokens && ((OIDCTokens) tokens).getIDTokenString() != null) {
+            try {
+                final JWT idToken = getIdToken((OIDCTokens) tokens);
+                final String subject = idToken.getJWTClaimsSet().getSubject();
+                if (subject != null && subject.equals(profile.getId())) {
+                    profile.setIdTokenString(((OIDCTokens) tokens).getIDTokenString());
+                    if (expiration == null) {
+                        expiration = idToken.getJWTClaimsSet().getExpirationTime();
+                    }
+                } else {
+                    logger.warn("Refreshed ID token issued for another subject: {}, keeping the previous one", subject);
+                }
+            } catch (final ParseException e) {
+                logger.warn("Cannot read the refreshed ID token, keeping the previous one", e);
+            }
+        }
+        // unknown expiration: no more refresh
+        profile.setAccessTokenExpiration(expiration);
+    }
+
+    private static JWT getIdToken(final OIDCTokens tokens) throws ParseException {
+        final JWT idToken = tokens.getIDToken();
+        if (idToken != null) {
+            return idToken;
+        }
+        return JWTParser.parse(tokens.getIDTokenString());
+    }
+
+    /**
+     * Stop the executor.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public int getNbRefreshesInProgress() {
+        return inProgress.size();
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "clientName", clientName, "refreshAhead", configuration.getRefreshAhead(),
+                "refreshThreads", configuration.getRefreshThreads(), "refreshQueueSize", configuration.getRefreshQueueSize());
+    }
+}
@@ -0,0 +1,251 @@
+package org.pac4j.oidc.state;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.*;
+import com.nimbusds.oauth2.sdk.id.State;
+import com.nimbusds.openid.connect.sdk.Nonce;
+import org.pac4j.core.context.ContextHelper;
+import org.pac4j.core.context.Cookie;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.jwt.config.encryption.EncryptionConfiguration;
+import org.pac4j.jwt.config.signature.SignatureConfiguration;
+import org.pac4j.oidc.config.OidcConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.ParseException;
+import java.util.Date;
+
+/**
+ * Store the state and nonce in a short-lived cookie containing a signed (and optionally encrypted) JWT, so that no web session is
+ * required between the authentication request and the callback.
+ *
+ * The signature and encryption configurations are the ones of the <code>pac4j-jwt</code> module and must be shared by all the nodes.
+ * The name of the cookie ends with the state value, so that several logins can be pending at the same time (in several tabs):
+ * on the callback, the cookie is found by the <code>state</code> parameter and removed.
+ *
+ * Add the <code>pac4j-jwt</code> dependency to use this class.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class CookieStateStorage implements OidcStateStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(CookieStateStorage.class);
+
+    public static final String DEFAULT_COOKIE_NAME = "pac4jOidcState";
+
+    /* default max age: 10 minutes */
+    public static final int DEFAULT_MAX_AGE = 600;
+
+    private static final String STATE_CLAIM = "state";
+
+    private static final String NONCE_CLAIM = "nonce";
+
+    private static final String REQUEST_ATTRIBUTE = CookieStateStorage.class.getName() + "$claims";
+
+    private SignatureConfiguration signatureConfiguration;
+
+    private EncryptionConfiguration encryptionConfiguration;
+
+    private String cookieName = DEFAULT_COOKIE_NAME;
+
+    private String cookiePath = "/";
+
+    private String cookieDomain;
+
+    private int maxAge = DEFAULT_MAX_AGE;
+
+    public CookieStateStorage() {}
+
+    public CookieStateStorage(final SignatureConfiguration signatureConfiguration) {
+        this.signatureConfiguration = signatureConfiguration;
+    }
+
+    public CookieStateStorage(final SignatureConfiguration signatureConfiguration, final EncryptionConfiguration encryptionConfiguration) {
+        this.signatureConfiguration = signatureConfiguration;
+        this.encryptionConfiguration = encryptionConfiguration;
+    }
+
+    @Override
+    public void save(final WebContext context, final State state, final Nonce nonce) {
+        CommonHelper.assertNotNull("signatureConfiguration", signatureConfiguration);
+        CommonHelper.assertNotBlank("cookieName", cookieName);
+
+        final JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder()
+                .claim(STATE_CLAIM, state.getValue())
+                .expirationTime(new Date(System.currentTimeMillis() + maxAge * 1000L));
+        if (nonce != null) {
+            builder.claim(NONCE_CLAIM, nonce.getValue());
+        }
+        final SignedJWT signedJWT = signatureConfiguration.sign(builder.build());
+        final String value;
+        if (encryptionConfiguration != null) {
+            value = encryptionConfiguration.encrypt(signedJWT);
+        } else {
+            value = signedJWT.serialize();
+        }
+        context.addResponseCookie(buildCookie(context, state.getValue(), value, maxAge));
+    }
+
+    @Override
+    public State retrieveState(final WebContext context) {
+        final JWTClaimsSet claims = retrieveClaims(context);
+        final String state = claims != null ? (String) claims.getClaim(STATE_CLAIM) : null;
+        return state != null ? new State(state) : null;
+    }
+
+    @Override
+    public Nonce retrieveNonce(final WebContext context) {
+        final JWTClaimsSet claims = retrieveClaims(context);
+        final String nonce = claims != null ? (String) claims.getClaim(NONCE_CLAIM) : null;
+        return nonce != null ? new Nonce(nonce) : null;
+    }
+
+    /**
+     * Read, decrypt and verify the cookie once per request and remove it.
+     *
+     * @param context the web context
+     * @return the verified claims or <code>null</code>
+     */
+    protected JWTClaimsSet retrieveClaims(final WebContext context) {
+        final Object cached = context.getRequestAttribute(REQUEST_ATTRIBUTE);
+        if (cached instanceof JWTClaimsSet) {
+            return (JWTClaimsSet) cached;
+        }
+        final String state = context.getRequestParameter(OidcConfiguration.STATE);
+        if (CommonHelper.isBlank(state)) {
+            logger.debug("No state parameter");
+            return null;
+        }
+        final Cookie cookie = ContextHelper.getCookie(context, getStateCookieName(state));
+        if (cookie == null || CommonHelper.isBlank(cookie.getValue())) {
+            logger.debug("No state cookie for: {}", state);
+            return null;
+        }
+        // one-time use
+        context.addResponseCookie(buildCookie(context, state, "", 0));
+        final JWTClaimsSet claims = verify(cookie.getValue());
+        if (claims == null) {
+            return null;
+        } else if (!state.equals(claims.getClaim(STATE_CLAIM))) {
+            logger.warn("State cookie does not match the state parameter");
+            return null;
+        }
+        context.setRequestAttribute(REQUEST_ATTRIBUTE, claims);
+        return claims;
+    }
+
+    private JWTClaimsSet verify(final String value) {
+        CommonHelper.assertNotNull("signatureConfiguration", signatureConfiguration);
+        try {
+            JWT jwt = JWTParser.parse(value);
+            if (encryptionConfiguration != null) {
+                if (!(jwt instanceof EncryptedJWT)) {
+                    logger.warn("State cookie is not encrypted");
+                    return null;
+                }
+                final EncryptedJWT encryptedJWT = (EncryptedJWT) jwt;
+                encryptionConfiguration.decrypt(encryptedJWT);
+                jwt = encryptedJWT.getPayload().toSignedJWT();
+            }
+            if (!(jwt instanceof SignedJWT)) {
+                logger.warn("State cookie is not signed");
+                return null;
+            }
+            final SignedJWT signedJWT = (SignedJWT) jwt;
+            if (!signatureConfiguration.supports(signedJWT.getHeader().getAlgorithm()) || !signatureConfiguration.verify(signedJWT)) {
+                logger.warn("State cookie signature verification failed");
+                return null;
+            }
+            final JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
+            final Date expirationTime = claims.getExpirationTime();
+            if (expirationTime == null || expirationTime.getTime() < System.currentTimeMillis()) {
+                logger.warn("State cookie expired: {}", expirationTime);
+                return null;
+            }
+            return claims;
+        } catch (final ParseException | JOSEException e) {
+            logger.warn("Cannot read state cookie", e);
+            return null;
+        }
+    }
+
+    /**
+     * Return the name of the cookie storing the provided state.
+     *
+     * @param state the state value
+     * @return the cookie name
+     */
+    protected String getStateCookieName(final String state) {
+        return cookieName + "_" + state;
+    }
+
+    private Cookie buildCookie(final WebContext context, final String state, final String value, final int age) {
+        final Cookie cookie = new Cookie(getStateCookieName(state), value);
+        cookie.setMaxAge(age);
+        cookie.setPath(cookiePath);
+        if (cookieDomain != null) {
+            cookie.setDomain(cookieDomain);
+        }
+        cookie.setHttpOnly(true);
+        cookie.setSecure(ContextHelper.isHttpsOrSecure(context));
+        return cookie;
+    }
+
+    public SignatureConfiguration getSignatureConfiguration() {
+        return signatureConfiguration;
+    }
+
+    public void setSignatureConfiguration(final SignatureConfiguration signatureConfiguration) {
+        this.signatureConfiguration = signatureConfiguration;
+    }
+
+    public EncryptionConfiguration getEncryptionConfiguration() {
+        return encryptionConfiguration;
+    }
+
+    public void setEncryptionConfiguration(final EncryptionConfiguration encryptionConfiguration) {
+        this.encryptionConfiguration = encryptionConfiguration;
+    }
+
+    public String getCookieName() {
+        return cookieName;
+    }
+
+    public void setCookieName(final String cookieName) {
+        this.cookieName = cookieName;
+    }
+
+    public String getCookiePath() {
+        return cookiePath;
+    }
+
+    public void setCookiePath(final String cookiePath) {
+        this.cookiePath = cookiePath;
+    }
+
+    public String getCookieDomain() {
+        return cookieDomain;
+    }
+
+    public void setCookieDomain(final String cookieDomain) {
+        this.cookieDomain = cookieDomain;
+    }
+
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(final int maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass(), "signatureConfiguration", signatureConfiguration,
+                "encryptionConfiguration", encryptionConfiguration, "cookieName", cookieName, "cookiePath", cookiePath,
+                "cookieDomain", cookieDomain, "maxAge", maxAge);
+    }
+}
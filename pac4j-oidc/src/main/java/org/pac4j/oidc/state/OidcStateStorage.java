@@ -0,0 +1,39 @@
+package org.pac4j.oidc.state;
+
+import com.nimbusds.oauth2.sdk.id.State;
+import com.nimbusds.openid.connect.sdk.Nonce;
+import org.pac4j.core.context.WebContext;
+
+/**
+ * Storage of the state and nonce between the authentication request and the callback.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public interface OidcStateStorage {
+
+    /**
+     * Save the state and nonce sent in the authentication request.
+     *
+     * @param context the web context
+     * @param state the state
+     * @param nonce the nonce (<code>null</code> if no nonce is used)
+     */
+    void save(WebContext context, State state, Nonce nonce);
+
+    /**
+     * Retrieve the state on the callback.
+     *
+     * @param context the web context
+     * @return the state (<code>null</code> if none or invalid)
+     */
+    State retrieveState(WebContext context);
+
+    /**
+     * Retrieve the nonce on the callback.
+     *
+     * @param context the web context
+     * @return the nonce (<code>null</code> if none or invalid)
+     */
+    Nonce retrieveNonce(WebContext context);
+}
@@ -0,0 +1,40 @@
+package org.pac4j.oidc.state;
+
+import com.nimbusds.oauth2.sdk.id.State;
+import com.nimbusds.openid.connect.sdk.Nonce;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.oidc.config.OidcConfiguration;
+
+/**
+ * Store the state and nonce in the web session (default storage).
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public class SessionStateStorage implements OidcStateStorage {
+
+    @Override
+    public void save(final WebContext context, final State state, final Nonce nonce) {
+        context.setSessionAttribute(OidcConfiguration.STATE_SESSION_ATTRIBUTE, state);
+        if (nonce != null) {
+            context.setSessionAttribute(OidcConfiguration.NONCE_SESSION_ATTRIBUTE, nonce.getValue());
+        }
+    }
+
+    @Override
+    public State retrieveState(final WebContext context) {
+        return (State) context.getSessionAttribute(OidcConfiguration.STATE_SESSION_ATTRIBUTE);
+    }
+
+    @Override
+    public Nonce retrieveNonce(final WebContext context) {
+        final String nonce = (String) context.getSessionAttribute(OidcConfiguration.NONCE_SESSION_ATTRIBUTE);
+        return nonce != null ? new Nonce(nonce) : null;
+    }
+
+    @Override
+    public String toString() {
+        return CommonHelper.toString(this.getClass());
+    }
+}
@@ -0,0 +1,27 @@
+package org.pac4j.oidc.config;
+
+import org.junit.Test;
+import org.pac4j.core.util.TestsConstants;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link OidcConfiguration}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class OidcConfigurationTests implements TestsConstants {
+
+    @Test
+    public void testNoBackgroundRefreshByDefault() {
+        assertFalse(new OidcConfiguration().isBackgroundRefresh());
+    }
+
+    @Test
+    public void testNoProviderMetadataBeforeInit() {
+        final OidcConfiguration configuration = new OidcConfiguration();
+        assertNull(configuration.getMetadataManager());
+        assertNull(configuration.getProviderMetadata());
+    }
+}
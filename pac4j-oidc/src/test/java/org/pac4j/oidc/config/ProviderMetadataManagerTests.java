@@ -0,0 +1,178 @@
+package org.pac4j.oidc.config;
+
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Resource;
+import com.nimbusds.jose.util.ResourceRetriever;
+import org.junit.Test;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.core.util.TestsHelper;
+import org.pac4j.oidc.redirect.OidcRedirectActionBuilderTests;
+
+import java.io.IOException;
+import java.net.URL;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link ProviderMetadataManager}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class ProviderMetadataManagerTests implements TestsConstants {
+
+    private static final String DISCOVERY_URI = "https://op.example.com/.well-known/openid-configuration";
+
+    private static final class FakeRetriever implements ResourceRetriever {
+
+        private final AtomicInteger jwksCalls = new AtomicInteger();
+
+        private volatile String jwks;
+
+        private volatile boolean down;
+
+        private volatile boolean jwksDown;
+
+        private FakeRetriever(final String jwks) {
+            this.jwks = jwks;
+        }
+
+        @Override
+        public Resource retrieveResource(final URL url) throws IOException {
+            if (down) {
+                throw new IOException("down");
+            }
+            if (url.getPath().endsWith("/jwks")) {
+                jwksCalls.incrementAndGet();
+                if (jwksDown) {
+                    throw new IOException("jwks down");
+                }
+                return new CacheControlResourceRetriever.CachedResource(jwks, "application/json", 5000);
+            }
+            return new Resource(OidcRedirectActionBuilderTests.METADATA, "application/json");
+        }
+    }
+
+    private static String jwks(final String... kids) throws Exception {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(1024);
+        final List<com.nimbusds.jose.jwk.JWK> keys = new ArrayList<>();
+        for (final String kid : kids) {
+            keys.add(new RSAKey.Builder((RSAPublicKey) generator.generateKeyPair().getPublic()).keyID(kid).build());
+        }
+        return new JWKSet(keys).toJSONObject().toString();
+    }
+
+    private static JWKSelector selector(final String kid) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(kid).build());
+    }
+
+    @Test
+    public void testStart() throws Exception {
+        final FakeRetriever retriever = new FakeRetriever(jwks("k1"));
+        final ProviderMetadataManager manager = new ProviderMetadataManager(DISCOVERY_URI, retriever);
+        manager.start(false);
+        assertEquals("https://op.example.com", manager.getProviderMetadata().getIssuer().getValue());
+        assertEquals(1, manager.get(selector("k1"), null).size());
+        assertEquals(1, retriever.jwksCalls.get());
+    }
+
+    @Test
+    public void testMetadataRequiredAtStartup() {
+        final FakeRetriever retriever = new FakeRetriever("");
+        retriever.down = true;
+        final ProviderMetadataManager manager = new ProviderMetadataManager(DISCOVERY_URI, retriever);
+        TestsHelper.expectException(() -> manager.start(false), TechnicalException.class, "java.io.IOException: down");
+    }
+
+    @Test
+    public void testUnknownKidRefetchedOnce() throws Exception {
+        final FakeRetriever retriever = new FakeRetriever(jwks("k1"));
+        final ProviderMetadataManager manager = new ProviderMetadataManager(DISCOVERY_URI, retriever);
+        manager.setMinRefreshInterval(0);
+        manager.start(false);
+        retriever.jwks = jwks("k1", "k2");
+
+        final int nbThreads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < nbThreads; i++) {
+            results.add(executor.submit(() -> {
+                latch.await();
+                return manager.get(selector("k2"), null).size();
+            }));
+        }
+        latch.countDown();
+        for (final Future<Integer> result : results) {
+            assertEquals(1, result.get().intValue());
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(2, retriever.jwksCalls.get());
+    }
+
+    @Test
+    public void testUnknownKidRateLimited() throws Exception {
+        final FakeRetriever retriever = new FakeRetriever(jwks("k1"));
+        final ProviderMetadataManager manager = new ProviderMetadataManager(DISCOVERY_URI, retriever);
+        manager.start(false);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(manager.get(selector("unknown"), null).isEmpty());
+        }
+        assertEquals(1, retriever.jwksCalls.get());
+    }
+
+    @Test
+    public void testLastKnownGoodWhenDown() throws Exception {
+        final FakeRetriever retriever = new FakeRetriever(jwks("k1"));
+        final ProviderMetadataManager manager = new ProviderMetadataManager(DISCOVERY_URI, retriever);
+        manager.setMinRefreshInterval(0);
+        manager.start(false);
+        retriever.down = true;
+        manager.refresh();
+        assertNotNull(manager.getProviderMetadata());
+        assertEquals(1, manager.get(selector("k1"), null).size());
+        assertTrue(manager.get(selector("k2"), null).isEmpty());
+    }
+
+    @Test
+    public void testFailedStartupFetchNotRateLimited() throws Exception {
+        final FakeRetriever retriever = new FakeRetriever(jwks("k1"));
+        retriever.jwksDown = true;
+        final ProviderMetadataManager manager = new ProviderMetadataManager(DISCOVERY_URI, retriever);
+        manager.start(false);
+        assertTrue(manager.getJwkSet().getKeys().isEmpty());
+        retriever.jwksDown = false;
+        assertEquals(1, manager.get(selector("k1"), null).size());
+        assertEquals(2, retriever.jwksCalls.get());
+    }
+
+    @Test
+    public void testEmptyJwkSetRefetchedWithoutKid() throws Exception {
+        final FakeRetriever retriever = new FakeRetriever(jwks("k1"));
+        retriever.jwksDown = true;
+        final ProviderMetadataManager manager = new ProviderMetadataManager(DISCOVERY_URI, retriever);
+        manager.start(false);
+        retriever.jwksDown = false;
+        assertEquals(1, manager.get(new JWKSelector(new JWKMatcher.Builder().build()), null).size());
+        assertEquals(2, retriever.jwksCalls.get());
+        // the JWK set is not empty anymore: no kid, no refetch
+        manager.get(new JWKSelector(new JWKMatcher.Builder().keyType(com.nimbusds.jose.jwk.KeyType.EC).build()), null);
+        assertEquals(2, retriever.jwksCalls.get());
+    }
+}
@@ -8,9 +8,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.pac4j.core.util.TestsConstants;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
-import static org.junit.Assert.assertNull;
+import static org.junit.Assert.*;
 
 /**
  * General test cases for {@link OidcProfile}.
@@ -131,4 +129,60 @@ public final class OidcProfileTests implements TestsConstants {
         assertNull(profile.getIdTokenString());
         assertNull(profile.getRefreshToken());
     }
+
+    @Test
+    public void testCompactTokens() {
+        OidcProfile profile = new OidcProfile();
+        profile.setCompactTokens(populatedAccessToken, new RefreshToken(REFRESH_TOKEN));
+        profile.setIdTokenString(ID_TOKEN);
+        assertEquals(populatedAccessToken.getValue(), profile.getAttribute(OidcAttributesDefinition.ACCESS_TOKEN));
+        assertEquals(REFRESH_TOKEN, profile.getAttribute(OidcAttributesDefinition.REFRESH_TOKEN));
+
+        profile = SerializationUtils.deserialize(SerializationUtils.serialize(profile));
+        assertEquals(populatedAccessToken.getValue(), profile.getAccessToken().getValue());
+        assertEquals(REFRESH_TOKEN, profile.getRefreshToken().getValue());
+    }
+
+    @Test
+    public void testClaimsReadFromIdToken() {
+        final OidcProfile profile = new OidcProfile();
+        profile.setCompactTokens(populatedAccessToken, null);
+        profile.setIdTokenString(ID_TOKEN);
+        assertTrue(profile.isCompact());
+        assertSame(profile.getIdToken(), profile.getIdToken());
+        assertEquals("https://jwt-idp.example.com", profile.getIssuer());
+        assertEquals("mailto:person@example.com", profile.getAttribute(OidcAttributesDefinition.SUBJECT));
+        assertNotNull(profile.getExpirationDate());
+        assertTrue(profile.containsAttribute(OidcAttributesDefinition.ISSUER));
+        assertTrue(profile.getAttributes().containsKey(OidcAttributesDefinition.ISSUER));
+
+        profile.clearSensitiveData();
+        assertNull(profile.getIdTokenString());
+        assertEquals("https://jwt-idp.example.com", profile.getIssuer());
+    }
+
+    @Test
+    public void testClaimsNotReadFromIdTokenForNonCompactProfile() {
+        final OidcProfile profile = new OidcProfile();
+        profile.setAccessToken(populatedAccessToken);
+        profile.setIdTokenString(ID_TOKEN);
+        profile.addAttribute(OidcAttributesDefinition.ISSUER, VALUE);
+        assertFalse(profile.isCompact());
+        assertNull(profile.getAttribute(OidcAttributesDefinition.SUBJECT));
+        assertFalse(profile.containsAttribute(OidcAttributesDefinition.SUBJECT));
+        assertFalse(profile.getAttributes().containsKey(OidcAttributesDefinition.SUBJECT));
+
+        profile.removeAttribute(OidcAttributesDefinition.ISSUER);
+        assertNull(profile.getIssuer());
+    }
+
+    @Test
+    public void testStringTokensConvertedForNonCompactProfile() {
+        final OidcProfile profile = new OidcProfile();
+        profile.addAttribute(OidcAttributesDefinition.ACCESS_TOKEN, populatedAccessToken.getValue());
+        profile.addAttribute(OidcAttributesDefinition.REFRESH_TOKEN, REFRESH_TOKEN);
+        assertTrue(profile.getAttribute(OidcAttributesDefinition.ACCESS_TOKEN) instanceof BearerAccessToken);
+        assertTrue(profile.getAttribute(OidcAttributesDefinition.REFRESH_TOKEN) instanceof RefreshToken);
+        assertFalse(profile.isCompact());
+    }
 }
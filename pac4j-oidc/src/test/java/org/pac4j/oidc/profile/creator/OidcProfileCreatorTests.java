@@ -0,0 +1,174 @@
+package org.pac4j.oidc.profile.creator;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import com.nimbusds.openid.connect.sdk.Nonce;
+import com.nimbusds.openid.connect.sdk.claims.UserInfo;
+import org.junit.Test;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.util.JavaSerializationHelper;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.oidc.config.OidcConfiguration;
+import org.pac4j.oidc.credentials.OidcCredentials;
+import org.pac4j.oidc.profile.OidcProfile;
+import org.pac4j.oidc.redirect.OidcRedirectActionBuilderTests;
+
+import java.util.Date;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link OidcProfileCreator}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class OidcProfileCreatorTests implements TestsConstants {
+
+    private OidcConfiguration buildConfiguration(final int tokenCacheSize) {
+        final OidcConfiguration configuration = OidcRedirectActionBuilderTests.buildConfiguration();
+        configuration.setSecret(MAC_SECRET);
+        configuration.setPreferredJwsAlgorithm(JWSAlgorithm.HS256);
+        configuration.setBackgroundRefresh(false);
+        configuration.setTokenCacheSize(tokenCacheSize);
+        return configuration;
+    }
+
+    private OidcCredentials buildCredentials(final Date expirationTime) throws Exception {
+        final JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer("https://op.example.com")
+                .audience(ID)
+                .subject(GOOD_USERNAME)
+                .claim(NAME, VALUE)
+                .issueTime(new Date())
+                .expirationTime(expirationTime)
+                .build();
+        final SignedJWT idToken = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+        idToken.sign(new MACSigner(MAC_SECRET));
+        final OidcCredentials credentials = new OidcCredentials(CLIENT_NAME);
+        credentials.setIdToken(SignedJWT.parse(idToken.serialize()));
+        return credentials;
+    }
+
+    @Test
+    public void testNoCache() throws Exception {
+        final OidcProfileCreator<OidcProfile> creator = new OidcProfileCreator<>(buildConfiguration(0), OidcProfile.class);
+        final OidcProfile profile = creator.create(buildCredentials(new Date(System.currentTimeMillis() + 60000)), MockWebContext.create());
+        assertEquals(GOOD_USERNAME, profile.getId());
+        assertEquals(VALUE, profile.getAttribute(NAME));
+        assertNull(creator.getTokenCache());
+    }
+
+    @Test
+    public void testCacheHit() throws Exception {
+        final OidcProfileCreator<OidcProfile> creator = new OidcProfileCreator<>(buildConfiguration(10), OidcProfile.class);
+        final OidcCredentials credentials = buildCredentials(new Date(System.currentTimeMillis() + 60000));
+        final OidcProfile profile = creator.create(credentials, MockWebContext.create());
+        final OidcProfile profile2 = creator.create(credentials, MockWebContext.create());
+        assertNotSame(profile, profile2);
+        assertEquals(profile.getId(), profile2.getId());
+        assertEquals(VALUE, profile2.getAttribute(NAME));
+        assertEquals(profile.getIdTokenString(), profile2.getIdTokenString());
+        assertEquals(1, creator.getTokenCache().getStats().hitCount());
+        assertEquals(1, creator.getTokenCache().getStats().missCount());
+    }
+
+    @Test
+    public void testCompactProfile() throws Exception {
+        final OidcConfiguration configuration = buildConfiguration(0);
+        configuration.setCompactProfile(true);
+        final OidcProfileCreator<OidcProfile> creator = new OidcProfileCreator<>(configuration, OidcProfile.class);
+        final OidcCredentials credentials = buildCredentials(new Date(System.currentTimeMillis() + 60000));
+        credentials.setRefreshToken(new RefreshToken(VALUE));
+        final OidcProfile profile = creator.create(credentials, MockWebContext.create());
+        assertTrue(profile.isCompact());
+        assertEquals(GOOD_USERNAME, profile.getId());
+        assertEquals(VALUE, profile.getAttribute(NAME));
+        assertEquals("https://op.example.com", profile.getIssuer());
+
+        final OidcProfile fullProfile = new OidcProfileCreator<>(buildConfiguration(0), OidcProfile.class)
+                .create(credentials, MockWebContext.create());
+        assertEquals(fullProfile.getAttributes().keySet(), profile.getAttributes().keySet());
+        final JavaSerializationHelper helper = new JavaSerializationHelper();
+        assertTrue(helper.serializeToBytes(profile).length < helper.serializeToBytes(fullProfile).length);
+    }
+
+    @Test
+    public void testCreateAsync() throws Exception {
+        final OidcProfileCreator<OidcProfile> creator = new OidcProfileCreator<>(buildConfiguration(0), OidcProfile.class);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final OidcCredentials credentials = buildCredentials(new Date(System.currentTimeMillis() + 60000));
+            final OidcProfile profile = creator.createAsync(credentials, MockWebContext.create(), executor).get(10, TimeUnit.SECONDS);
+            assertEquals(GOOD_USERNAME, profile.getId());
+            assertEquals(VALUE, profile.getAttribute(NAME));
+
+            final OidcCredentials badCredentials = buildCredentials(new Date(System.currentTimeMillis() - 3600000));
+            try {
+                creator.createAsync(badCredentials, (Nonce) null, executor).get(10, TimeUnit.SECONDS);
+                fail("Expired ID token should fail");
+            } catch (final ExecutionException e) {
+                assertTrue(e.getCause() instanceof TechnicalException);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCreateAsyncNoUserInfoForInvalidIdToken() throws Exception {
+        final AtomicInteger nbUserInfoRequests = new AtomicInteger();
+        final OidcProfileCreator<OidcProfile> creator = new OidcProfileCreator<OidcProfile>(buildConfiguration(0), OidcProfile.class) {
+            @Override
+            protected UserInfo fetchUserInfo(final AccessToken accessToken) {
+                nbUserInfoRequests.incrementAndGet();
+                return null;
+            }
+        };
+        creator.init(MockWebContext.create());
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final OidcCredentials badCredentials = buildCredentials(new Date(System.currentTimeMillis() - 3600000));
+            badCredentials.setAccessToken(new BearerAccessToken(VALUE));
+            try {
+                creator.createAsync(badCredentials, (Nonce) null, executor).get(10, TimeUnit.SECONDS);
+                fail("Expired ID token should fail");
+            } catch (final ExecutionException e) {
+                assertTrue(e.getCause() instanceof TechnicalException);
+            }
+            assertEquals(0, nbUserInfoRequests.get());
+
+            final OidcCredentials credentials = buildCredentials(new Date(System.currentTimeMillis() + 60000));
+            credentials.setAccessToken(new BearerAccessToken(VALUE));
+            assertEquals(GOOD_USERNAME, creator.createAsync(credentials, (Nonce) null, executor).get(10, TimeUnit.SECONDS).getId());
+            assertEquals(1, nbUserInfoRequests.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testExpiredNotCached() throws Exception {
+        final ValidatedTokenCache cache = new ValidatedTokenCache(10, 1, TimeUnit.HOURS);
+        final OidcCredentials credentials = buildCredentials(new Date(System.currentTimeMillis() - 1000));
+        final String key = cache.key(credentials.getIdToken(), null);
+        final OidcProfile profile = new OidcProfile();
+        profile.setId(ID);
+        cache.put(key, profile, new Date(System.currentTimeMillis() - 1000));
+        assertNull(cache.get(key));
+        cache.put(key, profile, new Date(System.currentTimeMillis() + 60000));
+        assertEquals(ID, cache.get(key).getId());
+    }
+}
@@ -0,0 +1,124 @@
+package org.pac4j.oidc.redirect;
+
+import com.nimbusds.jose.util.Resource;
+import com.nimbusds.oauth2.sdk.id.State;
+import com.nimbusds.openid.connect.sdk.AuthenticationRequest;
+import com.nimbusds.openid.connect.sdk.op.OIDCProviderMetadata;
+import org.junit.Test;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.oidc.config.OidcConfiguration;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link OidcRedirectActionBuilder}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class OidcRedirectActionBuilderTests implements TestsConstants {
+
+    public static final String METADATA = "{\"issuer\":\"https://op.example.com\","
+            + "\"authorization_endpoint\":\"https://op.example.com/authorize\","
+            + "\"token_endpoint\":\"https://op.example.com/token\","
+            + "\"userinfo_endpoint\":\"https://op.example.com/userinfo\","
+            + "\"jwks_uri\":\"https://op.example.com/jwks\","
+            + "\"response_types_supported\":[\"code\",\"id_token\"],"
+            + "\"subject_types_supported\":[\"public\"],"
+            + "\"id_token_signing_alg_values_supported\":[\"RS256\",\"HS256\"]}";
+
+    public static OidcConfiguration buildConfiguration() {
+        final OidcConfiguration configuration = new OidcConfiguration();
+        configuration.setClientId(ID);
+        configuration.setSecret(SECRET);
+        configuration.setDiscoveryURI("https://op.example.com/.well-known/openid-configuration");
+        configuration.setResourceRetriever(url -> new Resource(METADATA, "application/json"));
+        configuration.setCallbackUrl(CALLBACK_URL);
+        return configuration;
+    }
+
+    @Test
+    public void testRedirect() throws Exception {
+        final OidcConfiguration configuration = buildConfiguration();
+        configuration.setUseNonce(true);
+        configuration.addCustomParam("custom", "a value &more");
+        final OidcRedirectActionBuilder builder = new OidcRedirectActionBuilder(configuration);
+        final MockWebContext context = MockWebContext.create();
+
+        final String location = builder.redirect(context).getLocation();
+        assertTrue(location.startsWith("https://op.example.com/authorize?"));
+        final AuthenticationRequest request = AuthenticationRequest.parse(java.net.URI.create(location));
+        assertEquals(ID, request.getClientID().getValue());
+        assertEquals(CALLBACK_URL, request.getRedirectionURI().toString());
+        assertEquals("openid profile email", request.getScope().toString());
+        assertEquals("a value &more", request.getCustomParameter("custom"));
+        assertEquals(context.getSessionAttribute(OidcConfiguration.STATE_SESSION_ATTRIBUTE), request.getState());
+        assertEquals(context.getSessionAttribute(OidcConfiguration.NONCE_SESSION_ATTRIBUTE), request.getNonce().getValue());
+
+        final String location2 = builder.redirect(MockWebContext.create()).getLocation();
+        final State state2 = AuthenticationRequest.parse(java.net.URI.create(location2)).getState();
+        assertNotEquals(request.getState(), state2);
+    }
+
+    @Test
+    public void testBuildParamsOverride() throws Exception {
+        final OidcRedirectActionBuilder builder = new OidcRedirectActionBuilder(buildConfiguration()) {
+            @Override
+            protected Map<String, String> buildParams() {
+                final Map<String, String> params = super.buildParams();
+                params.put("prompt", "login");
+                params.put(OidcConfiguration.SCOPE, "openid");
+                return params;
+            }
+        };
+
+        final AuthenticationRequest request = AuthenticationRequest.parse(java.net.URI.create(builder.redirect(MockWebContext.create()).getLocation()));
+        assertEquals("login", request.getPrompt().toString());
+        assertEquals("openid", request.getScope().toString());
+        assertEquals(ID, request.getClientID().getValue());
+    }
+
+    @Test
+    public void testBuildParamsRemovingParameter() throws Exception {
+        final OidcConfiguration configuration = buildConfiguration();
+        configuration.addCustomParam("custom", VALUE);
+        final OidcRedirectActionBuilder builder = new OidcRedirectActionBuilder(configuration) {
+            @Override
+            protected Map<String, String> buildParams() {
+                final Map<String, String> params = super.buildParams();
+                params.remove("custom");
+                return params;
+            }
+        };
+
+        final String location = builder.redirect(MockWebContext.create()).getLocation();
+        assertFalse(location.contains("custom="));
+        assertEquals(ID, AuthenticationRequest.parse(java.net.URI.create(location)).getClientID().getValue());
+    }
+
+    @Test
+    public void testMetadataChange() throws Exception {
+        final OIDCProviderMetadata otherMetadata = OIDCProviderMetadata.parse(METADATA.replace("https://op.example.com/authorize",
+                "https://op2.example.com/authorize"));
+        final OIDCProviderMetadata[] current = new OIDCProviderMetadata[1];
+        final OidcConfiguration configuration = new OidcConfiguration() {
+            @Override
+            public OIDCProviderMetadata getProviderMetadata() {
+                return current[0] != null ? current[0] : super.getProviderMetadata();
+            }
+        };
+        configuration.setClientId(ID);
+        configuration.setSecret(SECRET);
+        configuration.setDiscoveryURI("https://op.example.com/.well-known/openid-configuration");
+        configuration.setResourceRetriever(url -> new Resource(METADATA, "application/json"));
+        configuration.setCallbackUrl(CALLBACK_URL);
+        final OidcRedirectActionBuilder builder = new OidcRedirectActionBuilder(configuration);
+
+        assertTrue(builder.redirect(MockWebContext.create()).getLocation().startsWith("https://op.example.com/authorize?"));
+        current[0] = otherMetadata;
+        assertTrue(builder.redirect(MockWebContext.create()).getLocation().startsWith("https://op2.example.com/authorize?"));
+    }
+}
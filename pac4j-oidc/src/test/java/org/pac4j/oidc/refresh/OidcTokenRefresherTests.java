@@ -0,0 +1,325 @@
+package org.pac4j.oidc.refresh;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.oauth2.sdk.auth.Secret;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import com.nimbusds.oauth2.sdk.token.RefreshToken;
+import com.nimbusds.oauth2.sdk.token.Tokens;
+import com.nimbusds.openid.connect.sdk.token.OIDCTokens;
+import com.nimbusds.openid.connect.sdk.validators.IDTokenValidator;
+import org.junit.Test;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.context.Pac4jConstants;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.ProfileManager;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.oidc.config.OidcConfiguration;
+import org.pac4j.oidc.credentials.authenticator.OidcAuthenticator;
+import org.pac4j.oidc.exception.OidcTokenErrorException;
+import org.pac4j.oidc.profile.OidcProfile;
+import org.pac4j.oidc.profile.OidcProfileTests;
+import org.pac4j.oidc.profile.creator.OidcProfileCreator;
+import org.pac4j.oidc.redirect.OidcRedirectActionBuilderTests;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link OidcTokenRefresher}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class OidcTokenRefresherTests implements TestsConstants {
+
+    private static final class FakeAuthenticator extends OidcAuthenticator {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final CountDownLatch latch;
+
+        private volatile long lifetime = 3600;
+
+        private volatile String idToken;
+
+        private volatile RuntimeException error;
+
+        private FakeAuthenticator(final OidcConfiguration configuration, final CountDownLatch latch) {
+            super(configuration);
+            this.latch = latch;
+        }
+
+        @Override
+        public Tokens refreshTokens(final RefreshToken refreshToken) {
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                throw new TechnicalException(e);
+            }
+            calls.incrementAndGet();
+            if (error != null) {
+                throw error;
+            }
+            final BearerAccessToken accessToken = new BearerAccessToken(VALUE + calls.get(), lifetime, null);
+            final RefreshToken newRefreshToken = new RefreshToken(refreshToken.getValue() + "2");
+            if (idToken != null) {
+                return new OIDCTokens(idToken, accessToken, newRefreshToken);
+            }
+            return new Tokens(accessToken, newRefreshToken);
+        }
+    }
+
+    private OidcConfiguration buildConfiguration() {
+        final OidcConfiguration configuration = OidcRedirectActionBuilderTests.buildConfiguration();
+        configuration.setBackgroundRefresh(false);
+        return configuration;
+    }
+
+    private static String buildIdToken(final String subject, final String secret, final Date expirationTime) throws Exception {
+        final JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer("https://op.example.com")
+                .audience(ID)
+                .subject(subject)
+                .issueTime(new Date())
+                .expirationTime(expirationTime)
+                .build();
+        final SignedJWT idToken = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+        idToken.sign(new MACSigner(secret));
+        return idToken.serialize();
+    }
+
+    private static OidcProfileCreator<OidcProfile> buildProfileCreator(final OidcConfiguration configuration) {
+        final IDTokenValidator validator = new IDTokenValidator(new Issuer("https://op.example.com"), new ClientID(ID),
+                JWSAlgorithm.HS256, new Secret(MAC_SECRET));
+        return new OidcProfileCreator<OidcProfile>(configuration, OidcProfile.class) {
+            @Override
+            public IDTokenValidator getIdTokenValidator() {
+                return validator;
+            }
+        };
+    }
+
+    private OidcProfile buildProfile(final long expiresIn) {
+        final OidcProfile profile = new OidcProfile();
+        profile.setId(ID);
+        profile.setClientName(CLIENT_NAME);
+        profile.setAccessToken(new BearerAccessToken(KEY));
+        profile.setRefreshToken(new RefreshToken(SECRET));
+        profile.setAccessTokenExpiration(new Date(System.currentTimeMillis() + expiresIn));
+        return profile;
+    }
+
+    @Test
+    public void testNotAboutToExpire() {
+        final OidcConfiguration configuration = buildConfiguration();
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, new CountDownLatch(0));
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator);
+        assertFalse(refresher.refreshIfNeeded(buildProfile(3600000)));
+        assertEquals(0, authenticator.calls.get());
+    }
+
+    @Test
+    public void testExpired() {
+        final OidcConfiguration configuration = buildConfiguration();
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, new CountDownLatch(0));
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator);
+        final OidcProfile profile = buildProfile(-1000);
+        assertTrue(refresher.refreshIfNeeded(profile));
+        assertEquals(VALUE + 1, profile.getAccessToken().getValue());
+        assertEquals(SECRET + "2", profile.getRefreshToken().getValue());
+        assertTrue(profile.getAccessTokenExpiration().getTime() > System.currentTimeMillis() + 3000000);
+        assertFalse(refresher.refreshIfNeeded(profile));
+    }
+
+    @Test
+    public void testProactiveRefreshSavedOnNextCall() throws Exception {
+        final OidcConfiguration configuration = buildConfiguration();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, latch);
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator);
+        final OidcProfile profile = buildProfile(30000);
+        assertFalse(refresher.refreshIfNeeded(profile));
+        assertEquals(KEY, profile.getAccessToken().getValue());
+        latch.countDown();
+        final long end = System.currentTimeMillis() + 10000;
+        while (refresher.getNbRefreshesInProgress() > 0 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertTrue(refresher.refreshIfNeeded(profile));
+        assertEquals(VALUE + 1, profile.getAccessToken().getValue());
+        assertEquals(1, authenticator.calls.get());
+    }
+
+    @Test
+    public void testConcurrentRefreshesDeduplicated() throws Exception {
+        final OidcConfiguration configuration = buildConfiguration();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, latch);
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator);
+        final List<CompletableFuture<Tokens>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(refresher.refresh(new RefreshToken(SECRET)));
+        }
+        assertEquals(1, refresher.getNbRefreshesInProgress());
+        latch.countDown();
+        for (final CompletableFuture<Tokens> future : futures) {
+            assertEquals(VALUE + 1, future.get(10, TimeUnit.SECONDS).getAccessToken().getValue());
+        }
+        assertEquals(1, authenticator.calls.get());
+    }
+
+    @Test
+    public void testBoundedExecutor() throws Exception {
+        final OidcConfiguration configuration = buildConfiguration();
+        configuration.setRefreshThreads(1);
+        configuration.setRefreshQueueSize(1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, latch);
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator);
+        final CompletableFuture<Tokens> first = refresher.refresh(new RefreshToken("1"));
+        final CompletableFuture<Tokens> second = refresher.refresh(new RefreshToken("2"));
+        final CompletableFuture<Tokens> third = refresher.refresh(new RefreshToken("3"));
+        assertTrue(third.isCompletedExceptionally());
+        latch.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        assertEquals(2, authenticator.calls.get());
+    }
+
+    @Test
+    public void testSavedThroughProfileManager() {
+        final OidcConfiguration configuration = buildConfiguration();
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, new CountDownLatch(0));
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator);
+        final MockWebContext context = MockWebContext.create();
+        new ProfileManager<OidcProfile>(context).save(true, buildProfile(-1000), true);
+        context.setRequestAttribute(Pac4jConstants.USER_PROFILES, null);
+
+        refresher.refreshIfNeeded(context);
+        final MockWebContext nextContext = MockWebContext.create();
+        nextContext.setSessionAttribute(Pac4jConstants.USER_PROFILES, context.getSessionAttribute(Pac4jConstants.USER_PROFILES));
+        final OidcProfile profile = new ProfileManager<OidcProfile>(nextContext).get(true).get();
+        assertEquals(VALUE + 1, profile.getAccessToken().getValue());
+    }
+
+    @Test
+    public void testUnknownLifetimeNotRefreshedAgain() {
+        final OidcConfiguration configuration = buildConfiguration();
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, new CountDownLatch(0));
+        authenticator.lifetime = 0;
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator);
+        final OidcProfile profile = buildProfile(-1000);
+        profile.setIdTokenString(OidcProfileTests.ID_TOKEN);
+        assertTrue(refresher.refreshIfNeeded(profile));
+        assertNull(profile.getAccessTokenExpiration());
+        assertFalse(refresher.refreshIfNeeded(profile));
+        assertEquals(1, authenticator.calls.get());
+    }
+
+    @Test
+    public void testValidRefreshedIdToken() throws Exception {
+        final OidcConfiguration configuration = buildConfiguration();
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, new CountDownLatch(0));
+        authenticator.lifetime = 0;
+        final Date expiration = new Date((System.currentTimeMillis() / 1000 + 3600) * 1000);
+        authenticator.idToken = buildIdToken(ID, MAC_SECRET, expiration);
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator,
+                buildProfileCreator(configuration));
+        final OidcProfile profile = buildProfile(-1000);
+        assertTrue(refresher.refreshIfNeeded(profile));
+        assertEquals(authenticator.idToken, profile.getIdTokenString());
+        assertEquals(expiration, profile.getAccessTokenExpiration());
+    }
+
+    @Test
+    public void testInvalidRefreshedIdToken() throws Exception {
+        final OidcConfiguration configuration = buildConfiguration();
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, new CountDownLatch(0));
+        authenticator.idToken = buildIdToken(ID, MAC_SECRET + "other", new Date(System.currentTimeMillis() + 3600000));
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator,
+                buildProfileCreator(configuration));
+        final OidcProfile profile = buildProfile(-1000);
+        profile.setIdTokenString(OidcProfileTests.ID_TOKEN);
+        assertTrue(refresher.refreshIfNeeded(profile));
+        assertEquals(VALUE + 1, profile.getAccessToken().getValue());
+        assertEquals(OidcProfileTests.ID_TOKEN, profile.getIdTokenString());
+    }
+
+    @Test
+    public void testRefreshedIdTokenForAnotherSubject() throws Exception {
+        final OidcConfiguration configuration = buildConfiguration();
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, new CountDownLatch(0));
+        authenticator.idToken = buildIdToken(GOOD_USERNAME, MAC_SECRET, new Date(System.currentTimeMillis() + 3600000));
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator,
+                buildProfileCreator(configuration));
+        final OidcProfile profile = buildProfile(-1000);
+        profile.setIdTokenString(OidcProfileTests.ID_TOKEN);
+        assertTrue(refresher.refreshIfNeeded(profile));
+        assertEquals(OidcProfileTests.ID_TOKEN, profile.getIdTokenString());
+    }
+
+    @Test
+    public void testRefreshedIdTokenIgnoredWithoutValidator() throws Exception {
+        final OidcConfiguration configuration = buildConfiguration();
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, new CountDownLatch(0));
+        authenticator.idToken = buildIdToken(ID, MAC_SECRET, new Date(System.currentTimeMillis() + 3600000));
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator);
+        final OidcProfile profile = buildProfile(-1000);
+        assertTrue(refresher.refreshIfNeeded(profile));
+        assertNull(profile.getIdTokenString());
+    }
+
+    @Test
+    public void testFailedRefreshNotRetriedImmediately() {
+        final OidcConfiguration configuration = buildConfiguration();
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, new CountDownLatch(0));
+        authenticator.error = new TechnicalException("Provider down");
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator);
+        final OidcProfile profile = buildProfile(-1000);
+        assertFalse(refresher.refreshIfNeeded(profile));
+        assertFalse(refresher.refreshIfNeeded(profile));
+        assertEquals(1, authenticator.calls.get());
+        assertEquals(SECRET, profile.getRefreshToken().getValue());
+        assertNotNull(profile.getAccessTokenExpiration());
+    }
+
+    @Test
+    public void testFailedRefreshRetriedAfterDelay() {
+        final OidcConfiguration configuration = buildConfiguration();
+        configuration.setRefreshRetryDelay(0);
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, new CountDownLatch(0));
+        authenticator.error = new TechnicalException("Provider down");
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator);
+        final OidcProfile profile = buildProfile(-1000);
+        assertFalse(refresher.refreshIfNeeded(profile));
+        authenticator.error = null;
+        assertTrue(refresher.refreshIfNeeded(profile));
+        assertEquals(2, authenticator.calls.get());
+    }
+
+    @Test
+    public void testInvalidGrantClearsRefreshToken() {
+        final OidcConfiguration configuration = buildConfiguration();
+        final FakeAuthenticator authenticator = new FakeAuthenticator(configuration, new CountDownLatch(0));
+        authenticator.error = new OidcTokenErrorException("Bad refresh token response", "invalid_grant");
+        final OidcTokenRefresher refresher = new OidcTokenRefresher(CLIENT_NAME, configuration, authenticator);
+        final OidcProfile profile = buildProfile(-1000);
+        assertTrue(refresher.refreshIfNeeded(profile));
+        assertNull(profile.getRefreshToken());
+        assertNull(profile.getAccessTokenExpiration());
+        assertEquals(KEY, profile.getAccessToken().getValue());
+        assertFalse(refresher.refreshIfNeeded(profile));
+        assertEquals(1, authenticator.calls.get());
+    }
+}
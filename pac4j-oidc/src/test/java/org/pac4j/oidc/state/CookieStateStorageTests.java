@@ -0,0 +1,148 @@
+package org.pac4j.oidc.state;
+
+import com.nimbusds.oauth2.sdk.id.State;
+import com.nimbusds.openid.connect.sdk.Nonce;
+import org.junit.Test;
+import org.pac4j.core.context.Cookie;
+import org.pac4j.core.context.MockWebContext;
+import org.pac4j.core.util.TestsConstants;
+import org.pac4j.jwt.config.encryption.SecretEncryptionConfiguration;
+import org.pac4j.jwt.config.signature.SecretSignatureConfiguration;
+import org.pac4j.oidc.config.OidcConfiguration;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link CookieStateStorage}.
+ *
+ * @author Jerome Leleu
+ * @since 1.9.3
+ */
+public final class CookieStateStorageTests implements TestsConstants {
+
+    private MockWebContext callback(final MockWebContext context, final State state) {
+        final Cookie cookie = context.getResponseCookies().iterator().next();
+        assertEquals(CookieStateStorage.DEFAULT_COOKIE_NAME + "_" + state.getValue(), cookie.getName());
+        assertTrue(cookie.isHttpOnly());
+        final MockWebContext callbackContext = MockWebContext.create().addRequestParameter(OidcConfiguration.STATE, state.getValue());
+        callbackContext.getRequestCookies().add(cookie);
+        return callbackContext;
+    }
+
+    private void assertRoundTrip(final CookieStateStorage storage) {
+        final MockWebContext context = MockWebContext.create();
+        final State state = new State();
+        final Nonce nonce = new Nonce();
+        storage.save(context, state, nonce);
+        assertNull(context.getSessionAttribute(OidcConfiguration.STATE_SESSION_ATTRIBUTE));
+
+        final MockWebContext callbackContext = callback(context, state);
+        assertEquals(state, storage.retrieveState(callbackContext));
+        assertEquals(nonce, storage.retrieveNonce(callbackContext));
+        final Cookie removed = callbackContext.getResponseCookies().iterator().next();
+        assertEquals(0, removed.getMaxAge());
+    }
+
+    @Test
+    public void testSigned() {
+        assertRoundTrip(new CookieStateStorage(new SecretSignatureConfiguration(MAC_SECRET)));
+    }
+
+    @Test
+    public void testSignedAndEncrypted() {
+        assertRoundTrip(new CookieStateStorage(new SecretSignatureConfiguration(MAC_SECRET), new SecretEncryptionConfiguration(MAC_SECRET)));
+    }
+
+    @Test
+    public void testNoNonce() {
+        final CookieStateStorage storage = new CookieStateStorage(new SecretSignatureConfiguration(MAC_SECRET));
+        final MockWebContext context = MockWebContext.create();
+        final State state = new State();
+        storage.save(context, state, null);
+        final MockWebContext callbackContext = callback(context, state);
+        assertEquals(state, storage.retrieveState(callbackContext));
+        assertNull(storage.retrieveNonce(callbackContext));
+    }
+
+    @Test
+    public void testBadSignature() {
+        final MockWebContext context = MockWebContext.create();
+        final State state = new State();
+        new CookieStateStorage(new SecretSignatureConfiguration(MAC_SECRET)).save(context, state, new Nonce());
+        final CookieStateStorage storage = new CookieStateStorage(new SecretSignatureConfiguration(MAC_SECRET + MAC_SECRET));
+        assertNull(storage.retrieveState(callback(context, state)));
+    }
+
+    @Test
+    public void testNotEncrypted() {
+        final MockWebContext context = MockWebContext.create();
+        final State state = new State();
+        new CookieStateStorage(new SecretSignatureConfiguration(MAC_SECRET)).save(context, state, new Nonce());
+        final CookieStateStorage storage = new CookieStateStorage(new SecretSignatureConfiguration(MAC_SECRET),
+                new SecretEncryptionConfiguration(MAC_SECRET));
+        assertNull(storage.retrieveState(callback(context, state)));
+    }
+
+    @Test
+    public void testExpired() {
+        final CookieStateStorage storage = new CookieStateStorage(new SecretSignatureConfiguration(MAC_SECRET));
+        storage.setMaxAge(-10);
+        final MockWebContext context = MockWebContext.create();
+        final State state = new State();
+        storage.save(context, state, new Nonce());
+        assertNull(storage.retrieveState(callback(context, state)));
+    }
+
+    @Test
+    public void testNoCookie() {
+        final CookieStateStorage storage = new CookieStateStorage(new SecretSignatureConfiguration(MAC_SECRET));
+        assertNull(storage.retrieveState(MockWebContext.create().addRequestParameter(OidcConfiguration.STATE, VALUE)));
+    }
+
+    @Test
+    public void testNoStateParameter() {
+        final CookieStateStorage storage = new CookieStateStorage(new SecretSignatureConfiguration(MAC_SECRET));
+        final MockWebContext context = MockWebContext.create();
+        storage.save(context, new State(), new Nonce());
+        final MockWebContext callbackContext = MockWebContext.create();
+        callbackContext.getRequestCookies().addAll(context.getResponseCookies());
+        assertNull(storage.retrieveState(callbackContext));
+    }
+
+    @Test
+    public void testTwoPendingLogins() {
+        final CookieStateStorage storage = new CookieStateStorage(new SecretSignatureConfiguration(MAC_SECRET));
+        final MockWebContext firstTab = MockWebContext.create();
+        final State firstState = new State();
+        final Nonce firstNonce = new Nonce();
+        storage.save(firstTab, firstState, firstNonce);
+        final MockWebContext secondTab = MockWebContext.create();
+        final State secondState = new State();
+        final Nonce secondNonce = new Nonce();
+        storage.save(secondTab, secondState, secondNonce);
+
+        // the browser sends both cookies on each callback
+        final MockWebContext firstCallback = callback(firstTab, firstState);
+        firstCallback.getRequestCookies().addAll(secondTab.getResponseCookies());
+        final MockWebContext secondCallback = callback(secondTab, secondState);
+        secondCallback.getRequestCookies().addAll(firstTab.getResponseCookies());
+
+        assertEquals(secondState, storage.retrieveState(secondCallback));
+        assertEquals(secondNonce, storage.retrieveNonce(secondCallback));
+        assertEquals(firstState, storage.retrieveState(firstCallback));
+        assertEquals(firstNonce, storage.retrieveNonce(firstCallback));
+    }
+
+    @Test
+    public void testCookieOfAnotherState() {
+        final CookieStateStorage storage = new CookieStateStorage(new SecretSignatureConfiguration(MAC_SECRET));
+        final MockWebContext context = MockWebContext.create();
+        storage.save(context, new State(), new Nonce());
+        final Cookie cookie = context.getResponseCookies().iterator().next();
+        final State otherState = new State();
+        final MockWebContext callbackContext = MockWebContext.create().addRequestParameter(OidcConfiguration.STATE, otherState.getValue());
+        callbackContext.getRequestCookies().add(new Cookie(CookieStateStorage.DEFAULT_COOKIE_NAME + "_" + otherState.getValue(),
+                cookie.getValue()));
+        assertNull(storage.retrieveState(callbackContext));
+    }
+}
@@ -11,16 +11,24 @@ import org.pac4j.core.credentials.password.PasswordEncoder;
 import org.pac4j.sql.profile.DbProfile;
 import org.skife.jdbi.v2.DBI;
 import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Authenticator for users stored in relational database, based on the JDBI library.
- * It creates the user profile and stores it in the credentials for the {@link AuthenticatorProfileCreator}.
+ * <p>Authenticator for users stored in relational database, based on the JDBI library.
+ * It creates the user profile and stores it in the credentials for the {@link AuthenticatorProfileCreator}.</p>
+ *
+ * <p>The SQL queries and the attribute names are computed once at initialization. Several users can be authenticated
+ * in a single round trip to the database with the {@link #validateAll(List, WebContext)} method.</p>
  *
  * @author Jerome Leleu
  * @since 1.8.0
@@ -41,6 +49,24 @@ public class DbAuthenticator extends AbstractUsernamePasswordAuthenticator {
     protected String startQuery = "select username, password";
     protected String endQuery = " from users where username = :username";
 
+    /**
+     * The end of the query for a batch of users: the <code>:usernames</code> parameter is replaced by the list of usernames.
+     */
+    protected String endBatchQuery = " from users where username in (:usernames)";
+
+    /**
+     * The maximum number of users authenticated by a single query in a batch.
+     */
+    protected int batchSize = 500;
+
+    private String query;
+
+    private String[] attributeNames;
+
+    private final AtomicLong nbQueries = new AtomicLong();
+
+    private final AtomicLong queryTime = new AtomicLong();
+
     public DbAuthenticator() {}
 
     public DbAuthenticator(final DataSource dataSource) {
@@ -62,8 +88,18 @@ public class DbAuthenticator extends AbstractUsernamePasswordAuthenticator {
     protected void internalInit(final WebContext context) {
         CommonHelper.assertNotNull("dataSource", this.dataSource);
         CommonHelper.assertNotNull("attributes", this.attributes);
+        CommonHelper.assertTrue(this.batchSize > 0, "batchSize must be > 0");
         this.dbi = new DBI(this.dataSource);
 
+        final List<String> names = new ArrayList<>();
+        for (final String attribute : this.attributes.split(",")) {
+            if (CommonHelper.isNotBlank(attribute)) {
+                names.add(attribute.trim());
+            }
+        }
+        this.attributeNames = names.toArray(new String[names.size()]);
+        this.query = buildQuery(this.endQuery);
+
         super.internalInit(context);
     }
 
@@ -72,30 +108,20 @@ public class DbAuthenticator extends AbstractUsernamePasswordAuthenticator {
 
         Handle h = null;
         try {
+            checkNotBlank(credentials);
             h = dbi.open();
 
             final String username = credentials.getUsername();
-            final String query;
-            if (CommonHelper.isNotBlank(attributes)) {
-                query = startQuery + ", " + attributes + endQuery;
-            } else {
-                query = startQuery + endQuery;
-            }
+            final long start = System.nanoTime();
             final List<Map<String, Object>> results = h.createQuery(query).bind(Pac4jConstants.USERNAME, username).list(2);
+            recordQuery(start);
 
             if (results == null || results.isEmpty()) {
                 throw new AccountNotFoundException("No account found for: " + username);
             } else if (results.size() > 1) {
                 throw new MultipleAccountsFoundException("Too many accounts found for: " + username);
             } else {
-                final Map<String, Object> result = results.get(0);
-                final String returnedPassword = (String) result.get(Pac4jConstants.PASSWORD);
-                if (!getPasswordEncoder().matches(credentials.getPassword(), returnedPassword)) {
-                    throw new BadCredentialsException("Bad credentials for: " + username);
-                } else {
-                    final DbProfile profile = createProfile(username, attributes.split(","), result);
-                    credentials.setUserProfile(profile);
-                }
+                checkPasswordAndCreateProfile(credentials, results.get(0));
             }
 
         } catch (final TechnicalException e) {
@@ -110,6 +136,127 @@ public class DbAuthenticator extends AbstractUsernamePasswordAuthenticator {
         }
     }
 
+    /**
+     * Authenticate a batch of users with one query per {@link #getBatchSize()} users, on a single connection.
+     * The user profile is stored in the credentials of the successfully authenticated users. The credentials with a blank username or
+     * password are rejected without being queried, and the usernames returned by the database must match exactly the provided ones
+     * (as for the {@link #validate(UsernamePasswordCredentials, WebContext)} method).
+     *
+     * @param credentialsList the credentials of the users
+     * @param context the web context
+     * @return the credentials successfully authenticated
+     */
+    public List<UsernamePasswordCredentials> validateAll(final List<UsernamePasswordCredentials> credentialsList, final WebContext context) {
+        CommonHelper.assertNotNull("credentialsList", credentialsList);
+
+        final List<UsernamePasswordCredentials> validCredentials = new ArrayList<>(credentialsList.size());
+        for (final UsernamePasswordCredentials credentials : credentialsList) {
+            try {
+                checkNotBlank(credentials);
+                validCredentials.add(credentials);
+            } catch (final CredentialsException e) {
+                logger.debug("Authentication error", e);
+            }
+        }
+
+        final List<UsernamePasswordCredentials> authenticated = new ArrayList<>();
+        Handle h = null;
+        try {
+            h = dbi.open();
+
+            for (int from = 0; from < validCredentials.size(); from += batchSize) {
+                final List<UsernamePasswordCredentials> batch = validCredentials.subList(from, Math.min(from + batchSize, validCredentials.size()));
+                final Map<String, List<Map<String, Object>>> resultsByUsername = queryBatch(h, batch);
+
+                for (final UsernamePasswordCredentials credentials : batch) {
+                    final List<Map<String, Object>> results = resultsByUsername.get(credentials.getUsername());
+                    if (results == null) {
+                        logger.debug("No account found for: {}", credentials.getUsername());
+                    } else if (results.size() > 1) {
+                        logger.debug("Too many accounts found for: {}", credentials.getUsername());
+                    } else {
+                        try {
+                            checkPasswordAndCreateProfile(credentials, results.get(0));
+                            authenticated.add(credentials);
+                        } catch (final BadCredentialsException e) {
+                            logger.debug("Authentication error", e);
+                        }
+                    }
+                }
+            }
+
+        } catch (final TechnicalException e) {
+            logger.debug("Authentication error", e);
+            throw e;
+        } catch (final RuntimeException e) {
+            throw new TechnicalException("Cannot fetch usernames / passwords from DB", e);
+        } finally {
+            if (h != null) {
+                h.close();
+            }
+        }
+        return authenticated;
+    }
+
+    private Map<String, List<Map<String, Object>>> queryBatch(final Handle h, final List<UsernamePasswordCredentials> batch) {
+        final StringBuilder parameters = new StringBuilder();
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                parameters.append(", ");
+            }
+            parameters.append(":").append(Pac4jConstants.USERNAME).append(i);
+        }
+        final Query<Map<String, Object>> batchQuery =
+                h.createQuery(buildQuery(endBatchQuery.replace(":usernames", parameters.toString())));
+        for (int i = 0; i < batch.size(); i++) {
+            batchQuery.bind(Pac4jConstants.USERNAME + i, batch.get(i).getUsername());
+        }
+
+        final long start = System.nanoTime();
+        final List<Map<String, Object>> results = batchQuery.list();
+        recordQuery(start);
+
+        final Map<String, List<Map<String, Object>>> resultsByUsername = new HashMap<>();
+        for (final Map<String, Object> result : results) {
+            final String username = (String) result.get(Pac4jConstants.USERNAME);
+            resultsByUsername.computeIfAbsent(username, k -> new ArrayList<>(1)).add(result);
+        }
+        return resultsByUsername;
+    }
+
+    private static void checkNotBlank(final UsernamePasswordCredentials credentials) {
+        if (CommonHelper.isBlank(credentials.getUsername())) {
+            throw new CredentialsException("Username cannot be blank");
+        }
+        if (CommonHelper.isBlank(credentials.getPassword())) {
+            throw new CredentialsException("Password cannot be blank");
+        }
+    }
+
+    private void checkPasswordAndCreateProfile(final UsernamePasswordCredentials credentials, final Map<String, Object> result) {
+        final String username = credentials.getUsername();
+        final String returnedPassword = (String) result.get(Pac4jConstants.PASSWORD);
+        if (!matchesPassword(username, credentials.getPassword(), returnedPassword)) {
+            throw new BadCredentialsException("Bad credentials for: " + username);
+        } else {
+            final DbProfile profile = createProfile(username, attributeNames, result);
+            credentials.setUserProfile(profile);
+        }
+    }
+
+    private String buildQuery(final String end) {
+        if (this.attributeNames.length > 0) {
+            return startQuery + ", " + String.join(", ", Arrays.asList(this.attributeNames)) + end;
+        } else {
+            return startQuery + end;
+        }
+    }
+
+    private void recordQuery(final long start) {
+        nbQueries.incrementAndGet();
+        queryTime.addAndGet(System.nanoTime() - start);
+    }
+
     protected DbProfile createProfile(final String username, final String[] attributes, final Map<String, Object> result) {
         final DbProfile profile = new DbProfile();
         profile.setId(username);
@@ -150,4 +297,38 @@ public class DbAuthenticator extends AbstractUsernamePasswordAuthenticator {
     public void setEndQuery(String endQuery) {
         this.endQuery = endQuery;
     }
+
+    public String getEndBatchQuery() {
+        return endBatchQuery;
+    }
+
+    public void setEndBatchQuery(final String endBatchQuery) {
+        this.endBatchQuery = endBatchQuery;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Return the number of queries (round trips) sent to the database.
+     *
+     * @return the number of queries
+     */
+    public long getNbQueries() {
+        return nbQueries.get();
+    }
+
+    /**
+     * Return the total time spent in the database queries (in milli-seconds).
+     *
+     * @return the total query time
+     */
+    public long getQueryTime() {
+        return queryTime.get() / 1000000L;
+    }
 }
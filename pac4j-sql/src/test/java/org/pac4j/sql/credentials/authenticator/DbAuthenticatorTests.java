@@ -12,6 +12,9 @@ import org.pac4j.sql.test.tools.DbServer;
 
 import javax.sql.DataSource;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 /**
@@ -96,4 +99,67 @@ public final class DbAuthenticatorTests implements TestsConstants {
     public void testBadPassword() throws HttpAction {
         login(GOOD_USERNAME, PASSWORD + "bad", "");
     }
+
+    @Test
+    public void testValidateAll() {
+        final DbAuthenticator authenticator = new DbAuthenticator(ds, FIRSTNAME);
+        authenticator.setPasswordEncoder(new BasicSaltedSha512PasswordEncoder(SALT));
+        authenticator.setBatchSize(2);
+        authenticator.init(null);
+
+        final UsernamePasswordCredentials good = new UsernamePasswordCredentials(GOOD_USERNAME, PASSWORD, CLIENT_NAME);
+        final UsernamePasswordCredentials badPassword = new UsernamePasswordCredentials(GOOD_USERNAME, PASSWORD + "bad", CLIENT_NAME);
+        final UsernamePasswordCredentials multiple = new UsernamePasswordCredentials(MULTIPLE_USERNAME, PASSWORD, CLIENT_NAME);
+        final UsernamePasswordCredentials bad = new UsernamePasswordCredentials(BAD_USERNAME, PASSWORD, CLIENT_NAME);
+        final List<UsernamePasswordCredentials> authenticated = authenticator.validateAll(Arrays.asList(good, badPassword, multiple, bad), null);
+
+        assertEquals(1, authenticated.size());
+        assertSame(good, authenticated.get(0));
+        assertEquals(FIRSTNAME_VALUE, good.getUserProfile().getAttribute(FIRSTNAME));
+        assertNull(badPassword.getUserProfile());
+        assertNull(multiple.getUserProfile());
+        assertNull(bad.getUserProfile());
+        assertEquals(2, authenticator.getNbQueries());
+    }
+
+    @Test
+    public void testValidateAllExactUsernames() {
+        final DbAuthenticator authenticator = new DbAuthenticator(ds, FIRSTNAME);
+        authenticator.setPasswordEncoder(new BasicSaltedSha512PasswordEncoder(SALT));
+        authenticator.init(null);
+
+        final UsernamePasswordCredentials good = new UsernamePasswordCredentials(GOOD_USERNAME, PASSWORD, CLIENT_NAME);
+        final UsernamePasswordCredentials upperCase = new UsernamePasswordCredentials(GOOD_USERNAME.toUpperCase(), PASSWORD, CLIENT_NAME);
+        final UsernamePasswordCredentials spaces = new UsernamePasswordCredentials(" " + GOOD_USERNAME + " ", PASSWORD, CLIENT_NAME);
+        final UsernamePasswordCredentials blankPassword = new UsernamePasswordCredentials(GOOD_USERNAME, "", CLIENT_NAME);
+        final UsernamePasswordCredentials blankUsername = new UsernamePasswordCredentials(" ", PASSWORD, CLIENT_NAME);
+        final List<UsernamePasswordCredentials> authenticated =
+                authenticator.validateAll(Arrays.asList(good, upperCase, spaces, blankPassword, blankUsername), null);
+
+        assertEquals(1, authenticated.size());
+        assertSame(good, authenticated.get(0));
+        assertEquals(GOOD_USERNAME, good.getUserProfile().getId());
+        assertNull(upperCase.getUserProfile());
+        assertNull(spaces.getUserProfile());
+        assertNull(blankPassword.getUserProfile());
+        assertNull(blankUsername.getUserProfile());
+        assertEquals(1, authenticator.getNbQueries());
+    }
+
+    @Test
+    public void testValidateAllRejectsNormalizedUsernames() {
+        final DbAuthenticator authenticator = new DbAuthenticator(ds, FIRSTNAME);
+        authenticator.setPasswordEncoder(new BasicSaltedSha512PasswordEncoder(SALT));
+        authenticator.setStartQuery("select upper(username) as username, password");
+        authenticator.init(null);
+
+        final UsernamePasswordCredentials good = new UsernamePasswordCredentials(GOOD_USERNAME, PASSWORD, CLIENT_NAME);
+        assertTrue(authenticator.validateAll(Arrays.asList(good), null).isEmpty());
+        assertNull(good.getUserProfile());
+    }
+
+    @Test(expected = CredentialsException.class)
+    public void testBlankPassword() throws HttpAction {
+        login(GOOD_USERNAME, "", "");
+    }
 }